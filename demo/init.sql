@@ -33,6 +33,7 @@ CREATE TABLE IF NOT EXISTS users (
     department VARCHAR(100) COMMENT '院系/部门',
     employee_id VARCHAR(50) COMMENT '员工ID',
     title VARCHAR(100) COMMENT '职称',
+    token_version INT NOT NULL DEFAULT 0 COMMENT '令牌版本（修改或重置密码时递增，旧刷新令牌失效）',
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     INDEX idx_username (username),
@@ -71,6 +72,7 @@ CREATE TABLE IF NOT EXISTS competitions (
     competition_number VARCHAR(50) UNIQUE COMMENT '竞赛编号',
     view_count INT DEFAULT 0 COMMENT '浏览次数',
     registration_count INT DEFAULT 0 COMMENT '报名人数',
+    question_set_version INT DEFAULT 0 COMMENT '题目集版本号（竞赛题目变化时递增）',
     creator_id BIGINT NOT NULL COMMENT '创建者ID',
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -82,6 +84,11 @@ CREATE TABLE IF NOT EXISTS competitions (
     INDEX idx_competition_number (competition_number),
     INDEX idx_registration_time (registration_start_time, registration_end_time),
     INDEX idx_competition_time (competition_start_time, competition_end_time),
+    -- 状态自动流转按 (状态, 时间节点) 查询即将到期的竞赛
+    INDEX idx_status_registration_start (status, registration_start_time),
+    INDEX idx_status_registration_end (status, registration_end_time),
+    INDEX idx_status_competition_start (status, competition_start_time),
+    INDEX idx_status_competition_end (status, competition_end_time),
     FOREIGN KEY (creator_id) REFERENCES users(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='竞赛表';
 
@@ -254,6 +261,7 @@ CREATE TABLE IF NOT EXISTS exam_papers (
     subjective_score DECIMAL(10, 2) DEFAULT 0.00 COMMENT '主观题得分',
     correct_count INT DEFAULT 0 COMMENT '正确题数',
     total_question_count INT DEFAULT 0 COMMENT '总题数',
+    question_set_version INT COMMENT '生成考卷时的题目集版本号',
     graded_by BIGINT COMMENT '评卷人ID',
     graded_at DATETIME COMMENT '评卷时间',
     ip_address VARCHAR(50) COMMENT 'IP地址',
@@ -263,6 +271,7 @@ CREATE TABLE IF NOT EXISTS exam_papers (
     INDEX idx_competition_id (competition_id),
     INDEX idx_participant (participant_type, participant_id),
     INDEX idx_status (paper_status),
+    INDEX idx_competition_status (competition_id, paper_status),
     UNIQUE KEY unique_competition_participant (competition_id, participant_type, participant_id),
     FOREIGN KEY (competition_id) REFERENCES competitions(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='考卷表';
@@ -354,6 +363,16 @@ CREATE TABLE IF NOT EXISTS systeminform (
     INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='系统通知表';
 
+-- ============================================
+-- 13. 令牌作废表 (revoked_tokens)
+-- 存储已作废的令牌ID直到令牌过期，服务重启后恢复
+-- ============================================
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    token_id VARCHAR(64) PRIMARY KEY COMMENT '令牌ID（jti）',
+    expires_at BIGINT NOT NULL COMMENT '令牌过期时间（毫秒时间戳）',
+    INDEX idx_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='令牌作废表';
+
 -- ============================================
 -- 初始化数据
 -- ============================================
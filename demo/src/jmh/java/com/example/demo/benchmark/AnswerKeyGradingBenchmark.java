@@ -0,0 +1,170 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.ExamAnswer;
+import com.example.demo.entity.Question;
+import com.example.demo.service.AnswerKey;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客观题评分基准测试：10000 份考卷，每份 50 题（单选、多选、判断混合，或全部为多选题）
+ * 对比预编译答案索引与原先逐题拆分字符串、构造 HashSet 的评分方式（均不含数据库访问）。
+ * 全部为多选题时衡量的是多选题选项集合比较本身的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnswerKeyGradingBenchmark {
+
+    @Param({"10000"})
+    private int paperCount;
+
+    @Param({"50"})
+    private int questionCount;
+
+    @Param({"MIXED", "MULTIPLE_CHOICE"})
+    private String questionMix;
+
+    private AnswerKey answerKey;
+    private Map<Long, Question> questionMap;
+    private List<List<ExamAnswer>> papers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Question> questions = new ArrayList<>();
+        for (long id = 1; id <= questionCount; id++) {
+            Question question = new Question();
+            question.setId(id);
+            switch ("MULTIPLE_CHOICE".equals(questionMix) ? 1 : (int) (id % 3)) {
+                case 0:
+                    question.setType(Question.QuestionType.SINGLE_CHOICE);
+                    question.setCorrectAnswer(randomOption(random));
+                    break;
+                case 1:
+                    question.setType(Question.QuestionType.MULTIPLE_CHOICE);
+                    question.setCorrectAnswer(randomOptions(random));
+                    break;
+                default:
+                    question.setType(Question.QuestionType.TRUE_FALSE);
+                    question.setCorrectAnswer(random.nextBoolean() ? "TRUE" : "FALSE");
+                    break;
+            }
+            questions.add(question);
+        }
+        answerKey = AnswerKey.compile(1L, questions);
+
+        questionMap = new HashMap<>();
+        for (Question question : questions) {
+            questionMap.put(question.getId(), question);
+        }
+
+        papers = new ArrayList<>(paperCount);
+        long answerId = 1;
+        for (long paperId = 1; paperId <= paperCount; paperId++) {
+            List<ExamAnswer> answers = new ArrayList<>(questionCount);
+            for (Question question : questions) {
+                ExamAnswer answer = new ExamAnswer(paperId, question.getId());
+                answer.setId(answerId++);
+                answer.setMaxScore(BigDecimal.valueOf(2));
+                answer.setAnswerContent(randomAnswer(random, question));
+                answers.add(answer);
+            }
+            papers.add(answers);
+        }
+    }
+
+    @Benchmark
+    public void precompiledAnswerKey(Blackhole blackhole) {
+        for (List<ExamAnswer> answers : papers) {
+            blackhole.consume(answerKey.gradePaper(answers));
+        }
+    }
+
+    @Benchmark
+    public void legacyStringSetGrading(Blackhole blackhole) {
+        for (List<ExamAnswer> answers : papers) {
+            BigDecimal objectiveScore = BigDecimal.ZERO;
+            int correctCount = 0;
+            for (ExamAnswer answer : answers) {
+                Question question = questionMap.get(answer.getQuestionId());
+                BigDecimal score = legacyScore(question, answer);
+                if (score.compareTo(answer.getMaxScore()) == 0) {
+                    correctCount++;
+                }
+                objectiveScore = objectiveScore.add(score);
+            }
+            blackhole.consume(objectiveScore);
+            blackhole.consume(correctCount);
+        }
+    }
+
+    /**
+     * 原 ExamGradingService.autoGrade 中的逐题评分逻辑
+     */
+    private BigDecimal legacyScore(Question question, ExamAnswer answer) {
+        if (question.getType() != Question.QuestionType.MULTIPLE_CHOICE) {
+            boolean correct = question.getCorrectAnswer().trim().equalsIgnoreCase(answer.getAnswerContent().trim());
+            return correct ? answer.getMaxScore() : BigDecimal.ZERO;
+        }
+
+        String[] correctAnswers = question.getCorrectAnswer().split(",");
+        Set<String> correctSet = new HashSet<>();
+        for (String ca : correctAnswers) {
+            correctSet.add(ca.trim().toUpperCase());
+        }
+        Set<String> studentSet = new HashSet<>();
+        for (String sa : answer.getAnswerContent().split(",")) {
+            studentSet.add(sa.trim().toUpperCase());
+        }
+        if (correctSet.equals(studentSet)) {
+            return answer.getMaxScore();
+        }
+
+        int correctInStudent = 0;
+        for (String sa : studentSet) {
+            if (!correctSet.contains(sa)) {
+                return BigDecimal.ZERO;
+            }
+            correctInStudent++;
+        }
+        double ratio = (double) correctInStudent / correctAnswers.length;
+        return answer.getMaxScore().multiply(BigDecimal.valueOf(ratio)).multiply(BigDecimal.valueOf(0.5));
+    }
+
+    private static String randomOption(Random random) {
+        return String.valueOf((char) ('A' + random.nextInt(4)));
+    }
+
+    private static String randomOptions(Random random) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < 4; i++) {
+            if (random.nextBoolean()) {
+                joiner.add(String.valueOf((char) ('A' + i)));
+            }
+        }
+        return joiner.length() == 0 ? "A" : joiner.toString();
+    }
+
+    private static String randomAnswer(Random random, Question question) {
+        // 约 70% 的作答与标准答案一致
+        if (random.nextInt(10) < 7) {
+            return question.getCorrectAnswer();
+        }
+        switch (question.getType()) {
+            case MULTIPLE_CHOICE:
+                return randomOptions(random);
+            case TRUE_FALSE:
+                return random.nextBoolean() ? "TRUE" : "FALSE";
+            default:
+                return randomOption(random);
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entity.*;
+import com.example.demo.repository.*;
+import com.example.demo.service.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 考试全流程负载测试
+ * 启动完整应用（不经过 HTTP，直接调用服务层），在本机数据库中生成 N 个竞赛、每个竞赛 M 个参赛者和 Q 道客观题，
+ * 依次执行 下发考卷 → 开始答题 → 自动保存 → 交卷 → 批量评分 → 发布成绩 → 查询排名 → 重算排名，
+ * 每一步按配置的并发数执行，输出 p50/p95/p99 延迟和吞吐量，用于在每学期竞赛前发现性能退化。
+ * 交卷时已完成客观题评分，批量评分步骤主要衡量扫描剩余已提交考卷的开销。
+ *
+ * 运行: mvn -Pbenchmark compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.ExamLifecycleLoadTest
+ *       -Djmh.args="--competitions=2 --participants=500 --questions=30 --concurrency=32"
+ *
+ * 参数（括号内为默认值）: competitions(2), participants(200), questions(30), concurrency(16),
+ * saves-per-question(1), pool-size(20), db-url(本机 MySQL 的 competition_loadtest 库), db-user(root), db-password,
+ * schema(init.sql)
+ * 每次运行都会重建数据库并执行 init.sql，表结构、索引和唯一约束与生产库一致，数据库名必须包含 loadtest，避免误连业务库。
+ */
+public class ExamLifecycleLoadTest {
+
+    private static final String DEFAULT_DB_URL = "jdbc:mysql://localhost:3306/competition_loadtest?" +
+            "createDatabaseIfNotExist=true&useUnicode=true&characterEncoding=utf8&useSSL=false" +
+            "&serverTimezone=Asia/Shanghai&rewriteBatchedStatements=true";
+
+    // 测试数据不用于登录，直接使用固定的密码摘要，避免逐个 BCrypt 加密
+    private static final String SEED_PASSWORD = "$2a$10$loadtestloadtestloadtestloadtestloadtestloadtestloadt";
+
+    private static final String PUBLISHER = "admin";
+
+    private final ConfigurableApplicationContext context;
+    private final int competitionCount;
+    private final int participantCount;
+    private final int questionCount;
+    private final int concurrency;
+    private final int savesPerQuestion;
+
+    private final List<StepStats> steps = new ArrayList<>();
+    private final List<CompetitionData> competitions = new ArrayList<>();
+    private final Random random = new Random(42);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String dbUrl = options.getOrDefault("db-url", DEFAULT_DB_URL);
+        if (!dbUrl.contains("loadtest")) {
+            throw new IllegalArgumentException("负载测试会重建数据库，db-url 的数据库名必须包含 loadtest: " + dbUrl);
+        }
+        String dbUser = options.getOrDefault("db-user", "root");
+        String dbPassword = options.getOrDefault("db-password", "1234567890");
+        resetSchema(dbUrl, dbUser, dbPassword, Paths.get(options.getOrDefault("schema", "init.sql")));
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", dbUrl);
+        properties.put("spring.datasource.username", dbUser);
+        properties.put("spring.datasource.password", dbPassword);
+        properties.put("spring.datasource.hikari.maximum-pool-size", options.getOrDefault("pool-size", "20"));
+        // 与生产配置一致：表结构来自 init.sql，Hibernate 只补充实体中新增的列
+        properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        properties.put("server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        // 关闭定时预热和自动交卷，各步骤只由负载测试驱动
+        properties.put("exam.prewarm.enabled", "false");
+        properties.put("exam.auto-submit.enabled", "false");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties(properties)
+                .run();
+        try {
+            new ExamLifecycleLoadTest(context, options).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * 删除并重建负载测试库，再执行 init.sql 中的建表、视图、存储过程和触发器语句
+     * 跳过建库、切换库和初始化数据语句，DELIMITER 块按声明的分隔符拆分
+     */
+    static void resetSchema(String dbUrl, String user, String password, Path schemaFile)
+            throws IOException, SQLException {
+        List<String> statements = parseSchema(Files.readAllLines(schemaFile, StandardCharsets.UTF_8));
+        try (Connection connection = DriverManager.getConnection(dbUrl, user, password);
+             Statement statement = connection.createStatement()) {
+            String database = connection.getCatalog();
+            if (database == null || !database.contains("loadtest")) {
+                throw new IllegalArgumentException("负载测试会重建数据库，当前连接的数据库名必须包含 loadtest: " + database);
+            }
+            statement.execute("DROP DATABASE IF EXISTS `" + database + "`");
+            statement.execute("CREATE DATABASE `" + database +
+                    "` DEFAULT CHARACTER SET utf8mb4 DEFAULT COLLATE utf8mb4_unicode_ci");
+            statement.execute("USE `" + database + "`");
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+        System.out.printf("已按 %s 重建数据库结构: %d 条语句%n", schemaFile, statements.size());
+    }
+
+    static List<String> parseSchema(List<String> lines) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String delimiter = ";";
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (current.length() == 0 && (trimmed.isEmpty() || trimmed.startsWith("--"))) {
+                continue;
+            }
+            if (trimmed.toUpperCase(Locale.ROOT).startsWith("DELIMITER ")) {
+                delimiter = trimmed.substring("DELIMITER ".length()).trim();
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(delimiter)) {
+                String sql = current.toString().trim();
+                sql = sql.substring(0, sql.length() - delimiter.length()).trim();
+                current.setLength(0);
+                if (isSchemaStatement(sql)) {
+                    statements.add(sql);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private static boolean isSchemaStatement(String sql) {
+        String upper = sql.toUpperCase(Locale.ROOT);
+        return upper.startsWith("CREATE") && !upper.startsWith("CREATE DATABASE") && !upper.startsWith("CREATE USER");
+    }
+
+    ExamLifecycleLoadTest(ConfigurableApplicationContext context, Map<String, String> options) {
+        this.context = context;
+        this.competitionCount = intOption(options, "competitions", 2);
+        this.participantCount = intOption(options, "participants", 200);
+        this.questionCount = intOption(options, "questions", 30);
+        this.concurrency = intOption(options, "concurrency", 16);
+        this.savesPerQuestion = intOption(options, "saves-per-question", 1);
+    }
+
+    void run() throws InterruptedException {
+        long seedStart = System.currentTimeMillis();
+        seed();
+        System.out.printf("测试数据生成完成: 竞赛%d个, 每个竞赛参赛者%d人、题目%d道, 耗时%dms%n",
+                competitionCount, participantCount, questionCount, System.currentTimeMillis() - seedStart);
+
+        ExamDistributionService distributionService = context.getBean(ExamDistributionService.class);
+        StudentExamService studentExamService = context.getBean(StudentExamService.class);
+        BatchGradingService batchGradingService = context.getBean(BatchGradingService.class);
+        ScorePublishService scorePublishService = context.getBean(ScorePublishService.class);
+        GradeService gradeService = context.getBean(GradeService.class);
+        RankingRecalculationService rankingRecalculationService = context.getBean(RankingRecalculationService.class);
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            runStep(executor, "下发考卷", forEachCompetition(competition ->
+                    distributionService.distributeExamPapersInBulk(competition.competitionId)));
+
+            runStep(executor, "开始答题", forEachParticipant((competition, participant) -> {
+                Map<String, Object> result = studentExamService.startExam(competition.competitionId, participant.userId);
+                participant.paperId = ((Number) result.get("examPaperId")).longValue();
+            }));
+
+            List<Runnable> saves = new ArrayList<>();
+            for (int round = 0; round < savesPerQuestion; round++) {
+                for (CompetitionData competition : competitions) {
+                    for (Participant participant : competition.participants) {
+                        for (Question question : competition.questions) {
+                            String answer = randomAnswer(question);
+                            saves.add(() -> studentExamService.saveAnswer(
+                                    participant.paperId, question.getId(), answer, participant.userId));
+                        }
+                    }
+                }
+            }
+            Collections.shuffle(saves, random);
+            runStep(executor, "自动保存", saves);
+
+            runStep(executor, "交卷", forEachParticipant((competition, participant) ->
+                    studentExamService.submitExam(participant.paperId, participant.userId)));
+
+            runStep(executor, "批量评分", forEachCompetition(competition ->
+                    batchGradingService.autoGradeCompetition(competition.competitionId)));
+
+            runStep(executor, "发布成绩", forEachCompetition(competition ->
+                    scorePublishService.publishScores(competition.competitionId, PUBLISHER)));
+
+            runStep(executor, "查询排名", forEachParticipant((competition, participant) ->
+                    gradeService.getTeamRankInCompetition(participant.teamId, competition.competitionId)));
+
+            runStep(executor, "重算排名", List.of(rankingRecalculationService::recalculateAllRankings));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        printReport();
+    }
+
+    /**
+     * 生成测试数据：个人赛（每队1人），报名均已通过，竞赛进行中
+     */
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        CompetitionRepository competitionRepository = context.getBean(CompetitionRepository.class);
+        QuestionRepository questionRepository = context.getBean(QuestionRepository.class);
+        CompetitionQuestionRepository competitionQuestionRepository = context.getBean(CompetitionQuestionRepository.class);
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        TeamMemberRepository teamMemberRepository = context.getBean(TeamMemberRepository.class);
+        RegistrationRepository registrationRepository = context.getBean(RegistrationRepository.class);
+
+        User creator = userRepository.save(newUser("loadtest_teacher", User.UserRole.TEACHER));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int c = 1; c <= competitionCount; c++) {
+            Competition competition = new Competition("负载测试竞赛" + c, "负载测试", "OTHER",
+                    Competition.CompetitionLevel.SCHOOL, creator);
+            competition.setStatus(Competition.CompetitionStatus.ONGOING);
+            competition.setRegistrationStartTime(now.minusDays(7));
+            competition.setRegistrationEndTime(now.minusDays(1));
+            competition.setCompetitionStartTime(now.minusMinutes(1));
+            competition.setCompetitionEndTime(now.plusHours(6));
+            competition.setMaxTeamSize(1);
+            competition = competitionRepository.save(competition);
+            CompetitionData data = new CompetitionData(competition.getId());
+
+            List<Question> questions = new ArrayList<>();
+            for (int q = 1; q <= questionCount; q++) {
+                questions.add(newQuestion(c, q, creator.getId()));
+            }
+            data.questions.addAll(questionRepository.saveAll(questions));
+            List<CompetitionQuestion> competitionQuestions = new ArrayList<>();
+            for (int q = 0; q < data.questions.size(); q++) {
+                Question question = data.questions.get(q);
+                competitionQuestions.add(new CompetitionQuestion(competition.getId(), question.getId(), q + 1,
+                        BigDecimal.valueOf(question.getScore())));
+            }
+            competitionQuestionRepository.saveAll(competitionQuestions);
+
+            List<User> users = new ArrayList<>();
+            for (int p = 1; p <= participantCount; p++) {
+                users.add(newUser("loadtest_c" + c + "_u" + p, User.UserRole.STUDENT));
+            }
+            users = userRepository.saveAll(users);
+
+            List<Team> teams = new ArrayList<>();
+            for (User user : users) {
+                Team team = new Team(user.getUsername(), competition, user);
+                team.setMaxMembers(1);
+                teams.add(team);
+            }
+            teams = teamRepository.saveAll(teams);
+
+            List<TeamMember> members = new ArrayList<>();
+            List<Registration> registrations = new ArrayList<>();
+            for (int i = 0; i < teams.size(); i++) {
+                Team team = teams.get(i);
+                User user = users.get(i);
+                members.add(new TeamMember(team, user, TeamMember.MemberRole.LEADER));
+                Registration registration = new Registration(competition, team, user);
+                registration.setStatus(Registration.RegistrationStatus.APPROVED);
+                registration.setPaymentStatus(Registration.PaymentStatus.NOT_REQUIRED);
+                registrations.add(registration);
+                data.participants.add(new Participant(user.getId(), team.getId()));
+            }
+            teamMemberRepository.saveAll(members);
+            registrationRepository.saveAll(registrations);
+
+            competitions.add(data);
+        }
+    }
+
+    private User newUser(String username, User.UserRole role) {
+        User user = new User(username, SEED_PASSWORD, username + "@loadtest.local", username, role);
+        user.setStatus(User.UserStatus.APPROVED);
+        return user;
+    }
+
+    private Question newQuestion(int competitionIndex, int index, Long createdBy) {
+        Question question = new Question();
+        question.setTitle("负载测试题目" + competitionIndex + "-" + index);
+        question.setContent("负载测试题目内容" + index);
+        question.setDifficulty(Question.QuestionDifficulty.MEDIUM);
+        question.setCategory(Question.QuestionCategory.OTHER);
+        question.setStatus(Question.QuestionStatus.PUBLISHED);
+        question.setCreatedBy(createdBy);
+        question.setScore(2);
+        switch (index % 3) {
+            case 0:
+                question.setType(Question.QuestionType.SINGLE_CHOICE);
+                question.setOptions("[\"A\",\"B\",\"C\",\"D\"]");
+                question.setCorrectAnswer(String.valueOf((char) ('A' + random.nextInt(4))));
+                break;
+            case 1:
+                question.setType(Question.QuestionType.MULTIPLE_CHOICE);
+                question.setOptions("[\"A\",\"B\",\"C\",\"D\"]");
+                question.setCorrectAnswer(randomOptions());
+                break;
+            default:
+                question.setType(Question.QuestionType.TRUE_FALSE);
+                question.setCorrectAnswer(random.nextBoolean() ? "TRUE" : "FALSE");
+                break;
+        }
+        return question;
+    }
+
+    private String randomAnswer(Question question) {
+        // 约 70% 的作答与标准答案一致
+        if (random.nextInt(10) < 7) {
+            return question.getCorrectAnswer();
+        }
+        switch (question.getType()) {
+            case MULTIPLE_CHOICE:
+                return randomOptions();
+            case TRUE_FALSE:
+                return random.nextBoolean() ? "TRUE" : "FALSE";
+            default:
+                return String.valueOf((char) ('A' + random.nextInt(4)));
+        }
+    }
+
+    private String randomOptions() {
+        StringJoiner joiner = new StringJoiner(",");
+        for (int i = 0; i < 4; i++) {
+            if (random.nextBoolean()) {
+                joiner.add(String.valueOf((char) ('A' + i)));
+            }
+        }
+        return joiner.length() == 0 ? "A" : joiner.toString();
+    }
+
+    private List<Runnable> forEachCompetition(Consumer<CompetitionData> action) {
+        List<Runnable> tasks = new ArrayList<>();
+        for (CompetitionData competition : competitions) {
+            tasks.add(() -> action.accept(competition));
+        }
+        return tasks;
+    }
+
+    private List<Runnable> forEachParticipant(BiConsumer<CompetitionData, Participant> action) {
+        List<Runnable> tasks = new ArrayList<>();
+        for (CompetitionData competition : competitions) {
+            for (Participant participant : competition.participants) {
+                tasks.add(() -> action.accept(competition, participant));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 以配置的并发数执行一个步骤的全部操作，记录每次操作的耗时
+     */
+    private void runStep(ExecutorService executor, String name, List<Runnable> operations) throws InterruptedException {
+        StepStats stats = new StepStats(name, operations.size());
+        steps.add(stats);
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        long start = System.nanoTime();
+        List<Callable<Void>> tasks = new ArrayList<>(operations.size());
+        for (Runnable operation : operations) {
+            tasks.add(() -> {
+                long begin = System.nanoTime();
+                try {
+                    operation.run();
+                    stats.record(System.nanoTime() - begin);
+                } catch (Throwable e) {
+                    stats.errors.incrementAndGet();
+                    firstError.compareAndSet(null, e);
+                }
+                return null;
+            });
+        }
+        executor.invokeAll(tasks);
+        stats.wallNanos = System.nanoTime() - start;
+
+        System.out.printf("%s完成: %d次, 失败%d次, 耗时%dms%n",
+                name, operations.size(), stats.errors.get(), stats.wallNanos / 1_000_000);
+        if (firstError.get() != null) {
+            System.out.printf("  首个错误: %s%n", firstError.get());
+        }
+    }
+
+    private void printReport() {
+        System.out.println();
+        System.out.printf("%-8s %8s %6s %10s %10s %10s %10s %12s%n",
+                "步骤", "次数", "失败", "p50(ms)", "p95(ms)", "p99(ms)", "max(ms)", "吞吐(次/秒)");
+        for (StepStats stats : steps) {
+            long[] latencies = stats.sortedLatencies();
+            double throughput = stats.wallNanos > 0 ? latencies.length * 1e9 / stats.wallNanos : 0;
+            System.out.printf("%-8s %8d %6d %10.2f %10.2f %10.2f %10.2f %12.1f%n",
+                    stats.name, stats.total, stats.errors.get(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.95), percentile(latencies, 0.99),
+                    latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0, throughput);
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        String value = options.get(key);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static final class CompetitionData {
+        private final Long competitionId;
+        private final List<Question> questions = new ArrayList<>();
+        private final List<Participant> participants = new ArrayList<>();
+
+        CompetitionData(Long competitionId) {
+            this.competitionId = competitionId;
+        }
+    }
+
+    private static final class Participant {
+        private final Long userId;
+        private final Long teamId;
+        private volatile Long paperId;
+
+        Participant(Long userId, Long teamId) {
+            this.userId = userId;
+            this.teamId = teamId;
+        }
+    }
+
+    private static final class StepStats {
+        private final String name;
+        private final int total;
+        private final AtomicInteger errors = new AtomicInteger();
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private long wallNanos;
+
+        StepStats(String name, int total) {
+            this.name = name;
+            this.total = total;
+        }
+
+        void record(long nanos) {
+            latencies.add(nanos);
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
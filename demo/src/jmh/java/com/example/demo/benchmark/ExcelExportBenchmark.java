@@ -0,0 +1,57 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.entity.User;
+import com.example.demo.service.ExcelExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Excel 导出基准测试：ExcelExportService 写入用户行并生成 xlsx（不含数据库查询）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ExcelExportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int userCount;
+
+    private ExcelExportService excelExportService;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        excelExportService = new ExcelExportService();
+        users = new ArrayList<>(userCount);
+        LocalDateTime now = LocalDateTime.now();
+        for (long i = 1; i <= userCount; i++) {
+            User user = new User("student" + i, "password", "student" + i + "@example.com", "学生" + i, User.UserRole.STUDENT);
+            user.setId(i);
+            user.setStatus(User.UserStatus.APPROVED);
+            user.setPhoneNumber("138" + String.format("%08d", i));
+            user.setSchoolName("示例大学");
+            user.setStudentId("2025" + String.format("%06d", i));
+            user.setDepartment("计算机学院");
+            user.setCreatedAt(now);
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public byte[] exportUsers() throws IOException {
+        return excelExportService.exportUsersToExcel(users);
+    }
+
+    @Benchmark
+    public byte[] exportStudents() throws IOException {
+        return excelExportService.exportStudentsToExcel(users);
+    }
+}
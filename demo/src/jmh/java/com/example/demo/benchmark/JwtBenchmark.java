@@ -0,0 +1,76 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.util.JwtPrincipal;
+import com.example.demo.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 基准测试：签发令牌，以及 JwtAuthenticationFilter 每个请求执行的解析与校验
+ * verifyCached 为命中已验签缓存的情况，verifyUncached 为关闭缓存、每次验签的情况
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtUtil = newJwtUtil(10000);
+        uncachedJwtUtil = newJwtUtil(0);
+        token = jwtUtil.generateToken("student001", 1001L, "STUDENT");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("student001", 1001L, "STUDENT");
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return jwtUtil.verifyToken(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyUncached() {
+        return uncachedJwtUtil.verifyToken(token);
+    }
+
+    /**
+     * 取用户名后按用户名校验令牌（第一次取用户名时完整解析）
+     */
+    @Benchmark
+    public void parseAndValidate(Blackhole blackhole) {
+        String username = jwtUtil.getUsernameFromToken(token);
+        blackhole.consume(jwtUtil.validateToken(token, username));
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    private static JwtUtil newJwtUtil(int verifiedCacheMaxSize) throws Exception {
+        JwtUtil util = new JwtUtil();
+        setField(util, "secret", "mySecretKey123456789012345678901234567890CompetitionSystemJWT2024");
+        setField(util, "expiration", 86400000L);
+        setField(util, "verifiedCacheMaxSize", verifiedCacheMaxSize);
+        return util;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.LogService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志解析基准测试：逐行调用 LogService.parseLogLine 解析 10000 行应用日志
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogParseBenchmark {
+
+    private static final String[] LEVELS = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+
+    @Param({"10000"})
+    private int lineCount;
+
+    private LogService logService;
+    private MethodHandle parseLogLine;
+    private List<String> lines;
+
+    @Setup
+    public void setUp() throws Exception {
+        logService = new LogService();
+        // parseLogLine 为私有方法，通过 MethodHandle 调用，不修改业务代码的可见性
+        Method method = LogService.class.getDeclaredMethod("parseLogLine", String.class);
+        method.setAccessible(true);
+        parseLogLine = MethodHandles.lookup().unreflect(method);
+
+        Random random = new Random(42);
+        lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String level = LEVELS[random.nextInt(LEVELS.length)];
+            lines.add(String.format("2025-03-%02d 10:%02d:%02d.%03d [exam-worker-%d] [%s] c.e.d.s.StudentExamService - 保存答案: paperId=%d, questionId=%d",
+                    1 + random.nextInt(28), random.nextInt(60), random.nextInt(60), random.nextInt(1000),
+                    random.nextInt(8), level, random.nextInt(100000), random.nextInt(500)));
+        }
+    }
+
+    @Benchmark
+    public void parseLines(Blackhole blackhole) throws Throwable {
+        for (String line : lines) {
+            blackhole.consume(parseLogLine.invoke(logService, line));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.service.Leaderboard;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 竞赛排名基准测试（并列分数同名次，后续名次跳跃）
+ * 对比原 GradeService.computeAndPersistRanking 的整体排序后逐个计算名次，
+ * 与内存排行榜在单个成绩变化后的更新、查询名次和计算名次变化（均不含数据库访问）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankingBenchmark {
+
+    @Param({"1000", "10000"})
+    private int gradeCount;
+
+    private List<Leaderboard.Entry> entries;
+    private Leaderboard leaderboard;
+    private Random random;
+
+    @Setup
+    public void setUp() {
+        random = new Random(42);
+        entries = new ArrayList<>(gradeCount);
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= gradeCount; id++) {
+            // 0-100 分、保留一位小数，分数重复较多
+            BigDecimal score = BigDecimal.valueOf(random.nextInt(1001), 1);
+            entries.add(new Leaderboard.Entry(id, id, "团队" + id, score, true, now, null));
+        }
+
+        leaderboard = new Leaderboard(1L, "基准测试竞赛");
+        for (Leaderboard.Entry entry : entries) {
+            leaderboard.put(entry);
+        }
+        leaderboard.markPersisted(leaderboard.changedRankings());
+    }
+
+    /**
+     * 原实现：按分数降序排序后逐个计算名次
+     */
+    @Benchmark
+    public void sortAndRankAll(Blackhole blackhole) {
+        List<Leaderboard.Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> b.getScore().compareTo(a.getScore()));
+
+        Map<Long, Integer> rankings = new HashMap<>(sorted.size() * 4 / 3 + 1);
+        int position = 0;
+        int currentRank = 0;
+        BigDecimal prevScore = null;
+        for (Leaderboard.Entry entry : sorted) {
+            position++;
+            if (prevScore == null || entry.getScore().compareTo(prevScore) != 0) {
+                currentRank = position;
+                prevScore = entry.getScore();
+            }
+            rankings.put(entry.getGradeId(), currentRank);
+        }
+        blackhole.consume(rankings);
+    }
+
+    /**
+     * 内存排行榜：一个团队成绩变化后更新并查询该团队名次
+     */
+    @Benchmark
+    public void leaderboardUpdateAndRank(Blackhole blackhole) {
+        long id = 1 + random.nextInt(gradeCount);
+        BigDecimal score = BigDecimal.valueOf(random.nextInt(1001), 1);
+        leaderboard.put(new Leaderboard.Entry(id, id, "团队" + id, score, true, LocalDateTime.now(), null));
+        blackhole.consume(leaderboard.getRank(id));
+    }
+
+    /**
+     * 内存排行榜：计算需要写回的名次变化
+     */
+    @Benchmark
+    public void leaderboardChangedRankings(Blackhole blackhole) {
+        blackhole.consume(leaderboard.changedRankings());
+    }
+
+    /**
+     * 内存排行榜：分页读取前 50 名
+     */
+    @Benchmark
+    public void leaderboardTopPage(Blackhole blackhole) {
+        blackhole.consume(leaderboard.page(0, 50));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import com.example.demo.service.UserStatusCache;
+import com.example.demo.util.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * 为控制器方法注入 AuthenticatedUser 参数
+ * 用户ID和用户名取自 JwtAuthenticationFilter 写入安全上下文的信息，
+ * 角色和状态取自 UserStatusCache，不再按用户名查询整行用户记录
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Long userId = JwtAuthenticationFilter.getCurrentUserId();
+        if (userId == null) {
+            return null;
+        }
+        UserStatusCache.UserState state = userStatusCache.get(userId);
+        if (state == null) {
+            return null;
+        }
+        return new AuthenticatedUser(userId, JwtAuthenticationFilter.getCurrentUsername(),
+                state.getRole(), state.getStatus());
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.demo.config;
 
+import com.example.demo.service.TokenRevocationService;
+import com.example.demo.util.JwtPrincipal;
 import com.example.demo.util.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,38 +29,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    // 不需要认证的路径
-    private final List<String> excludedPaths = Arrays.asList(
-        "/api/users/register",
-        "/api/users/login",
-        "/api/user/login",
-        "/api/auth/login",
-        "/api/auth/register",
-        "/api/teacher/register",
-        "/api/teacher/login",
-        "/api/admin/login",
-        "/api/admin/users/export",
-        "/api/admin/debug",
-        "/api/majors",
-        "/api/categories",
-        "/api/departments",
-        "/api/competitions",
-        "/api/competitions/public",
-        "/api/competitions/search",
-        "/api/competitions/categories",
-        "/api/competitions/levels",
-        "/api/test/public",
-        "/api/systeminform",
-        "/api/files/upload",
-        "/uploads",
-        "/debug",
-        "/h2-console",
-        "/swagger-ui",
-        "/v3/api-docs",
-        "/actuator"
-    );
+    // 不需要认证的路径（与SecurityConfig共用同一份配置）
+    @Autowired
+    private PublicRouteMatcher publicRouteMatcher;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -93,31 +71,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authorizationHeader.substring(7); // 移除"Bearer "前缀
         
         try {
-            // 验证token
-            boolean isValid = jwtUtil.isTokenValid(token);
+            // 验证并一次性解析token（命中已验签缓存时不再验签）
+            JwtPrincipal principal = jwtUtil.verifyToken(token);
+            
+            // 刷新令牌只能用于换取新令牌
+            if (principal.isRefreshToken()) {
+                logger.warn("JWT认证失败 - 使用刷新令牌访问接口: path={}, username={}", requestPath, principal.getUsername());
+                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌无效");
+                return;
+            }
             
-            if (!isValid) {
-                // 检查token是否过期
-                Long remainingTime = jwtUtil.getTokenRemainingTime(token);
-                if (remainingTime <= 0) {
-                    logger.warn("JWT认证失败 - Token已过期: path={}, username={}, expiredTime={}ms", 
-                        requestPath, 
-                        safeGetUsername(token),
-                        Math.abs(remainingTime));
-                    sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌已过期，请重新登录");
-                } else {
-                    logger.warn("JWT认证失败 - Token无效: path={}, username={}", 
-                        requestPath, 
-                        safeGetUsername(token));
-                    sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌无效");
-                }
+            // 已登出或已作废的令牌
+            if (tokenRevocationService.isRevoked(principal.getTokenId())) {
+                logger.warn("JWT认证失败 - Token已作废: path={}, username={}", requestPath, principal.getUsername());
+                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌已失效，请重新登录");
                 return;
             }
             
-            // 从token中获取用户信息
-            String username = jwtUtil.getUsernameFromToken(token);
-            Long userId = jwtUtil.getUserIdFromToken(token);
-            String role = jwtUtil.getRoleFromToken(token);
+            String username = principal.getUsername();
+            Long userId = principal.getUserId();
+            String role = principal.getRole();
             
             logger.debug("JWT认证成功: path={}, username={}, userId={}, role={}", 
                 requestPath, username, userId, role);
@@ -155,6 +128,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.warn("JWT认证失败 - Token签名无效: path={}, error={}", requestPath, e.getMessage());
             sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌签名无效");
             return;
+        } catch (io.jsonwebtoken.JwtException | IllegalArgumentException e) {
+            logger.warn("JWT认证失败 - Token无效: path={}, error={}", requestPath, e.getMessage());
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌无效");
+            return;
         } catch (Exception e) {
             logger.error("JWT认证失败 - 未知错误: path={}, error={}", requestPath, e.getMessage(), e);
             sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "认证令牌解析失败");
@@ -165,18 +142,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     
     private boolean isExcludedPath(String requestPath) {
-        return excludedPaths.stream().anyMatch(requestPath::startsWith);
-    }
-    
-    /**
-     * 安全地获取token中的用户名（不抛出异常）
-     */
-    private String safeGetUsername(String token) {
-        try {
-            return jwtUtil.getUsernameFromToken(token);
-        } catch (Exception e) {
-            return "unknown";
-        }
+        return publicRouteMatcher.isPublic(requestPath);
     }
     
     private void sendErrorResponse(HttpServletResponse response, int status, String message) throws IOException {
@@ -0,0 +1,135 @@
+package com.example.demo.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 公开访问路径匹配器
+ * PUBLIC_ROUTES 是公开路径的唯一配置：SecurityConfig 据此配置 permitAll，
+ * JwtAuthenticationFilter 据此跳过令牌校验。
+ * 路径按 "/" 分段构建前缀树，每次匹配只沿请求路径的分段向下查找，与路径条数无关；
+ * 并记录每条公开路径的命中次数。
+ */
+@Component
+public class PublicRouteMatcher {
+
+    /**
+     * 公开路径：不带通配符的为精确路径，以 "/**" 结尾的匹配该路径及其所有子路径
+     */
+    public static final String[] PUBLIC_ROUTES = {
+        "/api/users/register",
+        "/api/users/login",
+        "/api/users/refresh-token",
+        "/api/users/logout",
+        "/api/user/register",
+        "/api/user/login",
+        "/api/auth/login",
+        "/api/auth/register",
+        "/api/teacher/register",
+        "/api/teacher/login",
+        "/api/teacher/logout",
+        "/api/admin/users/export",
+        "/api/admin/debug/**",
+        "/api/competitions/**",
+        "/api/test/public/**",
+        "/api/majors",
+        "/api/categories",
+        "/api/departments",
+        "/api/systeminform/**",
+        "/api/files/upload",
+        "/uploads/**",
+        "/debug/**",
+        "/h2-console/**",
+        "/swagger-ui/**",
+        "/v3/api-docs/**",
+        "/actuator/**",
+        "/error"
+    };
+
+    private static final String SUBTREE_SUFFIX = "/**";
+
+    private final Node root = new Node();
+
+    // 路径 -> 命中次数，构建后只读
+    private final Map<String, LongAdder> hitCounters = new LinkedHashMap<>();
+
+    public PublicRouteMatcher() {
+        for (String route : PUBLIC_ROUTES) {
+            boolean subtree = route.endsWith(SUBTREE_SUFFIX);
+            String path = subtree ? route.substring(0, route.length() - SUBTREE_SUFFIX.length()) : route;
+            Node node = root;
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.children.computeIfAbsent(segment, s -> new Node());
+                }
+            }
+            if (subtree) {
+                node.subtreeRoute = route;
+            } else {
+                node.exactRoute = route;
+            }
+            hitCounters.put(route, new LongAdder());
+        }
+    }
+
+    /**
+     * 判断请求路径是否为公开路径，命中时累加该路径的计数
+     */
+    public boolean isPublic(String requestPath) {
+        String route = match(requestPath);
+        if (route == null) {
+            return false;
+        }
+        hitCounters.get(route).increment();
+        return true;
+    }
+
+    /**
+     * 返回匹配到的公开路径配置；精确路径优先，其次为最长的 "/**" 路径，未匹配返回 null
+     */
+    public String match(String requestPath) {
+        if (requestPath == null || requestPath.isEmpty()) {
+            return null;
+        }
+        Node node = root;
+        String subtreeMatch = node.subtreeRoute;
+        int length = requestPath.length();
+        int start = 0;
+        while (start < length) {
+            int end = requestPath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                node = node.children.get(requestPath.substring(start, end));
+                if (node == null) {
+                    return subtreeMatch;
+                }
+                if (node.subtreeRoute != null) {
+                    subtreeMatch = node.subtreeRoute;
+                }
+            }
+            start = end + 1;
+        }
+        return node.exactRoute != null ? node.exactRoute : subtreeMatch;
+    }
+
+    /**
+     * 各公开路径的命中次数（按配置顺序）
+     */
+    public Map<String, Long> getHitCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        hitCounters.forEach((route, counter) -> counts.put(route, counter.sum()));
+        return counts;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private String exactRoute;
+        private String subtreeRoute;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -26,9 +27,13 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    // BCrypt强度，修改后已有用户在下次登录时重新加密
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
     
     @Bean
@@ -50,39 +55,8 @@ public class SecurityConfig {
             
             // 配置授权规则
             .authorizeHttpRequests(authz -> authz
-                // 公开访问的端点
-                .requestMatchers(
-                    "/api/users/register",
-                    "/api/users/login",
-                    "/api/user/register",
-                    "/api/user/login",
-                    "/api/auth/login",
-                    "/api/auth/register",
-                    "/api/teacher/register",
-                    "/api/teacher/login",
-                    "/api/admin/users/export",
-                    "/api/admin/debug/**",
-                    "/api/competitions",
-                    "/api/competitions/**",
-                    "/api/competitions/public/**",
-                    "/api/competitions/search",
-                    "/api/competitions/categories",
-                    "/api/competitions/levels",
-                    "/api/test/public/**",
-                    "/api/majors",
-                    "/api/categories",
-                    "/api/departments",
-                    "/api/systeminform",
-                    "/api/systeminform/**",
-                    "/api/files/upload",
-                    "/uploads/**",
-                    "/debug/**",
-                    "/h2-console/**",
-                    "/swagger-ui/**",
-                    "/v3/api-docs/**",
-                    "/actuator/**",
-                    "/error"
-                ).permitAll()
+                // 公开访问的端点（与JwtAuthenticationFilter共用PublicRouteMatcher的配置）
+                .requestMatchers(PublicRouteMatcher.PUBLIC_ROUTES).permitAll()
                 
                 // 管理员专用端点
                 .requestMatchers(
@@ -91,7 +65,8 @@ public class SecurityConfig {
                     "/api/competitions/admin/**",
                     "/api/teams/admin/**",
                     "/api/registrations/admin/**",
-                    "/api/grades/admin/**"
+                    "/api/grades/admin/**",
+                    "/api/exams/admin/**"
                 ).hasRole("ADMIN")
                 
                 // 教师端点
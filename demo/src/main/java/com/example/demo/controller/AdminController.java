@@ -1,8 +1,12 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.PublicRouteMatcher;
 import com.example.demo.entity.User;
+import com.example.demo.service.PasswordHashingService;
+import com.example.demo.service.TokenRevocationService;
 import com.example.demo.service.UserService;
 import com.example.demo.service.ExcelExportService;
+import com.example.demo.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -31,6 +35,18 @@ public class AdminController {
     @Autowired
     private ExcelExportService excelExportService;
 
+    @Autowired
+    private PublicRouteMatcher publicRouteMatcher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     // 获取所有用户列表
     @GetMapping("/users")
     public ResponseEntity<?> getAllUsers(
@@ -388,4 +404,19 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    // 认证统计：公开路径命中次数、已验签令牌缓存、密码哈希线程池与令牌作废
+    @GetMapping("/auth-stats")
+    public ResponseEntity<Map<String, Object>> getAuthStats() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("publicRouteHits", publicRouteMatcher.getHitCounts());
+        data.put("verifiedTokenCache", jwtUtil.getVerifiedCacheStats());
+        data.put("passwordHashing", passwordHashingService.getStats());
+        data.put("tokenRevocation", tokenRevocationService.getStats());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,14 +1,22 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.DistributionProgressDTO;
 import com.example.demo.dto.DistributionResultDTO;
 import com.example.demo.dto.GradingResultDTO;
 import com.example.demo.entity.*;
 import com.example.demo.repository.*;
+import com.example.demo.service.AnswerWriteBehindService;
+import com.example.demo.service.ExamAdmissionService;
+import com.example.demo.service.ExamDeadlineScheduler;
 import com.example.demo.service.ExamDistributionService;
 import com.example.demo.service.ExamGradingService;
+import com.example.demo.service.ExamPrewarmService;
+import com.example.demo.service.ExamSessionRegistry;
+import com.example.demo.service.StudentExamService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -53,6 +61,24 @@ public class ExamController {
     @Autowired
     private ExamGradingService examGradingService;
 
+    @Autowired
+    private StudentExamService studentExamService;
+
+    @Autowired
+    private AnswerWriteBehindService answerWriteBehindService;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private ExamDeadlineScheduler examDeadlineScheduler;
+
+    @Autowired
+    private ExamPrewarmService examPrewarmService;
+
+    @Autowired
+    private ExamAdmissionService examAdmissionService;
+
     /**
      * 触发题目下发 (管理员/教师操作)
      */
@@ -79,6 +105,103 @@ public class ExamController {
         }
     }
 
+    /**
+     * 批量下发考卷 (大规模竞赛，分批提交，可断点续传；管理员/教师操作)
+     */
+    @PostMapping("/competitions/{competitionId}/distribute-bulk")
+    public ResponseEntity<Map<String, Object>> distributeExamsInBulk(@PathVariable Long competitionId,
+                                                                     Authentication authentication) {
+        logger.info("开始批量下发考卷: competitionId={}", competitionId);
+
+        try {
+            User currentUser = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("用户不存在"));
+            if (!isTeacherOrAdmin(currentUser)) {
+                return forbidden();
+            }
+
+            DistributionResultDTO result = examDistributionService.distributeExamPapersInBulk(competitionId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "成功批量下发考卷");
+            response.put("data", result);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("批量下发考卷失败", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 查询批量下发进度（管理员/教师）
+     */
+    @GetMapping("/competitions/{competitionId}/distribute-progress")
+    public ResponseEntity<Map<String, Object>> getDistributionProgress(@PathVariable Long competitionId,
+                                                                       Authentication authentication) {
+        User currentUser = userRepository.findByUsername(authentication.getName()).orElse(null);
+        if (currentUser == null || !isTeacherOrAdmin(currentUser)) {
+            return forbidden();
+        }
+
+        DistributionProgressDTO progress = examDistributionService.getDistributionProgress(competitionId);
+
+        Map<String, Object> response = new HashMap<>();
+        if (progress == null) {
+            response.put("success", false);
+            response.put("message", "该竞赛暂无批量下发记录");
+            return ResponseEntity.ok(response);
+        }
+
+        response.put("success", true);
+        response.put("data", progress);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 查询答题会话缓存统计（命中/未命中次数）和截止自动交卷队列
+     */
+    @GetMapping("/admin/session-stats")
+    public ResponseEntity<Map<String, Object>> getSessionStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        Map<String, Object> stats = new HashMap<>(examSessionRegistry.getStats());
+        stats.put("autoSubmit", examDeadlineScheduler.getStats());
+        response.put("data", stats);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 答题接口准入统计（并发数、被限流和因过载被拒绝的请求数）
+     */
+    @GetMapping("/admin/admission-stats")
+    public ResponseEntity<Map<String, Object>> getAdmissionStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", examAdmissionService.getStats());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 查询竞赛考前预热结果（各阶段耗时）
+     */
+    @GetMapping("/admin/prewarm-metrics")
+    public ResponseEntity<Map<String, Object>> getPrewarmMetrics(@RequestParam(required = false) Long competitionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        if (competitionId != null) {
+            response.put("data", examPrewarmService.getMetrics(competitionId));
+        } else {
+            response.put("data", examPrewarmService.getAllMetrics());
+        }
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 学生获取自己的考卷
      */
@@ -205,6 +328,11 @@ public class ExamController {
             paper.setIpAddress(request.getRemoteAddr());
             paper.setUserAgent(request.getHeader("User-Agent"));
             examPaperRepository.save(paper);
+            // 会话可能按未开始状态缓存过，清除后按最新状态重新加载
+            examSessionRegistry.remove(paperId);
+            ExamSessionRegistry.ExamSession session = examSessionRegistry.getSession(paperId);
+            examDeadlineScheduler.schedule(paperId, session.getCompetitionId(),
+                    session.getStartTime(), session.getDeadline());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -234,6 +362,12 @@ public class ExamController {
         logger.info("保存答案草稿: paperId={}", paperId);
 
         try {
+            ExamPaper paper = examPaperRepository.findById(paperId)
+                    .orElseThrow(() -> new RuntimeException("考卷不存在"));
+
+            // 先写入自动保存缓存中的答案，避免之后被旧答案覆盖
+            answerWriteBehindService.flushPaper(paperId);
+
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> answers = (List<Map<String, Object>>) requestBody.get("answers");
 
@@ -241,14 +375,10 @@ public class ExamController {
                 Long questionId = ((Number) answerData.get("questionId")).longValue();
                 String answerContent = (String) answerData.get("answerContent");
 
-                Optional<ExamAnswer> existingAnswer = examAnswerRepository
-                        .findByExamPaperIdAndQuestionId(paperId, questionId);
-
-                if (existingAnswer.isPresent()) {
-                    ExamAnswer answer = existingAnswer.get();
-                    answer.setAnswerContent(answerContent);
-                    examAnswerRepository.save(answer);
-                }
+                // 答题记录不存在时(延迟生成模式)在此创建
+                ExamAnswer answer = studentExamService.findOrCreateAnswer(paper, questionId);
+                answer.setAnswerContent(answerContent);
+                examAnswerRepository.save(answer);
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -285,6 +415,10 @@ public class ExamController {
                 throw new RuntimeException("答卷已提交");
             }
 
+            // 先拒绝新的自动保存，写入缓存中的答案后再保存提交的答案
+            examSessionRegistry.updateStatus(paperId, ExamPaper.PaperStatus.SUBMITTED);
+            answerWriteBehindService.flushPaper(paperId);
+
             // 保存所有答案
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> answers = (List<Map<String, Object>>) requestBody.get("answers");
@@ -293,14 +427,10 @@ public class ExamController {
                 Long questionId = ((Number) answerData.get("questionId")).longValue();
                 String answerContent = (String) answerData.get("answerContent");
 
-                Optional<ExamAnswer> existingAnswer = examAnswerRepository
-                        .findByExamPaperIdAndQuestionId(paperId, questionId);
-
-                if (existingAnswer.isPresent()) {
-                    ExamAnswer answer = existingAnswer.get();
-                    answer.setAnswerContent(answerContent);
-                    examAnswerRepository.save(answer);
-                }
+                // 答题记录不存在时(延迟生成模式)在此创建
+                ExamAnswer answer = studentExamService.findOrCreateAnswer(paper, questionId);
+                answer.setAnswerContent(answerContent);
+                examAnswerRepository.save(answer);
             }
 
             // 更新考卷状态
@@ -310,6 +440,7 @@ public class ExamController {
 
             // 自动评分
             GradingResultDTO gradingResult = examGradingService.autoGrade(paperId);
+            examDeadlineScheduler.cancel(paperId);
 
             Map<String, Object> data = new HashMap<>();
             data.put("paperId", paperId);
@@ -330,10 +461,22 @@ public class ExamController {
 
         } catch (Exception e) {
             logger.error("提交答卷失败", e);
+            examSessionRegistry.remove(paperId);
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    private boolean isTeacherOrAdmin(User user) {
+        return user.getRole() == User.UserRole.TEACHER || user.getRole() == User.UserRole.ADMIN;
+    }
+
+    private ResponseEntity<Map<String, Object>> forbidden() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "权限不足");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
 }
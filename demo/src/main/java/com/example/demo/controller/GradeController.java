@@ -463,4 +463,22 @@ public class GradeController {
             ));
         }
     }
-}
\ No newline at end of file
+    
+    // 获取成绩统计概要（平均分、最高分、最低分、各分数段人数、各奖项数量）
+    @GetMapping("/statistics-summary")
+    public ResponseEntity<?> getScoreStatisticsSummary(
+            @RequestParam(required = false) Long competitionId) {
+        try {
+            Map<String, Object> summary = gradeService.getScoreStatisticsSummary(competitionId);
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", summary
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "获取成绩统计概要失败"
+            ));
+        }
+    }
+}
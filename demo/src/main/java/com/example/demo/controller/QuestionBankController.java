@@ -7,6 +7,7 @@ import com.example.demo.entity.User;
 import com.example.demo.repository.CompetitionQuestionRepository;
 import com.example.demo.repository.CompetitionRepository;
 import com.example.demo.repository.QuestionRepository;
+import com.example.demo.service.ExamQuestionSnapshotService;
 import com.example.demo.service.JsonImportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,9 @@ public class QuestionBankController {
     @Autowired
     private CompetitionRepository competitionRepository;
 
+    @Autowired
+    private ExamQuestionSnapshotService examQuestionSnapshotService;
+
     @Autowired
     private JsonImportService jsonImportService;
 
@@ -410,6 +414,10 @@ public class QuestionBankController {
                         competitionId, questionId, questionScore);
             }
 
+            if (addedCount > 0) {
+                examQuestionSnapshotService.onQuestionSetChanged(competitionId);
+            }
+
             Map<String, Object> data = new HashMap<>();
             data.put("totalScore", totalScore);
             data.put("questionCount", addedCount);
@@ -502,6 +510,7 @@ public class QuestionBankController {
 
             // 删除关联
             competitionQuestionRepository.deleteByCompetitionIdAndQuestionId(competitionId, questionId);
+            examQuestionSnapshotService.onQuestionSetChanged(competitionId);
 
             // 更新题目使用次数
             questionRepository.findById(questionId).ifPresent(question -> {
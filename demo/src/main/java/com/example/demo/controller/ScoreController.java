@@ -1,11 +1,23 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.GradingProgressDTO;
+import com.example.demo.dto.ItemAnalysisDTO;
+import com.example.demo.dto.RankingRecalculationDTO;
 import com.example.demo.entity.*;
 import com.example.demo.repository.*;
+import com.example.demo.service.BatchGradingService;
 import com.example.demo.service.ExamGradingService;
+import com.example.demo.service.ItemAnalysisService;
+import com.example.demo.service.Leaderboard;
+import com.example.demo.service.LeaderboardService;
+import com.example.demo.service.ManualGradingQueueService;
+import com.example.demo.service.RankingRecalculationService;
+import com.example.demo.service.ScorePublishService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -51,52 +63,71 @@ public class ScoreController {
     @Autowired
     private com.example.demo.service.GradeService gradeService;
 
+    @Autowired
+    private BatchGradingService batchGradingService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private RankingRecalculationService rankingRecalculationService;
+
+    @Autowired
+    private ScorePublishService scorePublishService;
+
+    @Autowired
+    private ManualGradingQueueService manualGradingQueueService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
     /**
      * 获取待评分列表
+     * 按考卷ID游标分页：首次不传 afterId，之后传上一页返回的 nextAfterId
      */
     @GetMapping("/pending-grading")
     public ResponseEntity<Map<String, Object>> getPendingGrading(
-            @RequestParam(required = false) Long competitionId) {
+            @RequestParam(required = false) Long competitionId,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "50") int size) {
 
-        logger.info("获取待评分列表: competitionId={}", competitionId);
+        logger.debug("获取待评分列表: competitionId={}, afterId={}, size={}", competitionId, afterId, size);
 
         try {
-            List<ExamPaper> pendingPapers;
-
-            if (competitionId != null) {
-                pendingPapers = examPaperRepository.findPendingGradingByCompetitionId(competitionId);
-            } else {
-                pendingPapers = examPaperRepository.findPendingGrading();
+            int pageSize = Math.max(1, Math.min(size, 200));
+            // 多取一条用于判断是否还有下一页
+            PageRequest limit = PageRequest.of(0, pageSize + 1);
+            List<PendingGradingView> pendingPapers = competitionId != null
+                    ? examPaperRepository.findPendingGradingPageByCompetitionId(competitionId, afterId, limit)
+                    : examPaperRepository.findPendingGradingPage(afterId, limit);
+
+            boolean hasMore = pendingPapers.size() > pageSize;
+            if (hasMore) {
+                pendingPapers = pendingPapers.subList(0, pageSize);
             }
 
-            List<Map<String, Object>> paperList = new ArrayList<>();
+            List<Map<String, Object>> paperList = new ArrayList<>(pendingPapers.size());
 
-            for (ExamPaper paper : pendingPapers) {
+            for (PendingGradingView paper : pendingPapers) {
                 Map<String, Object> paperData = new HashMap<>();
-                paperData.put("paperId", paper.getId());
+                paperData.put("paperId", paper.getPaperId());
                 paperData.put("competitionId", paper.getCompetitionId());
                 paperData.put("participantType", paper.getParticipantType());
                 paperData.put("submitTime", paper.getSubmitTime());
                 paperData.put("objectiveScore", paper.getObjectiveScore());
 
-                // 获取参赛者名称
+                // 参赛者名称
                 if (paper.getParticipantType() == ExamPaper.ParticipantType.TEAM) {
-                    teamRepository.findById(paper.getParticipantId()).ifPresent(team -> {
-                        paperData.put("participantName", team.getName());
-                    });
-                } else {
-                    // 获取个人参赛者姓名
-                    userRepository.findById(paper.getParticipantId()).ifPresent(user -> {
-                        paperData.put("participantName", user.getRealName() + " (" + user.getUsername() + ")");
-                    });
+                    if (paper.getTeamName() != null) {
+                        paperData.put("participantName", paper.getTeamName());
+                    }
+                } else if (paper.getUsername() != null) {
+                    paperData.put("participantName", paper.getRealName() + " (" + paper.getUsername() + ")");
                 }
 
-                // 统计主观题数量
-                long pendingCount = examAnswerRepository.countPendingGradingByExamPaperId(paper.getId());
-                long gradedCount = examAnswerRepository.countGradedByExamPaperId(paper.getId());
-
-                paperData.put("pendingCount", pendingCount);
-                paperData.put("gradedCount", gradedCount);
+                // 主观题评分进度
+                paperData.put("pendingCount", paper.getPendingCount() != null ? paper.getPendingCount() : 0L);
+                paperData.put("gradedCount", paper.getGradedCount() != null ? paper.getGradedCount() : 0L);
                 paperData.put("totalCount", paper.getTotalQuestionCount());
 
                 paperList.add(paperData);
@@ -105,6 +136,9 @@ public class ScoreController {
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", paperList);
+            response.put("hasMore", hasMore);
+            response.put("nextAfterId", pendingPapers.isEmpty() ? afterId
+                    : pendingPapers.get(pendingPapers.size() - 1).getPaperId());
 
             return ResponseEntity.ok(response);
 
@@ -179,6 +213,148 @@ public class ScoreController {
         }
     }
 
+    /**
+     * 领取人工评分任务（可按题目领取，领取的答案在租约期内不会分给其他教师）
+     */
+    @PostMapping("/grading-queue/claim")
+    public ResponseEntity<Map<String, Object>> claimGradingTasks(
+            @RequestBody Map<String, Object> requestBody,
+            Authentication authentication) {
+
+        try {
+            User currentUser = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("用户不存在"));
+            if (!isGrader(currentUser)) {
+                return forbidden();
+            }
+            Long competitionId = ((Number) requestBody.get("competitionId")).longValue();
+            Long questionId = requestBody.get("questionId") != null
+                    ? ((Number) requestBody.get("questionId")).longValue() : null;
+            int count = requestBody.get("count") != null ? ((Number) requestBody.get("count")).intValue() : 10;
+
+            List<ManualGradingQueueService.GradingTask> tasks =
+                    manualGradingQueueService.claim(competitionId, questionId, currentUser.getId(), count);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", tasks.isEmpty() ? "暂无待评分任务" : String.format("已领取%d条评分任务", tasks.size()));
+            response.put("data", tasks);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("领取评分任务失败", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 批量提交评分任务的分数
+     */
+    @PostMapping("/grading-queue/submit")
+    public ResponseEntity<Map<String, Object>> submitGradingTasks(
+            @RequestBody Map<String, Object> requestBody,
+            Authentication authentication) {
+
+        try {
+            User currentUser = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("用户不存在"));
+            if (!isGrader(currentUser)) {
+                return forbidden();
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> scores = (List<Map<String, Object>>) requestBody.get("scores");
+            if (scores == null || scores.isEmpty()) {
+                throw new RuntimeException("评分列表不能为空");
+            }
+
+            List<ManualGradingQueueService.ScoreSubmission> submissions = new ArrayList<>(scores.size());
+            for (Map<String, Object> item : scores) {
+                submissions.add(new ManualGradingQueueService.ScoreSubmission(
+                        ((Number) item.get("answerId")).longValue(),
+                        ((Number) item.get("leaseVersion")).longValue(),
+                        item.get("score") != null ? new BigDecimal(item.get("score").toString()) : null,
+                        (String) item.get("remarks")));
+            }
+
+            ManualGradingQueueService.SubmitResult result =
+                    manualGradingQueueService.submit(currentUser.getId(), submissions);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", String.format("评分已提交%d条, 未通过%d条, 完成考卷%d份",
+                    result.getGradedAnswerIds().size(), result.getRejected().size(), result.getCompletedPaperIds().size()));
+            response.put("data", result);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("提交评分任务失败", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 放弃领取的评分任务
+     */
+    @PostMapping("/grading-queue/release")
+    public ResponseEntity<Map<String, Object>> releaseGradingTasks(
+            @RequestBody Map<String, Object> requestBody,
+            Authentication authentication) {
+
+        try {
+            User currentUser = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("用户不存在"));
+            if (!isGrader(currentUser)) {
+                return forbidden();
+            }
+
+            @SuppressWarnings("unchecked")
+            List<Number> answerIds = (List<Number>) requestBody.getOrDefault("answerIds", Collections.emptyList());
+            List<Long> ids = new ArrayList<>(answerIds.size());
+            for (Number answerId : answerIds) {
+                ids.add(answerId.longValue());
+            }
+
+            int released = manualGradingQueueService.release(currentUser.getId(), ids);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", String.format("已放弃%d条评分任务", released));
+            response.put("data", released);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("放弃评分任务失败", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 人工评分队列统计（待评分数量、已领取数量、各教师评分速度）
+     */
+    @GetMapping("/grading-queue/stats")
+    public ResponseEntity<Map<String, Object>> getGradingQueueStats(@RequestParam Long competitionId,
+                                                                    Authentication authentication) {
+        User currentUser = userRepository.findByUsername(authentication.getName()).orElse(null);
+        if (currentUser == null || !isGrader(currentUser)) {
+            return forbidden();
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", manualGradingQueueService.getStats(competitionId));
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * 发布成绩
      */
@@ -205,95 +381,19 @@ public class ScoreController {
         }
 
         try {
-            // 获取该竞赛所有已评分的考卷
-            List<ExamPaper> gradedPapers = examPaperRepository
-                    .findByCompetitionIdAndPaperStatus(competitionId, ExamPaper.PaperStatus.GRADED);
-
-            if (gradedPapers.isEmpty()) {
-                throw new RuntimeException("没有已评分的考卷");
-            }
-
-            int publishedCount = 0;
-            double totalScore = 0;
-            double maxScore = 0;
-            double minScore = Double.MAX_VALUE;
-
-            // 为每个考卷创建或更新Grade记录
-            for (ExamPaper paper : gradedPapers) {
-                // 检查是否已存在Grade记录
-                Optional<Grade> existingGrade = gradeRepository
-                        .findByTeamIdAndCompetitionId(paper.getParticipantId(), competitionId);
-
-                Grade grade;
-                if (existingGrade.isPresent()) {
-                    grade = existingGrade.get();
-                } else {
-                    grade = new Grade();
-                    Team team = teamRepository.findById(paper.getParticipantId())
-                            .orElseThrow(() -> new RuntimeException("团队不存在"));
-                    Competition competition = competitionRepository.findById(competitionId)
-                            .orElseThrow(() -> new RuntimeException("竞赛不存在"));
-
-                    grade.setTeam(team);
-                    grade.setCompetition(competition);
-                }
-
-                grade.setScore(paper.getTotalScore());
-                grade.setIsFinal(true);
-                grade.setGradedAt(LocalDateTime.now());
-
-                // 获取当前登录用户
-                User currentUser = userRepository.findByUsername(username)
-                        .orElseThrow(() -> {
-                            logger.error("发布成绩失败 - 用户不存在: username={}", username);
-                            return new RuntimeException("当前用户不存在，请重新登录");
-                        });
-                
-                logger.debug("设置成绩评分人: userId={}, username={}, role={}", 
-                    currentUser.getId(), currentUser.getUsername(), currentUser.getRole());
-                grade.setGradedBy(currentUser.getId());
-
-                gradeRepository.save(grade);
-
-                publishedCount++;
-                double score = paper.getTotalScore().doubleValue();
-                totalScore += score;
-                maxScore = Math.max(maxScore, score);
-                minScore = Math.min(minScore, score);
-
-                logger.info("成绩已发布: paperId={}, teamId={}, score={}",
-                        paper.getId(), paper.getParticipantId(), score);
-            }
-
-            // 发布后计算并持久化竞赛排名（支持并列分数同名次）
-            logger.info("开始计算竞赛排名: competitionId={}", competitionId);
-            gradeService.computeAndPersistRanking(competitionId);
-            logger.info("竞赛排名计算完成: competitionId={}", competitionId);
-
-            // 更新竞赛状态为已结束
-            Competition competition = competitionRepository.findById(competitionId)
-                    .orElseThrow(() -> new RuntimeException("竞赛不存在"));
-            competition.setStatus(Competition.CompetitionStatus.COMPLETED);
-            competitionRepository.save(competition);
+            // 批量发布成绩并重新计算排名
+            Map<String, Object> data = scorePublishService.publishScores(competitionId, username);
+            int publishedCount = (Integer) data.get("publishedCount");
 
             // TODO: 发送通知给学生
 
-            double averageScore = totalScore / publishedCount;
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("publishedCount", publishedCount);
-            data.put("averageScore", averageScore);
-            data.put("highestScore", maxScore);
-            data.put("lowestScore", minScore);
-            data.put("competitionStatus", competition.getStatus());
-
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", String.format("成绩已发布,共%d份", publishedCount));
             response.put("data", data);
 
             logger.info("成绩发布完成: competitionId={}, count={}, avgScore={}",
-                    competitionId, publishedCount, averageScore);
+                    competitionId, publishedCount, data.get("averageScore"));
 
             return ResponseEntity.ok(response);
 
@@ -512,60 +612,30 @@ public class ScoreController {
 
     /**
      * 获取竞赛排名列表
-     * 返回指定竞赛的所有成绩，按排名升序排列
+     * 从内存排行榜读取，按名次升序排列；可选 offset/limit 分页
      */
     @GetMapping("/competition-ranking")
     public ResponseEntity<Map<String, Object>> getCompetitionRanking(
-            @RequestParam Long competitionId) {
+            @RequestParam Long competitionId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) Integer limit) {
         
-        logger.info("获取竞赛排名: competitionId={}", competitionId);
+        logger.info("获取竞赛排名: competitionId={}, offset={}, limit={}", competitionId, offset, limit);
 
         try {
-            // 按排名升序查询成绩
-            List<Grade> grades = gradeRepository.findByCompetitionIdOrderByRankingAsc(competitionId);
-            
-            List<Map<String, Object>> rankingList = new ArrayList<>();
+            Leaderboard leaderboard = leaderboardService.getLeaderboard(competitionId);
+            int total = leaderboard.size();
+            List<Leaderboard.RankedEntry> entries = leaderboard.page(Math.max(offset, 0),
+                    limit != null ? Math.max(limit, 0) : total);
 
-            for (Grade grade : grades) {
-                Map<String, Object> rankingData = new HashMap<>();
-                
-                // 基本信息
-                rankingData.put("id", grade.getId());
-                rankingData.put("competitionId", grade.getCompetition().getId());
-                rankingData.put("competitionName", grade.getCompetition().getName());
-                rankingData.put("teamId", grade.getTeam().getId());
-                rankingData.put("teamName", grade.getTeam().getName());
-                
-                // 成绩和排名
-                rankingData.put("score", grade.getScore());
-                rankingData.put("ranking", grade.getRanking());
-                
-                // 发布状态和时间
-                rankingData.put("isFinal", grade.getIsFinal());
-                rankingData.put("gradedAt", grade.getGradedAt());
-                
-                // 获取团队成员信息
-                List<TeamMember> members = teamMemberRepository.findByTeamId(grade.getTeam().getId());
-                List<Map<String, Object>> memberList = new ArrayList<>();
-                for (TeamMember member : members) {
-                    Map<String, Object> memberData = new HashMap<>();
-                    memberData.put("userId", member.getUser().getId());
-                    memberData.put("username", member.getUser().getUsername());
-                    memberData.put("realName", member.getUser().getRealName());
-                    memberData.put("role", member.getRole());
-                    memberList.add(memberData);
-                }
-                rankingData.put("members", memberList);
-                
-                rankingList.add(rankingData);
-            }
+            List<Map<String, Object>> rankingList = buildRankingList(leaderboard, entries);
 
             logger.info("竞赛排名查询成功: competitionId={}, count={}", competitionId, rankingList.size());
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", rankingList);
-            response.put("total", rankingList.size());
+            response.put("total", total);
 
             return ResponseEntity.ok(response);
 
@@ -578,6 +648,182 @@ public class ScoreController {
         }
     }
 
+    /**
+     * 获取团队附近的排名（团队前后各 radius 名）
+     */
+    @GetMapping("/competition-ranking/around")
+    public ResponseEntity<Map<String, Object>> getRankingAroundTeam(
+            @RequestParam Long competitionId,
+            @RequestParam Long teamId,
+            @RequestParam(defaultValue = "5") int radius) {
+
+        try {
+            Leaderboard leaderboard = leaderboardService.getLeaderboard(competitionId);
+            Leaderboard.RankedEntry current = leaderboard.getRank(teamId);
+            if (current == null) {
+                throw new RuntimeException("该团队在此竞赛中没有成绩");
+            }
+            List<Leaderboard.RankedEntry> entries = leaderboard.around(teamId, Math.max(0, Math.min(radius, 50)));
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("teamId", teamId);
+            data.put("ranking", current.getRank());
+            data.put("denseRank", current.getDenseRank());
+            data.put("rankings", buildRankingList(leaderboard, entries));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", data);
+            response.put("total", leaderboard.size());
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("获取团队附近排名失败", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 组装排名列表（团队成员一次查询批量加载）
+     */
+    private List<Map<String, Object>> buildRankingList(Leaderboard leaderboard, List<Leaderboard.RankedEntry> entries) {
+        Map<Long, List<Map<String, Object>>> membersByTeam = new HashMap<>();
+        if (!entries.isEmpty()) {
+            List<Long> teamIds = new ArrayList<>(entries.size());
+            for (Leaderboard.RankedEntry ranked : entries) {
+                teamIds.add(ranked.getEntry().getTeamId());
+            }
+            for (TeamMember member : teamMemberRepository.findByTeamIdInWithUser(teamIds)) {
+                Map<String, Object> memberData = new HashMap<>();
+                memberData.put("userId", member.getUser().getId());
+                memberData.put("username", member.getUser().getUsername());
+                memberData.put("realName", member.getUser().getRealName());
+                memberData.put("role", member.getRole());
+                membersByTeam.computeIfAbsent(member.getTeam().getId(), id -> new ArrayList<>()).add(memberData);
+            }
+        }
+
+        List<Map<String, Object>> rankingList = new ArrayList<>(entries.size());
+        for (Leaderboard.RankedEntry ranked : entries) {
+            Leaderboard.Entry entry = ranked.getEntry();
+            Map<String, Object> rankingData = new HashMap<>();
+            
+            // 基本信息
+            rankingData.put("id", entry.getGradeId());
+            rankingData.put("competitionId", leaderboard.getCompetitionId());
+            rankingData.put("competitionName", leaderboard.getCompetitionName());
+            rankingData.put("teamId", entry.getTeamId());
+            rankingData.put("teamName", entry.getTeamName());
+            
+            // 成绩和排名（并列同名次后续跳跃，denseRank 为不跳跃的名次）
+            rankingData.put("score", entry.getScore());
+            rankingData.put("ranking", ranked.getRank());
+            rankingData.put("denseRank", ranked.getDenseRank());
+            
+            // 发布状态和时间
+            rankingData.put("isFinal", entry.getIsFinal());
+            rankingData.put("gradedAt", entry.getGradedAt());
+            
+            rankingData.put("members", membersByTeam.getOrDefault(entry.getTeamId(), Collections.emptyList()));
+            
+            rankingList.add(rankingData);
+        }
+        return rankingList;
+    }
+
+    /**
+     * 竞赛批量自动评分（只处理已提交的考卷，可重复执行；教师/管理员）
+     */
+    @PostMapping("/competitions/{competitionId}/auto-grade")
+    public ResponseEntity<Map<String, Object>> autoGradeCompetition(@PathVariable Long competitionId,
+                                                                    Authentication authentication) {
+        logger.info("竞赛批量自动评分请求: competitionId={}", competitionId);
+
+        try {
+            User currentUser = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("用户不存在"));
+            if (!isGrader(currentUser)) {
+                return forbidden();
+            }
+
+            GradingProgressDTO progress = batchGradingService.autoGradeCompetition(competitionId);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", String.format("批量评分完成: 评分完成%d份, 待人工评分%d份, 失败%d份",
+                    progress.getGradedPapers(), progress.getManualGradingPapers(), progress.getFailedPapers()));
+            response.put("data", progress);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("竞赛批量自动评分失败", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * 查询竞赛批量自动评分进度
+     */
+    @GetMapping("/competitions/{competitionId}/auto-grade-progress")
+    public ResponseEntity<Map<String, Object>> getAutoGradeProgress(@PathVariable Long competitionId,
+                                                                    Authentication authentication) {
+        User currentUser = userRepository.findByUsername(authentication.getName()).orElse(null);
+        if (currentUser == null || !isGrader(currentUser)) {
+            return forbidden();
+        }
+
+        GradingProgressDTO progress = batchGradingService.getGradingProgress(competitionId);
+
+        Map<String, Object> response = new HashMap<>();
+        if (progress == null) {
+            response.put("success", false);
+            response.put("message", "该竞赛暂无批量评分记录");
+            return ResponseEntity.ok(response);
+        }
+
+        response.put("success", true);
+        response.put("data", progress);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 竞赛试题分析（每题正确率、平均分、难度、区分度和选项分布；教师/管理员）
+     * 结果按竞赛缓存，评分变化后自动重新计算；refresh=true 时强制重新计算
+     */
+    @GetMapping("/competitions/{competitionId}/item-analysis")
+    public ResponseEntity<Map<String, Object>> getItemAnalysis(
+            @PathVariable Long competitionId,
+            @RequestParam(defaultValue = "false") boolean refresh,
+            Authentication authentication) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            User currentUser = userRepository.findByUsername(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("用户不存在"));
+            if (!isGrader(currentUser)) {
+                return forbidden();
+            }
+            if (!competitionRepository.existsById(competitionId)) {
+                throw new RuntimeException("竞赛不存在");
+            }
+            ItemAnalysisDTO analysis = itemAnalysisService.getItemAnalysis(competitionId, refresh);
+            response.put("success", true);
+            response.put("data", analysis);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("获取试题分析失败: competitionId={}", competitionId, e);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * 手动重新计算竞赛排名
      * 用于修复旧数据或重新计算排名
@@ -625,7 +871,7 @@ public class ScoreController {
 
     /**
      * 批量重新计算所有竞赛的排名
-     * 用于系统维护或数据修复
+     * 用于系统维护或数据修复；并行计算，只更新排名变化的成绩
      */
     @PostMapping("/recalculate-all-rankings")
     public ResponseEntity<Map<String, Object>> recalculateAllRankings(Authentication authentication) {
@@ -633,30 +879,14 @@ public class ScoreController {
         logger.info("批量重新计算所有竞赛排名");
 
         try {
-            // 获取所有有成绩的竞赛
-            List<Competition> competitions = competitionRepository.findAll();
-            int processedCount = 0;
-            int updatedGradesCount = 0;
-
-            for (Competition competition : competitions) {
-                List<Grade> grades = gradeRepository.findByCompetitionId(competition.getId());
-                if (!grades.isEmpty()) {
-                    gradeService.computeAndPersistRanking(competition.getId());
-                    processedCount++;
-                    updatedGradesCount += grades.size();
-                    logger.info("已处理竞赛: competitionId={}, name={}, gradesCount={}", 
-                            competition.getId(), competition.getName(), grades.size());
-                }
-            }
-
-            logger.info("所有竞赛排名重新计算完成: processedCompetitions={}, totalGrades={}", 
-                    processedCount, updatedGradesCount);
+            RankingRecalculationDTO result = rankingRecalculationService.recalculateAllRankings();
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "所有排名重新计算完成");
-            response.put("processedCompetitions", processedCount);
-            response.put("updatedGrades", updatedGradesCount);
+            response.put("processedCompetitions", result.getCompetitionCount());
+            response.put("updatedGrades", result.getChangedRows());
+            response.put("data", result);
 
             return ResponseEntity.ok(response);
 
@@ -668,4 +898,18 @@ public class ScoreController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    /**
+     * 评分任务队列仅限教师和管理员使用
+     */
+    private boolean isGrader(User user) {
+        return user.getRole() == User.UserRole.TEACHER || user.getRole() == User.UserRole.ADMIN;
+    }
+
+    private ResponseEntity<Map<String, Object>> forbidden() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "权限不足");
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+    }
 }
@@ -3,6 +3,9 @@ package com.example.demo.controller;
 import com.example.demo.entity.User;
 import com.example.demo.entity.Competition;
 import com.example.demo.entity.Registration;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.service.PasswordHashingService;
+import com.example.demo.service.TokenRevocationService;
 import com.example.demo.service.UserService;
 import com.example.demo.service.CompetitionService;
 import com.example.demo.service.RegistrationService;
@@ -11,17 +14,18 @@ import com.example.demo.service.QuestionService;
 import com.example.demo.entity.Grade;
 import com.example.demo.service.GradeService;
 import java.math.BigDecimal;
+import com.example.demo.util.AuthenticatedUser;
 import com.example.demo.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
-import jakarta.servlet.http.HttpServletRequest;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -56,6 +60,12 @@ public class TeacherController {
     @Autowired
     private GradeService gradeService;
     
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     /**
      * 教师注册
      * 教师注册后状态为PENDING，需要管理员审核
@@ -92,6 +102,19 @@ public class TeacherController {
                     "status", registeredTeacher.getStatus()
                 )
             ));
+        } catch (BusinessException e) {
+            if (PasswordHashingService.BUSY_ERROR_CODE.equals(e.getErrorCode())) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                    .body(Map.of(
+                        "success", false,
+                        "message", e.getErrorMessage()
+                    ));
+            }
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of(
                 "success", false,
@@ -170,6 +193,8 @@ public class TeacherController {
             }
             
             String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getRole().toString());
+            String refreshToken = jwtUtil.generateRefreshToken(user.getUsername(), user.getId(), user.getRole().toString(),
+                    user.getTokenVersion());
             System.out.println("JWT token生成成功: " + (token != null ? "是" : "否"));
             
             // 构建用户信息，处理可能的null值
@@ -187,8 +212,18 @@ public class TeacherController {
                 "success", true,
                 "message", "登录成功",
                 "token", token,
+                "refreshToken", refreshToken,
+                "expiresIn", jwtUtil.getAccessTokenExpiration() / 1000,
                 "userInfo", userInfo
             ));
+        } catch (BusinessException e) {
+            // 密码校验排队已满，快速失败
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                .body(Map.of(
+                    "success", false,
+                    "message", e.getErrorMessage()
+                ));
         } catch (Exception e) {
             e.printStackTrace(); // 打印异常堆栈
             System.err.println("Teacher login error: " + e.getMessage());
@@ -203,25 +238,11 @@ public class TeacherController {
      * 获取教师个人信息
      */
     @GetMapping("/profile")
-    public ResponseEntity<?> getTeacherProfile(HttpServletRequest request) {
+    public ResponseEntity<?> getTeacherProfile(AuthenticatedUser currentUser) {
         try {
             System.out.println("=== getTeacherProfile 开始 ===");
             
-            String token = extractTokenFromRequest(request);
-            System.out.println("提取的token: " + (token != null ? "存在" : "null"));
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            System.out.println("开始从token提取用户名");
-            String username = jwtUtil.extractUsername(token);
-            System.out.println("提取的用户名: " + username);
-            
-            System.out.println("开始查找用户");
-            Optional<User> userOpt = userService.findByUsername(username);
+            Optional<User> userOpt = currentUser != null ? userService.findById(currentUser.getId()) : Optional.empty();
             System.out.println("用户查找结果: " + (userOpt.isPresent() ? "找到" : "未找到"));
             
             if (userOpt.isEmpty()) {
@@ -274,18 +295,9 @@ public class TeacherController {
      * 更新教师个人信息
      */
     @PutMapping("/profile")
-    public ResponseEntity<?> updateTeacherProfile(HttpServletRequest request, @RequestBody Map<String, Object> updateData) {
+    public ResponseEntity<?> updateTeacherProfile(AuthenticatedUser currentUser, @RequestBody Map<String, Object> updateData) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
+            Optional<User> userOpt = currentUser != null ? userService.findById(currentUser.getId()) : Optional.empty();
             
             if (userOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
@@ -356,28 +368,15 @@ public class TeacherController {
      * 教师修改密码
      */
     @PutMapping("/change-password")
-    public ResponseEntity<?> changePassword(HttpServletRequest request, @RequestBody Map<String, String> passwordData) {
+    public ResponseEntity<?> changePassword(AuthenticatedUser teacher, @RequestBody Map<String, String> passwordData) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             // 确保是教师账户
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
@@ -426,9 +425,15 @@ public class TeacherController {
      * 教师退出登录
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // 由于使用JWT，服务端无状态，退出登录主要由前端处理
-        // 这里返回成功响应，前端需要清除本地存储的token
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) Map<String, String> logoutRequest) {
+        // 作废当前访问令牌和提交的刷新令牌，前端同时清除本地存储的token
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            tokenRevocationService.revokeToken(authorization.substring(7));
+        }
+        if (logoutRequest != null) {
+            tokenRevocationService.revokeToken(logoutRequest.get("refreshToken"));
+        }
         return ResponseEntity.ok(Map.of(
             "success", true,
             "message", "退出登录成功"
@@ -439,28 +444,15 @@ public class TeacherController {
      * 教师创建竞赛
      */
     @PostMapping("/competitions")
-    public ResponseEntity<?> createCompetition(HttpServletRequest request, @Valid @RequestBody Map<String, Object> competitionData) {
+    public ResponseEntity<?> createCompetition(AuthenticatedUser teacher, @Valid @RequestBody Map<String, Object> competitionData) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             // 确保是教师账户且状态正常
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
@@ -549,30 +541,17 @@ public class TeacherController {
      * 获取教师创建的竞赛列表
      */
     @GetMapping("/competitions")
-    public ResponseEntity<?> getTeacherCompetitions(HttpServletRequest request,
+    public ResponseEntity<?> getTeacherCompetitions(AuthenticatedUser teacher,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -603,7 +582,7 @@ public class TeacherController {
      * 更新教师创建的竞赛
      */
     @PutMapping("/competitions/{competitionId}")
-    public ResponseEntity<?> updateCompetition(HttpServletRequest request, 
+    public ResponseEntity<?> updateCompetition(AuthenticatedUser teacher, 
             @PathVariable Long competitionId,
             @RequestBody Map<String, Object> updateData) {
         try {
@@ -625,26 +604,13 @@ public class TeacherController {
                 }
                 throw new IllegalArgumentException("无法解析日期时间格式: " + dateTimeStr);
             };
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -754,28 +720,15 @@ public class TeacherController {
      * 删除教师创建的竞赛
      */
     @DeleteMapping("/competitions/{competitionId}")
-    public ResponseEntity<?> deleteCompetition(HttpServletRequest request, @PathVariable Long competitionId) {
+    public ResponseEntity<?> deleteCompetition(AuthenticatedUser teacher, @PathVariable Long competitionId) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -833,31 +786,18 @@ public class TeacherController {
      * 获取教师创建竞赛的待审核报名
      */
     @GetMapping("/registrations/pending")
-    public ResponseEntity<?> getPendingRegistrations(HttpServletRequest request,
+    public ResponseEntity<?> getPendingRegistrations(AuthenticatedUser teacher,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Long competitionId) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -903,30 +843,17 @@ public class TeacherController {
      * 审核报名申请
      */
     @PutMapping("/registrations/{registrationId}/review")
-    public ResponseEntity<?> reviewRegistration(HttpServletRequest request,
+    public ResponseEntity<?> reviewRegistration(AuthenticatedUser teacher,
             @PathVariable Long registrationId,
             @RequestBody Map<String, Object> reviewData) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -991,32 +918,19 @@ public class TeacherController {
      * 获取教师竞赛的所有报名（包括已审核的）
      */
     @GetMapping("/registrations")
-    public ResponseEntity<?> getCompetitionRegistrations(HttpServletRequest request,
+    public ResponseEntity<?> getCompetitionRegistrations(AuthenticatedUser teacher,
             @RequestParam Long competitionId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1063,29 +977,16 @@ public class TeacherController {
      * 批量审核报名
      */
     @PutMapping("/registrations/batch-review")
-    public ResponseEntity<?> batchReviewRegistrations(HttpServletRequest request,
+    public ResponseEntity<?> batchReviewRegistrations(AuthenticatedUser teacher,
             @RequestBody Map<String, Object> batchData) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1146,26 +1047,15 @@ public class TeacherController {
      * 创建题目
      */
     @PostMapping("/questions")
-    public ResponseEntity<?> createQuestion(@RequestBody Question question, HttpServletRequest request) {
+    public ResponseEntity<?> createQuestion(@RequestBody Question question, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1221,26 +1111,15 @@ public class TeacherController {
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String difficulty,
             @RequestParam(required = false) String keyword,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1280,26 +1159,15 @@ public class TeacherController {
      * 根据ID获取题目详情
      */
     @GetMapping("/questions/{questionId}")
-    public ResponseEntity<?> getQuestionById(@PathVariable Long questionId, HttpServletRequest request) {
+    public ResponseEntity<?> getQuestionById(@PathVariable Long questionId, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1334,26 +1202,15 @@ public class TeacherController {
      * 更新题目
      */
     @PutMapping("/questions/{questionId}")
-    public ResponseEntity<?> updateQuestion(@PathVariable Long questionId, @RequestBody Question updatedQuestion, HttpServletRequest request) {
+    public ResponseEntity<?> updateQuestion(@PathVariable Long questionId, @RequestBody Question updatedQuestion, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1376,26 +1233,15 @@ public class TeacherController {
      * 删除题目
      */
     @DeleteMapping("/questions/{questionId}")
-    public ResponseEntity<?> deleteQuestion(@PathVariable Long questionId, HttpServletRequest request) {
+    public ResponseEntity<?> deleteQuestion(@PathVariable Long questionId, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1415,26 +1261,15 @@ public class TeacherController {
      * 复制题目
      */
     @PostMapping("/questions/{questionId}/duplicate")
-    public ResponseEntity<?> duplicateQuestion(@PathVariable Long questionId, HttpServletRequest request) {
+    public ResponseEntity<?> duplicateQuestion(@PathVariable Long questionId, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1457,26 +1292,15 @@ public class TeacherController {
      * 批量删除题目
      */
     @DeleteMapping("/questions/batch")
-    public ResponseEntity<?> batchDeleteQuestions(@RequestBody Map<String, List<Long>> request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> batchDeleteQuestions(@RequestBody Map<String, List<Long>> request, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(httpRequest);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1502,26 +1326,15 @@ public class TeacherController {
      * 批量更新题目状态
      */
     @PutMapping("/questions/batch/status")
-    public ResponseEntity<?> batchUpdateQuestionStatus(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> batchUpdateQuestionStatus(@RequestBody Map<String, Object> request, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(httpRequest);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1554,26 +1367,15 @@ public class TeacherController {
      * 获取题目统计信息
      */
     @GetMapping("/questions/statistics")
-    public ResponseEntity<?> getQuestionStatistics(HttpServletRequest request) {
+    public ResponseEntity<?> getQuestionStatistics(AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1598,26 +1400,15 @@ public class TeacherController {
     @GetMapping("/questions/recent")
     public ResponseEntity<?> getRecentQuestions(
             @RequestParam(defaultValue = "5") int limit,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1644,26 +1435,15 @@ public class TeacherController {
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("message", "未提供认证令牌"));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "权限不足"));
@@ -1692,28 +1472,15 @@ public class TeacherController {
      * 录入成绩
      */
     @PostMapping("/grades")
-    public ResponseEntity<?> recordGrade(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> recordGrade(@RequestBody Map<String, Object> request, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(httpRequest);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1760,28 +1527,15 @@ public class TeacherController {
             @RequestParam(defaultValue = "gradedTime") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) Long competitionId,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1822,28 +1576,15 @@ public class TeacherController {
     public ResponseEntity<?> updateGrade(
             @PathVariable Long gradeId,
             @RequestBody Map<String, Object> request,
-            HttpServletRequest httpRequest) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(httpRequest);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1884,28 +1625,15 @@ public class TeacherController {
     @DeleteMapping("/grades/{gradeId}")
     public ResponseEntity<?> deleteGrade(
             @PathVariable Long gradeId,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1932,28 +1660,15 @@ public class TeacherController {
      * 批量录入成绩
      */
     @PostMapping("/grades/batch")
-    public ResponseEntity<?> batchRecordGrades(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+    public ResponseEntity<?> batchRecordGrades(@RequestBody Map<String, Object> request, AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(httpRequest);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -1993,28 +1708,15 @@ public class TeacherController {
     @GetMapping("/grades/statistics")
     public ResponseEntity<?> getGradeStatistics(
             @RequestParam Long competitionId,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -2043,28 +1745,15 @@ public class TeacherController {
     @GetMapping("/grades/export")
     public ResponseEntity<?> exportCompetitionGrades(
             @RequestParam Long competitionId,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -2094,28 +1783,15 @@ public class TeacherController {
      * 获取教师统计数据
      */
     @GetMapping("/stats")
-    public ResponseEntity<?> getTeacherStats(HttpServletRequest request) {
+    public ResponseEntity<?> getTeacherStats(AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -2162,28 +1838,15 @@ public class TeacherController {
             @RequestParam(defaultValue = "10") int limit,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            HttpServletRequest request) {
+            AuthenticatedUser teacher) {
         try {
-            String token = extractTokenFromRequest(request);
-            if (token == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
-                    "success", false,
-                    "message", "未提供认证token"
-                ));
-            }
-            
-            String username = jwtUtil.extractUsername(token);
-            Optional<User> userOpt = userService.findByUsername(username);
-            
-            if (userOpt.isEmpty()) {
+            if (teacher == null) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
                     "success", false,
                     "message", "用户不存在"
                 ));
             }
             
-            User teacher = userOpt.get();
-            
             if (teacher.getRole() != User.UserRole.TEACHER || teacher.getStatus() != User.UserStatus.APPROVED) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                     "success", false,
@@ -2248,15 +1911,4 @@ public class TeacherController {
             ));
         }
     }
-
-    /**
-     * 从请求中提取JWT token
-     */
-    private String extractTokenFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-        return null;
-    }
 }
@@ -2,9 +2,15 @@ package com.example.demo.controller;
 
 import com.example.demo.entity.User;
 import com.example.demo.exception.BusinessException;
+import com.example.demo.service.PasswordHashingService;
+import com.example.demo.service.TokenRevocationService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.UserStatusCache;
 import com.example.demo.service.ExcelExportService;
+import com.example.demo.util.JwtPrincipal;
 import com.example.demo.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import com.example.demo.config.JwtAuthenticationFilter;
 import com.example.demo.dto.UserProfileUpdateRequest;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +42,15 @@ public class UserController {
     @Autowired
     private ExcelExportService excelExportService;
     
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private UserStatusCache userStatusCache;
+    
     // 用户注册
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody User user) {
@@ -48,6 +63,15 @@ public class UserController {
                 "data", registeredUser
             ));
         } catch (BusinessException e) {
+            if (PasswordHashingService.BUSY_ERROR_CODE.equals(e.getErrorCode())) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                    .body(Map.of(
+                        "success", false,
+                        "message", e.getErrorMessage(),
+                        "errorCode", e.getErrorCode()
+                    ));
+            }
             // 处理业务异常，返回具体的错误信息
             return ResponseEntity.badRequest().body(Map.of(
                 "success", false,
@@ -98,13 +122,17 @@ public class UserController {
                      ));
                  }
                  
-                 // 生成JWT token
+                 // 生成JWT访问令牌和刷新令牌
                  String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getRole().toString());
+                 String refreshToken = jwtUtil.generateRefreshToken(user.getUsername(), user.getId(), user.getRole().toString(),
+                         user.getTokenVersion());
                  
                  return ResponseEntity.ok(Map.of(
                      "success", true,
                      "message", "登录成功",
                      "token", token,
+                     "refreshToken", refreshToken,
+                     "expiresIn", jwtUtil.getAccessTokenExpiration() / 1000,
                      "userInfo", user
                  ));
              } else {
@@ -113,6 +141,15 @@ public class UserController {
                      "message", "用户名或密码错误"
                  ));
              }
+        } catch (BusinessException e) {
+            // 密码校验排队已满，快速失败
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                .body(Map.of(
+                    "success", false,
+                    "message", e.getErrorMessage(),
+                    "errorCode", e.getErrorCode()
+                ));
         } catch (Exception e) {
             e.printStackTrace(); // 打印异常堆栈
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -533,27 +570,62 @@ public class UserController {
         }
     }
 
+    // 使用刷新令牌换取新的访问令牌（只验签，不校验密码），旧刷新令牌同时作废
     @PostMapping("/refresh-token")
-    public ResponseEntity<?> refreshToken(HttpServletRequest request) {
+    public ResponseEntity<?> refreshToken(@RequestBody(required = false) Map<String, String> refreshRequest) {
+        String refreshToken = refreshRequest != null ? refreshRequest.get("refreshToken") : null;
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "缺少刷新令牌"
+            ));
+        }
+        
         try {
-            String token = jwtUtil.getTokenFromRequest(request);
-            if (token != null && jwtUtil.validateToken(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
-                Optional<User> userOpt = userService.findByUsername(username);
-                if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    String newToken = jwtUtil.generateToken(username, user.getId(), user.getRole().name());
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", true);
-                    response.put("token", newToken);
-                    response.put("userInfo", user);
-                    return ResponseEntity.ok(response);
-                }
+            JwtPrincipal principal = jwtUtil.verifyToken(refreshToken);
+            // 已作废（登出或已使用过）的刷新令牌 revoke 返回 false
+            if (!principal.isRefreshToken()
+                    || !tokenRevocationService.revoke(principal.getTokenId(), principal.getExpiresAt())) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "success", false,
+                    "message", "刷新令牌已失效，请重新登录"
+                ));
+            }
+            
+            // 账户被禁用、教师未审核通过或修改密码后（令牌版本变化）不再续期
+            UserStatusCache.UserState state = userStatusCache.get(principal.getUserId());
+            if (state != null && state.getTokenVersion() != principal.getTokenVersion()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "success", false,
+                    "message", "刷新令牌已失效，请重新登录"
+                ));
             }
+            if (state == null || state.getStatus() == User.UserStatus.DISABLED
+                    || (state.getRole() == User.UserRole.TEACHER && state.getStatus() != User.UserStatus.APPROVED)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "success", false,
+                    "message", "账户状态异常，请重新登录"
+                ));
+            }
+            
+            String role = state.getRole().name();
             Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Token无效或已过期");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            response.put("success", true);
+            response.put("token", jwtUtil.generateToken(principal.getUsername(), principal.getUserId(), role));
+            response.put("refreshToken", jwtUtil.generateRefreshToken(principal.getUsername(), principal.getUserId(), role,
+                    state.getTokenVersion()));
+            response.put("expiresIn", jwtUtil.getAccessTokenExpiration() / 1000);
+            return ResponseEntity.ok(response);
+        } catch (ExpiredJwtException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                "success", false,
+                "message", "刷新令牌已过期，请重新登录"
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                "success", false,
+                "message", "刷新令牌无效，请重新登录"
+            ));
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -562,10 +634,15 @@ public class UserController {
         }
     }
 
+    // 登出：作废当前访问令牌和提交的刷新令牌
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request) {
+    public ResponseEntity<?> logout(HttpServletRequest request,
+                                    @RequestBody(required = false) Map<String, String> logoutRequest) {
         try {
-            // 这里可以添加Token黑名单逻辑，目前简单返回成功
+            tokenRevocationService.revokeToken(jwtUtil.getTokenFromRequest(request));
+            if (logoutRequest != null) {
+                tokenRevocationService.revokeToken(logoutRequest.get("refreshToken"));
+            }
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "登出成功");
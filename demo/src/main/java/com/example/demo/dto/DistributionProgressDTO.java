@@ -0,0 +1,131 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批量下发考卷进度DTO
+ */
+public class DistributionProgressDTO {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private Long competitionId;
+    private volatile String status = STATUS_RUNNING;
+    private Integer totalParticipants = 0;
+    private Integer skippedParticipants = 0;
+    private Integer processedParticipants = 0;
+    private Integer createdPapers = 0;
+    private Integer createdAnswers = 0;
+    private Integer completedChunks = 0;
+    private Integer totalChunks = 0;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String errorMessage;
+
+    public DistributionProgressDTO() {
+    }
+
+    public DistributionProgressDTO(Long competitionId) {
+        this.competitionId = competitionId;
+        this.startTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public void setCompetitionId(Long competitionId) {
+        this.competitionId = competitionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getTotalParticipants() {
+        return totalParticipants;
+    }
+
+    public void setTotalParticipants(Integer totalParticipants) {
+        this.totalParticipants = totalParticipants;
+    }
+
+    public Integer getSkippedParticipants() {
+        return skippedParticipants;
+    }
+
+    public void setSkippedParticipants(Integer skippedParticipants) {
+        this.skippedParticipants = skippedParticipants;
+    }
+
+    public Integer getProcessedParticipants() {
+        return processedParticipants;
+    }
+
+    public void setProcessedParticipants(Integer processedParticipants) {
+        this.processedParticipants = processedParticipants;
+    }
+
+    public Integer getCreatedPapers() {
+        return createdPapers;
+    }
+
+    public void setCreatedPapers(Integer createdPapers) {
+        this.createdPapers = createdPapers;
+    }
+
+    public Integer getCreatedAnswers() {
+        return createdAnswers;
+    }
+
+    public void setCreatedAnswers(Integer createdAnswers) {
+        this.createdAnswers = createdAnswers;
+    }
+
+    public Integer getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(Integer completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public Integer getTotalChunks() {
+        return totalChunks;
+    }
+
+    public void setTotalChunks(Integer totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
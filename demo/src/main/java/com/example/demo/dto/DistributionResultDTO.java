@@ -7,6 +7,9 @@ public class DistributionResultDTO {
     private Integer individualPapers = 0;
     private Integer teamPapers = 0;
     private Integer totalParticipants = 0;
+    private Integer skippedParticipants = 0;
+    private Integer answerCount = 0;
+    private Long elapsedMillis = 0L;
 
     // Getters and Setters
     public Integer getIndividualPapers() {
@@ -32,4 +35,28 @@ public class DistributionResultDTO {
     public void setTotalParticipants(Integer totalParticipants) {
         this.totalParticipants = totalParticipants;
     }
+
+    public Integer getSkippedParticipants() {
+        return skippedParticipants;
+    }
+
+    public void setSkippedParticipants(Integer skippedParticipants) {
+        this.skippedParticipants = skippedParticipants;
+    }
+
+    public Integer getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(Integer answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public Long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(Long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
 }
@@ -0,0 +1,148 @@
+package com.example.demo.dto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 竞赛批量自动评分进度DTO
+ */
+public class GradingProgressDTO {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private Long competitionId;
+    private volatile String status = STATUS_RUNNING;
+    private Integer totalPapers = 0;
+    private Integer gradedPapers = 0;
+    private Integer manualGradingPapers = 0;
+    private Integer failedPapers = 0;
+    private Integer completedChunks = 0;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String errorMessage;
+
+    public GradingProgressDTO() {
+    }
+
+    public GradingProgressDTO(Long competitionId) {
+        this.competitionId = competitionId;
+        this.startTime = LocalDateTime.now();
+    }
+
+    /**
+     * 已处理考卷数（评分完成、待人工评分和失败的合计）
+     */
+    public Integer getProcessedPapers() {
+        return gradedPapers + manualGradingPapers + failedPapers;
+    }
+
+    /**
+     * 评分速度（份/秒）
+     */
+    public Double getPapersPerSecond() {
+        if (startTime == null) {
+            return 0.0;
+        }
+        LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startTime, end).toMillis());
+        return getProcessedPapers() * 1000.0 / millis;
+    }
+
+    /**
+     * 预计剩余秒数
+     */
+    public Long getEstimatedRemainingSeconds() {
+        if (!STATUS_RUNNING.equals(status)) {
+            return 0L;
+        }
+        double speed = getPapersPerSecond();
+        if (speed <= 0) {
+            return null;
+        }
+        int remaining = Math.max(0, totalPapers - getProcessedPapers());
+        return (long) Math.ceil(remaining / speed);
+    }
+
+    // Getters and Setters
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public void setCompetitionId(Long competitionId) {
+        this.competitionId = competitionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getTotalPapers() {
+        return totalPapers;
+    }
+
+    public void setTotalPapers(Integer totalPapers) {
+        this.totalPapers = totalPapers;
+    }
+
+    public Integer getGradedPapers() {
+        return gradedPapers;
+    }
+
+    public void setGradedPapers(Integer gradedPapers) {
+        this.gradedPapers = gradedPapers;
+    }
+
+    public Integer getManualGradingPapers() {
+        return manualGradingPapers;
+    }
+
+    public void setManualGradingPapers(Integer manualGradingPapers) {
+        this.manualGradingPapers = manualGradingPapers;
+    }
+
+    public Integer getFailedPapers() {
+        return failedPapers;
+    }
+
+    public void setFailedPapers(Integer failedPapers) {
+        this.failedPapers = failedPapers;
+    }
+
+    public Integer getCompletedChunks() {
+        return completedChunks;
+    }
+
+    public void setCompletedChunks(Integer completedChunks) {
+        this.completedChunks = completedChunks;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 竞赛试题分析结果DTO
+ * 难度为得分率（平均分/满分），区分度为高分组（总分前27%）与低分组（总分后27%）得分率之差
+ */
+public class ItemAnalysisDTO {
+
+    private Long competitionId;
+    private Integer paperCount = 0;
+    private Long answerCount = 0L;
+    // 高分组、低分组各自的考卷数
+    private Integer groupSize = 0;
+    private Long scanMillis = 0L;
+    private LocalDateTime generatedAt;
+    private List<QuestionItem> questions = new ArrayList<>();
+
+    public ItemAnalysisDTO() {
+    }
+
+    public ItemAnalysisDTO(Long competitionId) {
+        this.competitionId = competitionId;
+        this.generatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public void setCompetitionId(Long competitionId) {
+        this.competitionId = competitionId;
+    }
+
+    public Integer getPaperCount() {
+        return paperCount;
+    }
+
+    public void setPaperCount(Integer paperCount) {
+        this.paperCount = paperCount;
+    }
+
+    public Long getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(Long answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public Integer getGroupSize() {
+        return groupSize;
+    }
+
+    public void setGroupSize(Integer groupSize) {
+        this.groupSize = groupSize;
+    }
+
+    public Long getScanMillis() {
+        return scanMillis;
+    }
+
+    public void setScanMillis(Long scanMillis) {
+        this.scanMillis = scanMillis;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    public List<QuestionItem> getQuestions() {
+        return questions;
+    }
+
+    public void setQuestions(List<QuestionItem> questions) {
+        this.questions = questions;
+    }
+
+    /**
+     * 单题分析结果
+     */
+    public static class QuestionItem {
+        private Long questionId;
+        private Integer questionOrder;
+        private String title;
+        private String type;
+        private Double maxScore;
+        // 作答人数（含未作答的空答案）
+        private Long attempts = 0L;
+        private Long blankCount = 0L;
+        // 已评分人数（待人工评分的答案不计入得分统计）
+        private Long gradedCount = 0L;
+        private Long correctCount = 0L;
+        private Double correctRate;
+        private Double averageScore;
+        private Double difficulty;
+        private Double upperRate;
+        private Double lowerRate;
+        private Double discrimination;
+        // 选项 -> 选择人数（仅客观题）
+        private Map<String, Long> optionDistribution;
+
+        public Long getQuestionId() {
+            return questionId;
+        }
+
+        public void setQuestionId(Long questionId) {
+            this.questionId = questionId;
+        }
+
+        public Integer getQuestionOrder() {
+            return questionOrder;
+        }
+
+        public void setQuestionOrder(Integer questionOrder) {
+            this.questionOrder = questionOrder;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Double getMaxScore() {
+            return maxScore;
+        }
+
+        public void setMaxScore(Double maxScore) {
+            this.maxScore = maxScore;
+        }
+
+        public Long getAttempts() {
+            return attempts;
+        }
+
+        public void setAttempts(Long attempts) {
+            this.attempts = attempts;
+        }
+
+        public Long getBlankCount() {
+            return blankCount;
+        }
+
+        public void setBlankCount(Long blankCount) {
+            this.blankCount = blankCount;
+        }
+
+        public Long getGradedCount() {
+            return gradedCount;
+        }
+
+        public void setGradedCount(Long gradedCount) {
+            this.gradedCount = gradedCount;
+        }
+
+        public Long getCorrectCount() {
+            return correctCount;
+        }
+
+        public void setCorrectCount(Long correctCount) {
+            this.correctCount = correctCount;
+        }
+
+        public Double getCorrectRate() {
+            return correctRate;
+        }
+
+        public void setCorrectRate(Double correctRate) {
+            this.correctRate = correctRate;
+        }
+
+        public Double getAverageScore() {
+            return averageScore;
+        }
+
+        public void setAverageScore(Double averageScore) {
+            this.averageScore = averageScore;
+        }
+
+        public Double getDifficulty() {
+            return difficulty;
+        }
+
+        public void setDifficulty(Double difficulty) {
+            this.difficulty = difficulty;
+        }
+
+        public Double getUpperRate() {
+            return upperRate;
+        }
+
+        public void setUpperRate(Double upperRate) {
+            this.upperRate = upperRate;
+        }
+
+        public Double getLowerRate() {
+            return lowerRate;
+        }
+
+        public void setLowerRate(Double lowerRate) {
+            this.lowerRate = lowerRate;
+        }
+
+        public Double getDiscrimination() {
+            return discrimination;
+        }
+
+        public void setDiscrimination(Double discrimination) {
+            this.discrimination = discrimination;
+        }
+
+        public Map<String, Long> getOptionDistribution() {
+            return optionDistribution;
+        }
+
+        public void setOptionDistribution(Map<String, Long> optionDistribution) {
+            this.optionDistribution = optionDistribution;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 考前预热结果DTO（各阶段耗时，单位毫秒）
+ */
+public class PrewarmMetricsDTO {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private Long competitionId;
+    private String status = STATUS_RUNNING;
+    private Integer createdPapers = 0;
+    private Integer paperCount = 0;
+    private Integer participantUserCount = 0;
+    private Integer questionCount = 0;
+    private Long distributionMillis = 0L;
+    private Long snapshotMillis = 0L;
+    private Long sessionMillis = 0L;
+    private Long totalMillis = 0L;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private String errorMessage;
+
+    public PrewarmMetricsDTO() {
+    }
+
+    public PrewarmMetricsDTO(Long competitionId) {
+        this.competitionId = competitionId;
+        this.startTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public void setCompetitionId(Long competitionId) {
+        this.competitionId = competitionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getCreatedPapers() {
+        return createdPapers;
+    }
+
+    public void setCreatedPapers(Integer createdPapers) {
+        this.createdPapers = createdPapers;
+    }
+
+    public Integer getPaperCount() {
+        return paperCount;
+    }
+
+    public void setPaperCount(Integer paperCount) {
+        this.paperCount = paperCount;
+    }
+
+    public Integer getParticipantUserCount() {
+        return participantUserCount;
+    }
+
+    public void setParticipantUserCount(Integer participantUserCount) {
+        this.participantUserCount = participantUserCount;
+    }
+
+    public Integer getQuestionCount() {
+        return questionCount;
+    }
+
+    public void setQuestionCount(Integer questionCount) {
+        this.questionCount = questionCount;
+    }
+
+    public Long getDistributionMillis() {
+        return distributionMillis;
+    }
+
+    public void setDistributionMillis(Long distributionMillis) {
+        this.distributionMillis = distributionMillis;
+    }
+
+    public Long getSnapshotMillis() {
+        return snapshotMillis;
+    }
+
+    public void setSnapshotMillis(Long snapshotMillis) {
+        this.snapshotMillis = snapshotMillis;
+    }
+
+    public Long getSessionMillis() {
+        return sessionMillis;
+    }
+
+    public void setSessionMillis(Long sessionMillis) {
+        this.sessionMillis = sessionMillis;
+    }
+
+    public Long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(Long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 竞赛排名批量重算结果DTO（各阶段耗时，单位毫秒）
+ */
+public class RankingRecalculationDTO {
+
+    private Integer competitionCount = 0;
+    private Integer gradeCount = 0;
+    private Integer changedRows = 0;
+    private Integer failedCompetitions = 0;
+    private Long discoverMillis = 0L;
+    private Long computeMillis = 0L;
+    private Long writeMillis = 0L;
+    private Long totalMillis = 0L;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+
+    public RankingRecalculationDTO() {
+        this.startTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Integer getCompetitionCount() {
+        return competitionCount;
+    }
+
+    public void setCompetitionCount(Integer competitionCount) {
+        this.competitionCount = competitionCount;
+    }
+
+    public Integer getGradeCount() {
+        return gradeCount;
+    }
+
+    public void setGradeCount(Integer gradeCount) {
+        this.gradeCount = gradeCount;
+    }
+
+    public Integer getChangedRows() {
+        return changedRows;
+    }
+
+    public void setChangedRows(Integer changedRows) {
+        this.changedRows = changedRows;
+    }
+
+    public Integer getFailedCompetitions() {
+        return failedCompetitions;
+    }
+
+    public void setFailedCompetitions(Integer failedCompetitions) {
+        this.failedCompetitions = failedCompetitions;
+    }
+
+    public Long getDiscoverMillis() {
+        return discoverMillis;
+    }
+
+    public void setDiscoverMillis(Long discoverMillis) {
+        this.discoverMillis = discoverMillis;
+    }
+
+    public Long getComputeMillis() {
+        return computeMillis;
+    }
+
+    public void setComputeMillis(Long computeMillis) {
+        this.computeMillis = computeMillis;
+    }
+
+    public Long getWriteMillis() {
+        return writeMillis;
+    }
+
+    public void setWriteMillis(Long writeMillis) {
+        this.writeMillis = writeMillis;
+    }
+
+    public Long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public void setTotalMillis(Long totalMillis) {
+        this.totalMillis = totalMillis;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+}
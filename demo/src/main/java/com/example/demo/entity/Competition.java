@@ -98,6 +98,10 @@ public class Competition {
     @Column(name = "registration_count")
     private Integer registrationCount = 0;
 
+    // 题目集版本号，竞赛题目关联发生变化时递增
+    @Column(name = "question_set_version")
+    private Integer questionSetVersion = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -360,6 +364,14 @@ public class Competition {
         this.registrationCount = registrationCount;
     }
 
+    public Integer getQuestionSetVersion() {
+        return questionSetVersion;
+    }
+
+    public void setQuestionSetVersion(Integer questionSetVersion) {
+        this.questionSetVersion = questionSetVersion;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
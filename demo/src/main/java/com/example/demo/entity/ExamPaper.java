@@ -61,6 +61,10 @@ public class ExamPaper {
     @Column(name = "total_question_count")
     private Integer totalQuestionCount = 0;
 
+    // 下发时竞赛的题目集版本号（延迟生成答题记录模式下用于定位题目集）
+    @Column(name = "question_set_version")
+    private Integer questionSetVersion;
+
     @Column(name = "graded_by")
     private Long gradedBy;
 
@@ -233,6 +237,14 @@ public class ExamPaper {
         this.totalQuestionCount = totalQuestionCount;
     }
 
+    public Integer getQuestionSetVersion() {
+        return questionSetVersion;
+    }
+
+    public void setQuestionSetVersion(Integer questionSetVersion) {
+        this.questionSetVersion = questionSetVersion;
+    }
+
     public Long getGradedBy() {
         return gradedBy;
     }
@@ -0,0 +1,46 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * 已作废的令牌（登出、刷新令牌轮换），保留到令牌过期为止
+ * 由 TokenRevocationService 通过 JDBC 读写，服务重启后从该表恢复作废记录
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    // 令牌唯一ID（jti）
+    @Id
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+
+    // 令牌过期时间（毫秒时间戳）
+    @Column(name = "expires_at", nullable = false)
+    private Long expiresAt;
+
+    public RevokedToken() {}
+
+    public RevokedToken(String tokenId, Long expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -75,6 +75,11 @@ public class User {
     @Column(name = "attachment_url")
     private String attachmentUrl;
 
+    // 令牌版本：修改或重置密码时递增，签发时版本较旧的刷新令牌全部失效
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false, columnDefinition = "INT NOT NULL DEFAULT 0")
+    private Integer tokenVersion = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -281,4 +286,12 @@ public class User {
     public void setAttachmentUrl(String attachmentUrl) {
         this.attachmentUrl = attachmentUrl;
     }
+
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(Integer tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.demo.event;
+
+import com.example.demo.entity.Competition;
+
+import java.time.LocalDateTime;
+
+/**
+ * 竞赛状态自动变更事件（状态变更已提交后发布）
+ */
+public class CompetitionStatusChangedEvent {
+
+    private final Long competitionId;
+    private final Competition.CompetitionStatus fromStatus;
+    private final Competition.CompetitionStatus toStatus;
+    private final LocalDateTime changedAt;
+
+    public CompetitionStatusChangedEvent(Long competitionId, Competition.CompetitionStatus fromStatus,
+                                         Competition.CompetitionStatus toStatus, LocalDateTime changedAt) {
+        this.competitionId = competitionId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.changedAt = changedAt;
+    }
+
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public Competition.CompetitionStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public Competition.CompetitionStatus getToStatus() {
+        return toStatus;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CompetitionStatusChangedEvent{competitionId=" + competitionId +
+               ", " + fromStatus + " -> " + toStatus + ", changedAt=" + changedAt + "}";
+    }
+}
@@ -5,9 +5,11 @@ import com.example.demo.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -65,6 +67,25 @@ public interface CompetitionRepository extends JpaRepository<Competition, Long>
     // 检查竞赛名称是否存在
     boolean existsByName(String name);
     
+    // 递增竞赛题目集版本号（竞赛题目关联变化时调用）
+    @Transactional
+    @Modifying
+    @Query("UPDATE Competition c SET c.questionSetVersion = COALESCE(c.questionSetVersion, 0) + 1 WHERE c.id = :competitionId")
+    int incrementQuestionSetVersion(@Param("competitionId") Long competitionId);
+    
+    // 查询竞赛当前题目集版本号
+    @Query("SELECT COALESCE(c.questionSetVersion, 0) FROM Competition c WHERE c.id = :competitionId")
+    Integer findQuestionSetVersion(@Param("competitionId") Long competitionId);
+    
+    // 查找即将开始的竞赛（考前预热使用）
+    @Query("SELECT c.id FROM Competition c WHERE c.status = 'REGISTRATION_CLOSED' " +
+           "AND c.competitionStartTime > :now AND c.competitionStartTime <= :until")
+    List<Long> findIdsStartingBetween(@Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    // 查询竞赛结束时间
+    @Query("SELECT c.competitionEndTime FROM Competition c WHERE c.id = :competitionId")
+    LocalDateTime findCompetitionEndTime(@Param("competitionId") Long competitionId);
+    
     // 根据状态查找竞赛（分页）
     Page<Competition> findByStatus(Competition.CompetitionStatus status, Pageable pageable);
     
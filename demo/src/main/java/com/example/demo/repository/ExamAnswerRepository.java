@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,11 @@ public interface ExamAnswerRepository extends JpaRepository<ExamAnswer, Long> {
      */
     List<ExamAnswer> findByExamPaperId(Long examPaperId);
 
+    /**
+     * 根据多个考卷ID查找所有答案
+     */
+    List<ExamAnswer> findByExamPaperIdIn(Collection<Long> examPaperIds);
+
     /**
      * 根据考卷ID和题目ID查找答案
      */
@@ -4,10 +4,12 @@ import com.example.demo.entity.ExamPaper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +52,12 @@ public interface ExamPaperRepository extends JpaRepository<ExamPaper, Long> {
             Long participantId
     );
 
+    /**
+     * 查找竞赛中已存在考卷的参赛者(参赛类型, 参赛者ID)，用于批量下发前去重
+     */
+    @Query("SELECT ep.participantType, ep.participantId FROM ExamPaper ep WHERE ep.competitionId = :competitionId")
+    List<Object[]> findParticipantKeysByCompetitionId(@Param("competitionId") Long competitionId);
+
     /**
      * 根据状态查找考卷
      */
@@ -65,6 +73,42 @@ public interface ExamPaperRepository extends JpaRepository<ExamPaper, Long> {
      */
     long countByCompetitionId(Long competitionId);
 
+    /**
+     * 统计竞赛中指定状态的考卷数量
+     */
+    long countByCompetitionIdAndPaperStatus(Long competitionId, ExamPaper.PaperStatus status);
+
+    /**
+     * 考卷开始答题（仅未开始的考卷），返回更新行数
+     */
+    @Modifying
+    @Query("UPDATE ExamPaper ep SET ep.paperStatus = 'IN_PROGRESS', ep.startTime = :startTime, ep.updatedAt = :startTime " +
+           "WHERE ep.id = :id AND ep.paperStatus = 'NOT_STARTED'")
+    int markStarted(@Param("id") Long id, @Param("startTime") LocalDateTime startTime);
+
+    /**
+     * 查询所有答题中的考卷及其截止信息（考卷ID、竞赛ID、开始时间、竞赛结束时间）
+     */
+    @Query("SELECT ep.id, ep.competitionId, ep.startTime, c.competitionEndTime FROM ExamPaper ep, Competition c " +
+           "WHERE c.id = ep.competitionId AND ep.paperStatus = 'IN_PROGRESS'")
+    List<Object[]> findInProgressDeadlineInfo();
+
+    /**
+     * 查询竞赛中答题中的考卷（考卷ID、开始时间）
+     */
+    @Query("SELECT ep.id, ep.startTime FROM ExamPaper ep " +
+           "WHERE ep.competitionId = :competitionId AND ep.paperStatus = 'IN_PROGRESS'")
+    List<Object[]> findInProgressStartTimesByCompetitionId(@Param("competitionId") Long competitionId);
+
+    /**
+     * 按ID游标分页查询竞赛中已提交待评分的考卷ID（批量评分使用）
+     */
+    @Query("SELECT ep.id FROM ExamPaper ep WHERE ep.competitionId = :competitionId " +
+           "AND ep.paperStatus = 'SUBMITTED' AND ep.id > :lastId ORDER BY ep.id ASC")
+    List<Long> findSubmittedIdsAfter(@Param("competitionId") Long competitionId,
+                                     @Param("lastId") Long lastId,
+                                     Pageable pageable);
+
     /**
      * 统计竞赛中已提交的考卷数量
      */
@@ -85,6 +129,41 @@ public interface ExamPaperRepository extends JpaRepository<ExamPaper, Long> {
            "AND ep.paperStatus IN ('SUBMITTED', 'GRADING')")
     List<ExamPaper> findPendingGradingByCompetitionId(@Param("competitionId") Long competitionId);
 
+    // 待评分考卷列表查询（参赛者名称按参赛类型连接团队或用户，答案按考卷分组统计）
+    String PENDING_GRADING_SELECT =
+            "SELECT ep.id AS paperId, ep.competitionId AS competitionId, ep.participantType AS participantType, " +
+            "ep.participantId AS participantId, ep.submitTime AS submitTime, ep.objectiveScore AS objectiveScore, " +
+            "ep.totalQuestionCount AS totalQuestionCount, t.name AS teamName, u.realName AS realName, u.username AS username, " +
+            "SUM(CASE WHEN ea.gradingStatus IN ('PENDING', 'MANUAL_GRADING') THEN 1 ELSE 0 END) AS pendingCount, " +
+            "SUM(CASE WHEN ea.gradingStatus IN ('AUTO_GRADED', 'MANUAL_GRADED', 'COMPLETED') THEN 1 ELSE 0 END) AS gradedCount " +
+            "FROM ExamPaper ep " +
+            "LEFT JOIN Team t ON ep.participantType = 'TEAM' AND t.id = ep.participantId " +
+            "LEFT JOIN User u ON ep.participantType = 'INDIVIDUAL' AND u.id = ep.participantId " +
+            "LEFT JOIN ExamAnswer ea ON ea.examPaperId = ep.id ";
+
+    String PENDING_GRADING_GROUP_BY =
+            "GROUP BY ep.id, ep.competitionId, ep.participantType, ep.participantId, ep.submitTime, ep.objectiveScore, " +
+            "ep.totalQuestionCount, t.name, u.realName, u.username " +
+            "ORDER BY ep.id";
+
+    /**
+     * 待评分考卷列表（按考卷ID游标分页，一次查询带出参赛者名称和答案评分统计）
+     */
+    @Query(PENDING_GRADING_SELECT +
+           "WHERE ep.paperStatus IN ('SUBMITTED', 'GRADING') AND ep.id > :afterId " +
+           PENDING_GRADING_GROUP_BY)
+    List<PendingGradingView> findPendingGradingPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 竞赛待评分考卷列表（按考卷ID游标分页）
+     */
+    @Query(PENDING_GRADING_SELECT +
+           "WHERE ep.competitionId = :competitionId AND ep.paperStatus IN ('SUBMITTED', 'GRADING') AND ep.id > :afterId " +
+           PENDING_GRADING_GROUP_BY)
+    List<PendingGradingView> findPendingGradingPageByCompetitionId(@Param("competitionId") Long competitionId,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Pageable pageable);
+
     /**
      * 计算竞赛的平均分
      */
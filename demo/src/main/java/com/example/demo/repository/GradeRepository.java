@@ -83,6 +83,11 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
     @Query("SELECT g FROM Grade g WHERE g.competition.id = :competitionId ORDER BY g.score DESC")
     List<Grade> findCompetitionRankingList(@Param("competitionId") Long competitionId);
     
+    // 加载竞赛内存排行榜：成绩ID、团队ID、团队名称、分数、排名、是否最终成绩、评分时间
+    @Query("SELECT g.id, g.team.id, g.team.name, g.score, g.ranking, g.isFinal, g.gradedAt FROM Grade g " +
+           "WHERE g.competition.id = :competitionId AND g.score IS NOT NULL")
+    List<Object[]> findLeaderboardRows(@Param("competitionId") Long competitionId);
+    
     // 根据团队成员用户ID查找成绩
     Page<Grade> findByTeamMembersUserId(Long userId, Pageable pageable);
     
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ExamPaper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 待评分考卷列表投影（考卷信息、参赛者名称、主观题评分进度）
+ */
+public interface PendingGradingView {
+
+    Long getPaperId();
+
+    Long getCompetitionId();
+
+    ExamPaper.ParticipantType getParticipantType();
+
+    Long getParticipantId();
+
+    LocalDateTime getSubmitTime();
+
+    BigDecimal getObjectiveScore();
+
+    Integer getTotalQuestionCount();
+
+    // 团队参赛时的团队名称
+    String getTeamName();
+
+    // 个人参赛时的姓名和用户名
+    String getRealName();
+
+    String getUsername();
+
+    Long getPendingCount();
+
+    Long getGradedCount();
+}
@@ -48,6 +48,17 @@ public interface RegistrationRepository extends JpaRepository<Registration, Long
     // 根据竞赛实体和状态查找报名（分页）
     Page<Registration> findByCompetitionAndStatus(com.example.demo.entity.Competition competition, Registration.RegistrationStatus status, Pageable pageable);
     
+    // 查找竞赛已批准报名的参赛信息（团队ID、团队最大人数、队长ID），用于批量下发考卷
+    @Query("SELECT t.id, t.maxMembers, t.leader.id FROM Registration r JOIN r.team t " +
+           "WHERE r.competition.id = :competitionId AND r.status = 'APPROVED'")
+    List<Object[]> findApprovedParticipantsByCompetitionId(@Param("competitionId") Long competitionId);
+
+    // 查找竞赛已批准报名团队的在队成员（团队ID、团队最大人数、队长ID、成员用户ID），用于考前预热
+    @Query("SELECT t.id, t.maxMembers, t.leader.id, tm.user.id FROM Registration r JOIN r.team t, TeamMember tm " +
+           "WHERE tm.team.id = t.id AND r.competition.id = :competitionId AND r.status = 'APPROVED' " +
+           "AND tm.status = 'ACTIVE'")
+    List<Object[]> findApprovedMemberUserIdsByCompetitionId(@Param("competitionId") Long competitionId);
+    
     // 根据支付状态查找报名
     List<Registration> findByPaymentStatus(Registration.PaymentStatus paymentStatus);
     
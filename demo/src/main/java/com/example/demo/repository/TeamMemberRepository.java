@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,14 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
     @Query("SELECT tm FROM TeamMember tm JOIN FETCH tm.user WHERE tm.team.id = :teamId")
     List<TeamMember> findByTeamIdWithUser(@Param("teamId") Long teamId);
     
+    // 批量查找多个团队的成员（同时加载用户信息）
+    @Query("SELECT tm FROM TeamMember tm JOIN FETCH tm.user WHERE tm.team.id IN :teamIds")
+    List<TeamMember> findByTeamIdInWithUser(@Param("teamIds") Collection<Long> teamIds);
+    
+    // 查找团队全部成员的用户ID
+    @Query("SELECT tm.user.id FROM TeamMember tm WHERE tm.team.id = :teamId")
+    List<Long> findUserIdsByTeamId(@Param("teamId") Long teamId);
+
     // 根据用户查找团队成员记录
     List<TeamMember> findByUserId(Long userId);
     
@@ -0,0 +1,303 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExamAnswer;
+import com.example.demo.entity.Question;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 竞赛答案索引（预编译的标准答案）
+ * 竞赛题目的标准答案只解析一次：单选/多选题的选项转换为位掩码，判断题转换为规范化字符串，
+ * 评分时每个答案只做一次位运算或字符串比较，不需要查询数据库。
+ *
+ * 评分规则：
+ * 单选题/判断题完全匹配得满分；多选题完全正确得满分，只选了部分正确选项按比例得50%的分数，有错误选项不得分；
+ * 客观题未作答得0分；主观题等待人工评分，已人工评分的主观题保留原分数。
+ */
+public final class AnswerKey {
+
+    private static final BigDecimal PARTIAL_CREDIT_RATE = BigDecimal.valueOf(0.5);
+
+    private final Long competitionId;
+    private final Map<Long, CompiledQuestion> questions;
+
+    private AnswerKey(Long competitionId, Map<Long, CompiledQuestion> questions) {
+        this.competitionId = competitionId;
+        this.questions = questions;
+    }
+
+    /**
+     * 编译竞赛答案索引
+     */
+    public static AnswerKey compile(Long competitionId, Collection<Question> questions) {
+        Map<Long, CompiledQuestion> compiled = new HashMap<>(questions.size() * 2);
+        for (Question question : questions) {
+            compiled.put(question.getId(), new CompiledQuestion(question.getType(), question.getCorrectAnswer()));
+        }
+        return new AnswerKey(competitionId, Collections.unmodifiableMap(compiled));
+    }
+
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public int getQuestionCount() {
+        return questions.size();
+    }
+
+    /**
+     * 评分一份考卷的全部答案（不修改答案对象，结果由调用方统一写入）
+     */
+    public PaperGradeResult gradePaper(List<ExamAnswer> answers) {
+        List<AnswerGrade> grades = new ArrayList<>(answers.size());
+        BigDecimal objectiveScore = BigDecimal.ZERO;
+        BigDecimal subjectiveScore = BigDecimal.ZERO;
+        int correctCount = 0;
+        boolean needManualGrading = false;
+
+        for (ExamAnswer answer : answers) {
+            CompiledQuestion question = questions.get(answer.getQuestionId());
+            if (question == null) {
+                // 题目已不属于该竞赛，不参与评分
+                continue;
+            }
+
+            if (!question.objective) {
+                // 已人工评分的主观题保留原分数（重新评分时不覆盖）
+                if (answer.getGradingStatus() == ExamAnswer.GradingStatus.MANUAL_GRADED) {
+                    if (answer.getScore() != null) {
+                        subjectiveScore = subjectiveScore.add(answer.getScore());
+                    }
+                    continue;
+                }
+                grades.add(new AnswerGrade(answer.getId(), null, null, ExamAnswer.GradingStatus.PENDING));
+                needManualGrading = true;
+                continue;
+            }
+
+            BigDecimal maxScore = answer.getMaxScore() != null ? answer.getMaxScore() : BigDecimal.ZERO;
+            BigDecimal score;
+            boolean isCorrect;
+
+            if (question.type == Question.QuestionType.MULTIPLE_CHOICE) {
+                int correctPicked = question.matchMultipleChoice(answer.getAnswerContent());
+                isCorrect = correctPicked == CompiledQuestion.FULLY_CORRECT;
+                if (isCorrect) {
+                    score = maxScore;
+                } else if (correctPicked > 0) {
+                    // 只有正确选项，按比例给分(答对比例 * 50%满分)
+                    double ratio = (double) correctPicked / question.correctOptionCount;
+                    score = maxScore.multiply(BigDecimal.valueOf(ratio)).multiply(PARTIAL_CREDIT_RATE);
+                } else {
+                    score = BigDecimal.ZERO;
+                }
+            } else {
+                isCorrect = question.matchExact(answer.getAnswerContent());
+                score = isCorrect ? maxScore : BigDecimal.ZERO;
+            }
+
+            objectiveScore = objectiveScore.add(score);
+            if (isCorrect) {
+                correctCount++;
+            }
+            grades.add(new AnswerGrade(answer.getId(), isCorrect, score, ExamAnswer.GradingStatus.AUTO_GRADED));
+        }
+
+        return new PaperGradeResult(grades, objectiveScore, subjectiveScore, correctCount, needManualGrading);
+    }
+
+    /**
+     * 单题的预编译标准答案
+     */
+    private static final class CompiledQuestion {
+
+        static final int FULLY_CORRECT = Integer.MAX_VALUE;
+
+        private final Question.QuestionType type;
+        private final boolean objective;
+        // 规范化后的标准答案（去除首尾空格、转大写）
+        private final String normalizedAnswer;
+        // 选项位掩码(A=第0位)，标准答案不是单字母选项时为-1，此时按选项字符串集合比较
+        private final long optionMask;
+        private final Set<String> optionSet;
+        private final int correctOptionCount;
+
+        CompiledQuestion(Question.QuestionType type, String correctAnswer) {
+            this.type = type;
+            this.objective = type == Question.QuestionType.SINGLE_CHOICE ||
+                             type == Question.QuestionType.MULTIPLE_CHOICE ||
+                             type == Question.QuestionType.TRUE_FALSE;
+            this.normalizedAnswer = correctAnswer == null ? null : correctAnswer.trim().toUpperCase();
+
+            if (type == Question.QuestionType.MULTIPLE_CHOICE && normalizedAnswer != null) {
+                long mask = toOptionMask(normalizedAnswer);
+                this.optionMask = mask;
+                this.optionSet = mask < 0 ? toOptionSet(normalizedAnswer) : null;
+                this.correctOptionCount = mask < 0 ? optionSet.size() : Long.bitCount(mask);
+            } else {
+                this.optionMask = -1;
+                this.optionSet = null;
+                this.correctOptionCount = 0;
+            }
+        }
+
+        /**
+         * 单选题/判断题：完全匹配（忽略首尾空格和大小写）
+         */
+        boolean matchExact(String answer) {
+            if (normalizedAnswer == null || answer == null) {
+                return false;
+            }
+            String trimmed = answer.trim();
+            return !trimmed.isEmpty() && normalizedAnswer.equalsIgnoreCase(trimmed);
+        }
+
+        /**
+         * 多选题：完全正确返回 FULLY_CORRECT，只选了正确选项返回选中的正确选项数，否则返回0
+         */
+        int matchMultipleChoice(String answer) {
+            if (normalizedAnswer == null || answer == null || answer.trim().isEmpty()) {
+                return 0;
+            }
+
+            if (optionMask >= 0) {
+                long picked = toOptionMask(answer);
+                if (picked >= 0) {
+                    if (picked == optionMask) {
+                        return FULLY_CORRECT;
+                    }
+                    return (picked & ~optionMask) == 0 ? Long.bitCount(picked) : 0;
+                }
+                // 作答中有非单字母选项，必然包含错误选项
+                return 0;
+            }
+
+            Set<String> picked = toOptionSet(answer);
+            if (picked.equals(optionSet)) {
+                return FULLY_CORRECT;
+            }
+            return optionSet.containsAll(picked) ? picked.size() : 0;
+        }
+
+        /**
+         * 逗号分隔的单字母选项转换为位掩码，如 "A,C" -> 0b101；存在非单字母选项时返回-1
+         */
+        static long toOptionMask(String value) {
+            long mask = 0;
+            int length = value.length();
+            int start = 0;
+            while (start <= length) {
+                int end = value.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+
+                int from = start;
+                int to = end;
+                while (from < to && Character.isWhitespace(value.charAt(from))) {
+                    from++;
+                }
+                while (to > from && Character.isWhitespace(value.charAt(to - 1))) {
+                    to--;
+                }
+
+                if (to - from == 1) {
+                    char option = Character.toUpperCase(value.charAt(from));
+                    if (option < 'A' || option > 'Z') {
+                        return -1;
+                    }
+                    mask |= 1L << (option - 'A');
+                } else if (to > from) {
+                    return -1;
+                }
+                start = end + 1;
+            }
+            return mask;
+        }
+
+        static Set<String> toOptionSet(String value) {
+            Set<String> options = new HashSet<>();
+            for (String option : value.split(",")) {
+                String trimmed = option.trim().toUpperCase();
+                if (!trimmed.isEmpty()) {
+                    options.add(trimmed);
+                }
+            }
+            return options;
+        }
+    }
+
+    /**
+     * 单个答案的评分结果，score/isCorrect 为 null 表示等待人工评分
+     */
+    public static final class AnswerGrade {
+        private final Long answerId;
+        private final Boolean isCorrect;
+        private final BigDecimal score;
+        private final ExamAnswer.GradingStatus gradingStatus;
+
+        AnswerGrade(Long answerId, Boolean isCorrect, BigDecimal score, ExamAnswer.GradingStatus gradingStatus) {
+            this.answerId = answerId;
+            this.isCorrect = isCorrect;
+            this.score = score;
+            this.gradingStatus = gradingStatus;
+        }
+
+        public Long getAnswerId() {
+            return answerId;
+        }
+
+        public Boolean getIsCorrect() {
+            return isCorrect;
+        }
+
+        public BigDecimal getScore() {
+            return score;
+        }
+
+        public ExamAnswer.GradingStatus getGradingStatus() {
+            return gradingStatus;
+        }
+    }
+
+    /**
+     * 一份考卷的评分结果
+     */
+    public static final class PaperGradeResult {
+        private final List<AnswerGrade> answerGrades;
+        private final BigDecimal objectiveScore;
+        private final BigDecimal subjectiveScore;
+        private final int correctCount;
+        private final boolean needManualGrading;
+
+        PaperGradeResult(List<AnswerGrade> answerGrades, BigDecimal objectiveScore, BigDecimal subjectiveScore,
+                         int correctCount, boolean needManualGrading) {
+            this.answerGrades = answerGrades;
+            this.objectiveScore = objectiveScore;
+            this.subjectiveScore = subjectiveScore;
+            this.correctCount = correctCount;
+            this.needManualGrading = needManualGrading;
+        }
+
+        public List<AnswerGrade> getAnswerGrades() {
+            return answerGrades;
+        }
+
+        public BigDecimal getObjectiveScore() {
+            return objectiveScore;
+        }
+
+        public BigDecimal getSubjectiveScore() {
+            return subjectiveScore;
+        }
+
+        public int getCorrectCount() {
+            return correctCount;
+        }
+
+        public boolean isNeedManualGrading() {
+            return needManualGrading;
+        }
+    }
+}
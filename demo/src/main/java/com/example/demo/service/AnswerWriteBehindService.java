@@ -0,0 +1,498 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 答案异步写入服务（write-behind）
+ * 学生自动保存的答案先写入本地日志并缓存在内存中，同一考卷同一题目只保留最新答案，
+ * 由定时任务合并后批量写入 exam_answers；提交答卷时先等待定时任务写完该考卷已取出的答案，
+ * 再同步写入该考卷的全部缓存答案。
+ * 服务重启时从本地日志恢复尚未写入数据库的答案。
+ */
+@Service
+public class AnswerWriteBehindService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnswerWriteBehindService.class);
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    // 只更新进行中考卷的答案，避免提交后到达的旧答案覆盖已评分的数据
+    private static final String UPDATE_ANSWER_SQL =
+            "UPDATE exam_answers a JOIN exam_papers p ON p.id = a.exam_paper_id " +
+            "SET a.answer_content = ?, a.updated_at = ? " +
+            "WHERE a.exam_paper_id = ? AND a.question_id = ? AND p.paper_status = 'IN_PROGRESS'";
+
+    // 答题记录不存在时(延迟生成模式)按竞赛题目配置创建
+    private static final String INSERT_ANSWER_SQL =
+            "INSERT INTO exam_answers (exam_paper_id, question_id, answer_content, score, max_score, " +
+            "grading_status, created_at, updated_at) " +
+            "SELECT p.id, cq.question_id, ?, 0, cq.question_score, 'PENDING', ?, ? " +
+            "FROM exam_papers p JOIN competition_questions cq ON cq.competition_id = p.competition_id " +
+            "WHERE p.id = ? AND cq.question_id = ? AND p.paper_status = 'IN_PROGRESS'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${exam.answer.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${exam.answer.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${exam.answer.write-behind.journal-dir:./data/answer-journal}")
+    private String journalDir;
+
+    @Value("${exam.answer.write-behind.fsync:false}")
+    private boolean fsync;
+
+    @Value("${exam.answer.write-behind.in-flight-wait-ms:5000}")
+    private long inFlightWaitMs;
+
+    // 考卷ID -> (题目ID -> 最新答案)
+    private final Map<Long, Map<Long, PendingAnswer>> pendingAnswers = new ConcurrentHashMap<>();
+
+    // 定时任务已取出、正在写入的答案（考卷ID -> (题目ID -> 答案)）
+    private final Map<Long, Map<Long, PendingAnswer>> inFlightAnswers = new ConcurrentHashMap<>();
+
+    // 写日志与缓存答案、切换日志文件使用同一把锁，保证日志文件与缓存一致
+    private final Object journalLock = new Object();
+
+    private final AtomicLong journalSequence = new AtomicLong();
+
+    // 答案保存顺序号，重新放回缓存时用于判断新旧
+    private final AtomicLong answerSequence = new AtomicLong();
+
+    private Path journalPath;
+    private FileOutputStream journalOut;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+
+        // 读取上次未写入数据库的答案（后写入的覆盖先写入的）
+        List<Path> oldJournals = listJournals(dir);
+        int recovered = 0;
+        for (Path journal : oldJournals) {
+            try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    PendingAnswer answer = PendingAnswer.parse(line, answerSequence.incrementAndGet());
+                    if (answer != null) {
+                        pendingAnswers.computeIfAbsent(answer.examPaperId, k -> new ConcurrentHashMap<>())
+                                .put(answer.questionId, answer);
+                        recovered++;
+                    }
+                }
+            }
+        }
+
+        synchronized (journalLock) {
+            openNewJournal();
+            for (Map<Long, PendingAnswer> answers : pendingAnswers.values()) {
+                for (PendingAnswer answer : answers.values()) {
+                    appendJournal(answer);
+                }
+            }
+        }
+        for (Path journal : oldJournals) {
+            Files.deleteIfExists(journal);
+        }
+
+        logger.info("答案异步写入已启用: journalDir={}, 恢复答案记录数={}", dir.toAbsolutePath(), recovered);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        synchronized (journalLock) {
+            closeJournal();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 缓存答案，写入本地日志后返回
+     */
+    public void enqueue(Long examPaperId, Long questionId, String answerContent) {
+        synchronized (journalLock) {
+            PendingAnswer answer = new PendingAnswer(examPaperId, questionId, answerContent,
+                    answerSequence.incrementAndGet());
+            appendJournal(answer);
+            pendingAnswers.computeIfAbsent(examPaperId, k -> new ConcurrentHashMap<>()).put(questionId, answer);
+        }
+    }
+
+    /**
+     * 获取考卷尚未写入数据库的答案（题目ID -> 答案内容）
+     */
+    public Map<Long, String> getPendingAnswers(Long examPaperId) {
+        Map<Long, PendingAnswer> answers = collectPaperAnswers(examPaperId, false);
+        if (answers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, String> result = new HashMap<>();
+        for (PendingAnswer answer : answers.values()) {
+            result.put(answer.questionId, answer.answerContent);
+        }
+        return result;
+    }
+
+    /**
+     * 同步写入某个考卷的缓存答案
+     * 先等待定时任务写完该考卷已取出的答案（写入失败的会放回缓存），避免其晚于本次写入落库；
+     * 等待超时则接管这些答案一并写入。在事务中调用时随事务提交，事务回滚则答案重新放回缓存
+     */
+    public void flushPaper(Long examPaperId) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<Long, PendingAnswer> removed;
+        synchronized (journalLock) {
+            awaitInFlight(examPaperId);
+            removed = collectPaperAnswers(examPaperId, true);
+        }
+        if (removed.isEmpty()) {
+            return;
+        }
+
+        List<PendingAnswer> answers = new ArrayList<>(removed.values());
+        try {
+            writeAnswers(answers);
+        } catch (RuntimeException e) {
+            requeue(answers);
+            throw e;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        requeue(answers);
+                    }
+                }
+            });
+        }
+        logger.debug("考卷答案已同步写入: examPaperId={}, count={}", examPaperId, answers.size());
+    }
+
+    /**
+     * 定时合并写入缓存答案
+     */
+    @Scheduled(fixedDelayString = "${exam.answer.write-behind.flush-interval-ms:2000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        List<PendingAnswer> answers = new ArrayList<>();
+        Path flushedJournal;
+        synchronized (journalLock) {
+            if (pendingAnswers.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<Long, Map<Long, PendingAnswer>> entry : pendingAnswers.entrySet()) {
+                answers.addAll(entry.getValue().values());
+                inFlightAnswers.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+                        .putAll(entry.getValue());
+            }
+            pendingAnswers.clear();
+            // 切换到新的日志文件，旧文件中的答案都在本次写入范围内
+            flushedJournal = journalPath;
+            closeJournal();
+            openNewJournal();
+        }
+
+        long start = System.currentTimeMillis();
+        int failedCount = 0;
+        for (int from = 0; from < answers.size(); from += batchSize) {
+            List<PendingAnswer> chunk = answers.subList(from, Math.min(from + batchSize, answers.size()));
+            Set<PendingAnswer> failed = new HashSet<>();
+            try {
+                writeChunkInTransaction(chunk);
+            } catch (RuntimeException e) {
+                // 整批失败时逐条重试，只有仍然失败的答案放回缓存
+                logger.warn("缓存答案批量写入失败，逐条重试: count={}, error={}", chunk.size(), e.getMessage());
+                for (PendingAnswer answer : chunk) {
+                    try {
+                        writeChunkInTransaction(Collections.singletonList(answer));
+                    } catch (RuntimeException rowError) {
+                        failed.add(answer);
+                    }
+                }
+            }
+            // 每批写完即释放，等待中的 flushPaper 无需等到全部写完
+            releaseInFlight(chunk, failed);
+            failedCount += failed.size();
+        }
+
+        if (failedCount == 0) {
+            logger.debug("缓存答案批量写入完成: count={}, elapsed={}ms", answers.size(), System.currentTimeMillis() - start);
+        } else {
+            logger.error("缓存答案写入失败，稍后重试: count={}, failed={}", answers.size(), failedCount);
+        }
+
+        try {
+            Files.deleteIfExists(flushedJournal);
+        } catch (IOException e) {
+            logger.warn("删除答案日志文件失败: {}", flushedJournal, e);
+        }
+    }
+
+    /**
+     * 等待定时任务写完该考卷已取出的答案，需持有 journalLock 调用
+     */
+    private void awaitInFlight(Long examPaperId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(inFlightWaitMs);
+        while (inFlightAnswers.containsKey(examPaperId)) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                logger.warn("等待定时写入超时，由提交流程接管写入: examPaperId={}", examPaperId);
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(journalLock, remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 取出某个考卷的缓存答案和正在写入的答案（缓存中的答案更新）
+     *
+     * @param remove 是否从缓存中移除（由调用方负责写入）
+     */
+    private Map<Long, PendingAnswer> collectPaperAnswers(Long examPaperId, boolean remove) {
+        Map<Long, PendingAnswer> result = new HashMap<>();
+        synchronized (journalLock) {
+            Map<Long, PendingAnswer> inFlight = remove ? inFlightAnswers.remove(examPaperId)
+                    : inFlightAnswers.get(examPaperId);
+            if (inFlight != null) {
+                result.putAll(inFlight);
+            }
+            Map<Long, PendingAnswer> pending = remove ? pendingAnswers.remove(examPaperId)
+                    : pendingAnswers.get(examPaperId);
+            if (pending != null) {
+                result.putAll(pending);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 定时任务一批写入结束：移除正在写入的记录，写入失败的放回缓存，并唤醒等待的 flushPaper
+     * 已被 flushPaper 接管的答案由其负责，不再放回
+     */
+    private void releaseInFlight(List<PendingAnswer> answers, Set<PendingAnswer> failed) {
+        synchronized (journalLock) {
+            for (PendingAnswer answer : answers) {
+                Map<Long, PendingAnswer> paperAnswers = inFlightAnswers.get(answer.examPaperId);
+                if (paperAnswers == null || !paperAnswers.remove(answer.questionId, answer)) {
+                    continue;
+                }
+                if (paperAnswers.isEmpty()) {
+                    inFlightAnswers.remove(answer.examPaperId, paperAnswers);
+                }
+                if (failed.contains(answer)) {
+                    requeueLocked(answer);
+                }
+            }
+            journalLock.notifyAll();
+        }
+    }
+
+    /**
+     * 写入失败的答案放回缓存（已有更新的答案时保留新答案），并重新写入当前日志文件
+     */
+    private void requeue(List<PendingAnswer> answers) {
+        synchronized (journalLock) {
+            for (PendingAnswer answer : answers) {
+                requeueLocked(answer);
+            }
+        }
+    }
+
+    private void requeueLocked(PendingAnswer answer) {
+        PendingAnswer current = pendingAnswers
+                .computeIfAbsent(answer.examPaperId, k -> new ConcurrentHashMap<>())
+                .merge(answer.questionId, answer,
+                        (existing, failedAnswer) -> existing.sequence >= failedAnswer.sequence ? existing : failedAnswer);
+        if (current == answer) {
+            appendJournal(answer);
+        }
+    }
+
+    private void writeAnswers(List<PendingAnswer> answers) {
+        for (int from = 0; from < answers.size(); from += batchSize) {
+            writeChunkInTransaction(answers.subList(from, Math.min(from + batchSize, answers.size())));
+        }
+    }
+
+    private void writeChunkInTransaction(List<PendingAnswer> chunk) {
+        transactionTemplate.executeWithoutResult(status -> writeChunk(chunk));
+    }
+
+    private void writeChunk(List<PendingAnswer> chunk) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_ANSWER_SQL, chunk, chunk.size(), (ps, answer) -> {
+            ps.setString(1, answer.answerContent);
+            ps.setTimestamp(2, now);
+            ps.setLong(3, answer.examPaperId);
+            ps.setLong(4, answer.questionId);
+        })[0];
+
+        List<PendingAnswer> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(chunk.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL, missing, missing.size(), (ps, answer) -> {
+            ps.setString(1, answer.answerContent);
+            ps.setTimestamp(2, now);
+            ps.setTimestamp(3, now);
+            ps.setLong(4, answer.examPaperId);
+            ps.setLong(5, answer.questionId);
+        })[0];
+
+        int dropped = 0;
+        for (int count : inserted) {
+            if (count == 0) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            // 考卷已提交或题目不属于该竞赛
+            logger.debug("忽略无法写入的缓存答案: count={}", dropped);
+        }
+    }
+
+    private void appendJournal(PendingAnswer answer) {
+        try {
+            journalOut.write(answer.toJournalLine().getBytes(StandardCharsets.UTF_8));
+            if (fsync) {
+                journalOut.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("答案保存失败，请重试", e);
+        }
+    }
+
+    private void openNewJournal() {
+        String fileName = String.format("answers-%013d-%06d%s",
+                System.currentTimeMillis(), journalSequence.incrementAndGet(), JOURNAL_SUFFIX);
+        journalPath = Paths.get(journalDir).resolve(fileName);
+        try {
+            journalOut = new FileOutputStream(journalPath.toFile(), true);
+        } catch (IOException e) {
+            throw new RuntimeException("无法创建答案日志文件: " + journalPath, e);
+        }
+    }
+
+    private void closeJournal() {
+        try {
+            journalOut.close();
+        } catch (IOException e) {
+            logger.warn("关闭答案日志文件失败: {}", journalPath, e);
+        }
+    }
+
+    private List<Path> listJournals(Path dir) throws IOException {
+        List<Path> journals = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + JOURNAL_SUFFIX)) {
+            for (Path path : stream) {
+                journals.add(path);
+            }
+        }
+        // 文件名按创建时间和序号生成，按名称排序即为写入顺序
+        journals.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        return journals;
+    }
+
+    /**
+     * 缓存中的答案
+     * 日志格式: 考卷ID \t 题目ID \t Base64(答案内容)，答案为空时记为 -
+     */
+    private static final class PendingAnswer {
+        private final Long examPaperId;
+        private final Long questionId;
+        private final String answerContent;
+        private final long sequence;
+
+        private PendingAnswer(Long examPaperId, Long questionId, String answerContent, long sequence) {
+            this.examPaperId = examPaperId;
+            this.questionId = questionId;
+            this.answerContent = answerContent;
+            this.sequence = sequence;
+        }
+
+        private String toJournalLine() {
+            String content = answerContent == null ? "-"
+                    : Base64.getEncoder().encodeToString(answerContent.getBytes(StandardCharsets.UTF_8));
+            return examPaperId + "\t" + questionId + "\t" + content + "\n";
+        }
+
+        private static PendingAnswer parse(String line, long sequence) {
+            String[] parts = line.split("\t");
+            if (parts.length != 3) {
+                // 写入中途崩溃导致的不完整行
+                return null;
+            }
+            try {
+                String content = "-".equals(parts[2]) ? null
+                        : new String(Base64.getDecoder().decode(parts[2]), StandardCharsets.UTF_8);
+                return new PendingAnswer(Long.parseLong(parts[0]), Long.parseLong(parts[1]), content, sequence);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GradingProgressDTO;
+import com.example.demo.entity.ExamAnswer;
+import com.example.demo.entity.ExamPaper;
+import com.example.demo.repository.CompetitionRepository;
+import com.example.demo.repository.ExamAnswerRepository;
+import com.example.demo.repository.ExamPaperRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 竞赛批量自动评分服务
+ * 按考卷ID游标分批读取竞赛中已提交的考卷，交给有界线程池并行评分，
+ * 每批的答案和考卷评分结果各用一次 JDBC 批量更新写回。
+ * 只处理"已提交"状态的考卷，重复执行或中断后重新执行只会处理剩余考卷。
+ */
+@Service
+public class BatchGradingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchGradingService.class);
+
+    // 只更新仍为"已提交"的考卷，避免覆盖其他途径已完成的评分
+    private static final String UPDATE_PAPER_SQL =
+            "UPDATE exam_papers SET objective_score = ?, subjective_score = COALESCE(?, subjective_score), " +
+            "total_score = ?, correct_count = ?, paper_status = ?, graded_at = COALESCE(?, graded_at), updated_at = ? " +
+            "WHERE id = ? AND paper_status = 'SUBMITTED'";
+
+    @Autowired
+    private ExamPaperRepository examPaperRepository;
+
+    @Autowired
+    private ExamAnswerRepository examAnswerRepository;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private ObjectiveGradingService objectiveGradingService;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Value("${exam.grading.batch-size:200}")
+    private int batchSize;
+
+    @Value("${exam.grading.worker-threads:4}")
+    private int workerThreads;
+
+    private final Map<Long, GradingProgressDTO> progressMap = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor workerPool;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 队列满时由提交任务的线程自己评分，避免一次性读入过多考卷
+        workerPool = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workerThreads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-grading-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    /**
+     * 批量自动评分竞赛中所有已提交的考卷
+     */
+    public GradingProgressDTO autoGradeCompetition(Long competitionId) {
+        if (!competitionRepository.existsById(competitionId)) {
+            throw new RuntimeException("竞赛不存在");
+        }
+
+        // 原子地占用该竞赛的评分任务，并发请求不会同时开始评分
+        GradingProgressDTO progress = new GradingProgressDTO(competitionId);
+        GradingProgressDTO current = progressMap.compute(competitionId, (id, previous) ->
+                previous != null && GradingProgressDTO.STATUS_RUNNING.equals(previous.getStatus())
+                        ? previous : progress);
+        if (current != progress) {
+            throw new RuntimeException("该竞赛正在批量评分，请稍后查看进度");
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            AnswerKey answerKey = objectiveGradingService.getAnswerKey(competitionId);
+            long total = examPaperRepository.countByCompetitionIdAndPaperStatus(
+                    competitionId, ExamPaper.PaperStatus.SUBMITTED);
+            progress.setTotalPapers((int) total);
+
+            logger.info("开始批量自动评分: competitionId={}, 待评分考卷{}份, batchSize={}, workerThreads={}",
+                    competitionId, total, batchSize, workerThreads);
+
+            Long lastId = 0L;
+            while (true) {
+                List<Long> paperIds = examPaperRepository.findSubmittedIdsAfter(
+                        competitionId, lastId, PageRequest.of(0, batchSize));
+                if (paperIds.isEmpty()) {
+                    break;
+                }
+                lastId = paperIds.get(paperIds.size() - 1);
+                futures.add(workerPool.submit(() -> gradeChunk(answerKey, paperIds, progress)));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            progress.setStatus(GradingProgressDTO.STATUS_COMPLETED);
+            logger.info("批量自动评分完成: competitionId={}, 评分完成{}份, 待人工评分{}份, 失败{}份, {}份/秒",
+                    competitionId, progress.getGradedPapers(), progress.getManualGradingPapers(),
+                    progress.getFailedPapers(), String.format("%.1f", progress.getPapersPerSecond()));
+            return progress;
+
+        } catch (Exception e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            progress.setStatus(GradingProgressDTO.STATUS_FAILED);
+            progress.setErrorMessage(e.getMessage());
+            logger.error("批量自动评分失败: competitionId={}", competitionId, e);
+            throw new RuntimeException("批量评分失败: " + e.getMessage(), e);
+
+        } finally {
+            progress.setEndTime(LocalDateTime.now());
+        }
+    }
+
+    /**
+     * 同步评分竞赛中指定的一批已提交考卷（截止自动交卷后调用，不登记竞赛评分进度）
+     */
+    public GradingProgressDTO gradeSubmittedPapers(Long competitionId, List<Long> paperIds) {
+        GradingProgressDTO progress = new GradingProgressDTO(competitionId);
+        progress.setTotalPapers(paperIds.size());
+        if (!paperIds.isEmpty()) {
+            AnswerKey answerKey = objectiveGradingService.getAnswerKey(competitionId);
+            for (int from = 0; from < paperIds.size(); from += batchSize) {
+                List<Long> chunk = paperIds.subList(from, Math.min(from + batchSize, paperIds.size()));
+                gradeChunk(answerKey, chunk, progress);
+            }
+        }
+        progress.setStatus(GradingProgressDTO.STATUS_COMPLETED);
+        progress.setEndTime(LocalDateTime.now());
+        return progress;
+    }
+
+    /**
+     * 查询批量评分进度
+     */
+    public GradingProgressDTO getGradingProgress(Long competitionId) {
+        return progressMap.get(competitionId);
+    }
+
+    /**
+     * 评分一批考卷：一次查询读取答案，一个事务内批量写回答案和考卷
+     * 单批失败只记录失败数，考卷保持"已提交"状态，重新执行时会再次处理
+     */
+    private void gradeChunk(AnswerKey answerKey, List<Long> paperIds, GradingProgressDTO progress) {
+        try {
+            Map<Long, List<ExamAnswer>> answersByPaper = examAnswerRepository.findByExamPaperIdIn(paperIds).stream()
+                    .collect(Collectors.groupingBy(ExamAnswer::getExamPaperId));
+
+            Map<Long, AnswerKey.PaperGradeResult> paperResults = new LinkedHashMap<>();
+            for (Long paperId : paperIds) {
+                AnswerKey.PaperGradeResult result = answerKey.gradePaper(
+                        answersByPaper.getOrDefault(paperId, Collections.emptyList()));
+                paperResults.put(paperId, result);
+            }
+
+            // 先按"已提交"条件更新考卷并锁定考卷行，只为确实更新了的考卷写回答案，
+            // 已由其他途径评分或正在人工评分的考卷，其答案不会被覆盖
+            LocalDateTime now = LocalDateTime.now();
+            Map<Long, AnswerKey.PaperGradeResult> updated = transactionTemplate.execute(status -> {
+                Map<Long, AnswerKey.PaperGradeResult> written = writePaperResults(paperResults, now);
+                List<AnswerKey.AnswerGrade> answerGrades = new ArrayList<>();
+                written.values().forEach(result -> answerGrades.addAll(result.getAnswerGrades()));
+                objectiveGradingService.writeAnswerGrades(answerGrades, now);
+                return written;
+            });
+            itemAnalysisService.invalidate(progress.getCompetitionId());
+
+            if (updated.size() < paperResults.size()) {
+                logger.info("跳过已不是已提交状态的考卷: competitionId={}, 跳过{}份",
+                        progress.getCompetitionId(), paperResults.size() - updated.size());
+            }
+
+            int graded = 0;
+            int manual = 0;
+            for (Map.Entry<Long, AnswerKey.PaperGradeResult> entry : updated.entrySet()) {
+                boolean needManualGrading = entry.getValue().isNeedManualGrading();
+                examSessionRegistry.updateStatus(entry.getKey(), needManualGrading ?
+                        ExamPaper.PaperStatus.GRADING : ExamPaper.PaperStatus.GRADED);
+                if (needManualGrading) {
+                    manual++;
+                } else {
+                    graded++;
+                }
+            }
+
+            synchronized (progress) {
+                progress.setGradedPapers(progress.getGradedPapers() + graded);
+                progress.setManualGradingPapers(progress.getManualGradingPapers() + manual);
+                progress.setCompletedChunks(progress.getCompletedChunks() + 1);
+            }
+
+        } catch (Exception e) {
+            logger.error("批量评分失败: competitionId={}, paperIds={}~{}", progress.getCompetitionId(),
+                    paperIds.get(0), paperIds.get(paperIds.size() - 1), e);
+            synchronized (progress) {
+                progress.setFailedPapers(progress.getFailedPapers() + paperIds.size());
+                progress.setCompletedChunks(progress.getCompletedChunks() + 1);
+            }
+        }
+    }
+
+    /**
+     * 批量写回考卷评分结果，返回确实更新了的考卷（仍为"已提交"状态的考卷）
+     */
+    private Map<Long, AnswerKey.PaperGradeResult> writePaperResults(
+            Map<Long, AnswerKey.PaperGradeResult> paperResults, LocalDateTime gradedAt) {
+        Timestamp now = Timestamp.valueOf(gradedAt);
+        List<Map.Entry<Long, AnswerKey.PaperGradeResult>> rows = new ArrayList<>(paperResults.entrySet());
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_PAPER_SQL, rows, rows.size(), (ps, row) -> {
+            AnswerKey.PaperGradeResult result = row.getValue();
+            BigDecimal subjectiveScore = result.getSubjectiveScore();
+            boolean graded = !result.isNeedManualGrading();
+
+            ps.setBigDecimal(1, result.getObjectiveScore());
+            if (subjectiveScore.compareTo(BigDecimal.ZERO) > 0) {
+                ps.setBigDecimal(2, subjectiveScore);
+            } else {
+                ps.setNull(2, Types.DECIMAL);
+            }
+            ps.setBigDecimal(3, result.getObjectiveScore().add(subjectiveScore));
+            ps.setInt(4, result.getCorrectCount());
+            ps.setString(5, graded ? ExamPaper.PaperStatus.GRADED.name() : ExamPaper.PaperStatus.GRADING.name());
+            if (graded) {
+                ps.setTimestamp(6, now);
+            } else {
+                ps.setNull(6, Types.TIMESTAMP);
+            }
+            ps.setTimestamp(7, now);
+            ps.setLong(8, row.getKey());
+        });
+
+        Map<Long, AnswerKey.PaperGradeResult> updated = new LinkedHashMap<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO(-2) 表示驱动未返回行数，按已更新处理
+                if (count != 0) {
+                    Map.Entry<Long, AnswerKey.PaperGradeResult> row = rows.get(index);
+                    updated.put(row.getKey(), row.getValue());
+                }
+                index++;
+            }
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Competition;
+import com.example.demo.event.CompetitionStatusChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 竞赛状态自动流转调度
+ * 每分钟按 (状态, 时间) 索引只查询下一个时间窗口内需要流转的竞赛，放入按时间排序的内存队列，
+ * 每秒取出到期的流转，用带状态和时间条件的批量 UPDATE 写入，成功后发布 {@link CompetitionStatusChangedEvent}。
+ *
+ * 状态流转规则：
+ * 1. PUBLISHED -> REGISTRATION_OPEN (报名开始时间到达且报名未结束)
+ * 2. REGISTRATION_OPEN -> REGISTRATION_CLOSED (报名结束时间到达)
+ * 3. REGISTRATION_CLOSED -> IN_PROGRESS (竞赛开始时间到达且竞赛未结束)
+ * 4. IN_PROGRESS -> COMPLETED (竞赛结束时间到达)
+ */
+@Service
+public class CompetitionLifecycleScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompetitionLifecycleScheduler.class);
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, registration_start_time, registration_end_time, competition_start_time, competition_end_time " +
+            "FROM competitions ";
+
+    /**
+     * 状态流转：触发时间列到达时从 from 变为 to，deadlineColumn 不为空时要求该时间尚未到达
+     */
+    enum Transition {
+        OPEN_REGISTRATION(Competition.CompetitionStatus.PUBLISHED, Competition.CompetitionStatus.REGISTRATION_OPEN,
+                "registration_start_time", "registration_end_time"),
+        CLOSE_REGISTRATION(Competition.CompetitionStatus.REGISTRATION_OPEN, Competition.CompetitionStatus.REGISTRATION_CLOSED,
+                "registration_end_time", null),
+        START(Competition.CompetitionStatus.REGISTRATION_CLOSED, Competition.CompetitionStatus.IN_PROGRESS,
+                "competition_start_time", "competition_end_time"),
+        COMPLETE(Competition.CompetitionStatus.IN_PROGRESS, Competition.CompetitionStatus.COMPLETED,
+                "competition_end_time", null);
+
+        final Competition.CompetitionStatus from;
+        final Competition.CompetitionStatus to;
+        final String triggerColumn;
+        final String deadlineColumn;
+        final String selectSql;
+        final String updateSql;
+
+        Transition(Competition.CompetitionStatus from, Competition.CompetitionStatus to,
+                   String triggerColumn, String deadlineColumn) {
+            this.from = from;
+            this.to = to;
+            this.triggerColumn = triggerColumn;
+            this.deadlineColumn = deadlineColumn;
+            String deadlineCondition = deadlineColumn != null ? " AND " + deadlineColumn + " > ?" : "";
+            this.selectSql = SELECT_COLUMNS + "WHERE status = ? AND " + triggerColumn + " <= ?" + deadlineCondition;
+            this.updateSql = "UPDATE competitions SET status = ?, updated_at = ? WHERE id = ? AND status = ? AND " +
+                             triggerColumn + " <= ?" + deadlineCondition;
+        }
+
+        static Transition fromStatus(Competition.CompetitionStatus status) {
+            for (Transition transition : values()) {
+                if (transition.from == status) {
+                    return transition;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 每次加载未来多少分钟内的状态流转
+    @Value("${competition.lifecycle.window-minutes:5}")
+    private long windowMinutes;
+
+    private final PriorityQueue<PendingTransition> queue = new PriorityQueue<>();
+
+    // 每个竞赛当前待执行的流转，队列中与之不一致的条目视为过期
+    private final Map<Long, PendingTransition> pending = new HashMap<>();
+
+    private LocalDateTime windowEnd = LocalDateTime.MIN;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refreshWindow();
+    }
+
+    /**
+     * 加载下一个时间窗口内需要流转的竞赛（已过期未流转的也会被加载）并执行已到期的流转
+     */
+    public synchronized void refreshWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime end = now.plusMinutes(windowMinutes);
+        int loaded = 0;
+
+        for (Transition transition : Transition.values()) {
+            List<CompetitionTimes> rows = transition.deadlineColumn != null ?
+                    jdbcTemplate.query(transition.selectSql, this::mapTimes, transition.from.name(),
+                            Timestamp.valueOf(end), Timestamp.valueOf(now)) :
+                    jdbcTemplate.query(transition.selectSql, this::mapTimes, transition.from.name(),
+                            Timestamp.valueOf(end));
+            for (CompetitionTimes times : rows) {
+                if (enqueue(times, transition)) {
+                    loaded++;
+                }
+            }
+        }
+        windowEnd = end;
+
+        if (loaded > 0) {
+            logger.info("已加载竞赛状态流转: {}条, 窗口截止{}, 队列中共{}条", loaded, end, pending.size());
+        }
+        applyDueTransitions();
+    }
+
+    /**
+     * 竞赛时间或状态被修改后重新加载该竞赛的下一个流转（事务提交后执行）
+     */
+    public void reschedule(Long competitionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    loadCompetition(competitionId);
+                }
+            });
+        } else {
+            loadCompetition(competitionId);
+        }
+    }
+
+    /**
+     * 执行已到期的状态流转
+     */
+    @Scheduled(fixedDelayString = "${competition.lifecycle.tick-interval-ms:1000}")
+    public void applyDueTransitions() {
+        List<PendingTransition> due;
+        synchronized (this) {
+            due = pollDue(LocalDateTime.now());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<Transition, List<PendingTransition>> byTransition = new EnumMap<>(Transition.class);
+        for (PendingTransition item : due) {
+            byTransition.computeIfAbsent(item.transition, t -> new ArrayList<>()).add(item);
+        }
+
+        for (Map.Entry<Transition, List<PendingTransition>> entry : byTransition.entrySet()) {
+            try {
+                applyTransition(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                // 条目已出队，下一次加载窗口时会重新加载
+                logger.error("竞赛状态流转失败: {} -> {}, 竞赛{}个",
+                        entry.getKey().from, entry.getKey().to, entry.getValue().size(), e);
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingTransitions", pending.size());
+        stats.put("windowEnd", windowEnd);
+        PendingTransition next = queue.peek();
+        stats.put("nextTransitionTime", next != null ? next.dueTime : null);
+        return stats;
+    }
+
+    private void applyTransition(Transition transition, List<PendingTransition> items) {
+        LocalDateTime changedAt = LocalDateTime.now();
+        Timestamp now = Timestamp.valueOf(changedAt);
+
+        int[][] counts = jdbcTemplate.batchUpdate(transition.updateSql, items, items.size(), (ps, item) -> {
+            ps.setString(1, transition.to.name());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, item.times.competitionId);
+            ps.setString(4, transition.from.name());
+            ps.setTimestamp(5, now);
+            if (transition.deadlineColumn != null) {
+                ps.setTimestamp(6, now);
+            }
+        });
+
+        List<PendingTransition> applied = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                PendingTransition item = items.get(index++);
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    applied.add(item);
+                }
+            }
+        }
+
+        // 已流转的竞赛继续登记下一个流转（在当前窗口内时）
+        synchronized (this) {
+            for (PendingTransition item : applied) {
+                Transition next = Transition.fromStatus(transition.to);
+                if (next != null) {
+                    enqueue(item.times, next);
+                }
+            }
+        }
+
+        for (PendingTransition item : applied) {
+            logger.info("竞赛状态自动更新: competitionId={}, {} -> {}",
+                    item.times.competitionId, transition.from, transition.to);
+            eventPublisher.publishEvent(new CompetitionStatusChangedEvent(
+                    item.times.competitionId, transition.from, transition.to, changedAt));
+        }
+    }
+
+    private void loadCompetition(Long competitionId) {
+        List<Map.Entry<Competition.CompetitionStatus, CompetitionTimes>> rows = jdbcTemplate.query(
+                "SELECT status, id, registration_start_time, registration_end_time, competition_start_time, " +
+                "competition_end_time FROM competitions WHERE id = ?",
+                (rs, rowNum) -> Map.entry(Competition.CompetitionStatus.valueOf(rs.getString("status")), mapTimes(rs, rowNum)),
+                competitionId);
+
+        synchronized (this) {
+            pending.remove(competitionId);
+            if (rows.isEmpty()) {
+                return;
+            }
+            Transition transition = Transition.fromStatus(rows.get(0).getKey());
+            if (transition != null) {
+                enqueue(rows.get(0).getValue(), transition);
+            }
+        }
+    }
+
+    /**
+     * 登记流转，触发时间在当前窗口之后的不登记（由后续窗口加载）
+     */
+    private boolean enqueue(CompetitionTimes times, Transition transition) {
+        LocalDateTime dueTime = times.triggerTime(transition);
+        if (dueTime == null || dueTime.isAfter(LocalDateTime.now().plusMinutes(windowMinutes))) {
+            return false;
+        }
+        PendingTransition item = new PendingTransition(times, transition, dueTime);
+        PendingTransition previous = pending.put(times.competitionId, item);
+        if (previous != null && previous.transition == transition && previous.dueTime.equals(dueTime)) {
+            // 已登记相同的流转，保留原条目
+            pending.put(times.competitionId, previous);
+            return false;
+        }
+        queue.offer(item);
+        return true;
+    }
+
+    private List<PendingTransition> pollDue(LocalDateTime now) {
+        List<PendingTransition> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().dueTime.isAfter(now)) {
+            PendingTransition item = queue.poll();
+            // 已被替换的条目直接丢弃
+            if (pending.remove(item.times.competitionId, item)) {
+                due.add(item);
+            }
+        }
+        return due;
+    }
+
+    private CompetitionTimes mapTimes(ResultSet rs, int rowNum) throws SQLException {
+        return new CompetitionTimes(
+                rs.getLong("id"),
+                toLocalDateTime(rs.getTimestamp("registration_start_time")),
+                toLocalDateTime(rs.getTimestamp("registration_end_time")),
+                toLocalDateTime(rs.getTimestamp("competition_start_time")),
+                toLocalDateTime(rs.getTimestamp("competition_end_time")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * 竞赛的各个时间节点
+     */
+    private static final class CompetitionTimes {
+        private final Long competitionId;
+        private final LocalDateTime registrationStartTime;
+        private final LocalDateTime registrationEndTime;
+        private final LocalDateTime competitionStartTime;
+        private final LocalDateTime competitionEndTime;
+
+        CompetitionTimes(Long competitionId, LocalDateTime registrationStartTime, LocalDateTime registrationEndTime,
+                         LocalDateTime competitionStartTime, LocalDateTime competitionEndTime) {
+            this.competitionId = competitionId;
+            this.registrationStartTime = registrationStartTime;
+            this.registrationEndTime = registrationEndTime;
+            this.competitionStartTime = competitionStartTime;
+            this.competitionEndTime = competitionEndTime;
+        }
+
+        LocalDateTime triggerTime(Transition transition) {
+            switch (transition) {
+                case OPEN_REGISTRATION:
+                    return registrationStartTime;
+                case CLOSE_REGISTRATION:
+                    return registrationEndTime;
+                case START:
+                    return competitionStartTime;
+                default:
+                    return competitionEndTime;
+            }
+        }
+    }
+
+    /**
+     * 队列中的待执行流转，按触发时间、竞赛ID排序
+     */
+    private static final class PendingTransition implements Comparable<PendingTransition> {
+        private final CompetitionTimes times;
+        private final Transition transition;
+        private final LocalDateTime dueTime;
+
+        PendingTransition(CompetitionTimes times, Transition transition, LocalDateTime dueTime) {
+            this.times = times;
+            this.transition = transition;
+            this.dueTime = dueTime;
+        }
+
+        @Override
+        public int compareTo(PendingTransition other) {
+            int result = dueTime.compareTo(other.dueTime);
+            return result != 0 ? result : times.competitionId.compareTo(other.times.competitionId);
+        }
+    }
+}
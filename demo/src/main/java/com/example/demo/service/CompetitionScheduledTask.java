@@ -19,36 +19,17 @@ public class CompetitionScheduledTask {
     private CompetitionService competitionService;
 
     /**
-     * 每分钟检查并更新竞赛状态
-     *
-     * 状态转换规则：
-     * 1. PUBLISHED -> REGISTRATION_OPEN (当报名开始时间到达时)
-     * 2. REGISTRATION_OPEN -> REGISTRATION_CLOSED (当报名结束时间到达时)
-     * 3. REGISTRATION_CLOSED -> IN_PROGRESS (当竞赛开始时间到达时)
-     * 4. IN_PROGRESS -> COMPLETED (当竞赛结束时间到达时)
+     * 每分钟加载下一个时间窗口内的竞赛状态流转
+     * 到期的流转由 {@link CompetitionLifecycleScheduler} 每秒执行，状态转换规则见该类说明。
+     * 加载只按状态和时间索引查询需要流转的竞赛，窗口期间执行失败的流转会在下一次加载时补上。
      */
     @Scheduled(cron = "0 * * * * ?") // 每分钟执行一次
     public void updateCompetitionStatuses() {
         try {
-            logger.info("开始执行竞赛状态自动更新任务");
+            logger.debug("开始加载竞赛状态流转");
             competitionService.updateCompetitionStatuses();
-            logger.info("竞赛状态自动更新任务完成");
         } catch (Exception e) {
             logger.error("竞赛状态自动更新任务执行失败", e);
         }
     }
-
-    /**
-     * 每小时执行一次状态更新（备用任务，确保即使分钟任务失败也能更新）
-     */
-    @Scheduled(cron = "0 0 * * * ?") // 每小时整点执行
-    public void updateCompetitionStatusesHourly() {
-        try {
-            logger.info("开始执行竞赛状态每小时更新任务");
-            competitionService.updateCompetitionStatuses();
-            logger.info("竞赛状态每小时更新任务完成");
-        } catch (Exception e) {
-            logger.error("竞赛状态每小时更新任务执行失败", e);
-        }
-    }
 }
@@ -11,12 +11,17 @@ import com.example.demo.repository.TeamRepository;
 import com.example.demo.repository.GradeRepository;
 import com.example.demo.repository.ExamPaperRepository;
 import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -38,6 +43,8 @@ import static com.example.demo.entity.Question.QuestionType.PROGRAMMING;
 @Service
 @Transactional
 public class CompetitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompetitionService.class);
     
     @Autowired
     private CompetitionRepository competitionRepository;
@@ -50,6 +57,27 @@ public class CompetitionService {
     
     @Autowired
     private CompetitionQuestionRepository competitionQuestionRepository;
+
+    @Autowired
+    private ExamQuestionSnapshotService examQuestionSnapshotService;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private CompetitionLifecycleScheduler competitionLifecycleScheduler;
+
+    @Autowired
+    private ExamPrewarmService examPrewarmService;
+
+    @Autowired
+    private ExamDeadlineScheduler examDeadlineScheduler;
+    
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    @Autowired
+    private ScoreStatisticsService scoreStatisticsService;
     
     @Autowired
     private RegistrationRepository registrationRepository;
@@ -99,7 +127,9 @@ public class CompetitionService {
             competition.setStatus(Competition.CompetitionStatus.DRAFT); // 教师创建需要审核
         }
         
-        return competitionRepository.save(competition);
+        Competition savedCompetition = competitionRepository.save(competition);
+        competitionLifecycleScheduler.reschedule(savedCompetition.getId());
+        return savedCompetition;
     }
     
 
@@ -117,6 +147,10 @@ public class CompetitionService {
             competition.setUpdatedAt(LocalDateTime.now());
         });
         competitionRepository.saveAll(competitions);
+        competitions.forEach(competition -> {
+            competitionLifecycleScheduler.reschedule(competition.getId());
+            examPrewarmService.evict(competition.getId());
+        });
     }
     
     // 根据ID列表查找竞赛
@@ -275,6 +309,7 @@ public class CompetitionService {
             remarks
         );
         auditLogRepository.save(auditLog);
+        competitionLifecycleScheduler.reschedule(competitionId);
         
         return savedCompetition;
     }
@@ -372,6 +407,7 @@ public class CompetitionService {
         if (updatedCompetition.getCompetitionStartTime() != null) {
             competition.setCompetitionStartTime(updatedCompetition.getCompetitionStartTime());
         }
+        LocalDateTime previousEndTime = competition.getCompetitionEndTime();
         if (updatedCompetition.getCompetitionEndTime() != null) {
             competition.setCompetitionEndTime(updatedCompetition.getCompetitionEndTime());
         }
@@ -397,6 +433,13 @@ public class CompetitionService {
             competition.setStatus(updatedCompetition.getStatus());
         }
         
+        // 时间或状态可能变化，重新登记下一个自动状态流转，考前预热数据重新生成
+        competitionLifecycleScheduler.reschedule(competitionId);
+        examPrewarmService.evict(competitionId);
+        // 结束时间变化时，答题中考卷的自动交卷时间和会话截止时间按新时间重新登记
+        if (!Objects.equals(previousEndTime, competition.getCompetitionEndTime())) {
+            examDeadlineScheduler.rescheduleCompetition(competitionId, competition.getCompetitionEndTime());
+        }
         return competitionRepository.save(competition);
     }
     
@@ -448,6 +491,26 @@ public class CompetitionService {
         
         // 7. 最后删除竞赛本身
         competitionRepository.deleteById(competitionId);
+
+        // 提交后再清除缓存：提交前其他请求仍能读到竞赛数据并重新填充缓存，回滚时也不应清除
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCompetitionCaches(competitionId);
+                }
+            });
+        } else {
+            evictCompetitionCaches(competitionId);
+        }
+    }
+
+    private void evictCompetitionCaches(Long competitionId) {
+        examQuestionSnapshotService.invalidate(competitionId);
+        examSessionRegistry.removeByCompetition(competitionId);
+        examPrewarmService.evict(competitionId);
+        leaderboardService.invalidate(competitionId);
+        scoreStatisticsService.removeCompetition(competitionId);
     }
     
 
@@ -570,58 +633,17 @@ public class CompetitionService {
     }
     
     // 自动更新竞赛状态
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateCompetitionStatusAutomatically() {
         updateCompetitionStatuses();
     }
     
+    /**
+     * 立即加载并执行到期的竞赛状态流转（不在事务中执行，状态变更事件在更新提交后发布）
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateCompetitionStatuses() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        // 更新报名开始的竞赛
-        List<Competition> toOpenRegistration = competitionRepository.findAll().stream()
-            .filter(c -> c.getStatus() == Competition.CompetitionStatus.PUBLISHED && 
-                        c.getRegistrationStartTime().isBefore(now) && 
-                        c.getRegistrationEndTime().isAfter(now))
-            .toList();
-        
-        for (Competition competition : toOpenRegistration) {
-            competition.setStatus(Competition.CompetitionStatus.REGISTRATION_OPEN);
-            competitionRepository.save(competition);
-        }
-        
-        // 更新报名结束的竞赛
-        List<Competition> toCloseRegistration = competitionRepository.findAll().stream()
-            .filter(c -> c.getStatus() == Competition.CompetitionStatus.REGISTRATION_OPEN && 
-                        c.getRegistrationEndTime().isBefore(now))
-            .toList();
-        
-        for (Competition competition : toCloseRegistration) {
-            competition.setStatus(Competition.CompetitionStatus.REGISTRATION_CLOSED);
-            competitionRepository.save(competition);
-        }
-        
-        // 更新开始的竞赛
-        List<Competition> toStart = competitionRepository.findAll().stream()
-            .filter(c -> c.getStatus() == Competition.CompetitionStatus.REGISTRATION_CLOSED && 
-                        c.getCompetitionStartTime().isBefore(now) && 
-                        c.getCompetitionEndTime().isAfter(now))
-            .toList();
-        
-        for (Competition competition : toStart) {
-            competition.setStatus(Competition.CompetitionStatus.IN_PROGRESS);
-            competitionRepository.save(competition);
-        }
-        
-        // 更新结束的竞赛
-        List<Competition> toComplete = competitionRepository.findAll().stream()
-            .filter(c -> c.getStatus() == Competition.CompetitionStatus.IN_PROGRESS && 
-                        c.getCompetitionEndTime().isBefore(now))
-            .toList();
-        
-        for (Competition competition : toComplete) {
-            competition.setStatus(Competition.CompetitionStatus.COMPLETED);
-            competitionRepository.save(competition);
-        }
+        competitionLifecycleScheduler.refreshWindow();
     }
     
     // 导出相关方法
@@ -0,0 +1,191 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 答题接口准入控制
+ * 每个用户一个令牌桶限制请求频率；全局并发数按数据库连接池大小扣除预留连接计算，
+ * 超出时短暂排队，排队超时立即拒绝（由调用方返回429和 Retry-After），
+ * 避免竞赛开始时大量请求占满连接池后排队等待连接超时。
+ */
+@Service
+public class ExamAdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamAdmissionService.class);
+
+    // 令牌桶闲置多久后清除
+    private static final long BUCKET_IDLE_MILLIS = 10 * 60 * 1000L;
+
+    @Autowired
+    private RateLimitBackend rateLimitBackend;
+
+    @Value("${exam.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${exam.admission.user-rate-per-second:5}")
+    private double userRatePerSecond;
+
+    @Value("${exam.admission.user-burst:20}")
+    private int userBurst;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Value("${exam.admission.reserved-connections:5}")
+    private int reservedConnections;
+
+    @Value("${exam.admission.max-concurrent:0}")
+    private int configuredMaxConcurrent;
+
+    @Value("${exam.admission.acquire-timeout-ms:200}")
+    private long acquireTimeoutMs;
+
+    @Value("${exam.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private int maxConcurrent;
+
+    private Semaphore permits;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong overloaded = new AtomicLong();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        maxConcurrent = configuredMaxConcurrent > 0
+                ? configuredMaxConcurrent
+                : Math.max(1, connectionPoolSize - reservedConnections);
+        permits = new Semaphore(maxConcurrent);
+        logger.info("答题接口准入控制: enabled={}, 最大并发{}, 每用户{}次/秒(突发{})",
+                enabled, maxConcurrent, userRatePerSecond, userBurst);
+    }
+
+    /**
+     * 申请处理一个答题请求，准入后必须调用 {@link #release()}
+     */
+    public Decision tryAdmit(String userKey) {
+        if (!enabled) {
+            return Decision.ADMITTED_UNLIMITED;
+        }
+
+        long waitMillis = rateLimitBackend.tryConsume(userKey, userRatePerSecond, userBurst);
+        if (waitMillis > 0) {
+            rateLimited.incrementAndGet();
+            return Decision.reject((int) Math.max(1, (waitMillis + 999) / 1000), "请求过于频繁，请稍后再试");
+        }
+
+        boolean acquired = permits.tryAcquire();
+        if (!acquired) {
+            queued.incrementAndGet();
+            try {
+                acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!acquired) {
+            // 因过载被拒绝的请求不占用该用户的请求频率额度，过载期间重试不会耗尽自己的令牌
+            rateLimitBackend.refund(userKey, userBurst);
+            overloaded.incrementAndGet();
+            return Decision.reject(retryAfterSeconds, "当前答题人数较多，请稍后重试");
+        }
+
+        admitted.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        return Decision.ADMITTED;
+    }
+
+    /**
+     * 请求处理完成，归还并发许可
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        rateLimitBackend.evictIdle(BUCKET_IDLE_MILLIS);
+    }
+
+    /**
+     * 准入统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("inFlight", inFlight.get());
+        stats.put("peakInFlight", peakInFlight.get());
+        stats.put("availablePermits", permits.availablePermits());
+        stats.put("admitted", admitted.get());
+        stats.put("queued", queued.get());
+        stats.put("rejectedRateLimited", rateLimited.get());
+        stats.put("rejectedOverloaded", overloaded.get());
+        stats.put("userRatePerSecond", userRatePerSecond);
+        stats.put("userBurst", userBurst);
+        stats.put("trackedUsers", rateLimitBackend.size());
+        return stats;
+    }
+
+    /**
+     * 准入结果
+     */
+    public static final class Decision {
+
+        static final Decision ADMITTED = new Decision(true, true, 0, null);
+
+        // 未启用准入控制，不需要归还许可
+        static final Decision ADMITTED_UNLIMITED = new Decision(true, false, 0, null);
+
+        private final boolean admitted;
+        private final boolean holdsPermit;
+        private final int retryAfterSeconds;
+        private final String message;
+
+        private Decision(boolean admitted, boolean holdsPermit, int retryAfterSeconds, String message) {
+            this.admitted = admitted;
+            this.holdsPermit = holdsPermit;
+            this.retryAfterSeconds = retryAfterSeconds;
+            this.message = message;
+        }
+
+        static Decision reject(int retryAfterSeconds, String message) {
+            return new Decision(false, false, retryAfterSeconds, message);
+        }
+
+        public boolean isAdmitted() {
+            return admitted;
+        }
+
+        public boolean holdsPermit() {
+            return holdsPermit;
+        }
+
+        public int getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
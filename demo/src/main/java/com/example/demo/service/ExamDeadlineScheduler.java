@@ -0,0 +1,307 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.GradingProgressDTO;
+import com.example.demo.entity.ExamPaper;
+import com.example.demo.repository.ExamPaperRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * 答题截止自动交卷服务
+ * 开始答题时按截止时间（竞赛结束时间，配置了答题时长时取两者较早者）登记考卷，
+ * 截止时间队列按时间排序，定时取出已到期的考卷，按竞赛分批交卷并批量评分，
+ * 竞赛结束时的集中交卷由后台分批完成，学生无需在最后时刻手动提交。
+ */
+@Service
+public class ExamDeadlineScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamDeadlineScheduler.class);
+
+    // 只交卷仍在答题中的考卷，学生已手动提交的不受影响
+    private static final String SUBMIT_PAPER_SQL =
+            "UPDATE exam_papers SET paper_status = 'SUBMITTED', submit_time = ?, updated_at = ? " +
+            "WHERE id = ? AND paper_status = 'IN_PROGRESS'";
+
+    @Autowired
+    private ExamPaperRepository examPaperRepository;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private AnswerWriteBehindService answerWriteBehindService;
+
+    @Autowired
+    private BatchGradingService batchGradingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${exam.auto-submit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${exam.auto-submit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${exam.auto-submit.max-papers-per-tick:1000}")
+    private int maxPapersPerTick;
+
+    @Value("${exam.auto-submit.grace-seconds:30}")
+    private long graceSeconds;
+
+    @Value("${exam.auto-submit.max-duration-minutes:0}")
+    private long maxDurationMinutes;
+
+    private final PriorityBlockingQueue<DeadlineEntry> deadlineQueue = new PriorityBlockingQueue<>();
+
+    // 考卷当前有效的截止时间，队列中与之不一致的条目视为过期
+    private final Map<Long, LocalDateTime> scheduledDeadlines = new ConcurrentHashMap<>();
+
+    /**
+     * 启动后加载所有答题中的考卷
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reloadInProgressPapers();
+        }
+    }
+
+    /**
+     * 登记考卷的答题截止时间
+     */
+    public void schedule(Long examPaperId, Long competitionId, LocalDateTime startTime, LocalDateTime competitionEndTime) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime deadline = computeDeadline(startTime, competitionEndTime);
+        if (deadline == null) {
+            return;
+        }
+        LocalDateTime previous = scheduledDeadlines.put(examPaperId, deadline);
+        if (!deadline.equals(previous)) {
+            deadlineQueue.offer(new DeadlineEntry(examPaperId, competitionId, deadline));
+        }
+    }
+
+    /**
+     * 竞赛结束时间修改后，按新的结束时间重新登记该竞赛所有答题中考卷的截止时间，并更新答题会话
+     * 在事务中调用时提交后执行；旧截止时间的队列条目到期时丢弃
+     */
+    public void rescheduleCompetition(Long competitionId, LocalDateTime competitionEndTime) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRescheduleCompetition(competitionId, competitionEndTime);
+                }
+            });
+        } else {
+            doRescheduleCompetition(competitionId, competitionEndTime);
+        }
+    }
+
+    private void doRescheduleCompetition(Long competitionId, LocalDateTime competitionEndTime) {
+        int sessions = examSessionRegistry.updateDeadline(competitionId, competitionEndTime);
+        if (!enabled) {
+            return;
+        }
+
+        int count = 0;
+        for (Object[] row : examPaperRepository.findInProgressStartTimesByCompetitionId(competitionId)) {
+            Long examPaperId = (Long) row[0];
+            if (computeDeadline((LocalDateTime) row[1], competitionEndTime) == null) {
+                cancel(examPaperId);
+            } else {
+                schedule(examPaperId, competitionId, (LocalDateTime) row[1], competitionEndTime);
+            }
+            count++;
+        }
+        logger.info("竞赛结束时间已修改，重新登记截止时间: competitionId={}, endTime={}, 考卷{}份, 会话{}个",
+                competitionId, competitionEndTime, count, sessions);
+    }
+
+    /**
+     * 取消考卷的自动交卷（队列中的条目到期时丢弃）
+     */
+    public void cancel(Long examPaperId) {
+        scheduledDeadlines.remove(examPaperId);
+    }
+
+    /**
+     * 截止时间：竞赛结束时间与"开始时间+答题时长"中较早者，再加宽限时间
+     */
+    LocalDateTime computeDeadline(LocalDateTime startTime, LocalDateTime competitionEndTime) {
+        LocalDateTime deadline = competitionEndTime;
+        if (maxDurationMinutes > 0 && startTime != null) {
+            LocalDateTime durationDeadline = startTime.plusMinutes(maxDurationMinutes);
+            if (deadline == null || durationDeadline.isBefore(deadline)) {
+                deadline = durationDeadline;
+            }
+        }
+        return deadline == null ? null : deadline.plusSeconds(graceSeconds);
+    }
+
+    /**
+     * 定时交卷已到截止时间的考卷，每次最多处理 maxPapersPerTick 份，其余留到下一次
+     */
+    @Scheduled(fixedDelayString = "${exam.auto-submit.check-interval-ms:1000}")
+    public void submitDuePapers() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int processed = 0;
+        while (processed < maxPapersPerTick) {
+            List<DeadlineEntry> due = pollDue(now, Math.min(batchSize, maxPapersPerTick - processed));
+            if (due.isEmpty()) {
+                break;
+            }
+            processed += due.size();
+
+            Map<Long, List<Long>> papersByCompetition = new LinkedHashMap<>();
+            for (DeadlineEntry entry : due) {
+                papersByCompetition.computeIfAbsent(entry.competitionId, id -> new ArrayList<>()).add(entry.examPaperId);
+            }
+            for (Map.Entry<Long, List<Long>> entry : papersByCompetition.entrySet()) {
+                submitAndGrade(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 定时重新加载答题中的考卷，补登记其他途径开始答题或登记失败的考卷
+     */
+    @Scheduled(fixedDelayString = "${exam.auto-submit.reload-interval-ms:300000}",
+               initialDelayString = "${exam.auto-submit.reload-interval-ms:300000}")
+    public void reloadInProgressPapers() {
+        if (!enabled) {
+            return;
+        }
+
+        int count = 0;
+        for (Object[] row : examPaperRepository.findInProgressDeadlineInfo()) {
+            Long examPaperId = (Long) row[0];
+            if (!scheduledDeadlines.containsKey(examPaperId)) {
+                schedule(examPaperId, (Long) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]);
+                count++;
+            }
+        }
+        if (count > 0) {
+            logger.info("已登记答题中考卷的截止时间: {}份, 队列中共{}份", count, scheduledDeadlines.size());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("scheduledPapers", scheduledDeadlines.size());
+        stats.put("queueSize", deadlineQueue.size());
+        DeadlineEntry next = deadlineQueue.peek();
+        stats.put("nextDeadline", next != null ? next.deadline : null);
+        return stats;
+    }
+
+    private List<DeadlineEntry> pollDue(LocalDateTime now, int limit) {
+        List<DeadlineEntry> due = new ArrayList<>();
+        while (due.size() < limit) {
+            DeadlineEntry head = deadlineQueue.peek();
+            if (head == null || head.deadline.isAfter(now)) {
+                break;
+            }
+            DeadlineEntry entry = deadlineQueue.poll();
+            if (entry == null) {
+                break;
+            }
+            // 已取消或截止时间已变更的条目直接丢弃
+            if (scheduledDeadlines.remove(entry.examPaperId, entry.deadline)) {
+                due.add(entry);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * 交卷并评分一批同一竞赛的考卷
+     */
+    private void submitAndGrade(Long competitionId, List<Long> examPaperIds) {
+        List<Long> submitted = new ArrayList<>();
+        try {
+            // 先拒绝新的自动保存，再写入缓存中尚未落库的答案
+            for (Long examPaperId : examPaperIds) {
+                examSessionRegistry.updateStatus(examPaperId, ExamPaper.PaperStatus.SUBMITTED);
+                answerWriteBehindService.flushPaper(examPaperId);
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(SUBMIT_PAPER_SQL, examPaperIds, examPaperIds.size(), (ps, id) -> {
+                ps.setTimestamp(1, now);
+                ps.setTimestamp(2, now);
+                ps.setLong(3, id);
+            });
+
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    Long examPaperId = examPaperIds.get(index++);
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        submitted.add(examPaperId);
+                    } else {
+                        // 学生已自行提交，会话状态以数据库为准重新加载
+                        examSessionRegistry.remove(examPaperId);
+                    }
+                }
+            }
+
+        } catch (Exception e) {
+            logger.error("截止自动交卷失败: competitionId={}, 考卷{}份", competitionId, examPaperIds.size(), e);
+            examPaperIds.forEach(examSessionRegistry::remove);
+            return;
+        }
+
+        if (submitted.isEmpty()) {
+            return;
+        }
+        GradingProgressDTO progress = batchGradingService.gradeSubmittedPapers(competitionId, submitted);
+        logger.info("截止自动交卷完成: competitionId={}, 交卷{}份, 评分完成{}份, 待人工评分{}份, 评分失败{}份",
+                competitionId, submitted.size(), progress.getGradedPapers(),
+                progress.getManualGradingPapers(), progress.getFailedPapers());
+    }
+
+    /**
+     * 截止时间队列条目，按截止时间、考卷ID排序
+     */
+    private static final class DeadlineEntry implements Comparable<DeadlineEntry> {
+        private final Long examPaperId;
+        private final Long competitionId;
+        private final LocalDateTime deadline;
+
+        DeadlineEntry(Long examPaperId, Long competitionId, LocalDateTime deadline) {
+            this.examPaperId = examPaperId;
+            this.competitionId = competitionId;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(DeadlineEntry other) {
+            int result = deadline.compareTo(other.deadline);
+            return result != 0 ? result : examPaperId.compareTo(other.examPaperId);
+        }
+    }
+}
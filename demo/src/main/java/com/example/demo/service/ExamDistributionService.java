@@ -1,15 +1,24 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.DistributionProgressDTO;
 import com.example.demo.dto.DistributionResultDTO;
 import com.example.demo.entity.*;
 import com.example.demo.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 考卷下发服务
@@ -34,6 +43,43 @@ public class ExamDistributionService {
     @Autowired
     private CompetitionRepository competitionRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 批量下发时每批处理的参赛者数量（每批独立提交事务）
+    @Value("${exam.distribution.batch-size:500}")
+    private int batchSize;
+
+    // 是否延迟生成答题记录（开启后下发时只创建考卷，答题记录在首次保存答案时创建）
+    @Value("${exam.answer.lazy-init:false}")
+    private boolean lazyAnswerInit;
+
+    // 各竞赛的批量下发进度
+    private final Map<Long, DistributionProgressDTO> progressMap = new ConcurrentHashMap<>();
+
+    private static final String INSERT_PAPER_SQL =
+            "INSERT INTO exam_papers (competition_id, participant_type, participant_id, paper_status, " +
+            "total_score, objective_score, subjective_score, correct_count, total_question_count, " +
+            "question_set_version, created_at, updated_at) VALUES (?, ?, ?, 'NOT_STARTED', 0, 0, 0, 0, ?, ?, ?, ?)";
+
+    private static final String SELECT_PAPER_IDS_SQL =
+            "SELECT id, participant_type, participant_id FROM exam_papers " +
+            "WHERE competition_id = :competitionId AND participant_id IN (:participantIds)";
+
+    // 锁定读取竞赛状态：批次事务提交前竞赛状态无法变为进行中，开考后学生创建的考卷不会与批量下发交错
+    private static final String LOCK_COMPETITION_STATUS_SQL =
+            "SELECT status FROM competitions WHERE id = ? FOR UPDATE";
+
+    private static final String INSERT_ANSWER_SQL =
+            "INSERT INTO exam_answers (exam_paper_id, question_id, score, max_score, grading_status, " +
+            "created_at, updated_at) VALUES (?, ?, 0, ?, 'PENDING', ?, ?)";
+
     /**
      * 为竞赛下发考卷
      * 当竞赛状态变更为"进行中"时调用
@@ -73,6 +119,8 @@ public class ExamDistributionService {
 
         logger.info("找到{}道题目", competitionQuestions.size());
 
+        Integer questionSetVersion = competitionRepository.findQuestionSetVersion(competitionId);
+
         int individualCount = 0;
         int teamCount = 0;
 
@@ -110,6 +158,7 @@ public class ExamDistributionService {
             paper.setParticipantId(participantId);
             paper.setPaperStatus(ExamPaper.PaperStatus.NOT_STARTED);
             paper.setTotalQuestionCount(competitionQuestions.size());
+            paper.setQuestionSetVersion(questionSetVersion);
 
             // 保存考卷
             ExamPaper savedPaper = examPaperRepository.save(paper);
@@ -117,18 +166,20 @@ public class ExamDistributionService {
             logger.info("创建考卷成功: paperId={}, participantType={}, participantId={}",
                     savedPaper.getId(), participantType, participantId);
 
-            // 5. 为考卷创建答题记录(预生成,初始状态为空)
-            for (CompetitionQuestion cq : competitionQuestions) {
-                ExamAnswer answer = new ExamAnswer();
-                answer.setExamPaperId(savedPaper.getId());
-                answer.setQuestionId(cq.getQuestionId());
-                answer.setMaxScore(cq.getQuestionScore());
-                answer.setGradingStatus(ExamAnswer.GradingStatus.PENDING);
-                examAnswerRepository.save(answer);
+            // 5. 为考卷创建答题记录(预生成,初始状态为空)；延迟模式下在首次保存答案时再创建
+            if (!lazyAnswerInit) {
+                for (CompetitionQuestion cq : competitionQuestions) {
+                    ExamAnswer answer = new ExamAnswer();
+                    answer.setExamPaperId(savedPaper.getId());
+                    answer.setQuestionId(cq.getQuestionId());
+                    answer.setMaxScore(cq.getQuestionScore());
+                    answer.setGradingStatus(ExamAnswer.GradingStatus.PENDING);
+                    examAnswerRepository.save(answer);
+                }
+
+                logger.info("为考卷创建了{}条答题记录", competitionQuestions.size());
             }
 
-            logger.info("为考卷创建了{}条答题记录", competitionQuestions.size());
-
             if (isTeamCompetition) {
                 teamCount++;
             } else {
@@ -146,6 +197,242 @@ public class ExamDistributionService {
         return result;
     }
 
+    /**
+     * 批量下发考卷（适用于大规模竞赛）
+     * 1. 一次查询预加载已存在考卷的参赛者，跳过已下发的部分
+     * 2. 按批次通过JDBC批量插入考卷和答题记录，每批独立提交事务
+     * 3. 每批完成后更新下发进度，可通过 getDistributionProgress 查询
+     * 中途失败时已提交的批次保留，重新调用即可从未下发的参赛者继续
+     *
+     * @param competitionId 竞赛ID
+     * @return 下发结果
+     */
+    public DistributionResultDTO distributeExamPapersInBulk(Long competitionId) {
+        return distributeExamPapersInBulk(competitionId, false);
+    }
+
+    /**
+     * 批量下发考卷
+     *
+     * @param competitionId 竞赛ID
+     * @param beforeStartOnly 为 true 时只在竞赛开始前下发（考前预热）：每批在事务内锁定读取竞赛状态，
+     *                        竞赛已开始则停止下发，剩余参赛者在开始答题时按原流程创建考卷
+     * @return 下发结果
+     */
+    public DistributionResultDTO distributeExamPapersInBulk(Long competitionId, boolean beforeStartOnly) {
+        long startMillis = System.currentTimeMillis();
+
+        Competition competition = competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("竞赛不存在"));
+
+        // 原子地占用该竞赛的下发任务，并发请求不会同时开始下发
+        DistributionProgressDTO progress = new DistributionProgressDTO(competitionId);
+        DistributionProgressDTO current = progressMap.compute(competitionId, (id, previous) ->
+                previous != null && DistributionProgressDTO.STATUS_RUNNING.equals(previous.getStatus())
+                        ? previous : progress);
+        if (current != progress) {
+            throw new RuntimeException("该竞赛正在下发考卷，请稍后查看进度");
+        }
+
+        logger.info("开始批量下发考卷: competitionId={}, name={}, batchSize={}",
+                competitionId, competition.getName(), batchSize);
+
+        try {
+            // 1. 获取已批准的参赛者（团队ID、团队最大人数、队长ID）
+            List<Object[]> participants = registrationRepository.findApprovedParticipantsByCompetitionId(competitionId);
+            if (participants.isEmpty()) {
+                throw new RuntimeException("该竞赛没有已批准的参赛者");
+            }
+
+            // 2. 获取启用的题目
+            List<CompetitionQuestion> competitionQuestions = competitionQuestionRepository
+                    .findByCompetitionIdAndIsActiveTrueOrderByQuestionOrder(competitionId);
+            if (competitionQuestions.isEmpty()) {
+                throw new RuntimeException("该竞赛尚未配置题目");
+            }
+
+            Integer questionSetVersion = competitionRepository.findQuestionSetVersion(competitionId);
+
+            // 3. 一次查询预加载已存在的考卷
+            Set<String> existingKeys = new HashSet<>();
+            for (Object[] row : examPaperRepository.findParticipantKeysByCompetitionId(competitionId)) {
+                existingKeys.add(participantKey((ExamPaper.ParticipantType) row[0], (Long) row[1]));
+            }
+
+            List<ExamPaper> pendingPapers = new ArrayList<>();
+            int skipped = 0;
+            for (Object[] row : participants) {
+                Long teamId = (Long) row[0];
+                Integer maxMembers = (Integer) row[1];
+                Long leaderId = (Long) row[2];
+
+                boolean isTeamCompetition = maxMembers != null && maxMembers > 1;
+                ExamPaper.ParticipantType participantType = isTeamCompetition ?
+                        ExamPaper.ParticipantType.TEAM : ExamPaper.ParticipantType.INDIVIDUAL;
+                Long participantId = isTeamCompetition ? teamId : leaderId;
+
+                // 已存在考卷(或同一参赛者重复报名)的直接跳过
+                if (!existingKeys.add(participantKey(participantType, participantId))) {
+                    skipped++;
+                    continue;
+                }
+                pendingPapers.add(new ExamPaper(competitionId, participantType, participantId));
+            }
+
+            int totalChunks = (pendingPapers.size() + batchSize - 1) / batchSize;
+            progress.setTotalParticipants(participants.size());
+            progress.setSkippedParticipants(skipped);
+            progress.setTotalChunks(totalChunks);
+
+            logger.info("批量下发准备完成: 参赛者{}个, 已存在跳过{}个, 待下发{}份, 题目{}道, 共{}批",
+                    participants.size(), skipped, pendingPapers.size(), competitionQuestions.size(), totalChunks);
+
+            // 4. 分批插入，每批一个事务
+            int individualCount = 0;
+            int teamCount = 0;
+            int answerCount = 0;
+            for (int from = 0; from < pendingPapers.size(); from += batchSize) {
+                List<ExamPaper> chunk = pendingPapers.subList(from, Math.min(from + batchSize, pendingPapers.size()));
+
+                Integer inserted = transactionTemplate.execute(status -> {
+                    if (beforeStartOnly && isCompetitionStarted(competitionId)) {
+                        return null;
+                    }
+                    return insertPaperChunk(competitionId, questionSetVersion, chunk, competitionQuestions);
+                });
+                if (inserted == null) {
+                    progress.setErrorMessage("竞赛已开始，停止下发，剩余参赛者开始答题时创建考卷");
+                    logger.info("竞赛已开始，停止考前下发: competitionId={}, 已完成批次{}/{}",
+                            competitionId, progress.getCompletedChunks(), totalChunks);
+                    break;
+                }
+                answerCount += inserted;
+
+                for (ExamPaper paper : chunk) {
+                    if (paper.getParticipantType() == ExamPaper.ParticipantType.TEAM) {
+                        teamCount++;
+                    } else {
+                        individualCount++;
+                    }
+                }
+
+                progress.setProcessedParticipants(progress.getProcessedParticipants() + chunk.size());
+                progress.setCreatedPapers(individualCount + teamCount);
+                progress.setCreatedAnswers(answerCount);
+                progress.setCompletedChunks(progress.getCompletedChunks() + 1);
+                progressMap.put(competitionId, progress);
+
+                logger.info("批量下发进度: competitionId={}, 批次{}/{}, 已下发考卷{}份, 答题记录{}条",
+                        competitionId, progress.getCompletedChunks(), totalChunks,
+                        progress.getCreatedPapers(), answerCount);
+            }
+
+            progress.setStatus(DistributionProgressDTO.STATUS_COMPLETED);
+            progress.setEndTime(LocalDateTime.now());
+            progressMap.put(competitionId, progress);
+
+            DistributionResultDTO result = new DistributionResultDTO();
+            result.setIndividualPapers(individualCount);
+            result.setTeamPapers(teamCount);
+            result.setTotalParticipants(participants.size());
+            result.setSkippedParticipants(skipped);
+            result.setAnswerCount(answerCount);
+            result.setElapsedMillis(System.currentTimeMillis() - startMillis);
+
+            logger.info("批量下发考卷完成: competitionId={}, 个人赛{}份, 团队赛{}份, 答题记录{}条, 耗时{}ms",
+                    competitionId, individualCount, teamCount, answerCount, result.getElapsedMillis());
+
+            return result;
+
+        } catch (RuntimeException e) {
+            progress.setStatus(DistributionProgressDTO.STATUS_FAILED);
+            progress.setErrorMessage(e.getMessage());
+            progress.setEndTime(LocalDateTime.now());
+            progressMap.put(competitionId, progress);
+            logger.error("批量下发考卷失败: competitionId={}, 已完成批次{}/{}",
+                    competitionId, progress.getCompletedChunks(), progress.getTotalChunks(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * 竞赛是否已开始（在调用方事务内锁定竞赛行）
+     */
+    private boolean isCompetitionStarted(Long competitionId) {
+        String status = jdbcTemplate.queryForObject(LOCK_COMPETITION_STATUS_SQL, String.class, competitionId);
+        return Competition.CompetitionStatus.IN_PROGRESS.name().equals(status) ||
+               Competition.CompetitionStatus.ONGOING.name().equals(status);
+    }
+
+    /**
+     * 插入一批考卷及其答题记录（在调用方事务内执行）
+     *
+     * @return 插入的答题记录数
+     */
+    private int insertPaperChunk(Long competitionId, Integer questionSetVersion, List<ExamPaper> chunk,
+                                 List<CompetitionQuestion> competitionQuestions) {
+        LocalDateTime now = LocalDateTime.now();
+
+        jdbcTemplate.batchUpdate(INSERT_PAPER_SQL, chunk, chunk.size(), (ps, paper) -> {
+            ps.setLong(1, competitionId);
+            ps.setString(2, paper.getParticipantType().name());
+            ps.setLong(3, paper.getParticipantId());
+            ps.setInt(4, competitionQuestions.size());
+            ps.setInt(5, questionSetVersion);
+            ps.setObject(6, now);
+            ps.setObject(7, now);
+        });
+
+        // 延迟模式下不预生成答题记录
+        if (lazyAnswerInit) {
+            return 0;
+        }
+
+        // 回查本批考卷ID
+        List<Long> participantIds = new ArrayList<>(chunk.size());
+        for (ExamPaper paper : chunk) {
+            participantIds.add(paper.getParticipantId());
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("competitionId", competitionId)
+                .addValue("participantIds", participantIds);
+        Map<String, Long> paperIds = new HashMap<>();
+        namedParameterJdbcTemplate.query(SELECT_PAPER_IDS_SQL, params, rs -> {
+            paperIds.put(participantKey(ExamPaper.ParticipantType.valueOf(rs.getString("participant_type")),
+                    rs.getLong("participant_id")), rs.getLong("id"));
+        });
+
+        List<Object[]> answerRows = new ArrayList<>(chunk.size() * competitionQuestions.size());
+        for (ExamPaper paper : chunk) {
+            Long paperId = paperIds.get(participantKey(paper.getParticipantType(), paper.getParticipantId()));
+            if (paperId == null) {
+                throw new RuntimeException("批量下发失败，未找到新建考卷: participantId=" + paper.getParticipantId());
+            }
+            for (CompetitionQuestion cq : competitionQuestions) {
+                BigDecimal maxScore = cq.getQuestionScore();
+                answerRows.add(new Object[]{paperId, cq.getQuestionId(), maxScore, now, now});
+            }
+        }
+
+        for (int from = 0; from < answerRows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(INSERT_ANSWER_SQL,
+                    answerRows.subList(from, Math.min(from + batchSize, answerRows.size())));
+        }
+
+        return answerRows.size();
+    }
+
+    /**
+     * 获取批量下发进度
+     */
+    public DistributionProgressDTO getDistributionProgress(Long competitionId) {
+        return progressMap.get(competitionId);
+    }
+
+    private String participantKey(ExamPaper.ParticipantType participantType, Long participantId) {
+        return participantType.name() + ":" + participantId;
+    }
+
     /**
      * 检查某个竞赛是否已下发考卷
      */
@@ -3,16 +3,13 @@ package com.example.demo.service;
 import com.example.demo.dto.GradingResultDTO;
 import com.example.demo.entity.ExamAnswer;
 import com.example.demo.entity.ExamPaper;
-import com.example.demo.entity.Question;
 import com.example.demo.repository.ExamAnswerRepository;
 import com.example.demo.repository.ExamPaperRepository;
-import com.example.demo.repository.QuestionRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -30,10 +27,19 @@ public class ExamGradingService {
     private ExamAnswerRepository examAnswerRepository;
 
     @Autowired
-    private QuestionRepository questionRepository;
+    private ExamPaperRepository examPaperRepository;
 
     @Autowired
-    private ExamPaperRepository examPaperRepository;
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private ObjectiveGradingService objectiveGradingService;
+
+    @Autowired
+    private ManualGradingQueueService manualGradingQueueService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
 
     /**
      * 自动评分 - 仅评客观题
@@ -51,138 +57,21 @@ public class ExamGradingService {
         ExamPaper paper = examPaperRepository.findById(paperId)
                 .orElseThrow(() -> new RuntimeException("考卷不存在"));
 
-        // 2. 获取该考卷的所有答案
-        List<ExamAnswer> answers = examAnswerRepository.findByExamPaperId(paperId);
-
-        if (answers.isEmpty()) {
-            logger.warn("考卷没有答案记录: paperId={}", paperId);
-            return result;
-        }
-
-        BigDecimal objectiveScore = BigDecimal.ZERO;
-        int correctCount = 0;
-        boolean needManualGrading = false;
-
-        // 3. 逐题评分
-        for (ExamAnswer answer : answers) {
-            // 如果学生没有作答,跳过
-            if (!StringUtils.hasText(answer.getAnswerContent())) {
-                continue;
-            }
-
-            Question question = questionRepository.findById(answer.getQuestionId())
-                    .orElseThrow(() -> new RuntimeException("题目不存在: questionId=" + answer.getQuestionId()));
-
-            // 根据题型决定评分方式
-            switch (question.getType()) {
-                case SINGLE_CHOICE:
-                case TRUE_FALSE:
-                    // 单选题/判断题: 完全匹配
-                    boolean isSingleCorrect = question.getCorrectAnswer()
-                            .trim()
-                            .equalsIgnoreCase(answer.getAnswerContent().trim());
-                    answer.setIsCorrect(isSingleCorrect);
-
-                    if (isSingleCorrect) {
-                        answer.setScore(answer.getMaxScore());
-                        objectiveScore = objectiveScore.add(answer.getMaxScore());
-                        correctCount++;
-                    } else {
-                        answer.setScore(BigDecimal.ZERO);
-                    }
-                    answer.setGradingStatus(ExamAnswer.GradingStatus.AUTO_GRADED);
-
-                    logger.debug("单选/判断题评分: questionId={}, correct={}, score={}",
-                            question.getId(), isSingleCorrect, answer.getScore());
-                    break;
-
-                case MULTIPLE_CHOICE:
-                    // 多选题: 完全正确得满分,部分正确得部分分
-                    String[] correctAnswers = question.getCorrectAnswer().split(",");
-                    String[] studentAnswers = answer.getAnswerContent().split(",");
-
-                    Set<String> correctSet = new HashSet<>();
-                    for (String ca : correctAnswers) {
-                        correctSet.add(ca.trim().toUpperCase());
-                    }
-
-                    Set<String> studentSet = new HashSet<>();
-                    for (String sa : studentAnswers) {
-                        studentSet.add(sa.trim().toUpperCase());
-                    }
-
-                    if (correctSet.equals(studentSet)) {
-                        // 完全正确
-                        answer.setScore(answer.getMaxScore());
-                        objectiveScore = objectiveScore.add(answer.getMaxScore());
-                        answer.setIsCorrect(true);
-                        correctCount++;
-
-                        logger.debug("多选题完全正确: questionId={}, score={}", question.getId(), answer.getScore());
-                    } else {
-                        // 部分正确: 按比例给分(答对比例 * 50%满分)
-                        int correctInStudent = 0;
-                        int wrongInStudent = 0;
-
-                        for (String sa : studentSet) {
-                            if (correctSet.contains(sa)) {
-                                correctInStudent++;
-                            } else {
-                                wrongInStudent++;
-                            }
-                        }
-
-                        // 如果有错误选项,不给分
-                        if (wrongInStudent > 0) {
-                            answer.setScore(BigDecimal.ZERO);
-                        } else {
-                            // 只有正确选项,按比例给分
-                            double ratio = (double) correctInStudent / correctAnswers.length;
-                            BigDecimal partialScore = answer.getMaxScore()
-                                    .multiply(BigDecimal.valueOf(ratio))
-                                    .multiply(BigDecimal.valueOf(0.5)); // 部分分50%
-                            answer.setScore(partialScore);
-                            objectiveScore = objectiveScore.add(partialScore);
-                        }
-                        answer.setIsCorrect(false);
-
-                        logger.debug("多选题部分正确: questionId={}, correct={}/{}, score={}",
-                                question.getId(), correctInStudent, correctAnswers.length, answer.getScore());
-                    }
-                    answer.setGradingStatus(ExamAnswer.GradingStatus.AUTO_GRADED);
-                    break;
-
-                case FILL_BLANK:
-                case SHORT_ANSWER:
-                case ESSAY:
-                case PROGRAMMING:
-                    // 主观题: 需要人工评分
-                    answer.setGradingStatus(ExamAnswer.GradingStatus.PENDING);
-                    needManualGrading = true;
-
-                    logger.debug("主观题待人工评分: questionId={}, type={}", question.getId(), question.getType());
-                    break;
-            }
-
-            examAnswerRepository.save(answer);
-        }
+        // 2. 使用预编译的答案索引评分，结果批量写回
+        AnswerKey.PaperGradeResult gradeResult = objectiveGradingService.gradePaper(paper);
 
-        // 4. 更新考卷状态和分数
-        paper.setObjectiveScore(objectiveScore);
-        paper.setCorrectCount(correctCount);
+        BigDecimal objectiveScore = gradeResult.getObjectiveScore();
+        int correctCount = gradeResult.getCorrectCount();
+        boolean needManualGrading = gradeResult.isNeedManualGrading();
 
         if (needManualGrading) {
-            paper.setPaperStatus(ExamPaper.PaperStatus.GRADING);
             logger.info("考卷需要人工评分: paperId={}, objectiveScore={}", paperId, objectiveScore);
         } else {
-            // 没有主观题,直接完成评分
-            paper.setTotalScore(objectiveScore);
-            paper.setPaperStatus(ExamPaper.PaperStatus.GRADED);
-            paper.setGradedAt(LocalDateTime.now());
-            logger.info("考卷自动评分完成: paperId={}, totalScore={}", paperId, objectiveScore);
+            logger.info("考卷自动评分完成: paperId={}, totalScore={}", paperId, paper.getTotalScore());
         }
 
         examPaperRepository.save(paper);
+        examSessionRegistry.updateStatus(paperId, paper.getPaperStatus());
 
         result.setObjectiveScore(objectiveScore);
         result.setCorrectCount(correctCount);
@@ -210,15 +99,24 @@ public class ExamGradingService {
         ExamPaper paper = examPaperRepository.findById(paperId)
                 .orElseThrow(() -> new RuntimeException("考卷不存在"));
 
-        // 获取待评分的答案
-        List<ExamAnswer> pendingAnswers = examAnswerRepository.findPendingGradingByExamPaperId(paperId);
+        // 获取考卷全部答案，待评分的按本次提交的分数评分
+        List<ExamAnswer> answers = examAnswerRepository.findByExamPaperId(paperId);
 
-        BigDecimal subjectiveScore = BigDecimal.ZERO;
+        // 评分任务队列中被其他教师领取的题目不能同时评分
+        List<Long> gradedAnswerIds = new ArrayList<>();
+        for (ExamAnswer answer : answers) {
+            if (isPendingGrading(answer) && answerScores.containsKey(answer.getQuestionId())) {
+                if (manualGradingQueueService.isLeasedByOther(answer.getId(), gradedBy)) {
+                    throw new RuntimeException("部分题目正在由其他教师评分，请稍后再试");
+                }
+                gradedAnswerIds.add(answer.getId());
+            }
+        }
 
-        for (ExamAnswer answer : pendingAnswers) {
+        for (ExamAnswer answer : answers) {
             Long questionId = answer.getQuestionId();
 
-            if (answerScores.containsKey(questionId)) {
+            if (isPendingGrading(answer) && answerScores.containsKey(questionId)) {
                 BigDecimal score = answerScores.get(questionId);
                 answer.setScore(score);
                 answer.setGradingStatus(ExamAnswer.GradingStatus.MANUAL_GRADED);
@@ -229,22 +127,47 @@ public class ExamGradingService {
                     answer.setGradingRemarks(answerRemarks.get(questionId));
                 }
 
-                subjectiveScore = subjectiveScore.add(score);
                 examAnswerRepository.save(answer);
 
                 logger.debug("主观题评分: questionId={}, score={}", questionId, score);
             }
         }
 
-        // 更新考卷总分
+        // 主观题得分按全部已人工评分的答案计算（包括评分任务队列中已评的答案）
+        BigDecimal subjectiveScore = BigDecimal.ZERO;
+        int remainingCount = 0;
+        for (ExamAnswer answer : answers) {
+            if (answer.getGradingStatus() == ExamAnswer.GradingStatus.MANUAL_GRADED && answer.getScore() != null) {
+                subjectiveScore = subjectiveScore.add(answer.getScore());
+            } else if (isPendingGrading(answer)) {
+                remainingCount++;
+            }
+        }
+
+        manualGradingQueueService.releaseAnswers(gradedAnswerIds);
+        itemAnalysisService.invalidate(paper.getCompetitionId());
+
+        // 仍有待评分的题目时考卷保持评分中，全部评完后再更新总分
+        if (remainingCount > 0) {
+            logger.info("人工评分部分完成: paperId={}, 本次评分{}题, 剩余{}题待评分",
+                    paperId, gradedAnswerIds.size(), remainingCount);
+            return;
+        }
+
         paper.setSubjectiveScore(subjectiveScore);
         paper.setTotalScore(paper.getObjectiveScore().add(subjectiveScore));
         paper.setPaperStatus(ExamPaper.PaperStatus.GRADED);
         paper.setGradedBy(gradedBy);
         paper.setGradedAt(LocalDateTime.now());
         examPaperRepository.save(paper);
+        examSessionRegistry.updateStatus(paperId, paper.getPaperStatus());
 
         logger.info("人工评分完成: paperId={}, subjectiveScore={}, totalScore={}",
                 paperId, subjectiveScore, paper.getTotalScore());
     }
+
+    private boolean isPendingGrading(ExamAnswer answer) {
+        return answer.getGradingStatus() == ExamAnswer.GradingStatus.PENDING ||
+               answer.getGradingStatus() == ExamAnswer.GradingStatus.MANUAL_GRADING;
+    }
 }
@@ -0,0 +1,321 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DistributionResultDTO;
+import com.example.demo.dto.PrewarmMetricsDTO;
+import com.example.demo.entity.Competition;
+import com.example.demo.entity.ExamPaper;
+import com.example.demo.event.CompetitionStatusChangedEvent;
+import com.example.demo.repository.CompetitionRepository;
+import com.example.demo.repository.ExamPaperRepository;
+import com.example.demo.repository.RegistrationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 考前预热服务
+ * 竞赛开始前 lead-minutes 分钟自动下发考卷，预先构建题目快照和答案索引，
+ * 并把每个参赛用户对应的考卷ID和答题会话（考卷归属、团队成员）加载到内存，
+ * 开考时学生开始答题不需要再查询竞赛、报名、团队和考卷。
+ * 竞赛开始（状态变为进行中）时尚未预热的竞赛会立即预热，此时不再下发考卷，只加载已有考卷和题目快照。
+ */
+@Service
+public class ExamPrewarmService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamPrewarmService.class);
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private RegistrationRepository registrationRepository;
+
+    @Autowired
+    private ExamPaperRepository examPaperRepository;
+
+    @Autowired
+    private ExamDistributionService examDistributionService;
+
+    @Autowired
+    private ExamQuestionSnapshotService examQuestionSnapshotService;
+
+    @Autowired
+    private ObjectiveGradingService objectiveGradingService;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Value("${exam.prewarm.enabled:true}")
+    private boolean enabled;
+
+    @Value("${exam.prewarm.lead-minutes:10}")
+    private long leadMinutes;
+
+    @Value("${exam.prewarm.auto-distribute:true}")
+    private boolean autoDistribute;
+
+    private final Map<Long, PreparedCompetition> preparedCompetitions = new ConcurrentHashMap<>();
+
+    private final Map<Long, PrewarmMetricsDTO> metricsMap = new ConcurrentHashMap<>();
+
+    // 已提交预热任务的竞赛，避免重复预热
+    private final Set<Long> submitted = ConcurrentHashMap.newKeySet();
+
+    // 已收到开始事件的竞赛（预热过程中竞赛开始时，预热完成后直接可用）
+    private final Set<Long> startedCompetitionIds = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService prewarmExecutor;
+
+    @PostConstruct
+    public void init() {
+        prewarmExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-prewarm");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prewarmExecutor.shutdownNow();
+    }
+
+    /**
+     * 定时检查即将开始的竞赛并提交预热任务
+     */
+    @Scheduled(fixedDelayString = "${exam.prewarm.check-interval-ms:30000}")
+    public void prewarmUpcomingCompetitions() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Long competitionId : competitionRepository.findIdsStartingBetween(now, now.plusMinutes(leadMinutes))) {
+            submitPrewarm(competitionId);
+        }
+    }
+
+    /**
+     * 竞赛开始时标记预热数据可用（未预热的立即预热），竞赛离开进行中状态时清除
+     */
+    @EventListener
+    public void onCompetitionStatusChanged(CompetitionStatusChangedEvent event) {
+        Long competitionId = event.getCompetitionId();
+        if (event.getToStatus() == Competition.CompetitionStatus.IN_PROGRESS) {
+            startedCompetitionIds.add(competitionId);
+            PreparedCompetition prepared = preparedCompetitions.get(competitionId);
+            if (prepared != null) {
+                prepared.started = true;
+            } else if (enabled) {
+                submitPrewarm(competitionId);
+            }
+        } else if (event.getFromStatus() == Competition.CompetitionStatus.IN_PROGRESS) {
+            evict(competitionId);
+        }
+    }
+
+    /**
+     * 获取用户在已开始竞赛中预先分配的考卷ID，未预热或竞赛未开始时返回 null
+     */
+    public PreparedCompetition getStartedCompetition(Long competitionId) {
+        PreparedCompetition prepared = preparedCompetitions.get(competitionId);
+        return prepared != null && prepared.started ? prepared : null;
+    }
+
+    /**
+     * 清除竞赛的预热数据（竞赛被修改、删除或结束时调用）
+     */
+    public void evict(Long competitionId) {
+        preparedCompetitions.remove(competitionId);
+        submitted.remove(competitionId);
+        startedCompetitionIds.remove(competitionId);
+    }
+
+    public PrewarmMetricsDTO getMetrics(Long competitionId) {
+        return metricsMap.get(competitionId);
+    }
+
+    public Collection<PrewarmMetricsDTO> getAllMetrics() {
+        return metricsMap.values();
+    }
+
+    private void submitPrewarm(Long competitionId) {
+        if (submitted.add(competitionId)) {
+            prewarmExecutor.submit(() -> prewarm(competitionId));
+        }
+    }
+
+    /**
+     * 预热一个竞赛：下发考卷、构建题目快照和答案索引、登记参赛用户的考卷和答题会话
+     */
+    public PrewarmMetricsDTO prewarm(Long competitionId) {
+        PrewarmMetricsDTO metrics = new PrewarmMetricsDTO(competitionId);
+        metricsMap.put(competitionId, metrics);
+        long startMillis = System.currentTimeMillis();
+
+        try {
+            Competition competition = competitionRepository.findById(competitionId)
+                    .orElseThrow(() -> new RuntimeException("竞赛不存在"));
+
+            // 1. 下发考卷（已下发的参赛者会跳过）
+            // 只在竞赛开始前下发：开考后学生开始答题时会自行创建考卷，与批量下发并发会产生重复考卷
+            long stepMillis = System.currentTimeMillis();
+            if (autoDistribute && !isStarted(competition)) {
+                DistributionResultDTO distribution =
+                        examDistributionService.distributeExamPapersInBulk(competitionId, true);
+                metrics.setCreatedPapers(distribution.getIndividualPapers() + distribution.getTeamPapers());
+            }
+            metrics.setDistributionMillis(System.currentTimeMillis() - stepMillis);
+
+            // 2. 题目快照和答案索引
+            stepMillis = System.currentTimeMillis();
+            ExamQuestionSnapshotService.Snapshot snapshot = examQuestionSnapshotService.preload(competitionId);
+            objectiveGradingService.getAnswerKey(competitionId);
+            metrics.setQuestionCount(snapshot.getQuestionCount());
+            metrics.setSnapshotMillis(System.currentTimeMillis() - stepMillis);
+
+            // 3. 参赛用户 -> 考卷ID，并登记答题会话
+            stepMillis = System.currentTimeMillis();
+            PreparedCompetition prepared = loadParticipants(competition);
+            metrics.setPaperCount(prepared.paperCount);
+            metrics.setParticipantUserCount(prepared.paperIdsByUser.size());
+            metrics.setSessionMillis(System.currentTimeMillis() - stepMillis);
+
+            preparedCompetitions.put(competitionId, prepared);
+            prepared.started = isStarted(competition);
+
+            metrics.setStatus(PrewarmMetricsDTO.STATUS_COMPLETED);
+            logger.info("竞赛考前预热完成: competitionId={}, 新下发考卷{}份, 考卷{}份, 参赛用户{}个, 题目{}道, " +
+                        "下发{}ms, 快照{}ms, 会话{}ms",
+                    competitionId, metrics.getCreatedPapers(), metrics.getPaperCount(),
+                    metrics.getParticipantUserCount(), metrics.getQuestionCount(),
+                    metrics.getDistributionMillis(), metrics.getSnapshotMillis(), metrics.getSessionMillis());
+
+        } catch (Exception e) {
+            // 预热失败不影响开考，学生开始答题时按原流程查询数据库
+            metrics.setStatus(PrewarmMetricsDTO.STATUS_FAILED);
+            metrics.setErrorMessage(e.getMessage());
+            logger.warn("竞赛考前预热失败: competitionId={}, error={}", competitionId, e.getMessage());
+
+        } finally {
+            metrics.setEndTime(LocalDateTime.now());
+            metrics.setTotalMillis(System.currentTimeMillis() - startMillis);
+        }
+        return metrics;
+    }
+
+    private boolean isStarted(Competition competition) {
+        return competition.getStatus() == Competition.CompetitionStatus.IN_PROGRESS ||
+               competition.getStatus() == Competition.CompetitionStatus.ONGOING ||
+               startedCompetitionIds.contains(competition.getId());
+    }
+
+    private PreparedCompetition loadParticipants(Competition competition) {
+        Long competitionId = competition.getId();
+
+        Map<String, ExamPaper> papersByKey = new HashMap<>();
+        for (ExamPaper paper : examPaperRepository.findByCompetitionId(competitionId)) {
+            papersByKey.put(participantKey(paper.getParticipantType(), paper.getParticipantId()), paper);
+        }
+
+        // 团队ID -> 在队成员
+        Map<Long, Set<Long>> membersByTeam = new HashMap<>();
+        Map<Long, ExamPaper> paperByTeam = new HashMap<>();
+        for (Object[] row : registrationRepository.findApprovedMemberUserIdsByCompetitionId(competitionId)) {
+            Long teamId = (Long) row[0];
+            Integer maxMembers = (Integer) row[1];
+            Long leaderId = (Long) row[2];
+            Long userId = (Long) row[3];
+
+            membersByTeam.computeIfAbsent(teamId, id -> new HashSet<>()).add(userId);
+            if (!paperByTeam.containsKey(teamId)) {
+                ExamPaper paper = findParticipantPaper(papersByKey, teamId, maxMembers, leaderId);
+                if (paper != null) {
+                    paperByTeam.put(teamId, paper);
+                }
+            }
+        }
+
+        Map<Long, Long> paperIdsByUser = new HashMap<>();
+        for (Map.Entry<Long, ExamPaper> entry : paperByTeam.entrySet()) {
+            ExamPaper paper = entry.getValue();
+            Set<Long> members = membersByTeam.get(entry.getKey());
+            for (Long userId : members) {
+                paperIdsByUser.put(userId, paper.getId());
+            }
+            Collection<Long> sessionMembers = paper.getParticipantType() == ExamPaper.ParticipantType.TEAM ?
+                    members : Collections.singleton(paper.getParticipantId());
+            examSessionRegistry.register(paper, sessionMembers, competition.getCompetitionEndTime());
+        }
+
+        return new PreparedCompetition(competitionId, competition.getName(), competition.getCompetitionEndTime(),
+                Collections.unmodifiableMap(paperIdsByUser), paperByTeam.size());
+    }
+
+    /**
+     * 团队对应的考卷：优先团队考卷，个人赛批量下发的考卷按队长登记为个人考卷
+     */
+    private ExamPaper findParticipantPaper(Map<String, ExamPaper> papersByKey, Long teamId,
+                                           Integer maxMembers, Long leaderId) {
+        ExamPaper paper = papersByKey.get(participantKey(ExamPaper.ParticipantType.TEAM, teamId));
+        if (paper == null && (maxMembers == null || maxMembers <= 1)) {
+            paper = papersByKey.get(participantKey(ExamPaper.ParticipantType.INDIVIDUAL, leaderId));
+        }
+        return paper;
+    }
+
+    private String participantKey(ExamPaper.ParticipantType participantType, Long participantId) {
+        return participantType.name() + ":" + participantId;
+    }
+
+    /**
+     * 已预热的竞赛
+     */
+    public static final class PreparedCompetition {
+        private final Long competitionId;
+        private final String competitionName;
+        private final LocalDateTime competitionEndTime;
+        private final Map<Long, Long> paperIdsByUser;
+        private final int paperCount;
+        private volatile boolean started;
+
+        PreparedCompetition(Long competitionId, String competitionName, LocalDateTime competitionEndTime,
+                            Map<Long, Long> paperIdsByUser, int paperCount) {
+            this.competitionId = competitionId;
+            this.competitionName = competitionName;
+            this.competitionEndTime = competitionEndTime;
+            this.paperIdsByUser = paperIdsByUser;
+            this.paperCount = paperCount;
+        }
+
+        public Long getCompetitionId() {
+            return competitionId;
+        }
+
+        public String getCompetitionName() {
+            return competitionName;
+        }
+
+        public LocalDateTime getCompetitionEndTime() {
+            return competitionEndTime;
+        }
+
+        /**
+         * 用户的考卷ID，不是已批准的参赛用户时返回 null
+         */
+        public Long getPaperId(Long userId) {
+            return paperIdsByUser.get(userId);
+        }
+    }
+}
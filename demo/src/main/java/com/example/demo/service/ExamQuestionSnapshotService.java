@@ -0,0 +1,212 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Competition;
+import com.example.demo.entity.CompetitionQuestion;
+import com.example.demo.entity.Question;
+import com.example.demo.event.CompetitionStatusChangedEvent;
+import com.example.demo.repository.CompetitionQuestionRepository;
+import com.example.demo.repository.CompetitionRepository;
+import com.example.demo.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 竞赛题目快照服务
+ * 为每个竞赛缓存一份不可变的题目列表(不含答案和解析)，学生开始答题时直接使用，
+ * 避免每个学生都逐题查询题目。竞赛题目关联变化时需调用 onQuestionSetChanged 使快照失效。
+ */
+@Service
+public class ExamQuestionSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamQuestionSnapshotService.class);
+
+    @Autowired
+    private CompetitionQuestionRepository competitionQuestionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private ObjectiveGradingService objectiveGradingService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 获取竞赛题目快照，不存在时构建并缓存
+     */
+    public Snapshot getSnapshot(Long competitionId) {
+        Snapshot snapshot = snapshots.get(competitionId);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return snapshots.computeIfAbsent(competitionId, this::buildSnapshot);
+    }
+
+    /**
+     * 预先构建竞赛题目快照（竞赛开始时调用），返回新构建的快照
+     */
+    public Snapshot preload(Long competitionId) {
+        Snapshot snapshot = buildSnapshot(competitionId);
+        snapshots.put(competitionId, snapshot);
+        logger.info("竞赛题目快照已预加载: competitionId={}, version={}, questionCount={}",
+                competitionId, snapshot.getVersion(), snapshot.getQuestionCount());
+        return snapshot;
+    }
+
+    /**
+     * 竞赛开始时预先构建题目快照，避免开考瞬间大量学生同时查询题目
+     */
+    @EventListener
+    public void onCompetitionStatusChanged(CompetitionStatusChangedEvent event) {
+        if (event.getToStatus() != Competition.CompetitionStatus.IN_PROGRESS) {
+            return;
+        }
+        try {
+            preload(event.getCompetitionId());
+        } catch (Exception e) {
+            logger.warn("预加载竞赛题目快照失败: competitionId={}, error={}", event.getCompetitionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 竞赛题目关联发生变化：递增题目集版本号并使快照失效
+     * 如果在事务中调用，提交后会再次清除快照，避免并发请求用未提交前的数据重建
+     */
+    public void onQuestionSetChanged(Long competitionId) {
+        competitionRepository.incrementQuestionSetVersion(competitionId);
+        invalidate(competitionId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(competitionId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 题目内容修改后使所有引用该题目的竞赛快照失效（题目集不变，不递增版本号）
+     * 如果在事务中调用，提交后会再次清除快照
+     */
+    public void onQuestionChanged(Long questionId) {
+        List<Long> competitionIds = competitionQuestionRepository.findCompetitionIdsByQuestionId(questionId);
+        if (competitionIds.isEmpty()) {
+            return;
+        }
+        competitionIds.forEach(this::evictSnapshot);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    competitionIds.forEach(ExamQuestionSnapshotService.this::evictSnapshot);
+                }
+            });
+        }
+    }
+
+    /**
+     * 使竞赛题目快照及答案索引失效
+     */
+    public void invalidate(Long competitionId) {
+        objectiveGradingService.invalidate(competitionId);
+        itemAnalysisService.invalidate(competitionId);
+        evictSnapshot(competitionId);
+    }
+
+    private void evictSnapshot(Long competitionId) {
+        if (snapshots.remove(competitionId) != null) {
+            logger.info("竞赛题目快照已失效: competitionId={}", competitionId);
+        }
+    }
+
+    private Snapshot buildSnapshot(Long competitionId) {
+        Integer version = competitionRepository.findQuestionSetVersion(competitionId);
+
+        List<CompetitionQuestion> competitionQuestions = competitionQuestionRepository
+                .findByCompetitionIdOrderByQuestionOrder(competitionId);
+
+        List<Long> questionIds = competitionQuestions.stream()
+                .map(CompetitionQuestion::getQuestionId)
+                .collect(Collectors.toList());
+        Map<Long, Question> questionMap = questionRepository.findAllById(questionIds).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+
+        List<Map<String, Object>> questions = new ArrayList<>();
+        for (CompetitionQuestion cq : competitionQuestions) {
+            Question question = questionMap.get(cq.getQuestionId());
+            if (question == null) {
+                continue;
+            }
+
+            // 不包含正确答案和解析(防作弊)
+            Map<String, Object> questionData = new HashMap<>();
+            questionData.put("id", question.getId());
+            questionData.put("order", cq.getQuestionOrder());
+            questionData.put("title", question.getTitle());
+            questionData.put("content", question.getContent());
+            questionData.put("type", question.getType());
+            questionData.put("options", question.getOptions());
+            questionData.put("score", cq.getQuestionScore());
+            questions.add(Collections.unmodifiableMap(questionData));
+        }
+
+        return new Snapshot(competitionId, version, Collections.unmodifiableList(questions));
+    }
+
+    /**
+     * 竞赛题目快照（不可变）
+     */
+    public static final class Snapshot {
+        private final Long competitionId;
+        private final Integer version;
+        private final List<Map<String, Object>> questions;
+        private final LocalDateTime builtAt;
+
+        Snapshot(Long competitionId, Integer version, List<Map<String, Object>> questions) {
+            this.competitionId = competitionId;
+            this.version = version;
+            this.questions = questions;
+            this.builtAt = LocalDateTime.now();
+        }
+
+        public Long getCompetitionId() {
+            return competitionId;
+        }
+
+        public Integer getVersion() {
+            return version;
+        }
+
+        public List<Map<String, Object>> getQuestions() {
+            return questions;
+        }
+
+        public int getQuestionCount() {
+            return questions.size();
+        }
+
+        public LocalDateTime getBuiltAt() {
+            return builtAt;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExamPaper;
+import com.example.demo.repository.CompetitionRepository;
+import com.example.demo.repository.ExamPaperRepository;
+import com.example.demo.repository.TeamMemberRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 答题会话缓存
+ * 按考卷ID缓存考卷归属（参赛类型、团队成员）、状态和时间信息，
+ * 保存答案、查询进度和提交答卷时无需每次查询数据库校验权限和状态。
+ */
+@Service
+public class ExamSessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamSessionRegistry.class);
+
+    @Autowired
+    private ExamPaperRepository examPaperRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    private final Map<Long, ExamSession> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * 开始答题时登记会话
+     */
+    public ExamSession register(ExamPaper examPaper, LocalDateTime deadline) {
+        return register(examPaper, loadMemberIds(examPaper), deadline);
+    }
+
+    /**
+     * 使用已查询的成员ID登记会话（考前预热批量登记时使用）
+     */
+    public ExamSession register(ExamPaper examPaper, Collection<Long> memberUserIds, LocalDateTime deadline) {
+        Set<Long> memberIds = ConcurrentHashMap.newKeySet();
+        memberIds.addAll(memberUserIds);
+        ExamSession session = new ExamSession(examPaper, memberIds, deadline);
+        sessions.put(examPaper.getId(), session);
+        return session;
+    }
+
+    /**
+     * 考卷开始答题后更新会话的开始时间和状态
+     */
+    public ExamSession markStarted(Long examPaperId, LocalDateTime startTime) {
+        return sessions.computeIfPresent(examPaperId,
+                (id, session) -> new ExamSession(session, startTime, ExamPaper.PaperStatus.IN_PROGRESS));
+    }
+
+    /**
+     * 获取会话，缓存中不存在时从数据库加载（如服务重启后）
+     */
+    public ExamSession getSession(Long examPaperId) {
+        ExamSession session = sessions.get(examPaperId);
+        if (session != null) {
+            hitCount.incrementAndGet();
+            return session;
+        }
+
+        missCount.incrementAndGet();
+        ExamPaper examPaper = examPaperRepository.findById(examPaperId)
+                .orElseThrow(() -> new RuntimeException("考卷不存在"));
+        return register(examPaper, competitionRepository.findCompetitionEndTime(examPaper.getCompetitionId()));
+    }
+
+    /**
+     * 校验用户是否可以访问考卷
+     * 团队成员不在缓存中时再查询一次数据库，以便识别会话登记后加入的成员
+     */
+    public boolean hasPermission(ExamSession session, Long userId) {
+        if (session.memberUserIds.contains(userId)) {
+            return true;
+        }
+        if (session.participantType == ExamPaper.ParticipantType.TEAM &&
+            teamMemberRepository.existsByTeamIdAndUserId(session.participantId, userId)) {
+            session.memberUserIds.add(userId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 考卷状态变化时同步更新会话（提交、评分等）
+     */
+    public void updateStatus(Long examPaperId, ExamPaper.PaperStatus status) {
+        ExamSession session = sessions.get(examPaperId);
+        if (session != null) {
+            session.status = status;
+        }
+    }
+
+    /**
+     * 竞赛结束时间修改后更新该竞赛所有会话的截止时间
+     */
+    public int updateDeadline(Long competitionId, LocalDateTime deadline) {
+        int updated = 0;
+        for (ExamSession session : sessions.values()) {
+            if (competitionId.equals(session.competitionId)) {
+                session.deadline = deadline;
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    public void remove(Long examPaperId) {
+        sessions.remove(examPaperId);
+    }
+
+    /**
+     * 当前事务回滚时清除会话，下次访问时按数据库状态重新加载
+     */
+    public void removeOnRollback(Long examPaperId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        remove(examPaperId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 清除某个竞赛的全部会话（竞赛删除时调用）
+     */
+    public void removeByCompetition(Long competitionId) {
+        sessions.values().removeIf(session -> competitionId.equals(session.competitionId));
+    }
+
+    /**
+     * 清理竞赛已结束超过一小时的会话
+     */
+    @Scheduled(cron = "0 30 * * * ?")
+    public void evictExpiredSessions() {
+        LocalDateTime threshold = LocalDateTime.now().minusHours(1);
+        int before = sessions.size();
+        sessions.values().removeIf(session -> session.deadline != null && session.deadline.isBefore(threshold));
+        int evicted = before - sessions.size();
+        if (evicted > 0) {
+            logger.info("清理过期答题会话: {} 个", evicted);
+        }
+    }
+
+    /**
+     * 缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        long hits = hitCount.get();
+        long misses = missCount.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessionCount", sessions.size());
+        stats.put("hitCount", hits);
+        stats.put("missCount", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return stats;
+    }
+
+    private Set<Long> loadMemberIds(ExamPaper examPaper) {
+        Set<Long> memberIds = ConcurrentHashMap.newKeySet();
+        if (examPaper.getParticipantType() == ExamPaper.ParticipantType.TEAM) {
+            memberIds.addAll(teamMemberRepository.findUserIdsByTeamId(examPaper.getParticipantId()));
+        } else {
+            memberIds.add(examPaper.getParticipantId());
+        }
+        return memberIds;
+    }
+
+    /**
+     * 答题会话
+     */
+    public static final class ExamSession {
+        private final Long examPaperId;
+        private final Long competitionId;
+        private final ExamPaper.ParticipantType participantType;
+        private final Long participantId;
+        private final Set<Long> memberUserIds;
+        private final LocalDateTime startTime;
+        private volatile LocalDateTime deadline;
+        private final Integer totalQuestionCount;
+        private final Integer questionSetVersion;
+        private volatile ExamPaper.PaperStatus status;
+
+        ExamSession(ExamPaper examPaper, Set<Long> memberUserIds, LocalDateTime deadline) {
+            this.examPaperId = examPaper.getId();
+            this.competitionId = examPaper.getCompetitionId();
+            this.participantType = examPaper.getParticipantType();
+            this.participantId = examPaper.getParticipantId();
+            this.memberUserIds = memberUserIds;
+            this.startTime = examPaper.getStartTime();
+            this.deadline = deadline;
+            this.totalQuestionCount = examPaper.getTotalQuestionCount();
+            this.questionSetVersion = examPaper.getQuestionSetVersion();
+            this.status = examPaper.getPaperStatus();
+        }
+
+        ExamSession(ExamSession source, LocalDateTime startTime, ExamPaper.PaperStatus status) {
+            this.examPaperId = source.examPaperId;
+            this.competitionId = source.competitionId;
+            this.participantType = source.participantType;
+            this.participantId = source.participantId;
+            this.memberUserIds = source.memberUserIds;
+            this.startTime = startTime;
+            this.deadline = source.deadline;
+            this.totalQuestionCount = source.totalQuestionCount;
+            this.questionSetVersion = source.questionSetVersion;
+            this.status = status;
+        }
+
+        public Long getExamPaperId() {
+            return examPaperId;
+        }
+
+        public Long getCompetitionId() {
+            return competitionId;
+        }
+
+        public ExamPaper.ParticipantType getParticipantType() {
+            return participantType;
+        }
+
+        public Long getParticipantId() {
+            return participantId;
+        }
+
+        public Set<Long> getMemberUserIds() {
+            return Collections.unmodifiableSet(memberUserIds);
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public LocalDateTime getDeadline() {
+            return deadline;
+        }
+
+        public Integer getTotalQuestionCount() {
+            return totalQuestionCount;
+        }
+
+        /**
+         * 生成考卷时的题目集版本号
+         */
+        public Integer getQuestionSetVersion() {
+            return questionSetVersion;
+        }
+
+        public ExamPaper.PaperStatus getStatus() {
+            return status;
+        }
+    }
+}
@@ -37,6 +37,12 @@ public class GradeService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private LeaderboardService leaderboardService;
+    
+    @Autowired
+    private ScoreStatisticsService scoreStatisticsService;
+    
     // 录入成绩（通过ID）- 别名方法
     public Grade recordGrade(Long teamId, Long competitionId, BigDecimal score, Long gradedBy, String remarks) {
         return createGrade(teamId, competitionId, score, gradedBy, remarks);
@@ -120,7 +126,10 @@ public class GradeService {
             grade.setAwardLevel(determineAwardLevel(grade.getScore()));
         }
         
-        return gradeRepository.save(grade);
+        Grade savedGrade = gradeRepository.save(grade);
+        leaderboardService.onGradeSaved(savedGrade, team);
+        scoreStatisticsService.onGradeCreated(competition.getId(), savedGrade.getScore(), savedGrade.getAwardLevel());
+        return savedGrade;
     }
     
     // 根据分数确定奖项等级
@@ -242,13 +251,19 @@ public class GradeService {
             throw new RuntimeException("只有管理员和教师可以更新成绩");
         }
         
+        BigDecimal oldScore = grade.getScore();
+        Grade.AwardLevel oldAwardLevel = grade.getAwardLevel();
         grade.setScore(newScore);
         grade.setRemarks(remarks);
         grade.setAwardLevel(determineAwardLevel(newScore));
         grade.setGradedBy(gradedBy);
         grade.setGradedAt(LocalDateTime.now());
         
-        return gradeRepository.save(grade);
+        Grade savedGrade = gradeRepository.save(grade);
+        leaderboardService.onGradeSaved(savedGrade, savedGrade.getTeam());
+        scoreStatisticsService.onGradeUpdated(savedGrade.getCompetition().getId(), oldScore, oldAwardLevel,
+                savedGrade.getScore(), savedGrade.getAwardLevel());
+        return savedGrade;
     }
     
     // 更新成绩（原方法保留）
@@ -278,6 +293,9 @@ public class GradeService {
             throw new RuntimeException("已取消的竞赛不能修改成绩");
         }
         
+        BigDecimal oldScore = grade.getScore();
+        Grade.AwardLevel oldAwardLevel = grade.getAwardLevel();
+        
         // 更新允许修改的字段
         if (updatedGrade.getScore() != null) {
             // 验证分数范围
@@ -304,7 +322,11 @@ public class GradeService {
         grade.setGradedBy(gradedBy);
         grade.setGradedAt(LocalDateTime.now());
         
-        return gradeRepository.save(grade);
+        Grade savedGrade = gradeRepository.save(grade);
+        leaderboardService.onGradeSaved(savedGrade, savedGrade.getTeam());
+        scoreStatisticsService.onGradeUpdated(savedGrade.getCompetition().getId(), oldScore, oldAwardLevel,
+                savedGrade.getScore(), savedGrade.getAwardLevel());
+        return savedGrade;
     }
     
     // 删除成绩
@@ -328,6 +350,8 @@ public class GradeService {
         }
         
         gradeRepository.delete(grade);
+        leaderboardService.onGradeDeleted(grade.getCompetition().getId(), grade.getTeam().getId());
+        scoreStatisticsService.onGradeDeleted(grade.getCompetition().getId(), grade.getScore(), grade.getAwardLevel());
     }
     
     // 批量录入成绩
@@ -351,30 +375,16 @@ public class GradeService {
     /**
      * 计算并持久化竞赛排名
      * 支持并列分数同名次，后续名次跳跃（示例：1,2,2,4）
+     * 同时重建内存排行榜，只保存名次发生变化的成绩
      */
     public void computeAndPersistRanking(Long competitionId) {
         // 获取该竞赛所有成绩，按分数降序排列
         List<Grade> grades = gradeRepository.findCompetitionRankingList(competitionId);
         
-        int position = 0;  // 位置计数器
-        int currentRank = 0;  // 当前排名
-        BigDecimal prevScore = null;  // 上一个成绩
-        
-        for (Grade grade : grades) {
-            position++;  // 位置递增
-            
-            // 如果分数与上一个不同，更新排名为当前位置
-            if (prevScore == null || grade.getScore().compareTo(prevScore) != 0) {
-                currentRank = position;
-                prevScore = grade.getScore();
-            }
-            // 如果分数相同，保持相同排名
-            
-            grade.setRanking(currentRank);
+        List<Grade> changedGrades = leaderboardService.rebuildRankings(competitionId, grades);
+        if (!changedGrades.isEmpty()) {
+            gradeRepository.saveAll(changedGrades);
         }
-        
-        // 批量保存排名
-        gradeRepository.saveAll(grades);
     }
     
     // 获取竞赛成绩统计
@@ -393,61 +403,39 @@ public class GradeService {
     
     // 获取全局奖项统计
     public Map<String, Long> getGlobalAwardStats() {
-        // 全局获奖统计
+        ScoreStatistics statistics = scoreStatisticsService.getGlobalStatistics();
+        long firstPrize = statistics.getAwardCount(Grade.AwardLevel.FIRST_PRIZE);
+        long secondPrize = statistics.getAwardCount(Grade.AwardLevel.SECOND_PRIZE);
+        long thirdPrize = statistics.getAwardCount(Grade.AwardLevel.THIRD_PRIZE);
         return Map.of(
-            "总获奖数", 0L,
-            "一等奖", 0L,
-            "二等奖", 0L,
-            "三等奖", 0L
+            "总获奖数", firstPrize + secondPrize + thirdPrize,
+            "一等奖", firstPrize,
+            "二等奖", secondPrize,
+            "三等奖", thirdPrize
         );
     }
     
     // 获取竞赛平均分
     public BigDecimal getCompetitionAverageScore(Long competitionId) {
-        Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-        if (competitionOpt.isEmpty()) {
-            throw new RuntimeException("竞赛不存在");
-        }
-        
-        // 计算平均分
-        List<Grade> grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
-        BigDecimal average = grades.stream()
-            .map(Grade::getScore)
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(grades.size()), 2, BigDecimal.ROUND_HALF_UP);
-        return average != null ? average : BigDecimal.ZERO;
+        return getCompetitionStatistics(competitionId).getAverageScore();
     }
     
     // 获取竞赛最高分
     public BigDecimal getCompetitionMaxScore(Long competitionId) {
-        Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-        if (competitionOpt.isEmpty()) {
-            throw new RuntimeException("竞赛不存在");
-        }
-        
-        // 计算最高分
-        List<Grade> grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
-        BigDecimal maxScore = grades.stream()
-            .map(Grade::getScore)
-            .max(BigDecimal::compareTo)
-            .orElse(BigDecimal.ZERO);
-        return maxScore != null ? maxScore : BigDecimal.ZERO;
+        return getCompetitionStatistics(competitionId).getMaxScore();
     }
     
     // 获取竞赛最低分
     public BigDecimal getCompetitionMinScore(Long competitionId) {
-        Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-        if (competitionOpt.isEmpty()) {
+        return getCompetitionStatistics(competitionId).getMinScore();
+    }
+    
+    // 获取竞赛成绩统计聚合（竞赛不存在时抛出异常）
+    private ScoreStatistics getCompetitionStatistics(Long competitionId) {
+        if (!competitionRepository.existsById(competitionId)) {
             throw new RuntimeException("竞赛不存在");
         }
-        
-        // 计算最低分
-        List<Grade> grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
-        BigDecimal minScore = grades.stream()
-            .map(Grade::getScore)
-            .min(BigDecimal::compareTo)
-            .orElse(BigDecimal.ZERO);
-        return minScore != null ? minScore : BigDecimal.ZERO;
+        return scoreStatisticsService.getCompetitionStatistics(competitionId);
     }
     
     // 检查团队是否有成绩
@@ -470,28 +458,17 @@ public class GradeService {
                 .count();
     }
     
-    // 获取团队在竞赛中的排名
+    // 获取团队在竞赛中的排名（从内存排行榜读取）
     public int getTeamRankInCompetition(Long teamId, Long competitionId) {
-        Optional<Team> teamOpt = teamRepository.findById(teamId);
-        Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-        
-        if (teamOpt.isEmpty() || competitionOpt.isEmpty()) {
-            throw new RuntimeException("团队或竞赛不存在");
-        }
-        
-        Optional<Grade> gradeOpt = gradeRepository.findByTeamIdAndCompetitionId(teamOpt.get().getId(), competitionOpt.get().getId());
-        if (gradeOpt.isEmpty()) {
-            throw new RuntimeException("该团队在此竞赛中没有成绩");
-        }
-        
-        Grade grade = gradeOpt.get();
-        List<Grade> rankings = gradeRepository.findByCompetitionIdOrderByScoreDesc(competitionOpt.get().getId(), Pageable.unpaged()).getContent();
-        for (int i = 0; i < rankings.size(); i++) {
-            if (rankings.get(i).getId().equals(grade.getId())) {
-                return i + 1;
+        Leaderboard leaderboard = leaderboardService.getLeaderboard(competitionId);
+        Leaderboard.RankedEntry ranked = leaderboard.getRank(teamId);
+        if (ranked == null) {
+            if (!teamRepository.existsById(teamId)) {
+                throw new RuntimeException("团队或竞赛不存在");
             }
+            throw new RuntimeException("该团队在此竞赛中没有成绩");
         }
-        return rankings.size() + 1;
+        return ranked.getRank();
     }
     
     // 导出竞赛成绩
@@ -542,18 +519,13 @@ public class GradeService {
     
     // 获取竞赛成绩统计
     public Map<String, Object> getCompetitionGradeStats(Long competitionId) {
-        Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-        if (competitionOpt.isEmpty()) {
-            throw new RuntimeException("竞赛不存在");
-        }
-        
-        List<Grade> grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
+        ScoreStatistics statistics = getCompetitionStatistics(competitionId);
         
         Map<String, Object> stats = new java.util.HashMap<>();
-        stats.put("totalCount", grades.size());
-        stats.put("averageScore", getCompetitionAverageScore(competitionId));
-        stats.put("maxScore", getCompetitionMaxScore(competitionId));
-        stats.put("minScore", getCompetitionMinScore(competitionId));
+        stats.put("totalCount", statistics.getCount());
+        stats.put("averageScore", statistics.getAverageScore());
+        stats.put("maxScore", statistics.getMaxScore());
+        stats.put("minScore", statistics.getMinScore());
         
         return stats;
     }
@@ -565,21 +537,14 @@ public class GradeService {
     
     // 获取奖项统计
     public Map<String, Object> getAwardStats(Long competitionId) {
-        List<Grade> grades;
-        if (competitionId != null) {
-            Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-            if (competitionOpt.isEmpty()) {
-                throw new RuntimeException("竞赛不存在");
-            }
-            grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
-        } else {
-            grades = gradeRepository.findAll();
-        }
+        ScoreStatistics statistics = competitionId != null
+                ? getCompetitionStatistics(competitionId)
+                : scoreStatisticsService.getGlobalStatistics();
         
         Map<String, Object> stats = new java.util.HashMap<>();
-        long firstPrize = grades.stream().filter(g -> g.getAwardLevel() == Grade.AwardLevel.FIRST_PRIZE).count();
-        long secondPrize = grades.stream().filter(g -> g.getAwardLevel() == Grade.AwardLevel.SECOND_PRIZE).count();
-        long thirdPrize = grades.stream().filter(g -> g.getAwardLevel() == Grade.AwardLevel.THIRD_PRIZE).count();
+        long firstPrize = statistics.getAwardCount(Grade.AwardLevel.FIRST_PRIZE);
+        long secondPrize = statistics.getAwardCount(Grade.AwardLevel.SECOND_PRIZE);
+        long thirdPrize = statistics.getAwardCount(Grade.AwardLevel.THIRD_PRIZE);
         
         stats.put("firstPrize", firstPrize);
         stats.put("secondPrize", secondPrize);
@@ -621,59 +586,45 @@ public class GradeService {
     
     // 获取导出用的成绩数据
     public List<Grade> getGradesForExport(Long competitionId, String awardLevel) {
-        List<Grade> grades;
+        Grade.AwardLevel level = awardLevel != null && !awardLevel.isEmpty() ? Grade.AwardLevel.valueOf(awardLevel) : null;
         
         if (competitionId != null) {
-            Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-            if (competitionOpt.isEmpty()) {
+            if (!competitionRepository.existsById(competitionId)) {
                 throw new RuntimeException("竞赛不存在");
             }
-            grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
-        } else {
-            grades = gradeRepository.findAll();
-        }
-        
-        if (awardLevel != null && !awardLevel.isEmpty()) {
-            Grade.AwardLevel level = Grade.AwardLevel.valueOf(awardLevel);
-            grades = grades.stream()
-                    .filter(g -> g.getAwardLevel() == level)
-                    .collect(java.util.stream.Collectors.toList());
+            return level != null
+                    ? gradeRepository.findByCompetitionIdAndAwardLevel(competitionId, level)
+                    : gradeRepository.findByCompetitionId(competitionId);
         }
-        
-        return grades;
+        return level != null ? gradeRepository.findByAwardLevel(level) : gradeRepository.findAll();
     }
     
     // 获取成绩分布统计
     public Map<String, Object> getGradeDistribution(Long competitionId) {
-        List<Grade> grades;
-        
-        if (competitionId != null) {
-            Optional<Competition> competitionOpt = competitionRepository.findById(competitionId);
-            if (competitionOpt.isEmpty()) {
-                throw new RuntimeException("竞赛不存在");
-            }
-            grades = gradeRepository.findByCompetitionId(competitionOpt.get().getId());
-        } else {
-            grades = gradeRepository.findAll();
-        }
+        ScoreStatistics statistics = competitionId != null
+                ? getCompetitionStatistics(competitionId)
+                : scoreStatisticsService.getGlobalStatistics();
         
         Map<String, Object> distribution = new java.util.HashMap<>();
         
         // 分数段统计
-        long excellent = grades.stream().filter(g -> g.getScore().compareTo(new BigDecimal("90")) >= 0).count();
-        long good = grades.stream().filter(g -> g.getScore().compareTo(new BigDecimal("80")) >= 0 && g.getScore().compareTo(new BigDecimal("90")) < 0).count();
-        long average = grades.stream().filter(g -> g.getScore().compareTo(new BigDecimal("70")) >= 0 && g.getScore().compareTo(new BigDecimal("80")) < 0).count();
-        long poor = grades.stream().filter(g -> g.getScore().compareTo(new BigDecimal("70")) < 0).count();
-        
-        distribution.put("excellent", excellent);
-        distribution.put("good", good);
-        distribution.put("average", average);
-        distribution.put("poor", poor);
-        distribution.put("total", grades.size());
+        distribution.put("excellent", statistics.countBetween(90, null));
+        distribution.put("good", statistics.countBetween(80, 90));
+        distribution.put("average", statistics.countBetween(70, 80));
+        distribution.put("poor", statistics.countBetween(0, 70));
+        distribution.put("total", statistics.getCount());
         
         return distribution;
     }
     
+    // 获取成绩统计概要
+    public Map<String, Object> getScoreStatisticsSummary(Long competitionId) {
+        if (competitionId != null && !competitionRepository.existsById(competitionId)) {
+            throw new RuntimeException("竞赛不存在");
+        }
+        return scoreStatisticsService.getSummary(competitionId);
+    }
+    
     // 根据评分者和竞赛获取成绩
     public Page<Grade> getGradesByGraderAndCompetition(Long graderId, Long competitionId, Pageable pageable) {
         Optional<User> graderOpt = userRepository.findById(graderId);
@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本机内存令牌桶：按 key 保存令牌数，取令牌时按经过的时间补充
+ */
+@Component
+public class InMemoryRateLimitBackend implements RateLimitBackend {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryConsume(String key, double permitsPerSecond, int burst) {
+        long now = System.nanoTime();
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(burst, now));
+        return bucket.tryConsume(permitsPerSecond, burst, now);
+    }
+
+    @Override
+    public void refund(String key, int burst) {
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.refund(burst);
+        }
+    }
+
+    @Override
+    public void evictIdle(long idleMillis) {
+        long deadline = System.nanoTime() - idleMillis * 1_000_000L;
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdleSince(deadline));
+    }
+
+    @Override
+    public int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefillNanos;
+
+        Bucket(int burst, long now) {
+            this.tokens = burst;
+            this.lastRefillNanos = now;
+        }
+
+        synchronized long tryConsume(double permitsPerSecond, int burst, long now) {
+            if (now > lastRefillNanos) {
+                tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * permitsPerSecond);
+                lastRefillNanos = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / permitsPerSecond * 1000);
+        }
+
+        synchronized void refund(int burst) {
+            tokens = Math.min(burst, tokens + 1);
+        }
+
+        synchronized boolean isIdleSince(long deadline) {
+            return lastRefillNanos < deadline;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ItemAnalysisDTO;
+import com.example.demo.entity.ExamAnswer;
+import com.example.demo.entity.Question;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 试题分析服务
+ * 一次查询读取考卷总分确定高分组/低分组（各占27%），再流式扫描一遍竞赛的答题记录，
+ * 按题累计正确率、平均分、得分率、选项选择分布和区分度。结果按竞赛缓存，评分或题目变化时失效。
+ */
+@Service
+public class ItemAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemAnalysisService.class);
+
+    private static final double GROUP_RATIO = 0.27;
+
+    // MySQL 驱动只有 fetchSize 为 Integer.MIN_VALUE 时才逐行读取结果，否则会把整个结果集读入内存
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final String ANALYZED_STATUSES = "('GRADING', 'GRADED')";
+
+    private static final String SELECT_QUESTIONS_SQL =
+            "SELECT cq.question_id, cq.question_order, cq.question_score, q.title, q.type " +
+            "FROM competition_questions cq JOIN questions q ON q.id = cq.question_id " +
+            "WHERE cq.competition_id = ? ORDER BY cq.question_order";
+
+    private static final String SELECT_PAPER_SCORES_SQL =
+            "SELECT id, total_score FROM exam_papers WHERE competition_id = ? AND paper_status IN " + ANALYZED_STATUSES;
+
+    private static final String SELECT_ANSWERS_SQL =
+            "SELECT ea.exam_paper_id, ea.question_id, ea.answer_content, ea.is_correct, ea.score, ea.max_score, " +
+            "ea.grading_status FROM exam_answers ea JOIN exam_papers ep ON ep.id = ea.exam_paper_id " +
+            "WHERE ep.competition_id = ? AND ep.paper_status IN " + ANALYZED_STATUSES;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate streamingJdbcTemplate;
+
+    private final Map<Long, ItemAnalysisDTO> cache = new ConcurrentHashMap<>();
+
+    // 竞赛ID -> 失效次数，分析期间发生失效时不缓存结果
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private final Map<Long, Object> locks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingJdbcTemplate.setFetchSize(STREAMING_FETCH_SIZE);
+    }
+
+    /**
+     * 获取竞赛试题分析，缓存不存在或要求刷新时重新计算（同一竞赛同时只计算一次）
+     */
+    public ItemAnalysisDTO getItemAnalysis(Long competitionId, boolean refresh) {
+        if (!refresh) {
+            ItemAnalysisDTO cached = cache.get(competitionId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        synchronized (locks.computeIfAbsent(competitionId, id -> new Object())) {
+            ItemAnalysisDTO cached = cache.get(competitionId);
+            if (cached != null && !refresh) {
+                return cached;
+            }
+            long version = versions.getOrDefault(competitionId, 0L);
+            ItemAnalysisDTO result = analyze(competitionId);
+            if (versions.getOrDefault(competitionId, 0L) == version) {
+                cache.put(competitionId, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 竞赛答题记录或题目变化时清除分析结果，在事务中调用时提交后再清除一次
+     */
+    public void invalidate(Long competitionId) {
+        if (competitionId == null) {
+            return;
+        }
+        evict(competitionId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(competitionId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long competitionId) {
+        versions.merge(competitionId, 1L, Long::sum);
+        cache.remove(competitionId);
+    }
+
+    private ItemAnalysisDTO analyze(Long competitionId) {
+        long start = System.currentTimeMillis();
+        ItemAnalysisDTO result = new ItemAnalysisDTO(competitionId);
+
+        // 1. 竞赛题目
+        Map<Long, ItemStats> statsByQuestion = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_QUESTIONS_SQL, rs -> {
+            ItemStats stats = new ItemStats(rs.getLong("question_id"));
+            stats.questionOrder = rs.getInt("question_order");
+            stats.questionScore = rs.getBigDecimal("question_score");
+            stats.title = rs.getString("title");
+            stats.type = toQuestionType(rs.getString("type"));
+            statsByQuestion.put(stats.questionId, stats);
+        }, competitionId);
+
+        // 2. 按考卷总分排序，前27%为高分组(1)，后27%为低分组(-1)
+        List<long[]> papers = new ArrayList<>();
+        jdbcTemplate.query(SELECT_PAPER_SCORES_SQL, rs -> {
+            BigDecimal totalScore = rs.getBigDecimal("total_score");
+            // 总分按分(1/100)取整后比较
+            papers.add(new long[]{rs.getLong("id"),
+                    totalScore != null ? totalScore.movePointRight(2).longValue() : 0});
+        }, competitionId);
+        papers.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+
+        int paperCount = papers.size();
+        int groupSize = paperCount < 2 ? 0 : Math.min(paperCount / 2, Math.max(1, (int) Math.round(paperCount * GROUP_RATIO)));
+        Map<Long, Integer> groupByPaper = new HashMap<>(groupSize * 4 / 3 + 1);
+        for (int i = 0; i < groupSize; i++) {
+            groupByPaper.put(papers.get(i)[0], 1);
+            groupByPaper.put(papers.get(paperCount - 1 - i)[0], -1);
+        }
+
+        // 3. 流式扫描答题记录
+        long[] answerCount = {0};
+        streamingJdbcTemplate.query(SELECT_ANSWERS_SQL, rs -> {
+            answerCount[0]++;
+            long questionId = rs.getLong("question_id");
+            ItemStats stats = statsByQuestion.computeIfAbsent(questionId, ItemStats::new);
+
+            Boolean isCorrect = rs.getObject("is_correct", Boolean.class);
+            BigDecimal score = rs.getBigDecimal("score");
+            BigDecimal maxScore = rs.getBigDecimal("max_score");
+            String gradingStatus = rs.getString("grading_status");
+            boolean graded = !ExamAnswer.GradingStatus.PENDING.name().equals(gradingStatus) &&
+                             !ExamAnswer.GradingStatus.MANUAL_GRADING.name().equals(gradingStatus);
+
+            stats.accept(rs.getString("answer_content"), isCorrect, score, maxScore, graded,
+                    groupByPaper.getOrDefault(rs.getLong("exam_paper_id"), 0));
+        }, competitionId);
+
+        for (ItemStats stats : statsByQuestion.values()) {
+            result.getQuestions().add(stats.toItem());
+        }
+        result.setPaperCount(paperCount);
+        result.setAnswerCount(answerCount[0]);
+        result.setGroupSize(groupSize);
+        result.setScanMillis(System.currentTimeMillis() - start);
+
+        logger.info("试题分析完成: competitionId={}, 考卷{}份, 答题记录{}条, 题目{}道, 耗时{}ms",
+                competitionId, paperCount, answerCount[0], statsByQuestion.size(), result.getScanMillis());
+        return result;
+    }
+
+    private static Question.QuestionType toQuestionType(String value) {
+        try {
+            return value != null ? Question.QuestionType.valueOf(value) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Double round(double value, int scale) {
+        double factor = Math.pow(10, scale);
+        return Math.round(value * factor) / factor;
+    }
+
+    /**
+     * 单题累计值
+     */
+    private static final class ItemStats {
+        private final long questionId;
+        private Integer questionOrder;
+        private BigDecimal questionScore;
+        private String title;
+        private Question.QuestionType type;
+
+        private long attempts;
+        private long blank;
+        private long graded;
+        private long correct;
+        private double scoreSum;
+        // 实际使用的满分（题目分值为空时取答题记录中的满分）
+        private double fullScore;
+        private long upperCount;
+        private double upperRateSum;
+        private long lowerCount;
+        private double lowerRateSum;
+        private Map<String, Long> options;
+
+        ItemStats(long questionId) {
+            this.questionId = questionId;
+        }
+
+        void accept(String answerContent, Boolean isCorrect, BigDecimal score, BigDecimal maxScore,
+                    boolean isGraded, int group) {
+            attempts++;
+            boolean isBlank = answerContent == null || answerContent.isBlank();
+            if (isBlank) {
+                blank++;
+            } else if (isObjective()) {
+                countOptions(answerContent);
+            }
+
+            if (!isGraded) {
+                return;
+            }
+            graded++;
+            if (Boolean.TRUE.equals(isCorrect)) {
+                correct++;
+            }
+
+            double value = score != null ? score.doubleValue() : 0;
+            double full = questionScore != null ? questionScore.doubleValue()
+                    : (maxScore != null ? maxScore.doubleValue() : 0);
+            fullScore = Math.max(fullScore, full);
+            scoreSum += value;
+
+            // 得分率，满分未知时按是否正确计
+            double rate = full > 0 ? Math.min(1, value / full) : (Boolean.TRUE.equals(isCorrect) ? 1 : 0);
+            if (group > 0) {
+                upperCount++;
+                upperRateSum += rate;
+            } else if (group < 0) {
+                lowerCount++;
+                lowerRateSum += rate;
+            }
+        }
+
+        private boolean isObjective() {
+            return type == Question.QuestionType.SINGLE_CHOICE ||
+                   type == Question.QuestionType.MULTIPLE_CHOICE ||
+                   type == Question.QuestionType.TRUE_FALSE;
+        }
+
+        /**
+         * 多选题按逗号拆分为单个选项计数，单选题和判断题整体计数
+         */
+        private void countOptions(String answerContent) {
+            if (options == null) {
+                options = new HashMap<>();
+            }
+            if (type != Question.QuestionType.MULTIPLE_CHOICE) {
+                options.merge(answerContent.trim().toUpperCase(), 1L, Long::sum);
+                return;
+            }
+            for (String option : answerContent.split(",")) {
+                String trimmed = option.trim().toUpperCase();
+                if (!trimmed.isEmpty()) {
+                    options.merge(trimmed, 1L, Long::sum);
+                }
+            }
+        }
+
+        ItemAnalysisDTO.QuestionItem toItem() {
+            ItemAnalysisDTO.QuestionItem item = new ItemAnalysisDTO.QuestionItem();
+            item.setQuestionId(questionId);
+            item.setQuestionOrder(questionOrder);
+            item.setTitle(title);
+            item.setType(type != null ? type.name() : null);
+            item.setMaxScore(fullScore > 0 ? fullScore : (questionScore != null ? questionScore.doubleValue() : null));
+            item.setAttempts(attempts);
+            item.setBlankCount(blank);
+            item.setGradedCount(graded);
+            item.setCorrectCount(correct);
+            if (graded > 0) {
+                double averageScore = scoreSum / graded;
+                item.setCorrectRate(round((double) correct / graded, 4));
+                item.setAverageScore(round(averageScore, 2));
+                if (fullScore > 0) {
+                    item.setDifficulty(round(Math.min(1, averageScore / fullScore), 4));
+                }
+            }
+            if (upperCount > 0 && lowerCount > 0) {
+                double upperRate = upperRateSum / upperCount;
+                double lowerRate = lowerRateSum / lowerCount;
+                item.setUpperRate(round(upperRate, 4));
+                item.setLowerRate(round(lowerRate, 4));
+                item.setDiscrimination(round(upperRate - lowerRate, 4));
+            }
+            if (options != null) {
+                item.setOptionDistribution(new TreeMap<>(options));
+            }
+            return item;
+        }
+    }
+}
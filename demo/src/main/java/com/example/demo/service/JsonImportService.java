@@ -36,6 +36,9 @@ public class JsonImportService {
     @Autowired
     private CompetitionQuestionRepository competitionQuestionRepository;
 
+    @Autowired
+    private ExamQuestionSnapshotService examQuestionSnapshotService;
+
     /**
      * 从JSON文件导入题目
      *
@@ -113,6 +116,10 @@ public class JsonImportService {
                 lineNumber++;
             }
 
+            if (competitionId != null && !successList.isEmpty()) {
+                examQuestionSnapshotService.onQuestionSetChanged(competitionId);
+            }
+
             // 4. 构建返回结果
             result.setSuccessCount(successList.size());
             result.setFailedCount(failedList.size());
@@ -0,0 +1,445 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 竞赛排行榜（内存）
+ * 按分数降序组织的顺序统计树（Treap），每个节点是一个分数，保存该分数下的全部团队，
+ * 并维护子树的团队数和不同分数数，新增、修改、删除成绩和查询名次都是 O(log n)。
+ *
+ * 名次规则与持久化的排名一致：并列分数同名次，后续名次跳跃（1,2,2,4）；
+ * 同时提供密集名次（1,2,2,3）。同分团队按团队ID升序排列。
+ */
+public final class Leaderboard {
+
+    private final Long competitionId;
+    private final String competitionName;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    public Leaderboard(Long competitionId, String competitionName) {
+        this.competitionId = competitionId;
+        this.competitionName = competitionName;
+    }
+
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    public String getCompetitionName() {
+        return competitionName;
+    }
+
+    /**
+     * 新增或更新团队成绩，分数为空时从排行榜移除
+     */
+    public void put(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(entry.teamId);
+            if (previous != null) {
+                root = remove(root, previous.score, previous.teamId);
+                if (entry.persistedRanking == null) {
+                    entry.persistedRanking = previous.persistedRanking;
+                }
+            }
+            if (entry.score != null) {
+                entries.put(entry.teamId, entry);
+                root = insert(root, entry.score, entry.teamId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(Long teamId) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(teamId);
+            if (previous == null) {
+                return false;
+            }
+            root = remove(root, previous.score, previous.teamId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 团队名次，不在排行榜中时返回 null
+     */
+    public RankedEntry getRank(Long teamId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(teamId);
+            if (entry == null) {
+                return null;
+            }
+            return new RankedEntry(entry, countHigher(entry.score) + 1, countDistinctHigher(entry.score) + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 前 N 名
+     */
+    public List<RankedEntry> top(int limit) {
+        return page(0, limit);
+    }
+
+    /**
+     * 按位置分页（offset 从0开始）
+     */
+    public List<RankedEntry> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<RankedEntry> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+            if (limit > 0 && offset >= 0) {
+                collect(root, 0, 0, offset, offset + limit, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 团队前后各 radius 个位置的排名，团队不在排行榜中时返回空列表
+     */
+    public List<RankedEntry> around(Long teamId, int radius) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(teamId);
+            if (entry == null) {
+                return Collections.emptyList();
+            }
+            Node node = find(root, entry.score);
+            int position = countHigher(entry.score) + node.teamIds.headSet(teamId).size();
+            int from = Math.max(0, position - radius);
+            List<RankedEntry> result = new ArrayList<>(radius * 2 + 1);
+            collect(root, 0, 0, from, position + radius + 1, result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前名次与已持久化名次不同的成绩（成绩ID -> 名次）
+     */
+    public Map<Long, Integer> changedRankings() {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> changed = new LinkedHashMap<>();
+            for (RankedEntry ranked : page(0, size(root))) {
+                Entry entry = ranked.entry;
+                if (entry.gradeId != null && !Objects.equals(entry.persistedRanking, ranked.rank)) {
+                    changed.put(entry.gradeId, ranked.rank);
+                }
+            }
+            return changed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 名次写入数据库后记录已持久化的名次
+     */
+    public void markPersisted(Map<Long, Integer> rankings) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : entries.values()) {
+                Integer ranking = rankings.get(entry.gradeId);
+                if (ranking != null) {
+                    entry.persistedRanking = ranking;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---- 顺序统计树 ----
+
+    private int countHigher(BigDecimal score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = score.compareTo(node.score);
+            if (cmp > 0) {
+                node = node.left;
+            } else if (cmp == 0) {
+                return count + size(node.left);
+            } else {
+                count += size(node.left) + node.teamIds.size();
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    private int countDistinctHigher(BigDecimal score) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = score.compareTo(node.score);
+            if (cmp > 0) {
+                node = node.left;
+            } else if (cmp == 0) {
+                return count + distinct(node.left);
+            } else {
+                count += distinct(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 中序收集位置在 [from, to) 内的团队，before/distinctBefore 为子树之前的团队数和分数数
+     */
+    private void collect(Node node, int before, int distinctBefore, int from, int to, List<RankedEntry> out) {
+        if (node == null) {
+            return;
+        }
+        int nodeStart = before + size(node.left);
+        int nodeEnd = nodeStart + node.teamIds.size();
+        int denseRank = distinctBefore + distinct(node.left) + 1;
+
+        if (from < nodeStart) {
+            collect(node.left, before, distinctBefore, from, to, out);
+        }
+        if (from < nodeEnd && to > nodeStart) {
+            int position = nodeStart;
+            for (Long teamId : node.teamIds) {
+                if (position >= to) {
+                    break;
+                }
+                if (position >= from) {
+                    out.add(new RankedEntry(entries.get(teamId), nodeStart + 1, denseRank));
+                }
+                position++;
+            }
+        }
+        if (to > nodeEnd) {
+            collect(node.right, nodeEnd, denseRank, from, to, out);
+        }
+    }
+
+    private static Node find(Node node, BigDecimal score) {
+        while (node != null) {
+            int cmp = score.compareTo(node.score);
+            if (cmp == 0) {
+                return node;
+            }
+            node = cmp > 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    private static Node insert(Node node, BigDecimal score, Long teamId) {
+        if (node == null) {
+            Node created = new Node(score);
+            created.teamIds.add(teamId);
+            created.update();
+            return created;
+        }
+        int cmp = score.compareTo(node.score);
+        if (cmp == 0) {
+            node.teamIds.add(teamId);
+        } else if (cmp > 0) {
+            node.left = insert(node.left, score, teamId);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, score, teamId);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private static Node remove(Node node, BigDecimal score, Long teamId) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = score.compareTo(node.score);
+        if (cmp == 0) {
+            node.teamIds.remove(teamId);
+            if (node.teamIds.isEmpty()) {
+                return merge(node.left, node.right);
+            }
+        } else if (cmp > 0) {
+            node.left = remove(node.left, score, teamId);
+        } else {
+            node.right = remove(node.right, score, teamId);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * 合并两棵子树（left 中的分数都高于 right）
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int distinct(Node node) {
+        return node == null ? 0 : node.distinct;
+    }
+
+    /**
+     * 树节点：一个分数及该分数下的团队（左子树分数更高）
+     */
+    private static final class Node {
+        private final BigDecimal score;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private final TreeSet<Long> teamIds = new TreeSet<>();
+        private Node left;
+        private Node right;
+        // 子树中的团队数、不同分数数
+        private int size;
+        private int distinct;
+
+        Node(BigDecimal score) {
+            this.score = score;
+        }
+
+        void update() {
+            size = size(left) + teamIds.size() + size(right);
+            distinct = distinct(left) + 1 + distinct(right);
+        }
+    }
+
+    /**
+     * 排行榜中的一条成绩
+     */
+    public static final class Entry {
+        private final Long gradeId;
+        private final Long teamId;
+        private final String teamName;
+        private final BigDecimal score;
+        private final Boolean isFinal;
+        private final LocalDateTime gradedAt;
+        // 数据库中的名次，用于只写回变化的名次
+        private Integer persistedRanking;
+
+        public Entry(Long gradeId, Long teamId, String teamName, BigDecimal score,
+                     Boolean isFinal, LocalDateTime gradedAt, Integer persistedRanking) {
+            this.gradeId = gradeId;
+            this.teamId = teamId;
+            this.teamName = teamName;
+            this.score = score;
+            this.isFinal = isFinal;
+            this.gradedAt = gradedAt;
+            this.persistedRanking = persistedRanking;
+        }
+
+        public Long getGradeId() {
+            return gradeId;
+        }
+
+        public Long getTeamId() {
+            return teamId;
+        }
+
+        public String getTeamName() {
+            return teamName;
+        }
+
+        public BigDecimal getScore() {
+            return score;
+        }
+
+        public Boolean getIsFinal() {
+            return isFinal;
+        }
+
+        public LocalDateTime getGradedAt() {
+            return gradedAt;
+        }
+    }
+
+    /**
+     * 带名次的成绩
+     */
+    public static final class RankedEntry {
+        private final Entry entry;
+        private final int rank;
+        private final int denseRank;
+
+        RankedEntry(Entry entry, int rank, int denseRank) {
+            this.entry = entry;
+            this.rank = rank;
+            this.denseRank = denseRank;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public int getDenseRank() {
+            return denseRank;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Competition;
+import com.example.demo.entity.Grade;
+import com.example.demo.entity.Team;
+import com.example.demo.repository.CompetitionRepository;
+import com.example.demo.repository.GradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 竞赛排行榜服务
+ * 每个竞赛的排行榜首次访问时从数据库加载到内存（{@link Leaderboard}），之后成绩新增、修改、删除
+ * 在事务提交后增量更新，排行榜查询直接读内存。名次变化由定时任务批量写回 grades.ranking，只写变化的行。
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final String UPDATE_RANKING_SQL = "UPDATE grades SET ranking = ? WHERE id = ?";
+
+    @Autowired
+    private GradeRepository gradeRepository;
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${score.leaderboard.idle-minutes:30}")
+    private long idleMinutes;
+
+    // 竞赛ID -> 排行榜
+    private final ConcurrentHashMap<Long, Leaderboard> boards = new ConcurrentHashMap<>();
+
+    // 竞赛ID -> 最近访问时间（毫秒）
+    private final ConcurrentHashMap<Long, Long> lastAccess = new ConcurrentHashMap<>();
+
+    // 名次有变化、等待写回的竞赛
+    private final Set<Long> dirtyCompetitions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong rankingsWritten = new AtomicLong();
+
+    /**
+     * 获取竞赛排行榜（未加载时从数据库加载）
+     */
+    public Leaderboard getLeaderboard(Long competitionId) {
+        lastAccess.put(competitionId, System.currentTimeMillis());
+        return boards.computeIfAbsent(competitionId, this::load);
+    }
+
+    /**
+     * 成绩新增或修改后更新排行榜（事务提交后执行，排行榜未加载时无需处理）
+     */
+    public void onGradeSaved(Grade grade, Team team) {
+        Long competitionId = grade.getCompetition().getId();
+        Leaderboard.Entry entry = new Leaderboard.Entry(grade.getId(), team.getId(), team.getName(),
+                grade.getScore(), grade.getIsFinal(), grade.getGradedAt(), grade.getRanking());
+        afterCommit(() -> {
+            if (boards.computeIfPresent(competitionId, (id, board) -> {
+                board.put(entry);
+                return board;
+            }) != null) {
+                dirtyCompetitions.add(competitionId);
+            }
+        });
+    }
+
+    /**
+     * 成绩删除后更新排行榜（事务提交后执行）
+     */
+    public void onGradeDeleted(Long competitionId, Long teamId) {
+        afterCommit(() -> {
+            if (boards.computeIfPresent(competitionId, (id, board) -> {
+                board.remove(teamId);
+                return board;
+            }) != null) {
+                dirtyCompetitions.add(competitionId);
+            }
+        });
+    }
+
+    /**
+     * 根据竞赛全部成绩重建排行榜，返回名次发生变化的成绩（已设置新名次，由调用方在当前事务中保存）
+     * 事务提交后替换内存中的排行榜，回滚时丢弃内存中的排行榜，下次访问重新加载
+     */
+    public List<Grade> rebuildRankings(Long competitionId, List<Grade> grades) {
+        String competitionName = grades.isEmpty()
+                ? competitionRepository.findById(competitionId).map(Competition::getName).orElse(null)
+                : grades.get(0).getCompetition().getName();
+        Leaderboard board = new Leaderboard(competitionId, competitionName);
+        Map<Long, Grade> gradesById = new HashMap<>();
+        for (Grade grade : grades) {
+            Team team = grade.getTeam();
+            board.put(new Leaderboard.Entry(grade.getId(), team.getId(), team.getName(), grade.getScore(),
+                    grade.getIsFinal(), grade.getGradedAt(), grade.getRanking()));
+            gradesById.put(grade.getId(), grade);
+        }
+
+        Map<Long, Integer> changed = board.changedRankings();
+        List<Grade> changedGrades = new ArrayList<>(changed.size());
+        changed.forEach((gradeId, ranking) -> {
+            Grade grade = gradesById.get(gradeId);
+            grade.setRanking(ranking);
+            changedGrades.add(grade);
+        });
+        board.markPersisted(changed);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        install(board);
+                    } else {
+                        invalidate(competitionId);
+                    }
+                }
+            });
+        } else {
+            install(board);
+        }
+        logger.debug("竞赛排名重建完成: competitionId={}, 成绩{}条, 名次变化{}条",
+                competitionId, grades.size(), changedGrades.size());
+        return changedGrades;
+    }
+
+    /**
+     * 丢弃竞赛排行榜（竞赛删除或成绩被批量修改时调用）
+     */
+    public void invalidate(Long competitionId) {
+        boards.remove(competitionId);
+        lastAccess.remove(competitionId);
+        dirtyCompetitions.remove(competitionId);
+    }
+
+    /**
+     * 定时写回名次变化，并释放长时间未访问的排行榜
+     */
+    @Scheduled(fixedDelayString = "${score.leaderboard.flush-interval-ms:2000}")
+    public void flushRankings() {
+        for (Long competitionId : new ArrayList<>(dirtyCompetitions)) {
+            dirtyCompetitions.remove(competitionId);
+            Leaderboard board = boards.get(competitionId);
+            if (board == null) {
+                continue;
+            }
+            try {
+                Map<Long, Integer> changed = board.changedRankings();
+                if (changed.isEmpty()) {
+                    continue;
+                }
+                List<Map.Entry<Long, Integer>> rows = new ArrayList<>(changed.entrySet());
+                jdbcTemplate.batchUpdate(UPDATE_RANKING_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setInt(1, row.getValue());
+                    ps.setLong(2, row.getKey());
+                });
+                board.markPersisted(changed);
+                rankingsWritten.addAndGet(changed.size());
+                logger.debug("竞赛名次已写回: competitionId={}, 变化{}条", competitionId, changed.size());
+            } catch (Exception e) {
+                dirtyCompetitions.add(competitionId);
+                logger.error("竞赛名次写回失败: competitionId={}", competitionId, e);
+            }
+        }
+        evictIdle();
+    }
+
+    /**
+     * 排行榜统计信息
+     */
+    public Map<String, Object> getStats() {
+        int entries = 0;
+        for (Leaderboard board : boards.values()) {
+            entries += board.size();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loadedCompetitions", boards.size());
+        stats.put("loadedEntries", entries);
+        stats.put("dirtyCompetitions", dirtyCompetitions.size());
+        stats.put("rankingsWritten", rankingsWritten.get());
+        return stats;
+    }
+
+    private Leaderboard load(Long competitionId) {
+        Competition competition = competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("竞赛不存在"));
+        Leaderboard board = new Leaderboard(competitionId, competition.getName());
+        List<Object[]> rows = gradeRepository.findLeaderboardRows(competitionId);
+        for (Object[] row : rows) {
+            board.put(new Leaderboard.Entry((Long) row[0], (Long) row[1], (String) row[2], (BigDecimal) row[3],
+                    (Boolean) row[5], (LocalDateTime) row[6], (Integer) row[4]));
+        }
+        logger.info("竞赛排行榜已加载: competitionId={}, 成绩{}条", competitionId, rows.size());
+        // 数据库中的名次可能未计算或已过期，加载后按需写回
+        dirtyCompetitions.add(competitionId);
+        return board;
+    }
+
+    private void install(Leaderboard board) {
+        boards.put(board.getCompetitionId(), board);
+        lastAccess.put(board.getCompetitionId(), System.currentTimeMillis());
+    }
+
+    private void evictIdle() {
+        long threshold = System.currentTimeMillis() - idleMinutes * 60_000L;
+        for (Map.Entry<Long, Long> access : lastAccess.entrySet()) {
+            Long competitionId = access.getKey();
+            if (access.getValue() < threshold && !dirtyCompetitions.contains(competitionId)) {
+                boards.remove(competitionId);
+                lastAccess.remove(competitionId, access.getValue());
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
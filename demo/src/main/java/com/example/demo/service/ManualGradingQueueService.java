@@ -0,0 +1,517 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExamPaper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 人工评分任务队列
+ * 教师按竞赛（可指定题目，一位教师批改所有人的同一道题）领取待人工评分的主观题答案，
+ * 领取的答案在内存中加租约，租约期内其他教师领取不到；提交时校验租约版本号，
+ * 评分用 JDBC 批量更新写回（只更新仍待评分的答案），考卷的主观题全部评完后自动计算总分并标记为已评分。
+ * 租约过期的答案会重新回到队列。
+ */
+@Service
+public class ManualGradingQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ManualGradingQueueService.class);
+
+    // 已完成客观题自动评分、等待人工评分的主观题答案
+    private static final String PENDING_ANSWERS_FROM =
+            "FROM exam_answers ea JOIN exam_papers ep ON ep.id = ea.exam_paper_id " +
+            "WHERE ep.competition_id = ? AND ep.paper_status = 'GRADING' " +
+            "AND ea.grading_status IN ('PENDING', 'MANUAL_GRADING') ";
+
+    private static final String SELECT_PENDING_SQL =
+            "SELECT ea.id, ea.exam_paper_id, ea.question_id, ea.answer_content, ea.max_score " + PENDING_ANSWERS_FROM;
+
+    private static final String COUNT_PENDING_BY_QUESTION_SQL =
+            "SELECT ea.question_id, COUNT(*) " + PENDING_ANSWERS_FROM + "GROUP BY ea.question_id";
+
+    private static final String UPDATE_ANSWER_SQL =
+            "UPDATE exam_answers SET score = ?, grading_status = 'MANUAL_GRADED', " +
+            "grading_remarks = COALESCE(?, grading_remarks), graded_by = ?, graded_at = ?, updated_at = ? " +
+            "WHERE id = ? AND grading_status IN ('PENDING', 'MANUAL_GRADING')";
+
+    private static final String SUM_PAPER_ANSWERS_SQL =
+            "SELECT exam_paper_id, " +
+            "SUM(CASE WHEN grading_status = 'MANUAL_GRADED' THEN COALESCE(score, 0) ELSE 0 END) AS subjective_score, " +
+            "SUM(CASE WHEN grading_status IN ('PENDING', 'MANUAL_GRADING') THEN 1 ELSE 0 END) AS pending_count " +
+            "FROM exam_answers WHERE exam_paper_id IN (%s) GROUP BY exam_paper_id";
+
+    private static final String COMPLETE_PAPER_SQL =
+            "UPDATE exam_papers SET subjective_score = ?, total_score = COALESCE(objective_score, 0) + ?, " +
+            "paper_status = 'GRADED', graded_by = ?, graded_at = ?, updated_at = ? " +
+            "WHERE id = ? AND paper_status = 'GRADING'";
+
+    // 评分吞吐量统计窗口
+    private static final long THROUGHPUT_WINDOW_MILLIS = 5 * 60_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Value("${exam.manual-grading.lease-seconds:600}")
+    private long leaseSeconds;
+
+    @Value("${exam.manual-grading.max-claim:50}")
+    private int maxClaim;
+
+    // 答案ID -> 租约
+    private final ConcurrentHashMap<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    private final AtomicLong leaseVersion = new AtomicLong();
+
+    // 教师ID -> 评分统计
+    private final ConcurrentHashMap<Long, GraderStats> graderStats = new ConcurrentHashMap<>();
+
+    // 统计窗口内每次评分的时间（毫秒）
+    private final ConcurrentLinkedDeque<Long> recentGradedTimes = new ConcurrentLinkedDeque<>();
+
+    /**
+     * 领取待评分答案
+     *
+     * @param questionId 为空时领取竞赛中任意题目
+     * @param count      领取数量（不超过 max-claim）
+     */
+    public List<GradingTask> claim(Long competitionId, Long questionId, Long graderId, int count) {
+        int limit = Math.max(1, Math.min(count, maxClaim));
+        int fetchSize = Math.max(limit * 4, 100);
+        String sql = SELECT_PENDING_SQL + "AND ea.id > ? " + (questionId != null ? "AND ea.question_id = ? " : "") +
+                     "ORDER BY ea.id LIMIT ?";
+
+        List<GradingTask> claimed = new ArrayList<>(limit);
+        long now = System.currentTimeMillis();
+        long expiresAt = now + leaseSeconds * 1000L;
+        long afterId = 0;
+
+        while (claimed.size() < limit) {
+            Object[] args = questionId != null
+                    ? new Object[]{competitionId, afterId, questionId, fetchSize}
+                    : new Object[]{competitionId, afterId, fetchSize};
+            List<Lease> candidates = jdbcTemplate.query(sql, (rs, rowNum) -> new Lease(
+                    rs.getLong("id"), rs.getLong("exam_paper_id"), rs.getLong("question_id"), competitionId,
+                    rs.getString("answer_content"), rs.getBigDecimal("max_score"), graderId, 0, expiresAt), args);
+
+            for (Lease candidate : candidates) {
+                Lease lease = candidate.withVersion(leaseVersion.incrementAndGet());
+                Lease current = leases.compute(candidate.answerId, (id, existing) ->
+                        existing == null || existing.isExpired(now) || existing.graderId.equals(graderId) ? lease : existing);
+                if (current == lease) {
+                    claimed.add(new GradingTask(lease));
+                    if (claimed.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            if (candidates.size() < fetchSize) {
+                break;
+            }
+            afterId = candidates.get(candidates.size() - 1).answerId;
+        }
+
+        stats(graderId).claimed.addAndGet(claimed.size());
+        logger.debug("领取人工评分任务: competitionId={}, questionId={}, graderId={}, 领取{}条",
+                competitionId, questionId, graderId, claimed.size());
+        return claimed;
+    }
+
+    /**
+     * 批量提交评分：租约有效的答案在一个事务中写入，主观题全部评完的考卷计算总分并标记为已评分
+     */
+    public SubmitResult submit(Long graderId, List<ScoreSubmission> submissions) {
+        long now = System.currentTimeMillis();
+        SubmitResult result = new SubmitResult();
+        List<ScoreSubmission> accepted = new ArrayList<>();
+        Map<Long, Lease> acceptedLeases = new HashMap<>();
+
+        for (ScoreSubmission submission : submissions) {
+            Lease lease = leases.get(submission.getAnswerId());
+            String reason = null;
+            if (lease == null || !lease.graderId.equals(graderId)) {
+                reason = "未领取该题或已被其他教师领取";
+            } else if (lease.version != submission.getLeaseVersion()) {
+                reason = "租约已失效，请重新领取";
+            } else if (lease.isExpired(now)) {
+                reason = "租约已过期，请重新领取";
+            } else if (submission.getScore() == null || submission.getScore().signum() < 0 ||
+                       (lease.maxScore != null && submission.getScore().compareTo(lease.maxScore) > 0)) {
+                reason = "分数必须在0到满分之间";
+            }
+            if (reason != null) {
+                result.rejected.add(Map.of("answerId", submission.getAnswerId(), "reason", reason));
+            } else {
+                accepted.add(submission);
+                acceptedLeases.put(submission.getAnswerId(), lease);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            Timestamp gradedAt = new Timestamp(now);
+            transactionTemplate.executeWithoutResult(status -> {
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_ANSWER_SQL, accepted, accepted.size(), (ps, submission) -> {
+                    ps.setBigDecimal(1, submission.getScore());
+                    ps.setString(2, submission.getRemarks());
+                    ps.setLong(3, graderId);
+                    ps.setTimestamp(4, gradedAt);
+                    ps.setTimestamp(5, gradedAt);
+                    ps.setLong(6, submission.getAnswerId());
+                });
+
+                Set<Long> paperIds = new HashSet<>();
+                int index = 0;
+                for (int[] batch : counts) {
+                    for (int count : batch) {
+                        ScoreSubmission submission = accepted.get(index++);
+                        if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                            result.gradedAnswerIds.add(submission.getAnswerId());
+                            paperIds.add(acceptedLeases.get(submission.getAnswerId()).paperId);
+                        } else {
+                            result.rejected.add(Map.of("answerId", submission.getAnswerId(), "reason", "该题已被评分"));
+                        }
+                    }
+                }
+                result.completedPaperIds.addAll(completePapers(paperIds, graderId, gradedAt));
+            });
+
+            Set<Long> competitionIds = new HashSet<>();
+            for (Long answerId : result.gradedAnswerIds) {
+                Lease lease = acceptedLeases.get(answerId);
+                leases.remove(answerId, lease);
+                competitionIds.add(lease.competitionId);
+            }
+            competitionIds.forEach(itemAnalysisService::invalidate);
+            for (Long paperId : result.completedPaperIds) {
+                examSessionRegistry.updateStatus(paperId, ExamPaper.PaperStatus.GRADED);
+            }
+            for (int i = 0; i < result.gradedAnswerIds.size(); i++) {
+                recentGradedTimes.addLast(now);
+            }
+        }
+
+        GraderStats stats = stats(graderId);
+        stats.graded.addAndGet(result.gradedAnswerIds.size());
+        stats.rejected.addAndGet(result.rejected.size());
+        if (!result.gradedAnswerIds.isEmpty()) {
+            stats.lastGradedAt = now;
+        }
+        logger.info("人工评分提交: graderId={}, 评分{}条, 拒绝{}条, 完成考卷{}份",
+                graderId, result.gradedAnswerIds.size(), result.rejected.size(), result.completedPaperIds.size());
+        return result;
+    }
+
+    /**
+     * 放弃领取的答案，答案立即回到队列
+     */
+    public int release(Long graderId, Collection<Long> answerIds) {
+        int released = 0;
+        for (Long answerId : answerIds) {
+            Lease lease = leases.get(answerId);
+            if (lease != null && lease.graderId.equals(graderId) && leases.remove(answerId, lease)) {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    /**
+     * 答案是否被其他教师领取且租约未过期
+     */
+    public boolean isLeasedByOther(Long answerId, Long graderId) {
+        Lease lease = leases.get(answerId);
+        return lease != null && !lease.graderId.equals(graderId) && !lease.isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * 答案已通过其他途径评分后清除租约
+     */
+    public void releaseAnswers(Collection<Long> answerIds) {
+        for (Long answerId : answerIds) {
+            leases.remove(answerId);
+        }
+    }
+
+    /**
+     * 队列统计：待评分数量（按题目）、已领取数量、各教师评分数量和最近的评分速度
+     */
+    public Map<String, Object> getStats(Long competitionId) {
+        long now = System.currentTimeMillis();
+        trimThroughputWindow(now);
+
+        Map<Long, Long> pendingByQuestion = new LinkedHashMap<>();
+        jdbcTemplate.query(COUNT_PENDING_BY_QUESTION_SQL, rs -> {
+            pendingByQuestion.put(rs.getLong(1), rs.getLong(2));
+        }, competitionId);
+        long pending = pendingByQuestion.values().stream().mapToLong(Long::longValue).sum();
+        long leased = leases.values().stream()
+                .filter(lease -> lease.competitionId.equals(competitionId) && !lease.isExpired(now))
+                .count();
+
+        List<Map<String, Object>> graders = new ArrayList<>();
+        graderStats.forEach((graderId, stats) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put("graderId", graderId);
+            item.put("claimed", stats.claimed.get());
+            item.put("graded", stats.graded.get());
+            item.put("rejected", stats.rejected.get());
+            item.put("lastGradedAt", stats.lastGradedAt > 0 ? toDateTime(stats.lastGradedAt) : null);
+            graders.add(item);
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("competitionId", competitionId);
+        stats.put("pendingAnswers", pending);
+        stats.put("leasedAnswers", leased);
+        stats.put("availableAnswers", Math.max(0, pending - leased));
+        stats.put("pendingByQuestion", pendingByQuestion);
+        stats.put("gradedPerMinute", recentGradedTimes.size() * 60_000.0 / THROUGHPUT_WINDOW_MILLIS);
+        stats.put("graders", graders);
+        return stats;
+    }
+
+    /**
+     * 定时清理过期租约
+     */
+    @Scheduled(fixedDelayString = "${exam.manual-grading.cleanup-interval-ms:30000}")
+    public void purgeExpiredLeases() {
+        long now = System.currentTimeMillis();
+        int before = leases.size();
+        leases.values().removeIf(lease -> lease.isExpired(now));
+        int purged = before - leases.size();
+        if (purged > 0) {
+            logger.info("已清理过期的人工评分租约: {}条", purged);
+        }
+        trimThroughputWindow(now);
+    }
+
+    /**
+     * 计算考卷主观题得分，全部评完的考卷写入总分并标记为已评分，返回完成的考卷ID
+     */
+    private List<Long> completePapers(Set<Long> paperIds, Long graderId, Timestamp gradedAt) {
+        if (paperIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(",", Collections.nCopies(paperIds.size(), "?"));
+        List<Object[]> completed = new ArrayList<>();
+        jdbcTemplate.query(String.format(SUM_PAPER_ANSWERS_SQL, placeholders), rs -> {
+            if (rs.getLong("pending_count") == 0) {
+                completed.add(new Object[]{rs.getLong("exam_paper_id"), rs.getBigDecimal("subjective_score")});
+            }
+        }, paperIds.toArray());
+
+        if (completed.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(COMPLETE_PAPER_SQL, completed, completed.size(), (ps, paper) -> {
+            BigDecimal subjectiveScore = (BigDecimal) paper[1];
+            ps.setBigDecimal(1, subjectiveScore);
+            ps.setBigDecimal(2, subjectiveScore);
+            ps.setLong(3, graderId);
+            ps.setTimestamp(4, gradedAt);
+            ps.setTimestamp(5, gradedAt);
+            ps.setLong(6, (Long) paper[0]);
+        });
+
+        List<Long> completedPaperIds = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Long paperId = (Long) completed.get(index++)[0];
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    completedPaperIds.add(paperId);
+                }
+            }
+        }
+        return completedPaperIds;
+    }
+
+    private void trimThroughputWindow(long now) {
+        long threshold = now - THROUGHPUT_WINDOW_MILLIS;
+        Long first;
+        while ((first = recentGradedTimes.peekFirst()) != null && first < threshold) {
+            recentGradedTimes.pollFirst();
+        }
+    }
+
+    private GraderStats stats(Long graderId) {
+        return graderStats.computeIfAbsent(graderId, id -> new GraderStats());
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 答案租约（版本号每次领取递增，提交时必须一致）
+     */
+    private static final class Lease {
+        private final long answerId;
+        private final long paperId;
+        private final long questionId;
+        private final Long competitionId;
+        private final String answerContent;
+        private final BigDecimal maxScore;
+        private final Long graderId;
+        private final long version;
+        private final long expiresAt;
+
+        Lease(long answerId, long paperId, long questionId, Long competitionId, String answerContent,
+              BigDecimal maxScore, Long graderId, long version, long expiresAt) {
+            this.answerId = answerId;
+            this.paperId = paperId;
+            this.questionId = questionId;
+            this.competitionId = competitionId;
+            this.answerContent = answerContent;
+            this.maxScore = maxScore;
+            this.graderId = graderId;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+
+        Lease withVersion(long version) {
+            return new Lease(answerId, paperId, questionId, competitionId, answerContent, maxScore,
+                    graderId, version, expiresAt);
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    private static final class GraderStats {
+        private final AtomicLong claimed = new AtomicLong();
+        private final AtomicLong graded = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile long lastGradedAt;
+    }
+
+    /**
+     * 领取到的评分任务
+     */
+    public static final class GradingTask {
+        private final Long answerId;
+        private final Long paperId;
+        private final Long questionId;
+        private final String answerContent;
+        private final BigDecimal maxScore;
+        private final long leaseVersion;
+        private final LocalDateTime leaseExpiresAt;
+
+        GradingTask(Lease lease) {
+            this.answerId = lease.answerId;
+            this.paperId = lease.paperId;
+            this.questionId = lease.questionId;
+            this.answerContent = lease.answerContent;
+            this.maxScore = lease.maxScore;
+            this.leaseVersion = lease.version;
+            this.leaseExpiresAt = toDateTime(lease.expiresAt);
+        }
+
+        public Long getAnswerId() {
+            return answerId;
+        }
+
+        public Long getPaperId() {
+            return paperId;
+        }
+
+        public Long getQuestionId() {
+            return questionId;
+        }
+
+        public String getAnswerContent() {
+            return answerContent;
+        }
+
+        public BigDecimal getMaxScore() {
+            return maxScore;
+        }
+
+        public long getLeaseVersion() {
+            return leaseVersion;
+        }
+
+        public LocalDateTime getLeaseExpiresAt() {
+            return leaseExpiresAt;
+        }
+    }
+
+    /**
+     * 一条评分提交
+     */
+    public static final class ScoreSubmission {
+        private final Long answerId;
+        private final long leaseVersion;
+        private final BigDecimal score;
+        private final String remarks;
+
+        public ScoreSubmission(Long answerId, long leaseVersion, BigDecimal score, String remarks) {
+            this.answerId = answerId;
+            this.leaseVersion = leaseVersion;
+            this.score = score;
+            this.remarks = remarks;
+        }
+
+        public Long getAnswerId() {
+            return answerId;
+        }
+
+        public long getLeaseVersion() {
+            return leaseVersion;
+        }
+
+        public BigDecimal getScore() {
+            return score;
+        }
+
+        public String getRemarks() {
+            return remarks;
+        }
+    }
+
+    /**
+     * 评分提交结果
+     */
+    public static final class SubmitResult {
+        private final List<Long> gradedAnswerIds = new ArrayList<>();
+        private final List<Long> completedPaperIds = new ArrayList<>();
+        private final List<Map<String, Object>> rejected = new ArrayList<>();
+
+        public List<Long> getGradedAnswerIds() {
+            return gradedAnswerIds;
+        }
+
+        public List<Long> getCompletedPaperIds() {
+            return completedPaperIds;
+        }
+
+        public List<Map<String, Object>> getRejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CompetitionQuestion;
+import com.example.demo.entity.ExamAnswer;
+import com.example.demo.entity.ExamPaper;
+import com.example.demo.repository.CompetitionQuestionRepository;
+import com.example.demo.repository.ExamAnswerRepository;
+import com.example.demo.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 客观题评分服务
+ * 学生提交答卷和自动评分共用的评分入口：按竞赛缓存预编译的答案索引，
+ * 每份考卷只查询一次答案，评分结果通过一次 JDBC 批量更新写回。
+ */
+@Service
+public class ObjectiveGradingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectiveGradingService.class);
+
+    // 主观题的 score/is_correct/graded_at 传入 null 时保持原值
+    private static final String UPDATE_ANSWER_GRADE_SQL =
+            "UPDATE exam_answers SET is_correct = COALESCE(?, is_correct), score = COALESCE(?, score), " +
+            "grading_status = ?, graded_at = COALESCE(?, graded_at), updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private CompetitionQuestionRepository competitionQuestionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ExamAnswerRepository examAnswerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    private final Map<Long, AnswerKey> answerKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 获取竞赛答案索引，不存在时编译并缓存
+     */
+    public AnswerKey getAnswerKey(Long competitionId) {
+        AnswerKey answerKey = answerKeys.get(competitionId);
+        if (answerKey != null) {
+            return answerKey;
+        }
+        return answerKeys.computeIfAbsent(competitionId, this::compileAnswerKey);
+    }
+
+    /**
+     * 竞赛题目变化时清除答案索引
+     */
+    public void invalidate(Long competitionId) {
+        answerKeys.remove(competitionId);
+    }
+
+    /**
+     * 题目修改后清除所有引用该题目的竞赛答案索引
+     * 如果在事务中调用，提交后会再次清除，避免并发评分用未提交前的数据重建
+     */
+    public void invalidateByQuestion(Long questionId) {
+        List<Long> competitionIds = competitionQuestionRepository.findCompetitionIdsByQuestionId(questionId);
+        if (competitionIds.isEmpty()) {
+            return;
+        }
+        competitionIds.forEach(this::invalidate);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    competitionIds.forEach(ObjectiveGradingService.this::invalidate);
+                }
+            });
+        }
+        logger.info("题目已修改，清除竞赛答案索引: questionId={}, competitionIds={}", questionId, competitionIds);
+    }
+
+    /**
+     * 评分一份考卷：评分结果写入答题记录，分数和状态更新到考卷对象（由调用方保存考卷）
+     */
+    public AnswerKey.PaperGradeResult gradePaper(ExamPaper paper) {
+        AnswerKey answerKey = getAnswerKey(paper.getCompetitionId());
+        List<ExamAnswer> answers = examAnswerRepository.findByExamPaperId(paper.getId());
+
+        AnswerKey.PaperGradeResult result = answerKey.gradePaper(answers);
+        LocalDateTime now = LocalDateTime.now();
+        writeAnswerGrades(result.getAnswerGrades(), now);
+        applyToPaper(paper, result, now);
+        itemAnalysisService.invalidate(paper.getCompetitionId());
+
+        logger.debug("考卷评分完成: paperId={}, objectiveScore={}, correctCount={}, needManualGrading={}",
+                paper.getId(), result.getObjectiveScore(), result.getCorrectCount(), result.isNeedManualGrading());
+        return result;
+    }
+
+    /**
+     * 批量写入答案评分结果
+     */
+    public void writeAnswerGrades(List<AnswerKey.AnswerGrade> grades, LocalDateTime gradedAt) {
+        if (grades.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(gradedAt);
+        jdbcTemplate.batchUpdate(UPDATE_ANSWER_GRADE_SQL, grades, grades.size(), (ps, grade) -> {
+            boolean autoGraded = grade.getGradingStatus() == ExamAnswer.GradingStatus.AUTO_GRADED;
+            if (grade.getIsCorrect() != null) {
+                ps.setBoolean(1, grade.getIsCorrect());
+            } else {
+                ps.setNull(1, Types.BOOLEAN);
+            }
+            ps.setBigDecimal(2, grade.getScore());
+            ps.setString(3, grade.getGradingStatus().name());
+            if (autoGraded) {
+                ps.setTimestamp(4, now);
+            } else {
+                ps.setNull(4, Types.TIMESTAMP);
+            }
+            ps.setTimestamp(5, now);
+            ps.setLong(6, grade.getAnswerId());
+        });
+    }
+
+    /**
+     * 将评分结果应用到考卷：有待人工评分的主观题时为"评分中"，否则评分完成
+     */
+    public static void applyToPaper(ExamPaper paper, AnswerKey.PaperGradeResult result, LocalDateTime gradedAt) {
+        paper.setObjectiveScore(result.getObjectiveScore());
+        paper.setCorrectCount(result.getCorrectCount());
+        if (result.getSubjectiveScore().compareTo(BigDecimal.ZERO) > 0) {
+            paper.setSubjectiveScore(result.getSubjectiveScore());
+        }
+        paper.setTotalScore(result.getObjectiveScore().add(result.getSubjectiveScore()));
+
+        if (result.isNeedManualGrading()) {
+            paper.setPaperStatus(ExamPaper.PaperStatus.GRADING);
+        } else {
+            paper.setPaperStatus(ExamPaper.PaperStatus.GRADED);
+            paper.setGradedAt(gradedAt);
+        }
+    }
+
+    private AnswerKey compileAnswerKey(Long competitionId) {
+        List<Long> questionIds = competitionQuestionRepository.findByCompetitionIdOrderByQuestionOrder(competitionId)
+                .stream()
+                .map(CompetitionQuestion::getQuestionId)
+                .collect(Collectors.toList());
+        AnswerKey answerKey = AnswerKey.compile(competitionId, questionRepository.findAllById(questionIds));
+        logger.info("竞赛答案索引已编译: competitionId={}, questionCount={}", competitionId, answerKey.getQuestionCount());
+        return answerKey;
+    }
+}
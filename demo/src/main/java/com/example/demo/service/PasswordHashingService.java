@@ -0,0 +1,261 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 密码哈希计算（登录校验、注册加密）
+ * BCrypt 计算放到独立的有界线程池执行，不占用 Tomcat 工作线程的 CPU 时间片；
+ * 排队已满或等待超时时立即失败（调用方返回503和 Retry-After），
+ * 避免竞赛开始时集中登录拖慢其他接口。
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    // 排队已满时抛出的业务异常错误码
+    public static final String BUSY_ERROR_CODE = "LOGIN_BUSY";
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Value("${auth.password-hashing.threads:0}")
+    private int configuredThreads;
+
+    @Value("${auth.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${auth.password-hashing.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Value("${auth.password-hashing.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    private int threads;
+
+    private ThreadPoolExecutor hashingPool;
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram hashLatency = new LatencyHistogram();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        hashingPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("密码哈希线程池: 线程数{}, 排队上限{}, BCrypt强度{}", threads, queueCapacity, bcryptStrength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * 校验密码
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 按当前配置的强度加密密码
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 已存储的哈希强度与当前配置不一致时需要重新加密
+     */
+    public boolean needsRehash(String encodedPassword) {
+        int cost = parseBcryptCost(encodedPassword);
+        return cost > 0 && cost != bcryptStrength;
+    }
+
+    /**
+     * 记录一次登录时的哈希升级
+     */
+    public void recordRehash() {
+        rehashed.incrementAndGet();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = hashingPool.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    hashLatency.record(System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw busy();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 仍在排队的任务取消后不再执行
+            future.cancel(false);
+            timedOut.incrementAndGet();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("密码校验失败", cause);
+        }
+    }
+
+    private BusinessException busy() {
+        return new BusinessException(BUSY_ERROR_CODE, "当前登录人数较多，请稍后重试");
+    }
+
+    /**
+     * 解析 BCrypt 哈希中的强度（$2a$10$...），不是 BCrypt 格式时返回 -1
+     */
+    private static int parseBcryptCost(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = encodedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 1 || costStart + 2 > encodedPassword.length()) {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(costStart);
+        char ones = encodedPassword.charAt(costStart + 1);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    /**
+     * 密码哈希统计（用于按登录高峰调整线程数和排队上限）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", threads);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("bcryptStrength", bcryptStrength);
+        stats.put("activeThreads", hashingPool.getActiveCount());
+        stats.put("queueDepth", hashingPool.getQueue().size());
+        stats.put("completed", hashingPool.getCompletedTaskCount());
+        stats.put("rejected", rejected.get());
+        stats.put("timedOut", timedOut.get());
+        stats.put("rehashed", rehashed.get());
+        stats.put("queueWaitMs", queueWait.snapshot());
+        stats.put("hashMs", hashLatency.snapshot());
+        return stats;
+    }
+
+    /**
+     * 按毫秒分桶的耗时分布，用桶上界近似计算分位数
+     */
+    private static final class LatencyHistogram {
+
+        private static final long[] BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, Long.MAX_VALUE};
+
+        private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int index = 0;
+            while (millis >= BOUNDS_MS[index]) {
+                index++;
+            }
+            buckets[index].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> snapshot() {
+            long total = count.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", total);
+            snapshot.put("avg", total == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / total);
+            snapshot.put("p50", percentile(total, 0.50));
+            snapshot.put("p95", percentile(total, 0.95));
+            snapshot.put("p99", percentile(total, 0.99));
+            snapshot.put("max", maxNanos.get() / 1_000_000.0);
+            return snapshot;
+        }
+
+        // 返回分位数所在桶的上界（毫秒），落在最后一个桶时返回最大值
+        private double percentile(long total, double quantile) {
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank) {
+                    return BOUNDS_MS[i] == Long.MAX_VALUE ? maxNanos.get() / 1_000_000.0 : BOUNDS_MS[i];
+                }
+            }
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+}
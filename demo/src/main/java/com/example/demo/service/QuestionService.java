@@ -23,6 +23,12 @@ public class QuestionService {
     
     @Autowired
     private QuestionRepository questionRepository;
+
+    @Autowired
+    private ObjectiveGradingService objectiveGradingService;
+
+    @Autowired
+    private ExamQuestionSnapshotService examQuestionSnapshotService;
     
     /**
      * 创建题目
@@ -76,7 +82,13 @@ public class QuestionService {
         existingQuestion.setStatus(updatedQuestion.getStatus());
         existingQuestion.setUpdatedAt(LocalDateTime.now());
         
-        return questionRepository.save(existingQuestion);
+        Question saved = questionRepository.save(existingQuestion);
+        
+        // 答案、选项或题型可能已变化，引用该题目的竞赛需重新编译答案索引、重建题目快照
+        objectiveGradingService.invalidateByQuestion(questionId);
+        examQuestionSnapshotService.onQuestionChanged(questionId);
+        
+        return saved;
     }
     
     /**
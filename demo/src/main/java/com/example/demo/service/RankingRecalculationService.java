@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RankingRecalculationDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 竞赛排名批量重算服务
+ * 一次查询取出有成绩的竞赛，按竞赛在 ForkJoin 线程池中并行读取成绩并计算排名
+ * （并列分数同名次，后续名次跳跃），只把排名发生变化的成绩用 JDBC 批量更新写回。
+ */
+@Service
+public class RankingRecalculationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingRecalculationService.class);
+
+    private static final String SELECT_COMPETITION_IDS_SQL = "SELECT DISTINCT competition_id FROM grades";
+
+    private static final String SELECT_GRADES_SQL =
+            "SELECT id, score, ranking FROM grades WHERE competition_id = ? AND score IS NOT NULL ORDER BY score DESC, id";
+
+    private static final String UPDATE_RANKING_SQL = "UPDATE grades SET ranking = ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Value("${score.ranking.parallelism:4}")
+    private int parallelism;
+
+    @Value("${score.ranking.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ForkJoinPool rankingPool;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        rankingPool = new ForkJoinPool(parallelism, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ranking-recalc-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rankingPool.shutdownNow();
+    }
+
+    /**
+     * 重新计算所有竞赛的排名，只更新排名变化的成绩
+     */
+    public RankingRecalculationDTO recalculateAllRankings() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("排名正在重新计算，请稍后再试");
+        }
+        RankingRecalculationDTO result = new RankingRecalculationDTO();
+        long start = System.currentTimeMillis();
+        try {
+            // 1. 有成绩的竞赛
+            List<Long> competitionIds = jdbcTemplate.queryForList(SELECT_COMPETITION_IDS_SQL, Long.class);
+            long discovered = System.currentTimeMillis();
+            result.setCompetitionCount(competitionIds.size());
+            result.setDiscoverMillis(discovered - start);
+
+            // 2. 按竞赛并行计算排名
+            AtomicInteger gradeCount = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            Map<Long, List<RankingChange>> changesByCompetition;
+            try {
+                changesByCompetition = rankingPool.submit(() -> competitionIds.parallelStream()
+                        .collect(Collectors.toConcurrentMap(id -> id, id -> {
+                            try {
+                                return computeChanges(id, gradeCount);
+                            } catch (Exception e) {
+                                failed.incrementAndGet();
+                                logger.error("计算竞赛排名失败: competitionId={}", id, e);
+                                return Collections.<RankingChange>emptyList();
+                            }
+                        }))).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("排名计算被中断");
+            } catch (ExecutionException e) {
+                throw new RuntimeException("排名计算失败: " + e.getCause().getMessage(), e.getCause());
+            }
+            long computed = System.currentTimeMillis();
+            result.setGradeCount(gradeCount.get());
+            result.setFailedCompetitions(failed.get());
+            result.setComputeMillis(computed - discovered);
+
+            // 3. 只写回排名变化的成绩
+            List<RankingChange> changes = new ArrayList<>();
+            for (Map.Entry<Long, List<RankingChange>> entry : changesByCompetition.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    changes.addAll(entry.getValue());
+                    leaderboardService.invalidate(entry.getKey());
+                }
+            }
+            if (!changes.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_RANKING_SQL, changes, batchSize, (ps, change) -> {
+                    ps.setInt(1, change.ranking);
+                    ps.setLong(2, change.gradeId);
+                });
+            }
+            long written = System.currentTimeMillis();
+            result.setChangedRows(changes.size());
+            result.setWriteMillis(written - computed);
+            result.setTotalMillis(written - start);
+            result.setEndTime(LocalDateTime.now());
+
+            logger.info("所有竞赛排名重新计算完成: 竞赛{}个, 成绩{}条, 排名变化{}条, 失败{}个, 耗时{}ms (查询{}ms, 计算{}ms, 写入{}ms)",
+                    result.getCompetitionCount(), result.getGradeCount(), result.getChangedRows(),
+                    result.getFailedCompetitions(), result.getTotalMillis(), result.getDiscoverMillis(),
+                    result.getComputeMillis(), result.getWriteMillis());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 读取竞赛成绩（已按分数降序）并计算排名，返回排名变化的成绩
+     */
+    private List<RankingChange> computeChanges(Long competitionId, AtomicInteger gradeCount) {
+        List<RankingChange> changes = new ArrayList<>();
+        int[] position = {0};
+        int[] currentRank = {0};
+        BigDecimal[] prevScore = {null};
+
+        jdbcTemplate.query(SELECT_GRADES_SQL, rs -> {
+            long gradeId = rs.getLong("id");
+            BigDecimal score = rs.getBigDecimal("score");
+            Integer ranking = rs.getObject("ranking", Integer.class);
+
+            position[0]++;
+            if (prevScore[0] == null || score.compareTo(prevScore[0]) != 0) {
+                currentRank[0] = position[0];
+                prevScore[0] = score;
+            }
+            if (ranking == null || ranking != currentRank[0]) {
+                changes.add(new RankingChange(gradeId, currentRank[0]));
+            }
+        }, competitionId);
+
+        gradeCount.addAndGet(position[0]);
+        return changes;
+    }
+
+    private static final class RankingChange {
+        private final long gradeId;
+        private final int ranking;
+
+        RankingChange(long gradeId, int ranking) {
+            this.gradeId = gradeId;
+            this.ranking = ranking;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.service;
+
+/**
+ * 限流令牌桶存储
+ * 默认实现 {@link InMemoryRateLimitBackend} 只在本机生效；多实例部署时可由共享存储实现此接口
+ * （如数据库或缓存中按 key 保存令牌数和上次补充时间），声明为 @Primary 即可替换。
+ */
+public interface RateLimitBackend {
+
+    /**
+     * 从 key 对应的令牌桶取一个令牌
+     *
+     * @param key              限流对象（如用户名）
+     * @param permitsPerSecond 每秒补充的令牌数
+     * @param burst            桶容量（允许的突发请求数）
+     * @return 成功返回0，令牌不足时返回还需等待的毫秒数
+     */
+    long tryConsume(String key, double permitsPerSecond, int burst);
+
+    /**
+     * 归还一个已取出的令牌（请求取到令牌后因其他原因被拒绝时调用），令牌数不超过桶容量
+     */
+    void refund(String key, int burst);
+
+    /**
+     * 清除超过 idleMillis 未使用的令牌桶
+     */
+    void evictIdle(long idleMillis);
+
+    /**
+     * 当前保存的令牌桶数量
+     */
+    int size();
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Competition;
+import com.example.demo.entity.ExamPaper;
+import com.example.demo.entity.User;
+import com.example.demo.repository.CompetitionRepository;
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 成绩发布服务
+ * 已评分考卷、竞赛团队、已有成绩各用一次查询读取，在同一次遍历中确定每个团队的成绩并统计分数，
+ * 新成绩和已有成绩分别用 JDBC 批量插入/更新，最后统一计算一次排名。整个发布在一个事务中完成。
+ */
+@Service
+public class ScorePublishService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScorePublishService.class);
+
+    private static final String SELECT_GRADED_PAPERS_SQL =
+            "SELECT id, participant_type, participant_id, total_score FROM exam_papers " +
+            "WHERE competition_id = ? AND paper_status = 'GRADED'";
+
+    private static final String SELECT_TEAMS_SQL = "SELECT id, leader_id FROM teams WHERE competition_id = ?";
+
+    private static final String SELECT_GRADES_SQL = "SELECT id, team_id FROM grades WHERE competition_id = ?";
+
+    private static final String INSERT_GRADE_SQL =
+            "INSERT INTO grades (team_id, competition_id, score, is_final, graded_by, graded_at, created_at, updated_at) " +
+            "VALUES (?, ?, ?, TRUE, ?, ?, ?, ?)";
+
+    private static final String UPDATE_GRADE_SQL =
+            "UPDATE grades SET score = ?, is_final = TRUE, graded_by = ?, graded_at = ?, updated_at = ? WHERE id = ?";
+
+    @Autowired
+    private CompetitionRepository competitionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private ScoreStatisticsService scoreStatisticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${score.publish.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 发布竞赛成绩：为每份已评分考卷创建或更新团队的最终成绩，并重新计算排名，竞赛状态改为已结束
+     */
+    @Transactional
+    public Map<String, Object> publishScores(Long competitionId, String username) {
+        long start = System.currentTimeMillis();
+
+        Competition competition = competitionRepository.findById(competitionId)
+                .orElseThrow(() -> new RuntimeException("竞赛不存在"));
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> {
+                    logger.error("发布成绩失败 - 用户不存在: username={}", username);
+                    return new RuntimeException("当前用户不存在，请重新登录");
+                });
+
+        List<Object[]> papers = jdbcTemplate.query(SELECT_GRADED_PAPERS_SQL, (rs, rowNum) -> new Object[]{
+                rs.getLong("id"), rs.getString("participant_type"), rs.getLong("participant_id"),
+                rs.getBigDecimal("total_score")}, competitionId);
+        if (papers.isEmpty()) {
+            throw new RuntimeException("没有已评分的考卷");
+        }
+
+        // 竞赛团队（个人赛考卷按队长ID登记，需映射到队长所在团队）
+        Set<Long> teamIds = new HashSet<>();
+        Map<Long, Long> teamIdByLeader = new HashMap<>();
+        jdbcTemplate.query(SELECT_TEAMS_SQL, rs -> {
+            long teamId = rs.getLong("id");
+            teamIds.add(teamId);
+            teamIdByLeader.putIfAbsent(rs.getLong("leader_id"), teamId);
+        }, competitionId);
+
+        Map<Long, Long> gradeIdByTeam = new HashMap<>();
+        jdbcTemplate.query(SELECT_GRADES_SQL, rs -> {
+            gradeIdByTeam.put(rs.getLong("team_id"), rs.getLong("id"));
+        }, competitionId);
+        long loaded = System.currentTimeMillis();
+
+        // 确定每个团队的成绩并统计分数
+        Map<Long, BigDecimal> scoreByTeam = new LinkedHashMap<>();
+        double totalScore = 0;
+        double maxScore = 0;
+        double minScore = Double.MAX_VALUE;
+        for (Object[] paper : papers) {
+            Long participantId = (Long) paper[2];
+            Long teamId = ExamPaper.ParticipantType.INDIVIDUAL.name().equals(paper[1])
+                    ? teamIdByLeader.get(participantId)
+                    : (teamIds.contains(participantId) ? participantId : null);
+            if (teamId == null) {
+                logger.error("发布成绩失败 - 团队不存在: paperId={}, participantId={}", paper[0], participantId);
+                throw new RuntimeException("团队不存在");
+            }
+            BigDecimal score = (BigDecimal) paper[3];
+            scoreByTeam.put(teamId, score);
+
+            double value = score != null ? score.doubleValue() : 0;
+            totalScore += value;
+            maxScore = Math.max(maxScore, value);
+            minScore = Math.min(minScore, value);
+        }
+
+        // 批量写入成绩
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long gradedBy = currentUser.getId();
+        List<Map.Entry<Long, BigDecimal>> inserts = new ArrayList<>();
+        List<Map.Entry<Long, BigDecimal>> updates = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : scoreByTeam.entrySet()) {
+            (gradeIdByTeam.containsKey(entry.getKey()) ? updates : inserts).add(entry);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_GRADE_SQL, inserts, batchSize, (ps, entry) -> {
+                ps.setLong(1, entry.getKey());
+                ps.setLong(2, competitionId);
+                ps.setBigDecimal(3, entry.getValue());
+                ps.setLong(4, gradedBy);
+                ps.setTimestamp(5, now);
+                ps.setTimestamp(6, now);
+                ps.setTimestamp(7, now);
+            });
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_GRADE_SQL, updates, batchSize, (ps, entry) -> {
+                ps.setBigDecimal(1, entry.getValue());
+                ps.setLong(2, gradedBy);
+                ps.setTimestamp(3, now);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, gradeIdByTeam.get(entry.getKey()));
+            });
+        }
+        scoreStatisticsService.reloadCompetition(competitionId);
+        long written = System.currentTimeMillis();
+
+        // 发布后计算并持久化竞赛排名（支持并列分数同名次）
+        gradeService.computeAndPersistRanking(competitionId);
+        long ranked = System.currentTimeMillis();
+
+        // 更新竞赛状态为已结束
+        competition.setStatus(Competition.CompetitionStatus.COMPLETED);
+        competitionRepository.save(competition);
+
+        int publishedCount = papers.size();
+        Map<String, Object> data = new HashMap<>();
+        data.put("publishedCount", publishedCount);
+        data.put("averageScore", totalScore / publishedCount);
+        data.put("highestScore", maxScore);
+        data.put("lowestScore", minScore);
+        data.put("competitionStatus", competition.getStatus());
+        data.put("createdGrades", inserts.size());
+        data.put("updatedGrades", updates.size());
+        data.put("totalMillis", ranked - start);
+
+        logger.info("成绩批量写入完成: competitionId={}, 考卷{}份, 新增成绩{}条, 更新成绩{}条, 耗时{}ms (读取{}ms, 写入{}ms, 排名{}ms)",
+                competitionId, publishedCount, inserts.size(), updates.size(), ranked - start,
+                loaded - start, written - loaded, ranked - written);
+        return data;
+    }
+}
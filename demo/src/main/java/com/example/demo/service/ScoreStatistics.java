@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Grade;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 成绩统计聚合（一个竞赛或全部竞赛）
+ * 保存成绩数、总分、每个分数出现的次数、各奖项数量和按10分一段的分数段人数，
+ * 新增、修改、删除成绩时增量更新，平均分、最高分、最低分、分数段和奖项统计都不需要扫描成绩。
+ */
+public final class ScoreStatistics {
+
+    public static final int BUCKET_WIDTH = 10;
+
+    // 0-9, 10-19, ..., 90-99, 100
+    public static final int BUCKET_COUNT = 11;
+
+    private long count;
+    private BigDecimal sum = BigDecimal.ZERO;
+    private final TreeMap<BigDecimal, Long> scoreCounts = new TreeMap<>();
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private final EnumMap<Grade.AwardLevel, Long> awardCounts = new EnumMap<>(Grade.AwardLevel.class);
+
+    /**
+     * 增加（n 为正）或减少（n 为负）n 条成绩
+     */
+    public synchronized void add(BigDecimal score, Grade.AwardLevel awardLevel, long n) {
+        count += n;
+        if (score != null) {
+            addScore(score, n);
+        }
+        if (awardLevel != null) {
+            addAward(awardLevel, n);
+        }
+    }
+
+    public void remove(BigDecimal score, Grade.AwardLevel awardLevel) {
+        add(score, awardLevel, -1);
+    }
+
+    /**
+     * 合并（sign 为 1）或减去（sign 为 -1）另一个统计
+     */
+    public void merge(ScoreStatistics other, int sign) {
+        Map<BigDecimal, Long> otherScores;
+        Map<Grade.AwardLevel, Long> otherAwards;
+        long otherCount;
+        synchronized (other) {
+            otherScores = new TreeMap<>(other.scoreCounts);
+            otherAwards = new EnumMap<>(other.awardCounts);
+            otherCount = other.count;
+        }
+        synchronized (this) {
+            count += sign * otherCount;
+            otherScores.forEach((score, n) -> addScore(score, sign * n));
+            otherAwards.forEach((level, n) -> addAward(level, sign * n));
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized BigDecimal getAverageScore() {
+        long scored = getScoredCountUnlocked();
+        if (scored == 0) {
+            return BigDecimal.ZERO;
+        }
+        return sum.divide(BigDecimal.valueOf(scored), 2, RoundingMode.HALF_UP);
+    }
+
+    public synchronized BigDecimal getMaxScore() {
+        return scoreCounts.isEmpty() ? BigDecimal.ZERO : scoreCounts.lastKey();
+    }
+
+    public synchronized BigDecimal getMinScore() {
+        return scoreCounts.isEmpty() ? BigDecimal.ZERO : scoreCounts.firstKey();
+    }
+
+    public synchronized long getAwardCount(Grade.AwardLevel awardLevel) {
+        return awardCounts.getOrDefault(awardLevel, 0L);
+    }
+
+    /**
+     * 分数在 [fromScore, toScore) 之间的成绩数（边界须为分数段宽度的整数倍，toScore 为空表示不设上限）
+     */
+    public synchronized long countBetween(int fromScore, Integer toScore) {
+        int from = Math.max(0, fromScore / BUCKET_WIDTH);
+        int to = toScore == null ? BUCKET_COUNT : Math.min(BUCKET_COUNT, toScore / BUCKET_WIDTH);
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += buckets[i];
+        }
+        return total;
+    }
+
+    /**
+     * 各分数段的成绩数
+     */
+    public synchronized long[] getBuckets() {
+        return buckets.clone();
+    }
+
+    private long getScoredCountUnlocked() {
+        long scored = 0;
+        for (long n : buckets) {
+            scored += n;
+        }
+        return scored;
+    }
+
+    private void addScore(BigDecimal score, long n) {
+        sum = sum.add(score.multiply(BigDecimal.valueOf(n)));
+        if (scoreCounts.merge(score, n, Long::sum) <= 0) {
+            scoreCounts.remove(score);
+        }
+        buckets[bucketOf(score)] += n;
+    }
+
+    private void addAward(Grade.AwardLevel awardLevel, long n) {
+        if (awardCounts.merge(awardLevel, n, Long::sum) <= 0) {
+            awardCounts.remove(awardLevel);
+        }
+    }
+
+    private static int bucketOf(BigDecimal score) {
+        int bucket = score.intValue() / BUCKET_WIDTH;
+        return Math.max(0, Math.min(BUCKET_COUNT - 1, bucket));
+    }
+}
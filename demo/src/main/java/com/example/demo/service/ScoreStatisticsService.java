@@ -0,0 +1,203 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Grade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 成绩统计服务
+ * 启动时用一次 GROUP BY 查询加载每个竞赛和全部竞赛的成绩统计（{@link ScoreStatistics}），
+ * 之后成绩新增、修改、删除在事务提交后增量更新；批量写入成绩的操作提交后重新加载该竞赛。
+ * 定时全量重建一次，修正未经过服务层的成绩变化（如删除团队级联删除成绩）。
+ */
+@Service
+public class ScoreStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreStatisticsService.class);
+
+    private static final String GROUP_SQL =
+            "SELECT competition_id, score, award_level, COUNT(*) FROM grades ";
+
+    private static final String GROUP_BY = "GROUP BY competition_id, score, award_level";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 竞赛ID -> 统计
+    private volatile Map<Long, ScoreStatistics> competitionStatistics = new ConcurrentHashMap<>();
+
+    private volatile ScoreStatistics globalStatistics = new ScoreStatistics();
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 全量重建统计
+     */
+    @Scheduled(initialDelayString = "${score.statistics.rebuild-interval-ms:600000}",
+               fixedDelayString = "${score.statistics.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, ScoreStatistics> byCompetition = new ConcurrentHashMap<>();
+        ScoreStatistics global = new ScoreStatistics();
+        jdbcTemplate.query(GROUP_SQL + GROUP_BY, rs -> {
+            BigDecimal score = rs.getBigDecimal(2);
+            Grade.AwardLevel awardLevel = toAwardLevel(rs.getString(3));
+            long n = rs.getLong(4);
+            byCompetition.computeIfAbsent(rs.getLong(1), id -> new ScoreStatistics()).add(score, awardLevel, n);
+            global.add(score, awardLevel, n);
+        });
+        competitionStatistics = byCompetition;
+        globalStatistics = global;
+        loaded = true;
+        logger.info("成绩统计已重建: 竞赛{}个, 成绩{}条, 耗时{}ms",
+                byCompetition.size(), global.getCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 竞赛成绩统计（没有成绩时返回空统计）
+     */
+    public ScoreStatistics getCompetitionStatistics(Long competitionId) {
+        ensureLoaded();
+        ScoreStatistics statistics = competitionStatistics.get(competitionId);
+        return statistics != null ? statistics : new ScoreStatistics();
+    }
+
+    /**
+     * 全部竞赛的成绩统计
+     */
+    public ScoreStatistics getGlobalStatistics() {
+        ensureLoaded();
+        return globalStatistics;
+    }
+
+    public void onGradeCreated(Long competitionId, BigDecimal score, Grade.AwardLevel awardLevel) {
+        afterCommit(() -> apply(competitionId, score, awardLevel, 1));
+    }
+
+    public void onGradeUpdated(Long competitionId, BigDecimal oldScore, Grade.AwardLevel oldAwardLevel,
+                               BigDecimal newScore, Grade.AwardLevel newAwardLevel) {
+        afterCommit(() -> {
+            apply(competitionId, oldScore, oldAwardLevel, -1);
+            apply(competitionId, newScore, newAwardLevel, 1);
+        });
+    }
+
+    public void onGradeDeleted(Long competitionId, BigDecimal score, Grade.AwardLevel awardLevel) {
+        afterCommit(() -> apply(competitionId, score, awardLevel, -1));
+    }
+
+    /**
+     * 重新加载竞赛统计（批量写入成绩后调用，事务提交后执行）
+     */
+    public void reloadCompetition(Long competitionId) {
+        afterCommit(() -> {
+            if (!loaded) {
+                return;
+            }
+            ScoreStatistics reloaded = new ScoreStatistics();
+            jdbcTemplate.query(GROUP_SQL + "WHERE competition_id = ? " + GROUP_BY, rs -> {
+                reloaded.add(rs.getBigDecimal(2), toAwardLevel(rs.getString(3)), rs.getLong(4));
+            }, competitionId);
+            synchronized (this) {
+                replace(competitionId, reloaded.getCount() > 0 ? reloaded : null);
+            }
+        });
+    }
+
+    /**
+     * 竞赛删除后移除统计（事务提交后执行）
+     */
+    public void removeCompetition(Long competitionId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                replace(competitionId, null);
+            }
+        });
+    }
+
+    /**
+     * 统计概要（用于管理页面）
+     */
+    public Map<String, Object> getSummary(Long competitionId) {
+        ScoreStatistics statistics = competitionId != null
+                ? getCompetitionStatistics(competitionId) : getGlobalStatistics();
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("totalCount", statistics.getCount());
+        summary.put("averageScore", statistics.getAverageScore());
+        summary.put("maxScore", statistics.getMaxScore());
+        summary.put("minScore", statistics.getMinScore());
+        summary.put("bucketWidth", ScoreStatistics.BUCKET_WIDTH);
+        summary.put("buckets", statistics.getBuckets());
+        Map<String, Long> awards = new HashMap<>();
+        for (Grade.AwardLevel level : Grade.AwardLevel.values()) {
+            awards.put(level.name(), statistics.getAwardCount(level));
+        }
+        summary.put("awards", awards);
+        return summary;
+    }
+
+    private synchronized void apply(Long competitionId, BigDecimal score, Grade.AwardLevel awardLevel, int n) {
+        if (!loaded) {
+            return;
+        }
+        competitionStatistics.computeIfAbsent(competitionId, id -> new ScoreStatistics()).add(score, awardLevel, n);
+        globalStatistics.add(score, awardLevel, n);
+    }
+
+    private void replace(Long competitionId, ScoreStatistics statistics) {
+        ScoreStatistics previous = statistics != null
+                ? competitionStatistics.put(competitionId, statistics)
+                : competitionStatistics.remove(competitionId);
+        if (previous != null) {
+            globalStatistics.merge(previous, -1);
+        }
+        if (statistics != null) {
+            globalStatistics.merge(statistics, 1);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private static Grade.AwardLevel toAwardLevel(String value) {
+        return value != null ? Grade.AwardLevel.valueOf(value) : null;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
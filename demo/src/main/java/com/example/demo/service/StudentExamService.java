@@ -5,6 +5,7 @@ import com.example.demo.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,12 +43,46 @@ public class StudentExamService {
     @Autowired
     private TeamMemberRepository teamMemberRepository;
 
+    @Autowired
+    private ExamQuestionSnapshotService examQuestionSnapshotService;
+
+    @Autowired
+    private AnswerWriteBehindService answerWriteBehindService;
+
+    @Autowired
+    private ExamSessionRegistry examSessionRegistry;
+
+    @Autowired
+    private ObjectiveGradingService objectiveGradingService;
+
+    @Autowired
+    private ExamDeadlineScheduler examDeadlineScheduler;
+
+    @Autowired
+    private ExamPrewarmService examPrewarmService;
+
+    // 是否延迟生成答题记录（开启后答题记录在首次保存答案时创建，缺失的记录视为未作答）
+    @Value("${exam.answer.lazy-init:false}")
+    private boolean lazyAnswerInit;
+
     /**
      * 开始答题 - 创建或获取考卷
      */
     public Map<String, Object> startExam(Long competitionId, Long userId) {
         logger.info("用户{}开始竞赛{}的答题", userId, competitionId);
 
+        // 已预热的竞赛直接使用内存中的考卷和会话
+        ExamPrewarmService.PreparedCompetition prepared = examPrewarmService.getStartedCompetition(competitionId);
+        if (prepared != null) {
+            Long preparedPaperId = prepared.getPaperId(userId);
+            if (preparedPaperId != null) {
+                Map<String, Object> result = startPreparedExam(prepared, preparedPaperId, userId);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+
         // 检查竞赛是否存在
         Competition competition = competitionRepository.findById(competitionId)
                 .orElseThrow(() -> new RuntimeException("竞赛不存在"));
@@ -92,6 +127,14 @@ public class StudentExamService {
                         participantId
                 );
 
+        // 个人赛批量下发的考卷按队长ID登记为个人考卷
+        Team team = registration.getTeam();
+        if (existingPaperOpt.isEmpty() && team != null && team.getLeader() != null &&
+            (team.getMaxMembers() == null || team.getMaxMembers() <= 1) && userId.equals(team.getLeader().getId())) {
+            existingPaperOpt = examPaperRepository.findByCompetitionIdAndParticipantTypeAndParticipantId(
+                    competitionId, ExamPaper.ParticipantType.INDIVIDUAL, userId);
+        }
+
         ExamPaper examPaper;
         boolean isNewPaper = false;
 
@@ -110,11 +153,21 @@ public class StudentExamService {
                 examPaper.setStartTime(LocalDateTime.now());
                 examPaper.setPaperStatus(ExamPaper.PaperStatus.IN_PROGRESS);
             }
+
+            // 下发考卷后竞赛题目有变化：延迟模式下按当前题目集更新题目数量
+            ExamQuestionSnapshotService.Snapshot currentSnapshot = examQuestionSnapshotService.getSnapshot(competitionId);
+            if (lazyAnswerInit && !Objects.equals(examPaper.getQuestionSetVersion(), currentSnapshot.getVersion())) {
+                logger.info("考卷题目集版本已变化: paperId={}, {} -> {}", examPaper.getId(),
+                        examPaper.getQuestionSetVersion(), currentSnapshot.getVersion());
+                examPaper.setQuestionSetVersion(currentSnapshot.getVersion());
+                examPaper.setTotalQuestionCount(currentSnapshot.getQuestionCount());
+            }
         } else {
             // 创建新考卷
             examPaper = new ExamPaper(competitionId, participantType, participantId);
             examPaper.setStartTime(LocalDateTime.now());
             examPaper.setPaperStatus(ExamPaper.PaperStatus.IN_PROGRESS);
+            examPaper.setQuestionSetVersion(examQuestionSnapshotService.getSnapshot(competitionId).getVersion());
             isNewPaper = true;
             logger.info("创建新考卷: competitionId={}, participantType={}, participantId={}", 
                 competitionId, participantType, participantId);
@@ -122,47 +175,120 @@ public class StudentExamService {
 
         examPaper = examPaperRepository.save(examPaper);
 
-        // 如果是新考卷，初始化答题记录
+        // 题目快照（不含答案，竞赛内共享）
+        ExamQuestionSnapshotService.Snapshot snapshot = examQuestionSnapshotService.getSnapshot(competitionId);
+
+        // 如果是新考卷，初始化答题记录（延迟模式下只记录题目数量）
         if (isNewPaper) {
-            initializeExamAnswers(examPaper);
+            if (lazyAnswerInit) {
+                examPaper.setTotalQuestionCount(snapshot.getQuestionCount());
+                examPaper = examPaperRepository.save(examPaper);
+            } else {
+                initializeExamAnswers(examPaper);
+            }
+        }
+
+        // 登记答题会话，后续保存答案、查询进度时无需查库校验权限和状态
+        examSessionRegistry.register(examPaper, competition.getCompetitionEndTime());
+        // 登记截止时间，到期未提交时自动交卷
+        examDeadlineScheduler.schedule(examPaper.getId(), competitionId,
+                examPaper.getStartTime(), competition.getCompetitionEndTime());
+
+        // 新考卷没有已保存的答案
+        Map<Long, String> savedAnswers = isNewPaper ? Collections.emptyMap() : loadSavedAnswers(examPaper.getId());
+
+        logger.info("用户{}开始答题，考卷ID: {}", userId, examPaper.getId());
+        return buildStartResult(examPaper.getId(), competitionId, competition.getName(),
+                examPaper.getStartTime(), snapshot, savedAnswers);
+    }
+
+    /**
+     * 已预热竞赛的开始答题：考卷和会话已在内存中，首次开始只执行一次条件更新
+     * 返回 null 时按原流程查询数据库（如团队其他成员同时开始答题）
+     */
+    private Map<String, Object> startPreparedExam(ExamPrewarmService.PreparedCompetition prepared,
+                                                  Long examPaperId, Long userId) {
+        ExamSessionRegistry.ExamSession session = examSessionRegistry.getSession(examPaperId);
+        if (!examSessionRegistry.hasPermission(session, userId)) {
+            return null;
+        }
+        if (session.getStatus() == ExamPaper.PaperStatus.SUBMITTED ||
+            session.getStatus() == ExamPaper.PaperStatus.GRADED) {
+            throw new RuntimeException("您已提交答卷，不能重复答题");
         }
 
-        // 获取题目列表
-        List<CompetitionQuestion> competitionQuestions = competitionQuestionRepository
-                .findByCompetitionIdOrderByQuestionOrder(competitionId);
-
-        List<Map<String, Object>> questions = new ArrayList<>();
-        for (CompetitionQuestion cq : competitionQuestions) {
-            ExamPaper finalExamPaper = examPaper;
-            questionRepository.findById(cq.getQuestionId()).ifPresent(question -> {
-                Map<String, Object> questionData = new HashMap<>();
-                questionData.put("id", question.getId());
-                questionData.put("order", cq.getQuestionOrder());
-                questionData.put("title", question.getTitle());
-                questionData.put("content", question.getContent());
-                questionData.put("type", question.getType());
-                questionData.put("options", question.getOptions());
-                questionData.put("score", cq.getQuestionScore());
-
-                // 获取已保存的答案
-                examAnswerRepository.findByExamPaperIdAndQuestionId(finalExamPaper.getId(), question.getId())
-                        .ifPresent(answer -> {
-                            questionData.put("userAnswer", answer.getAnswerContent());
-                        });
-
-                questions.add(questionData);
-            });
+        // 预热后竞赛题目有变化时按原流程处理，由其更新考卷的题目数量
+        Long competitionId = prepared.getCompetitionId();
+        ExamQuestionSnapshotService.Snapshot snapshot = examQuestionSnapshotService.getSnapshot(competitionId);
+        if (lazyAnswerInit && !Objects.equals(session.getQuestionSetVersion(), snapshot.getVersion())) {
+            return null;
+        }
+
+        boolean firstStart = false;
+        if (session.getStatus() == ExamPaper.PaperStatus.NOT_STARTED) {
+            LocalDateTime now = LocalDateTime.now();
+            if (examPaperRepository.markStarted(examPaperId, now) == 0) {
+                examSessionRegistry.remove(examPaperId);
+                return null;
+            }
+            session = examSessionRegistry.markStarted(examPaperId, now);
+            if (session == null) {
+                return null;
+            }
+            examSessionRegistry.removeOnRollback(examPaperId);
+            firstStart = true;
+        }
+
+        examDeadlineScheduler.schedule(examPaperId, competitionId, session.getStartTime(),
+                prepared.getCompetitionEndTime());
+
+        Map<Long, String> savedAnswers = firstStart ? Collections.emptyMap() : loadSavedAnswers(examPaperId);
+
+        logger.info("用户{}开始答题（已预热），考卷ID: {}", userId, examPaperId);
+        return buildStartResult(examPaperId, competitionId, prepared.getCompetitionName(), session.getStartTime(),
+                snapshot, savedAnswers);
+    }
+
+    /**
+     * 一次查询获取已保存的答案，并合并尚未写入数据库的缓存答案
+     */
+    private Map<Long, String> loadSavedAnswers(Long examPaperId) {
+        Map<Long, String> savedAnswers = new HashMap<>();
+        for (ExamAnswer answer : examAnswerRepository.findByExamPaperId(examPaperId)) {
+            if (answer.getAnswerContent() != null) {
+                savedAnswers.put(answer.getQuestionId(), answer.getAnswerContent());
+            }
+        }
+        savedAnswers.putAll(answerWriteBehindService.getPendingAnswers(examPaperId));
+        return savedAnswers;
+    }
+
+    private Map<String, Object> buildStartResult(Long examPaperId, Long competitionId, String competitionName,
+                                                 LocalDateTime startTime, ExamQuestionSnapshotService.Snapshot snapshot,
+                                                 Map<Long, String> savedAnswers) {
+        // 没有已保存的答案时直接返回共享的题目快照，不逐题复制
+        List<Map<String, Object>> questions = snapshot.getQuestions();
+        if (!savedAnswers.isEmpty()) {
+            questions = new ArrayList<>(snapshot.getQuestionCount());
+            for (Map<String, Object> snapshotQuestion : snapshot.getQuestions()) {
+                String userAnswer = savedAnswers.get((Long) snapshotQuestion.get("id"));
+                if (userAnswer != null) {
+                    Map<String, Object> questionData = new HashMap<>(snapshotQuestion);
+                    questionData.put("userAnswer", userAnswer);
+                    questions.add(questionData);
+                } else {
+                    questions.add(snapshotQuestion);
+                }
+            }
         }
 
         Map<String, Object> result = new HashMap<>();
-        result.put("examPaperId", examPaper.getId());
+        result.put("examPaperId", examPaperId);
         result.put("competitionId", competitionId);
-        result.put("competitionName", competition.getName());
-        result.put("startTime", examPaper.getStartTime());
+        result.put("competitionName", competitionName);
+        result.put("startTime", startTime);
         result.put("questions", questions);
         result.put("totalQuestions", questions.size());
-
-        logger.info("用户{}开始答题，考卷ID: {}", userId, examPaper.getId());
         return result;
     }
 
@@ -173,16 +299,16 @@ public class StudentExamService {
         List<CompetitionQuestion> questions = competitionQuestionRepository
                 .findByCompetitionIdOrderByQuestionOrder(examPaper.getCompetitionId());
 
-        int totalCount = 0;
+        List<ExamAnswer> answers = new ArrayList<>(questions.size());
         for (CompetitionQuestion cq : questions) {
             ExamAnswer answer = new ExamAnswer(examPaper.getId(), cq.getQuestionId());
             answer.setMaxScore(cq.getQuestionScore());
             answer.setGradingStatus(ExamAnswer.GradingStatus.PENDING);
-            examAnswerRepository.save(answer);
-            totalCount++;
+            answers.add(answer);
         }
+        examAnswerRepository.saveAll(answers);
 
-        examPaper.setTotalQuestionCount(totalCount);
+        examPaper.setTotalQuestionCount(answers.size());
         examPaperRepository.save(examPaper);
     }
 
@@ -190,35 +316,64 @@ public class StudentExamService {
      * 保存答案（自动保存功能）
      */
     public void saveAnswer(Long examPaperId, Long questionId, String answerContent, Long userId) {
-        logger.info("保存答案: examPaperId={}, questionId={}, userId={}", examPaperId, questionId, userId);
+        logger.debug("保存答案: examPaperId={}, questionId={}, userId={}", examPaperId, questionId, userId);
 
-        // 检查考卷
-        ExamPaper examPaper = examPaperRepository.findById(examPaperId)
-                .orElseThrow(() -> new RuntimeException("考卷不存在"));
+        ExamSessionRegistry.ExamSession session = examSessionRegistry.getSession(examPaperId);
+        validateAnswerable(session, userId);
+
+        // 异步写入模式：直接写入答案缓存
+        if (answerWriteBehindService.isEnabled()) {
+            answerWriteBehindService.enqueue(examPaperId, questionId, answerContent);
+            return;
+        }
+
+        // 查找或创建答案记录
+        ExamAnswer answer = findOrCreateAnswer(examPaperId, session.getCompetitionId(), questionId);
 
+        answer.setAnswerContent(answerContent);
+        examAnswerRepository.save(answer);
+
+        logger.debug("答案保存成功");
+    }
+
+    /**
+     * 校验用户可以向考卷保存答案
+     */
+    private void validateAnswerable(ExamSessionRegistry.ExamSession session, Long userId) {
         // 验证考卷所有权（支持团队和个人）
-        if (!hasPermissionToAccessPaper(examPaper, userId)) {
+        if (!examSessionRegistry.hasPermission(session, userId)) {
             throw new RuntimeException("无权限操作此考卷");
         }
 
         // 检查考卷状态
-        if (examPaper.getPaperStatus() != ExamPaper.PaperStatus.IN_PROGRESS) {
+        if (session.getStatus() != ExamPaper.PaperStatus.IN_PROGRESS) {
             throw new RuntimeException("考卷状态不正确");
         }
+    }
 
-        // 查找或创建答案记录
-        ExamAnswer answer = examAnswerRepository
-                .findByExamPaperIdAndQuestionId(examPaperId, questionId)
-                .orElseGet(() -> {
-                    ExamAnswer newAnswer = new ExamAnswer(examPaperId, questionId);
-                    newAnswer.setGradingStatus(ExamAnswer.GradingStatus.PENDING);
-                    return newAnswer;
-                });
+    /**
+     * 查找答题记录，不存在时按竞赛题目配置创建（延迟生成模式下首次保存答案时调用）
+     * 返回的新记录尚未保存，由调用方设置答案后保存
+     */
+    public ExamAnswer findOrCreateAnswer(ExamPaper examPaper, Long questionId) {
+        return findOrCreateAnswer(examPaper.getId(), examPaper.getCompetitionId(), questionId);
+    }
 
-        answer.setAnswerContent(answerContent);
-        examAnswerRepository.save(answer);
+    private ExamAnswer findOrCreateAnswer(Long examPaperId, Long competitionId, Long questionId) {
+        Optional<ExamAnswer> existing = examAnswerRepository
+                .findByExamPaperIdAndQuestionId(examPaperId, questionId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        CompetitionQuestion cq = competitionQuestionRepository
+                .findByCompetitionIdAndQuestionId(competitionId, questionId)
+                .orElseThrow(() -> new RuntimeException("题目不属于该竞赛"));
 
-        logger.info("答案保存成功");
+        ExamAnswer newAnswer = new ExamAnswer(examPaperId, questionId);
+        newAnswer.setMaxScore(cq.getQuestionScore());
+        newAnswer.setGradingStatus(ExamAnswer.GradingStatus.PENDING);
+        return newAnswer;
     }
 
     /**
@@ -227,20 +382,29 @@ public class StudentExamService {
     public Map<String, Object> submitExam(Long examPaperId, Long userId) {
         logger.info("提交答卷: examPaperId={}, userId={}", examPaperId, userId);
 
+        // 通过会话缓存校验权限和状态
+        ExamSessionRegistry.ExamSession session = examSessionRegistry.getSession(examPaperId);
+        if (!examSessionRegistry.hasPermission(session, userId)) {
+            throw new RuntimeException("无权限操作此考卷");
+        }
+        if (session.getStatus() != ExamPaper.PaperStatus.IN_PROGRESS) {
+            throw new RuntimeException("考卷状态不正确，无法提交");
+        }
+
         // 检查考卷
         ExamPaper examPaper = examPaperRepository.findById(examPaperId)
                 .orElseThrow(() -> new RuntimeException("考卷不存在"));
 
-        // 验证考卷所有权（支持团队和个人）
-        if (!hasPermissionToAccessPaper(examPaper, userId)) {
-            throw new RuntimeException("无权限操作此考卷");
-        }
-
-        // 检查考卷状态
         if (examPaper.getPaperStatus() != ExamPaper.PaperStatus.IN_PROGRESS) {
+            examSessionRegistry.updateStatus(examPaperId, examPaper.getPaperStatus());
             throw new RuntimeException("考卷状态不正确，无法提交");
         }
 
+        // 先拒绝新的自动保存，再写入缓存中尚未落库的答案
+        examSessionRegistry.updateStatus(examPaperId, ExamPaper.PaperStatus.SUBMITTED);
+        examSessionRegistry.removeOnRollback(examPaperId);
+        answerWriteBehindService.flushPaper(examPaperId);
+
         // 更新考卷状态
         examPaper.setSubmitTime(LocalDateTime.now());
         examPaper.setPaperStatus(ExamPaper.PaperStatus.SUBMITTED);
@@ -249,6 +413,8 @@ public class StudentExamService {
         gradeExam(examPaper);
 
         examPaperRepository.save(examPaper);
+        examSessionRegistry.updateStatus(examPaperId, examPaper.getPaperStatus());
+        examDeadlineScheduler.cancel(examPaperId);
 
         // 返回结果
         Map<String, Object> result = new HashMap<>();
@@ -264,130 +430,52 @@ public class StudentExamService {
     }
 
     /**
-     * 自动判分
+     * 自动判分（与自动评分服务共用评分引擎）
      */
     private void gradeExam(ExamPaper examPaper) {
-        List<ExamAnswer> answers = examAnswerRepository.findByExamPaperId(examPaper.getId());
-
-        BigDecimal totalScore = BigDecimal.ZERO;
-        BigDecimal objectiveScore = BigDecimal.ZERO;
-        int correctCount = 0;
-
-        for (ExamAnswer answer : answers) {
-            questionRepository.findById(answer.getQuestionId()).ifPresent(question -> {
-                // 只有客观题才能自动判分
-                if (isObjectiveQuestion(question.getType())) {
-                    boolean isCorrect = checkAnswer(question, answer.getAnswerContent());
-                    answer.setIsCorrect(isCorrect);
-
-                    if (isCorrect) {
-                        answer.setScore(answer.getMaxScore());
-                    } else {
-                        answer.setScore(BigDecimal.ZERO);
-                    }
-
-                    answer.setGradingStatus(ExamAnswer.GradingStatus.AUTO_GRADED);
-                    answer.setGradedAt(LocalDateTime.now());
-                } else {
-                    // 主观题需要人工评分
-                    answer.setGradingStatus(ExamAnswer.GradingStatus.MANUAL_GRADING);
-                }
-
-                examAnswerRepository.save(answer);
-            });
-        }
-
-        // 重新计算总分
-        answers = examAnswerRepository.findByExamPaperId(examPaper.getId());
-        for (ExamAnswer answer : answers) {
-            if (answer.getScore() != null) {
-                totalScore = totalScore.add(answer.getScore());
-
-                if (answer.getGradingStatus() == ExamAnswer.GradingStatus.AUTO_GRADED) {
-                    objectiveScore = objectiveScore.add(answer.getScore());
-                }
-
-                if (Boolean.TRUE.equals(answer.getIsCorrect())) {
-                    correctCount++;
-                }
-            }
-        }
-
-        examPaper.setTotalScore(totalScore);
-        examPaper.setObjectiveScore(objectiveScore);
-        examPaper.setCorrectCount(correctCount);
-
-        // 检查是否所有题目都已评分
-        boolean allGraded = answers.stream()
-                .allMatch(a -> a.getGradingStatus() == ExamAnswer.GradingStatus.AUTO_GRADED ||
-                             a.getGradingStatus() == ExamAnswer.GradingStatus.MANUAL_GRADED);
-
-        if (allGraded) {
-            examPaper.setPaperStatus(ExamPaper.PaperStatus.GRADED);
-        } else {
-            examPaper.setPaperStatus(ExamPaper.PaperStatus.GRADING);
-        }
-    }
-
-    /**
-     * 判断是否为客观题
-     */
-    private boolean isObjectiveQuestion(Question.QuestionType type) {
-        return type == Question.QuestionType.SINGLE_CHOICE ||
-               type == Question.QuestionType.MULTIPLE_CHOICE ||
-               type == Question.QuestionType.TRUE_FALSE;
-    }
-
-    /**
-     * 检查答案是否正确
-     */
-    private boolean checkAnswer(Question question, String userAnswer) {
-        if (userAnswer == null || userAnswer.trim().isEmpty()) {
-            return false;
-        }
-
-        String correctAnswer = question.getCorrectAnswer();
-        if (correctAnswer == null) {
-            return false;
-        }
-
-        // 去除空格并统一大小写
-        userAnswer = userAnswer.trim().toUpperCase();
-        correctAnswer = correctAnswer.trim().toUpperCase();
-
-        // 多选题特殊处理（答案可能是逗号分隔的）
-        if (question.getType() == Question.QuestionType.MULTIPLE_CHOICE) {
-            Set<String> userAnswers = new HashSet<>(Arrays.asList(userAnswer.split(",")));
-            Set<String> correctAnswers = new HashSet<>(Arrays.asList(correctAnswer.split(",")));
-            return userAnswers.equals(correctAnswers);
-        }
-
-        // 单选题和判断题直接比较
-        return userAnswer.equals(correctAnswer);
+        objectiveGradingService.gradePaper(examPaper);
     }
 
     /**
      * 获取答题进度
      */
     public Map<String, Object> getExamProgress(Long examPaperId, Long userId) {
-        ExamPaper examPaper = examPaperRepository.findById(examPaperId)
-                .orElseThrow(() -> new RuntimeException("考卷不存在"));
+        ExamSessionRegistry.ExamSession session = examSessionRegistry.getSession(examPaperId);
 
         // 验证考卷所有权（支持团队和个人）
-        if (!hasPermissionToAccessPaper(examPaper, userId)) {
+        if (!examSessionRegistry.hasPermission(session, userId)) {
             throw new RuntimeException("无权限查看此考卷");
         }
 
         List<ExamAnswer> answers = examAnswerRepository.findByExamPaperId(examPaperId);
-        long answeredCount = answers.stream()
-                .filter(a -> a.getAnswerContent() != null && !a.getAnswerContent().trim().isEmpty())
+        Map<Long, String> answerContents = new HashMap<>();
+        for (ExamAnswer answer : answers) {
+            answerContents.put(answer.getQuestionId(), answer.getAnswerContent());
+        }
+        // 合并尚未写入数据库的缓存答案
+        answerContents.putAll(answerWriteBehindService.getPendingAnswers(examPaperId));
+        long answeredCount = answerContents.values().stream()
+                .filter(content -> content != null && !content.trim().isEmpty())
                 .count();
 
         Map<String, Object> result = new HashMap<>();
-        result.put("examPaperId", examPaper.getId());
+        result.put("examPaperId", examPaperId);
+        result.put("answeredCount", answeredCount);
+
+        // 答题中直接使用会话信息，已提交后再查询考卷获取成绩
+        if (session.getStatus() == ExamPaper.PaperStatus.IN_PROGRESS ||
+            session.getStatus() == ExamPaper.PaperStatus.NOT_STARTED) {
+            result.put("status", session.getStatus());
+            result.put("totalCount", session.getTotalQuestionCount());
+            result.put("startTime", session.getStartTime());
+            result.put("submitTime", null);
+            return result;
+        }
+
+        ExamPaper examPaper = examPaperRepository.findById(examPaperId)
+                .orElseThrow(() -> new RuntimeException("考卷不存在"));
         result.put("status", examPaper.getPaperStatus());
         result.put("totalCount", examPaper.getTotalQuestionCount());
-        result.put("answeredCount", answeredCount);
         result.put("startTime", examPaper.getStartTime());
         result.put("submitTime", examPaper.getSubmitTime());
 
@@ -400,29 +488,6 @@ public class StudentExamService {
         return result;
     }
 
-    /**
-     * 检查用户是否有权限访问考卷
-     * @param examPaper 考卷
-     * @param userId 用户ID
-     * @return 是否有权限
-     */
-    private boolean hasPermissionToAccessPaper(ExamPaper examPaper, Long userId) {
-        if (examPaper.getParticipantType() == ExamPaper.ParticipantType.INDIVIDUAL) {
-            // 个人参赛：检查是否是本人
-            boolean hasPermission = examPaper.getParticipantId().equals(userId);
-            logger.info("个人考卷权限检查: paperId={}, userId={}, hasPermission={}", 
-                examPaper.getId(), userId, hasPermission);
-            return hasPermission;
-        } else {
-            // 团队参赛：检查用户是否是团队成员
-            Long teamId = examPaper.getParticipantId();
-            boolean isMember = teamMemberRepository.existsByTeamIdAndUserId(teamId, userId);
-            logger.info("团队考卷权限检查: paperId={}, teamId={}, userId={}, isMember={}", 
-                examPaper.getId(), teamId, userId, isMember);
-            return isMember;
-        }
-    }
-
     /**
      * 检查用户是否已报名竞赛（支持个人报名和团队报名）
      * @param competitionId 竞赛ID
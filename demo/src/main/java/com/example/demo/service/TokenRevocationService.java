@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import com.example.demo.util.JwtPrincipal;
+import com.example.demo.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 令牌作废（登出、刷新令牌轮换）
+ * 按令牌ID（jti）记录已作废的令牌直到其过期：布隆过滤器判断"一定未作废"，
+ * 只有布隆过滤器命中时才查精确集合，JwtAuthenticationFilter 每个请求检查一次。
+ * 作废记录先写入 revoked_tokens 表再放入内存，启动时加载未过期的记录，
+ * 服务重启后已作废的刷新令牌（有效期7天）仍然无法使用。
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO revoked_tokens (token_id, expires_at) VALUES (?, ?)";
+    private static final String SELECT_LIVE_SQL =
+            "SELECT token_id, expires_at FROM revoked_tokens WHERE expires_at > ?";
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM revoked_tokens WHERE expires_at <= ?";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // 令牌ID -> 令牌过期时间（毫秒）
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter bloomFilter;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomHits = new LongAdder();
+    private final LongAdder revokedHits = new LongAdder();
+
+    /**
+     * 从数据库加载未过期的作废记录并构建布隆过滤器
+     */
+    @PostConstruct
+    public synchronized void init() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_LIVE_SQL, System.currentTimeMillis());
+        for (Map<String, Object> row : rows) {
+            revoked.put((String) row.get("token_id"), ((Number) row.get("expires_at")).longValue());
+        }
+        rebuildBloomFilter();
+        logger.info("加载令牌作废记录: {}", revoked.size());
+    }
+
+    /**
+     * 令牌是否已作废；没有令牌ID的旧令牌无法单独作废
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        checks.increment();
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        bloomHits.increment();
+        if (revoked.containsKey(tokenId)) {
+            revokedHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 作废令牌，返回 false 表示该令牌此前已被作废（用于识别刷新令牌重复使用）
+     * 先写入数据库，写入失败时抛出 DataAccessException，令牌不会被当作已作废
+     */
+    public synchronized boolean revoke(String tokenId, long expiresAt) {
+        if (tokenId == null || revoked.containsKey(tokenId)) {
+            return false;
+        }
+        boolean inserted = true;
+        try {
+            jdbcTemplate.update(INSERT_SQL, tokenId, expiresAt);
+        } catch (DuplicateKeyException e) {
+            // 其他实例已作废该令牌
+            inserted = false;
+        }
+        revoked.put(tokenId, expiresAt);
+        bloomFilter.add(tokenId);
+        return inserted;
+    }
+
+    /**
+     * 作废客户端提交的令牌；令牌为空、无效或已过期时无需处理
+     */
+    public void revokeToken(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            JwtPrincipal principal = jwtUtil.verifyToken(token);
+            revoke(principal.getTokenId(), principal.getExpiresAt());
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("跳过作废无效令牌: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清除已过期的作废记录，并按剩余记录重建布隆过滤器（布隆过滤器不支持删除）
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval-ms:300000}")
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update(DELETE_EXPIRED_SQL, now);
+        } catch (DataAccessException e) {
+            logger.warn("清理数据库中过期的令牌作废记录失败: {}", e.getMessage());
+        }
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        if (revoked.size() == before) {
+            return;
+        }
+        rebuildBloomFilter();
+        logger.debug("清理过期的令牌作废记录: removed={}, remaining={}", before - revoked.size(), revoked.size());
+    }
+
+    private void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+    }
+
+    /**
+     * 令牌作废统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("revokedTokens", revoked.size());
+        stats.put("bloomBits", bloomFilter.bitCount);
+        stats.put("bloomHashes", bloomFilter.hashCount);
+        stats.put("checks", checks.sum());
+        stats.put("bloomHits", bloomHits.sum());
+        stats.put("revokedHits", revokedHits.sum());
+        return stats;
+    }
+
+    /**
+     * 布隆过滤器：两个64位哈希组合出 k 个位置（Kirsch-Mitzenmacher）
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final int bitCount;
+        private final int hashCount;
+
+        private BloomFilter(int expectedEntries, double falsePositiveRate) {
+            int n = Math.max(1, expectedEntries);
+            double ln2 = Math.log(2);
+            long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+            bitCount = (int) Math.max(64, Math.min(bits, Integer.MAX_VALUE - 63L));
+            hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+            words = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        void add(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                long mask = 1L << (bit & 63);
+                words.accumulateAndGet(bit >>> 6, mask, (current, m) -> current | m);
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                if ((words.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a 64位
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+
+        // SplitMix64 混合，得到第二个哈希（保证为奇数）
+        private static long mix(long h) {
+            h += 0x9e3779b97f4a7c15L;
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return (h ^ (h >>> 31)) | 1L;
+        }
+    }
+}
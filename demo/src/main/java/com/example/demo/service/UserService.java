@@ -4,6 +4,8 @@ import com.example.demo.entity.User;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.dto.UserProfileUpdateRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -11,6 +13,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -27,7 +30,16 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
-    // 用户注册
+    @Autowired
+    private UserStatusCache userStatusCache;
+    
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+    
+    // 用户注册（不开启外层事务，等待密码加密时不占用数据库连接）
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(User user) {
         // 检查用户名是否已存在
         if (userRepository.existsByUsername(user.getUsername())) {
@@ -51,7 +63,7 @@ public class UserService {
         }
         
         // 加密密码
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         
         // 设置默认状态
         if (user.getRole() == User.UserRole.TEACHER) {
@@ -63,12 +75,14 @@ public class UserService {
         return userRepository.save(user);
     }
     
-    // 用户登录验证
+    // 用户登录验证（不开启外层事务，等待密码校验时不占用数据库连接）
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<User> authenticateUser(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            if (passwordEncoder.matches(password, user.getPassword())) {
+            if (passwordHashingService.matches(password, user.getPassword())) {
+                upgradePasswordHashIfNeeded(user, password);
                 return Optional.of(user);
             }
         }
@@ -76,10 +90,27 @@ public class UserService {
     }
     
     // 用户登录（为Controller提供的方法）
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<User> login(String username, String password) {
         return authenticateUser(username, password);
     }
     
+    // BCrypt强度配置变化后，登录成功时按新强度重新加密；失败不影响本次登录
+    private void upgradePasswordHashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String newHash = passwordHashingService.encode(rawPassword);
+            if (userRepository.updatePasswordHash(user.getId(), user.getPassword(), newHash) > 0) {
+                user.setPassword(newHash);
+                passwordHashingService.recordRehash();
+            }
+        } catch (Exception e) {
+            logger.warn("升级密码哈希失败: userId={}, error={}", user.getId(), e.getMessage());
+        }
+    }
+    
     // 检查用户是否可以登录
     public boolean canUserLogin(User user) {
         // 检查用户状态是否被禁用
@@ -125,6 +156,7 @@ public class UserService {
         
         User user = userOpt.get();
         user.setStatus(status);
+        userStatusCache.invalidate(id);
         return userRepository.save(user);
     }
     
@@ -186,6 +218,7 @@ public class UserService {
         List<User> users = userRepository.findAllById(userIds);
         for (User user : users) {
             user.setStatus(status);
+            userStatusCache.invalidate(user.getId());
         }
         return userRepository.saveAll(users);
     }
@@ -203,6 +236,7 @@ public class UserService {
         } else {
             user.setStatus(User.UserStatus.REJECTED);
         }
+        userStatusCache.invalidate(id);
         
         return userRepository.save(user);
     }
@@ -216,6 +250,7 @@ public class UserService {
         }
         
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeRefreshTokens(user);
         userRepository.save(user);
     }
 
@@ -224,14 +259,22 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("用户不存在"));
         
         user.setPassword(passwordEncoder.encode(newPassword));
+        revokeRefreshTokens(user);
         return userRepository.save(user);
     }
 
+    // 递增令牌版本，此前签发的刷新令牌全部失效
+    private void revokeRefreshTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() != null ? user.getTokenVersion() + 1 : 1);
+        userStatusCache.invalidate(user.getId());
+    }
+
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
             throw new RuntimeException("用户不存在");
         }
         userRepository.deleteById(id);
+        userStatusCache.invalidate(id);
     }
 
     public Page<User> searchUsers(String keyword, Pageable pageable) {
@@ -254,6 +297,7 @@ public class UserService {
         }
         if (userDetails.getRole() != null) {
             user.setRole(userDetails.getRole());
+            userStatusCache.invalidate(id);
         }
         
         return userRepository.save(user);
@@ -396,6 +440,7 @@ public class UserService {
         }
         
         user.setStatus(User.UserStatus.APPROVED);
+        userStatusCache.invalidate(teacherId);
         return userRepository.save(user);
     }
     
@@ -412,6 +457,7 @@ public class UserService {
         }
         
         user.setStatus(User.UserStatus.REJECTED);
+        userStatusCache.invalidate(teacherId);
         return userRepository.save(user);
     }
     
@@ -424,6 +470,7 @@ public class UserService {
         
         User user = userOpt.get();
         user.setStatus(User.UserStatus.DISABLED);
+        userStatusCache.invalidate(userId);
         return userRepository.save(user);
     }
     
@@ -436,6 +483,7 @@ public class UserService {
         
         User user = userOpt.get();
         user.setStatus(User.UserStatus.APPROVED);
+        userStatusCache.invalidate(userId);
         return userRepository.save(user);
     }
     
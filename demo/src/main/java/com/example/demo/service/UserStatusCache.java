@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 认证用户的角色、状态与令牌版本缓存
+ * 控制器按用户ID校验角色和审核状态时不再每次查询数据库；
+ * 条目在短时间后过期，UserService 修改状态、角色或密码时立即失效。
+ */
+@Service
+public class UserStatusCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${auth.user-status-cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    private final ConcurrentHashMap<Long, UserState> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 获取用户当前的角色、状态与令牌版本，用户不存在时返回 null
+     */
+    public UserState get(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        UserState state = cache.get(userId);
+        if (state != null && now - state.loadedAt < ttlMillis) {
+            return state;
+        }
+        List<Object[]> rows = userRepository.findRoleStatusAndTokenVersionById(userId);
+        if (rows.isEmpty()) {
+            cache.remove(userId);
+            return null;
+        }
+        Object[] row = rows.get(0);
+        int tokenVersion = row[2] != null ? ((Number) row[2]).intValue() : 0;
+        state = new UserState((User.UserRole) row[0], (User.UserStatus) row[1], tokenVersion, now);
+        cache.put(userId, state);
+        return state;
+    }
+
+    /**
+     * 用户状态或角色变化时清除缓存，在事务中调用时提交后再清除一次
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        cache.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 定期清理过期条目
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(state -> now - state.loadedAt >= ttlMillis);
+    }
+
+    public static final class UserState {
+        private final User.UserRole role;
+        private final User.UserStatus status;
+        private final int tokenVersion;
+        private final long loadedAt;
+
+        private UserState(User.UserRole role, User.UserStatus status, int tokenVersion, long loadedAt) {
+            this.role = role;
+            this.status = status;
+            this.tokenVersion = tokenVersion;
+            this.loadedAt = loadedAt;
+        }
+
+        public User.UserRole getRole() {
+            return role;
+        }
+
+        public User.UserStatus getStatus() {
+            return status;
+        }
+
+        public int getTokenVersion() {
+            return tokenVersion;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.util;
+
+import com.example.demo.entity.User;
+
+/**
+ * 当前请求的认证用户（不可变）
+ * 用户ID、用户名来自已验签的令牌，角色和审核状态来自 UserStatusCache；
+ * 控制器方法声明该类型的参数即可由 CurrentUserArgumentResolver 注入，未认证或用户不存在时为 null
+ */
+public final class AuthenticatedUser {
+
+    private final Long id;
+    private final String username;
+    private final User.UserRole role;
+    private final User.UserStatus status;
+
+    public AuthenticatedUser(Long id, String username, User.UserRole role, User.UserStatus status) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public User.UserRole getRole() {
+        return role;
+    }
+
+    public User.UserStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{id=" + id + ", username='" + username + "', role=" + role + ", status=" + status + "}";
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.util;
+
+/**
+ * 已验签的 JWT 身份信息（不可变）
+ * 由 JwtUtil.verifyToken 一次解析得到，可安全地在线程间共享和缓存
+ */
+public final class JwtPrincipal {
+
+    private final String username;
+    private final Long userId;
+    private final String role;
+    private final long expiresAt;
+    private final String tokenId;
+    private final String tokenType;
+    private final int tokenVersion;
+
+    public JwtPrincipal(String username, Long userId, String role, long expiresAt, String tokenId, String tokenType,
+                        int tokenVersion) {
+        this.username = username;
+        this.userId = userId;
+        this.role = role;
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+        this.tokenType = tokenType;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    /**
+     * 令牌过期时间（毫秒时间戳）
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * 令牌唯一ID（jti），旧版本签发的令牌没有ID时为 null
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    /**
+     * 签发时用户的令牌版本，用户修改密码后版本较旧的刷新令牌失效；旧令牌没有版本时为 0
+     */
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public boolean isRefreshToken() {
+        return JwtUtil.TOKEN_TYPE_REFRESH.equals(tokenType);
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtPrincipal{username='" + username + "', userId=" + userId + ", role='" + role + "'}";
+    }
+}
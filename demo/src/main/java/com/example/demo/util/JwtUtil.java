@@ -2,14 +2,24 @@ package com.example.demo.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import jakarta.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 @Component
@@ -18,11 +28,153 @@ public class JwtUtil {
     @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
     private String secret;
     
-    @Value("${jwt.expiration:86400000}") // 24小时
+    @Value("${jwt.expiration:1800000}") // 访问令牌30分钟
     private Long expiration;
     
+    @Value("${jwt.refresh-expiration:604800000}") // 刷新令牌7天
+    private Long refreshExpiration;
+    
+    // 令牌类型声明：访问令牌用于接口认证，刷新令牌只能用于换取新令牌
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+    
+    // 令牌版本声明：刷新令牌携带签发时用户的令牌版本
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    
+    // 已验签令牌缓存上限（0 表示不缓存）
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+    
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
+    
+    // 签名密钥与解析器只构建一次，JwtParser 是线程安全的
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+    
+    // 令牌哈希 -> 已验签身份，条目在令牌 exp 时失效
+    private final ConcurrentHashMap<String, JwtPrincipal> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder verifiedCacheHits = new LongAdder();
+    private final LongAdder verifiedCacheMisses = new LongAdder();
+    
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前环境不支持SHA-256", e);
+        }
+    });
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            synchronized (this) {
+                key = signingKey;
+                if (key == null) {
+                    key = Keys.hmacShaKeyFor(secret.getBytes());
+                    signingKey = key;
+                }
+            }
+        }
+        return key;
+    }
+    
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            synchronized (this) {
+                parser = jwtParser;
+                if (parser == null) {
+                    parser = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+                    jwtParser = parser;
+                }
+            }
+        }
+        return parser;
+    }
+    
+    /**
+     * 验证令牌并一次性解析出身份信息
+     * 命中已验签缓存时不再验签；令牌无效或过期时抛出与 parseClaimsJws 相同的 JwtException
+     */
+    public JwtPrincipal verifyToken(String token) {
+        long now = System.currentTimeMillis();
+        String cacheKey = verifiedCacheMaxSize > 0 ? hashToken(token) : null;
+        if (cacheKey != null) {
+            JwtPrincipal cached = verifiedTokens.get(cacheKey);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    verifiedCacheHits.increment();
+                    return cached;
+                }
+                // 已过期：移出缓存，交给解析器抛出 ExpiredJwtException
+                verifiedTokens.remove(cacheKey, cached);
+            }
+        }
+        verifiedCacheMisses.increment();
+        
+        Claims claims = getAllClaimsFromToken(token);
+        Date exp = claims.getExpiration();
+        String tokenType = claims.get(CLAIM_TOKEN_TYPE, String.class);
+        Integer tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Integer.class);
+        JwtPrincipal principal = new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("role", String.class),
+                exp != null ? exp.getTime() : Long.MAX_VALUE,
+                claims.getId(),
+                // 未带类型的旧令牌按访问令牌处理
+                tokenType != null ? tokenType : TOKEN_TYPE_ACCESS,
+                tokenVersion != null ? tokenVersion : 0);
+        
+        // 没有过期时间的令牌不缓存，避免常驻内存
+        if (cacheKey != null && exp != null) {
+            if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                evictExpiredTokens(now);
+                if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(cacheKey, principal);
+        }
+        return principal;
+    }
+    
+    /**
+     * 定期清理已过期的缓存令牌
+     */
+    @Scheduled(fixedDelayString = "${jwt.verified-cache.cleanup-interval-ms:60000}")
+    public void evictExpiredTokens() {
+        int removed = evictExpiredTokens(System.currentTimeMillis());
+        if (removed > 0) {
+            logger.debug("清理过期的已验签令牌缓存: removed={}, remaining={}", removed, verifiedTokens.size());
+        }
+    }
+    
+    private int evictExpiredTokens(long now) {
+        int before = verifiedTokens.size();
+        verifiedTokens.values().removeIf(principal -> principal.isExpired(now));
+        return Math.max(0, before - verifiedTokens.size());
+    }
+    
+    // 已验签令牌缓存统计
+    public Map<String, Object> getVerifiedCacheStats() {
+        long hits = verifiedCacheHits.sum();
+        long misses = verifiedCacheMisses.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", verifiedTokens.size());
+        stats.put("maxSize", verifiedCacheMaxSize);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return stats;
+    }
+    
+    private static String hashToken(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
     }
     
     // 从token中获取用户名
@@ -43,34 +195,44 @@ public class JwtUtil {
     
     // 从token中获取所有声明
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return getParser()
                 .parseClaimsJws(token)
                 .getBody();
     }
     
-    // 检查token是否过期
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    // 为用户生成访问token
+    public String generateToken(String username, Long userId, String role) {
+        return createToken(username, userId, role, TOKEN_TYPE_ACCESS, null, expiration);
     }
     
-    // 为用户生成token
-    public String generateToken(String username, Long userId, String role) {
+    // 为用户生成刷新token，携带用户当前的令牌版本
+    public String generateRefreshToken(String username, Long userId, String role, Integer tokenVersion) {
+        return createToken(username, userId, role, TOKEN_TYPE_REFRESH, tokenVersion != null ? tokenVersion : 0,
+                refreshExpiration);
+    }
+    
+    // 访问token有效期（毫秒）
+    public long getAccessTokenExpiration() {
+        return expiration;
+    }
+    
+    // 创建token，每个token带唯一ID（jti）以便单独作废
+    private String createToken(String subject, Long userId, String role, String tokenType, Integer tokenVersion,
+                               long ttlMillis) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
         claims.put("role", role);
-        return createToken(claims, username);
-    }
-    
-    // 创建token
-    private String createToken(Map<String, Object> claims, String subject) {
+        claims.put(CLAIM_TOKEN_TYPE, tokenType);
+        if (tokenVersion != null) {
+            claims.put(CLAIM_TOKEN_VERSION, tokenVersion);
+        }
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMillis))
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -78,8 +240,8 @@ public class JwtUtil {
     // 验证token
     public Boolean validateToken(String token, String username) {
         try {
-            final String tokenUsername = getUsernameFromToken(token);
-            return (tokenUsername.equals(username) && !isTokenExpired(token));
+            // 解析器已拒绝过期令牌
+            return verifyToken(token).getUsername().equals(username);
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -100,26 +262,13 @@ public class JwtUtil {
     // 检查token是否有效
     public boolean isTokenValid(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token);
+            verifyToken(token);
             return true;
         } catch (Exception e) {
             return false;
         }
     }
     
-    // 刷新token
-    public String refreshToken(String token) {
-        try {
-            final Claims claims = getAllClaimsFromToken(token);
-            String username = claims.getSubject();
-            Long userId = claims.get("userId", Long.class);
-            String role = claims.get("role", String.class);
-            return generateToken(username, userId, role);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
     // 获取token剩余有效时间（毫秒）
     public Long getTokenRemainingTime(String token) {
         try {
@@ -130,12 +279,6 @@ public class JwtUtil {
         }
     }
     
-    // 检查token是否即将过期（1小时内）
-    public Boolean isTokenExpiringSoon(String token) {
-        Long remainingTime = getTokenRemainingTime(token);
-        return remainingTime > 0 && remainingTime < 3600000; // 1小时
-    }
-    
     // 从token中提取用户名（别名方法，与getUsernameFromToken功能相同）
     public String extractUsername(String token) {
         return getUsernameFromToken(token);
@@ -153,7 +296,7 @@ public class JwtUtil {
     // 验证token（单参数版本）
     public Boolean validateToken(String token) {
         try {
-            return isTokenValid(token) && !isTokenExpired(token);
+            return isTokenValid(token);
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
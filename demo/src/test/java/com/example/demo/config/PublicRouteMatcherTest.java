@@ -0,0 +1,125 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 公开路径匹配：与原 SecurityConfig permitAll 及原过滤器 excludedPaths 的对照
+ */
+class PublicRouteMatcherTest {
+
+    // 原 SecurityConfig 的 permitAll 配置
+    private static final List<String> OLD_PERMIT_ALL = List.of(
+            "/api/users/register", "/api/users/login", "/api/user/register", "/api/user/login",
+            "/api/auth/login", "/api/auth/register", "/api/teacher/register", "/api/teacher/login",
+            "/api/admin/users/export", "/api/admin/debug/**", "/api/competitions", "/api/competitions/**",
+            "/api/competitions/public/**", "/api/competitions/search", "/api/competitions/categories",
+            "/api/competitions/levels", "/api/test/public/**", "/api/majors", "/api/categories",
+            "/api/departments", "/api/systeminform", "/api/systeminform/**", "/api/files/upload",
+            "/uploads/**", "/debug/**", "/h2-console/**", "/swagger-ui/**", "/v3/api-docs/**",
+            "/actuator/**", "/error");
+
+    // 原 JwtAuthenticationFilter 的 excludedPaths（按 startsWith 匹配）
+    private static final List<String> OLD_EXCLUDED_PATHS = List.of(
+            "/api/users/register", "/api/users/login", "/api/user/login", "/api/auth/login",
+            "/api/auth/register", "/api/teacher/register", "/api/teacher/login", "/api/admin/login",
+            "/api/admin/users/export", "/api/admin/debug", "/api/majors", "/api/categories",
+            "/api/departments", "/api/competitions", "/api/competitions/public", "/api/competitions/search",
+            "/api/competitions/categories", "/api/competitions/levels", "/api/test/public",
+            "/api/systeminform", "/api/files/upload", "/uploads", "/debug", "/h2-console",
+            "/swagger-ui", "/v3/api-docs", "/actuator");
+
+    private static final List<String> SAMPLE_PATHS = List.of(
+            "/api/users/login", "/api/users/login/extra", "/api/users/profile", "/api/user/register",
+            "/api/admin/users/export", "/api/admin/users", "/api/admin/debug", "/api/admin/debug/cache/stats",
+            "/api/competitions", "/api/competitions/12", "/api/competitions/12/questions",
+            "/api/competitions/public/list", "/api/majors", "/api/categories", "/api/departments",
+            "/api/systeminform", "/api/systeminform/3", "/api/test/public", "/api/test/public/ping",
+            "/api/test/private", "/api/files/upload", "/api/files/download", "/uploads/avatar/a.png",
+            "/swagger-ui/index.html", "/v3/api-docs", "/actuator/health", "/error", "/api/teams/1",
+            "/api/grades/admin/list", "/");
+
+    private final PublicRouteMatcher matcher = new PublicRouteMatcher();
+
+    @Test
+    void agreesWithOldPermitAll() {
+        for (String path : SAMPLE_PATHS) {
+            assertEquals(oldPermitted(path), matcher.isPublic(path), path);
+        }
+    }
+
+    @Test
+    void prefixOnlyMatchesOfOldFilterNowRequireToken() {
+        // 原过滤器按字符串前缀跳过校验，但 SecurityConfig 并未放行这些路径
+        for (String path : List.of("/api/majors/5", "/api/admin/login", "/api/competitionsx",
+                "/api/categories/1/children", "/uploadsx/a.png", "/debugger")) {
+            assertTrue(OLD_EXCLUDED_PATHS.stream().anyMatch(path::startsWith), path);
+            assertFalse(oldPermitted(path), path);
+            assertFalse(matcher.isPublic(path), path);
+        }
+    }
+
+    @Test
+    void oldFilterExclusionsPermittedBySecurityConfigStayPublic() {
+        for (String path : OLD_EXCLUDED_PATHS) {
+            if (oldPermitted(path)) {
+                assertTrue(matcher.isPublic(path), path);
+            }
+        }
+    }
+
+    @Test
+    void refreshAndLogoutRoutesArePublic() {
+        assertTrue(matcher.isPublic("/api/users/refresh-token"));
+        assertTrue(matcher.isPublic("/api/users/logout"));
+        assertTrue(matcher.isPublic("/api/teacher/logout"));
+    }
+
+    @Test
+    void exactRoutesDoNotCoverSubpathsAndSubtreesCoverTheirRoot() {
+        assertEquals("/api/majors", matcher.match("/api/majors"));
+        assertNull(matcher.match("/api/majors/5"));
+        assertEquals("/api/competitions/**", matcher.match("/api/competitions"));
+        assertEquals("/api/competitions/**", matcher.match("/api/competitions/public/list"));
+        assertEquals("/api/admin/debug/**", matcher.match("/api/admin/debug/cache"));
+        assertNull(matcher.match("/api/admin"));
+        assertNull(matcher.match(null));
+        assertNull(matcher.match(""));
+    }
+
+    @Test
+    void hitCountsOnlyIncreaseForPublicRequests() {
+        matcher.isPublic("/api/majors");
+        matcher.isPublic("/api/majors");
+        matcher.isPublic("/api/competitions/1");
+        matcher.isPublic("/api/majors/5");
+        matcher.match("/api/majors");
+
+        Map<String, Long> counts = matcher.getHitCounts();
+        assertEquals(2L, counts.get("/api/majors"));
+        assertEquals(1L, counts.get("/api/competitions/**"));
+        assertEquals(0L, counts.get("/api/categories"));
+        assertEquals(PublicRouteMatcher.PUBLIC_ROUTES.length, counts.size());
+    }
+
+    /**
+     * 原 permitAll 的匹配方式：精确路径或 "/**" 子树（包含子树根路径）
+     */
+    private static boolean oldPermitted(String path) {
+        for (String pattern : OLD_PERMIT_ALL) {
+            if (pattern.endsWith("/**")) {
+                String base = pattern.substring(0, pattern.length() - 3);
+                if (path.equals(base) || path.startsWith(base + "/")) {
+                    return true;
+                }
+            } else if (path.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
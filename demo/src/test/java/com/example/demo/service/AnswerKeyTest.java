@@ -0,0 +1,141 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ExamAnswer;
+import com.example.demo.entity.Question;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预编译标准答案：各题型评分规则
+ */
+class AnswerKeyTest {
+
+    private long nextAnswerId = 1;
+
+    @Test
+    void singleChoiceMatchesIgnoringCaseAndWhitespace() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(question(1L, Question.QuestionType.SINGLE_CHOICE, "B")));
+
+        assertGrade(key, 1L, " b ", true, "10");
+        assertGrade(key, 1L, "A", false, "0");
+        assertGrade(key, 1L, "  ", false, "0");
+        assertGrade(key, 1L, null, false, "0");
+    }
+
+    @Test
+    void trueFalseRequiresExactAnswer() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(question(1L, Question.QuestionType.TRUE_FALSE, "TRUE")));
+
+        assertGrade(key, 1L, "true", true, "10");
+        assertGrade(key, 1L, "FALSE", false, "0");
+    }
+
+    @Test
+    void multipleChoiceGivesFullPartialOrNoCredit() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(question(1L, Question.QuestionType.MULTIPLE_CHOICE, "A,C,D")));
+
+        // 选项顺序和空格不影响评分
+        assertGrade(key, 1L, "D, a,C", true, "10");
+        // 只选了部分正确选项：2/3 * 50% 满分
+        AnswerKey.PaperGradeResult partial = key.gradePaper(List.of(answer(1L, "A,C")));
+        AnswerKey.AnswerGrade grade = partial.getAnswerGrades().get(0);
+        assertFalse(grade.getIsCorrect());
+        assertEquals(0, grade.getScore().compareTo(BigDecimal.TEN.multiply(BigDecimal.valueOf(2.0 / 3))
+                .multiply(BigDecimal.valueOf(0.5))));
+        assertEquals(0, partial.getCorrectCount());
+        // 有错误选项不得分
+        assertGrade(key, 1L, "A,B", false, "0");
+        assertGrade(key, 1L, "A,CD", false, "0");
+        assertGrade(key, 1L, "", false, "0");
+    }
+
+    @Test
+    void multipleChoiceWithNonLetterOptionsComparesOptionSets() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(question(1L, Question.QuestionType.MULTIPLE_CHOICE, "选项1,选项3")));
+
+        assertGrade(key, 1L, "选项3, 选项1", true, "10");
+        assertGrade(key, 1L, "选项1", false, "2.5");
+        assertGrade(key, 1L, "选项1,选项2", false, "0");
+    }
+
+    @Test
+    void subjectiveAnswersWaitForManualGradingAndKeepManualScores() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(
+                question(1L, Question.QuestionType.SINGLE_CHOICE, "A"),
+                question(2L, Question.QuestionType.SHORT_ANSWER, null),
+                question(3L, Question.QuestionType.ESSAY, null)));
+
+        ExamAnswer pending = answer(2L, "答案");
+        ExamAnswer graded = answer(3L, "论述");
+        graded.setGradingStatus(ExamAnswer.GradingStatus.MANUAL_GRADED);
+        graded.setScore(new BigDecimal("7"));
+
+        AnswerKey.PaperGradeResult result = key.gradePaper(List.of(answer(1L, "A"), pending, graded));
+
+        assertTrue(result.isNeedManualGrading());
+        assertEquals(0, result.getObjectiveScore().compareTo(BigDecimal.TEN));
+        assertEquals(0, result.getSubjectiveScore().compareTo(new BigDecimal("7")));
+        assertEquals(1, result.getCorrectCount());
+        // 已人工评分的答案不会出现在评分结果中，不会被覆盖
+        assertEquals(2, result.getAnswerGrades().size());
+        AnswerKey.AnswerGrade pendingGrade = result.getAnswerGrades().get(1);
+        assertEquals(pending.getId(), pendingGrade.getAnswerId());
+        assertEquals(ExamAnswer.GradingStatus.PENDING, pendingGrade.getGradingStatus());
+        assertNull(pendingGrade.getScore());
+        assertNull(pendingGrade.getIsCorrect());
+    }
+
+    @Test
+    void answersOutsideTheCompetitionAreIgnored() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(question(1L, Question.QuestionType.SINGLE_CHOICE, "A")));
+
+        AnswerKey.PaperGradeResult result = key.gradePaper(List.of(answer(1L, "A"), answer(99L, "A")));
+
+        assertEquals(1, result.getAnswerGrades().size());
+        assertEquals(0, result.getObjectiveScore().compareTo(BigDecimal.TEN));
+        assertFalse(result.isNeedManualGrading());
+    }
+
+    @Test
+    void missingMaxScoreCountsAsZero() {
+        AnswerKey key = AnswerKey.compile(1L, List.of(question(1L, Question.QuestionType.SINGLE_CHOICE, "A")));
+        ExamAnswer answer = answer(1L, "A");
+        answer.setMaxScore(null);
+
+        AnswerKey.AnswerGrade grade = key.gradePaper(List.of(answer)).getAnswerGrades().get(0);
+
+        assertTrue(grade.getIsCorrect());
+        assertEquals(0, grade.getScore().compareTo(BigDecimal.ZERO));
+        assertEquals(ExamAnswer.GradingStatus.AUTO_GRADED, grade.getGradingStatus());
+    }
+
+    private void assertGrade(AnswerKey key, Long questionId, String content, boolean correct, String score) {
+        AnswerKey.PaperGradeResult result = key.gradePaper(List.of(answer(questionId, content)));
+        AnswerKey.AnswerGrade grade = result.getAnswerGrades().get(0);
+        assertEquals(correct, grade.getIsCorrect(), "作答: " + content);
+        assertEquals(0, grade.getScore().compareTo(new BigDecimal(score)), "作答: " + content + " 得分: " + grade.getScore());
+        assertEquals(ExamAnswer.GradingStatus.AUTO_GRADED, grade.getGradingStatus());
+        assertEquals(correct ? 1 : 0, result.getCorrectCount());
+    }
+
+    private static Question question(Long id, Question.QuestionType type, String correctAnswer) {
+        Question question = new Question();
+        question.setId(id);
+        question.setType(type);
+        question.setCorrectAnswer(correctAnswer);
+        return question;
+    }
+
+    private ExamAnswer answer(Long questionId, String content) {
+        ExamAnswer answer = new ExamAnswer();
+        answer.setId(nextAnswerId++);
+        answer.setQuestionId(questionId);
+        answer.setAnswerContent(content);
+        answer.setMaxScore(BigDecimal.TEN);
+        return answer;
+    }
+}
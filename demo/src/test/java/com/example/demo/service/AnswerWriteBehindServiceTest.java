@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 答案异步写入：定时写入与提交时同步写入交错、单行写入失败的处理
+ */
+class AnswerWriteBehindServiceTest {
+
+    private AnswerWriteBehindService service;
+    private FakeJdbcTemplate jdbcTemplate;
+    private Path journalDir;
+    private final List<Throwable> threadErrors = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journalDir = Files.createTempDirectory("answer-journal");
+        jdbcTemplate = new FakeJdbcTemplate();
+        service = new AnswerWriteBehindService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionTemplate", new DirectTransactionTemplate());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(service, "fsync", false);
+        ReflectionTestUtils.setField(service, "inFlightWaitMs", 5000L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jdbcTemplate.release.countDown();
+        service.shutdown();
+        try (var files = Files.walk(journalDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        assertTrue(threadErrors.isEmpty(), "后台线程异常: " + threadErrors);
+    }
+
+    @Test
+    void flushPaperWaitsForInFlightWriteThenWritesNewerAnswer() throws Exception {
+        service.enqueue(1L, 10L, "A");
+        jdbcTemplate.blockNextUpdate.set(true);
+        Thread background = start(service::flush);
+        assertTrue(jdbcTemplate.entered.await(5, TimeUnit.SECONDS));
+
+        // 正在写入的答案仍可读到
+        assertEquals("A", service.getPendingAnswers(1L).get(10L));
+
+        service.enqueue(1L, 10L, "B");
+        Thread submit = start(() -> service.flushPaper(1L));
+        submit.join(200);
+        assertTrue(submit.isAlive(), "flushPaper 应等待定时写入完成");
+
+        jdbcTemplate.release.countDown();
+        background.join(5000);
+        submit.join(5000);
+
+        assertEquals(List.of("1/10=A", "1/10=B"), jdbcTemplate.writes);
+        assertEquals("B", jdbcTemplate.rows.get("1/10"));
+        assertTrue(service.getPendingAnswers(1L).isEmpty());
+    }
+
+    @Test
+    void flushPaperTakesOverInFlightAnswersAfterTimeout() throws Exception {
+        ReflectionTestUtils.setField(service, "inFlightWaitMs", 100L);
+        service.enqueue(1L, 10L, "A");
+        jdbcTemplate.blockNextUpdate.set(true);
+        Thread background = start(service::flush);
+        assertTrue(jdbcTemplate.entered.await(5, TimeUnit.SECONDS));
+
+        service.flushPaper(1L);
+        assertEquals("A", jdbcTemplate.rows.get("1/10"));
+
+        jdbcTemplate.release.countDown();
+        background.join(5000);
+        assertTrue(service.getPendingAnswers(1L).isEmpty());
+    }
+
+    @Test
+    void onlyFailedRowsAreRequeued() {
+        service.enqueue(1L, 10L, "A");
+        service.enqueue(1L, 11L, "B");
+        service.enqueue(1L, 12L, "C");
+        jdbcTemplate.failingRows.add("1/11");
+
+        service.flush();
+
+        assertEquals(Map.of(11L, "B"), service.getPendingAnswers(1L));
+        assertEquals("A", jdbcTemplate.rows.get("1/10"));
+        assertEquals("C", jdbcTemplate.rows.get("1/12"));
+
+        jdbcTemplate.failingRows.clear();
+        service.flush();
+
+        assertTrue(service.getPendingAnswers(1L).isEmpty());
+        assertEquals("B", jdbcTemplate.rows.get("1/11"));
+    }
+
+    @Test
+    void failedInFlightAnswerDoesNotReplaceNewerSave() throws Exception {
+        service.enqueue(1L, 10L, "A");
+        jdbcTemplate.failingRows.add("1/10");
+        jdbcTemplate.blockNextUpdate.set(true);
+        Thread background = start(service::flush);
+        assertTrue(jdbcTemplate.entered.await(5, TimeUnit.SECONDS));
+
+        service.enqueue(1L, 10L, "B");
+        jdbcTemplate.release.countDown();
+        background.join(5000);
+
+        assertEquals("B", service.getPendingAnswers(1L).get(10L));
+
+        jdbcTemplate.failingRows.clear();
+        service.flushPaper(1L);
+
+        assertEquals(List.of("1/10=B"), jdbcTemplate.writes);
+        assertTrue(service.getPendingAnswers(1L).isEmpty());
+    }
+
+    private Thread start(Runnable task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                threadErrors.add(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * 内存中的 exam_answers：按"考卷ID/题目ID"记录答案，可模拟阻塞和单行失败
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+        final Map<String, String> rows = new ConcurrentHashMap<>();
+        final List<String> writes = new CopyOnWriteArrayList<>();
+        final Set<String> failingRows = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean blockNextUpdate = new AtomicBoolean();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            if (blockNextUpdate.compareAndSet(true, false)) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            List<Object[]> bound = new ArrayList<>();
+            for (T item : batchArgs) {
+                bound.add(bind(pss, item));
+            }
+            for (Object[] params : bound) {
+                if (failingRows.contains(params[3] + "/" + params[4])) {
+                    throw new DataIntegrityViolationException("写入失败: " + params[3] + "/" + params[4]);
+                }
+            }
+
+            int[] counts = new int[bound.size()];
+            for (int i = 0; i < bound.size(); i++) {
+                Object[] params = bound.get(i);
+                String key = params[3] + "/" + params[4];
+                rows.put(key, (String) params[1]);
+                writes.add(key + "=" + params[1]);
+                counts[i] = 1;
+            }
+            return new int[][]{counts};
+        }
+
+        private static <T> Object[] bind(ParameterizedPreparedStatementSetter<T> pss, T item) {
+            Object[] params = new Object[6];
+            PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length == 2) {
+                            params[(Integer) args[0]] = args[1];
+                        }
+                        return null;
+                    });
+            try {
+                pss.setValues(ps, item);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return params;
+        }
+    }
+
+    /**
+     * 直接执行回调的事务模板
+     */
+    private static class DirectTransactionTemplate extends TransactionTemplate {
+        @Override
+        public void executeWithoutResult(Consumer<TransactionStatus> action) {
+            action.accept(null);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 答题接口准入：频率限制与并发许可
+ */
+class ExamAdmissionServiceTest {
+
+    private ExamAdmissionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ExamAdmissionService();
+        ReflectionTestUtils.setField(service, "rateLimitBackend", new InMemoryRateLimitBackend());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "userRatePerSecond", 0.001);
+        ReflectionTestUtils.setField(service, "userBurst", 2);
+        ReflectionTestUtils.setField(service, "configuredMaxConcurrent", 1);
+        ReflectionTestUtils.setField(service, "acquireTimeoutMs", 10L);
+        ReflectionTestUtils.setField(service, "retryAfterSeconds", 1);
+        service.init();
+    }
+
+    @Test
+    void overloadRejectionsDoNotSpendRateLimitTokens() {
+        assertTrue(service.tryAdmit("other").isAdmitted());
+
+        for (int i = 0; i < 5; i++) {
+            ExamAdmissionService.Decision decision = service.tryAdmit("student");
+            assertFalse(decision.isAdmitted());
+            assertEquals("当前答题人数较多，请稍后重试", decision.getMessage());
+        }
+        service.release();
+
+        for (int i = 0; i < 2; i++) {
+            ExamAdmissionService.Decision decision = service.tryAdmit("student");
+            assertTrue(decision.isAdmitted());
+            assertTrue(decision.holdsPermit());
+            service.release();
+        }
+        ExamAdmissionService.Decision limited = service.tryAdmit("student");
+        assertFalse(limited.isAdmitted());
+        assertEquals("请求过于频繁，请稍后再试", limited.getMessage());
+    }
+
+    @Test
+    void rateLimitedRequestsDoNotTakePermits() {
+        assertTrue(service.tryAdmit("student").isAdmitted());
+        service.release();
+        assertTrue(service.tryAdmit("student").isAdmitted());
+        service.release();
+
+        assertFalse(service.tryAdmit("student").isAdmitted());
+        assertEquals(1, service.getStats().get("availablePermits"));
+        assertTrue(service.tryAdmit("other").isAdmitted());
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存排行榜：并列名次、成绩更新、分页和与朴素排序的一致性
+ */
+class LeaderboardTest {
+
+    @Test
+    void tiedScoresShareRankAndNextRankSkips() {
+        Leaderboard board = new Leaderboard(1L, "竞赛");
+        board.put(entry(2L, "80"));
+        board.put(entry(4L, "70"));
+        board.put(entry(1L, "80"));
+        board.put(entry(3L, "90"));
+
+        assertEquals(List.of(3L, 1L, 2L, 4L), teamIds(board.top(10)));
+        assertEquals(List.of(1, 2, 2, 4), ranks(board.top(10)));
+        assertEquals(List.of(1, 2, 2, 3), denseRanks(board.top(10)));
+        assertEquals(2, board.getRank(2L).getRank());
+        assertEquals(3, board.getRank(4L).getDenseRank());
+        assertEquals(4, board.size());
+    }
+
+    @Test
+    void scoresCompareByValueNotScale() {
+        Leaderboard board = new Leaderboard(1L, "竞赛");
+        board.put(entry(1L, "80.0"));
+        board.put(entry(2L, "80"));
+
+        assertEquals(1, board.getRank(1L).getRank());
+        assertEquals(1, board.getRank(2L).getRank());
+        assertEquals(1, board.getRank(2L).getDenseRank());
+    }
+
+    @Test
+    void updatingScoreMovesTeamAndNullScoreRemovesIt() {
+        Leaderboard board = new Leaderboard(1L, "竞赛");
+        board.put(entry(1L, "90"));
+        board.put(entry(2L, "80"));
+        board.put(entry(3L, "70"));
+
+        board.put(entry(3L, "95"));
+        assertEquals(List.of(3L, 1L, 2L), teamIds(board.top(10)));
+        assertEquals(3, board.size());
+
+        board.put(entry(1L, null));
+        assertNull(board.getRank(1L));
+        assertEquals(List.of(3L, 2L), teamIds(board.top(10)));
+        assertEquals(2, board.getRank(2L).getRank());
+
+        assertTrue(board.remove(2L));
+        assertFalse(board.remove(2L));
+        assertEquals(1, board.size());
+    }
+
+    @Test
+    void pageAndAroundUsePositions() {
+        Leaderboard board = new Leaderboard(1L, "竞赛");
+        for (long teamId = 1; teamId <= 10; teamId++) {
+            board.put(entry(teamId, String.valueOf(100 - teamId / 2 * 10)));
+        }
+
+        // 分数: 团队1=100, 团队2/3=90, 团队4/5=80, 团队6/7=70 ...
+        List<Leaderboard.RankedEntry> page = board.page(2, 3);
+        assertEquals(List.of(3L, 4L, 5L), teamIds(page));
+        assertEquals(List.of(2, 4, 4), ranks(page));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), teamIds(board.around(3L, 2)));
+        assertEquals(List.of(1L, 2L), teamIds(board.around(1L, 1)));
+        assertTrue(board.around(99L, 2).isEmpty());
+        assertTrue(board.page(20, 5).isEmpty());
+        assertTrue(board.page(0, 0).isEmpty());
+    }
+
+    @Test
+    void onlyChangedRankingsAreReportedUntilPersisted() {
+        Leaderboard board = new Leaderboard(1L, "竞赛");
+        board.put(new Leaderboard.Entry(101L, 1L, "团队1", new BigDecimal("90"), true, null, 1));
+        board.put(new Leaderboard.Entry(102L, 2L, "团队2", new BigDecimal("80"), true, null, 2));
+
+        assertTrue(board.changedRankings().isEmpty());
+
+        // 更新成绩时未携带名次，沿用已持久化的名次
+        board.put(new Leaderboard.Entry(102L, 2L, "团队2", new BigDecimal("95"), true, null, null));
+        Map<Long, Integer> changed = board.changedRankings();
+        assertEquals(Map.of(101L, 2, 102L, 1), changed);
+
+        board.markPersisted(changed);
+        assertTrue(board.changedRankings().isEmpty());
+    }
+
+    @Test
+    void matchesNaiveRankingAfterRandomUpdates() {
+        Leaderboard board = new Leaderboard(1L, "竞赛");
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 3000; i++) {
+            long teamId = random.nextInt(200);
+            if (random.nextInt(10) == 0) {
+                assertEquals(expected.remove(teamId) != null, board.remove(teamId));
+            } else {
+                int score = random.nextInt(50);
+                expected.put(teamId, score);
+                board.put(entry(teamId, String.valueOf(score)));
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        List<Leaderboard.RankedEntry> all = board.top(sorted.size() + 1);
+        assertEquals(sorted.size(), all.size());
+        assertEquals(sorted.size(), board.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            Long teamId = sorted.get(i).getKey();
+            int score = sorted.get(i).getValue();
+            int rank = 1 + (int) expected.values().stream().filter(s -> s > score).count();
+            int denseRank = 1 + (int) expected.values().stream().filter(s -> s > score).distinct().count();
+
+            assertEquals(teamId, all.get(i).getEntry().getTeamId());
+            assertEquals(rank, all.get(i).getRank());
+            assertEquals(denseRank, all.get(i).getDenseRank());
+            Leaderboard.RankedEntry ranked = board.getRank(teamId);
+            assertEquals(rank, ranked.getRank());
+            assertEquals(denseRank, ranked.getDenseRank());
+        }
+    }
+
+    private static Leaderboard.Entry entry(Long teamId, String score) {
+        return new Leaderboard.Entry(teamId + 100, teamId, "团队" + teamId,
+                score == null ? null : new BigDecimal(score), true, null, null);
+    }
+
+    private static List<Long> teamIds(List<Leaderboard.RankedEntry> entries) {
+        return entries.stream().map(ranked -> ranked.getEntry().getTeamId()).toList();
+    }
+
+    private static List<Integer> ranks(List<Leaderboard.RankedEntry> entries) {
+        return entries.stream().map(Leaderboard.RankedEntry::getRank).toList();
+    }
+
+    private static List<Integer> denseRanks(List<Leaderboard.RankedEntry> entries) {
+        return entries.stream().map(Leaderboard.RankedEntry::getDenseRank).toList();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.util.JwtPrincipal;
+import com.example.demo.util.JwtUtil;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌作废：作废、重复使用识别、持久化恢复、过期清理与布隆过滤器重建
+ */
+class TokenRevocationServiceTest {
+
+    private FakeJdbcTemplate database;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        database = new FakeJdbcTemplate();
+        service = newService();
+    }
+
+    private TokenRevocationService newService() {
+        TokenRevocationService revocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(revocationService, "jwtUtil", new FakeJwtUtil());
+        ReflectionTestUtils.setField(revocationService, "jdbcTemplate", database);
+        ReflectionTestUtils.setField(revocationService, "expectedEntries", 1000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.01);
+        revocationService.init();
+        return revocationService;
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndOthersAreNot() {
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        assertTrue(service.revoke("jti-1", expiresAt));
+
+        assertTrue(service.isRevoked("jti-1"));
+        assertFalse(service.isRevoked("jti-2"));
+        assertFalse(service.isRevoked(null));
+        assertFalse(service.revoke(null, expiresAt));
+    }
+
+    @Test
+    void revokingTwiceReportsReuse() {
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        assertTrue(service.revoke("refresh-1", expiresAt));
+        assertFalse(service.revoke("refresh-1", expiresAt));
+        assertTrue(service.isRevoked("refresh-1"));
+    }
+
+    @Test
+    void revocationsSurviveRestart() {
+        long now = System.currentTimeMillis();
+        service.revoke("refresh-1", now + 60000);
+        service.revoke("expired", now - 1);
+
+        TokenRevocationService restarted = newService();
+
+        assertTrue(restarted.isRevoked("refresh-1"));
+        assertFalse(restarted.revoke("refresh-1", now + 60000));
+        assertFalse(restarted.isRevoked("expired"));
+        assertEquals(1, restarted.getStats().get("revokedTokens"));
+    }
+
+    @Test
+    void tokenRevokedByAnotherInstanceReportsReuse() {
+        long expiresAt = System.currentTimeMillis() + 60000;
+        TokenRevocationService other = newService();
+
+        assertTrue(other.revoke("refresh-1", expiresAt));
+        assertFalse(service.revoke("refresh-1", expiresAt));
+        assertTrue(service.isRevoked("refresh-1"));
+    }
+
+    @Test
+    void failedWriteDoesNotRevoke() {
+        database.failWrites = true;
+
+        assertThrows(RuntimeException.class, () -> service.revoke("refresh-1", System.currentTimeMillis() + 60000));
+        assertFalse(service.isRevoked("refresh-1"));
+    }
+
+    @Test
+    void purgeExpiredDropsOnlyExpiredEntriesAndRebuildsFilter() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 200; i++) {
+            service.revoke("expired-" + i, now - 1);
+            service.revoke("live-" + i, now + 60000);
+        }
+
+        service.purgeExpired();
+
+        assertEquals(200, service.getStats().get("revokedTokens"));
+        assertEquals(200, database.rows.size());
+        for (int i = 0; i < 200; i++) {
+            assertTrue(service.isRevoked("live-" + i), "live-" + i);
+            assertFalse(service.isRevoked("expired-" + i), "expired-" + i);
+        }
+        // 清理后过期令牌ID可以重新登记
+        assertTrue(service.revoke("expired-0", now + 60000));
+    }
+
+    @Test
+    void filterHasNoFalseNegativesBeyondExpectedEntriesAndScreensMostLookups() {
+        ReflectionTestUtils.setField(service, "expectedEntries", 16);
+        service.init();
+        long expiresAt = System.currentTimeMillis() + 60000;
+        for (int i = 0; i < 1000; i++) {
+            service.revoke("revoked-" + i, expiresAt);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(service.isRevoked("revoked-" + i));
+        }
+
+        // 容量不足时过滤器几乎全部命中，重建后按剩余记录数扩容
+        service.revoke("expired", System.currentTimeMillis() - 1);
+        service.purgeExpired();
+        Map<String, Object> before = service.getStats();
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(service.isRevoked("unknown-" + i));
+            assertTrue(service.isRevoked("revoked-" + i));
+        }
+        Map<String, Object> after = service.getStats();
+        long bloomHits = (Long) after.get("bloomHits") - (Long) before.get("bloomHits");
+        assertTrue(bloomHits < 1100, "布隆过滤器命中次数: " + bloomHits);
+    }
+
+    @Test
+    void revokeTokenUsesTokenIdAndIgnoresInvalidTokens() {
+        service.revokeToken("refresh-token");
+        service.revokeToken("not-a-token");
+        service.revokeToken(" ");
+        service.revokeToken(null);
+
+        assertTrue(service.isRevoked("jti-refresh-token"));
+        assertEquals(1, service.getStats().get("revokedTokens"));
+    }
+
+    /**
+     * 令牌解析：除 "not-a-token" 外，令牌ID为 "jti-" + 令牌内容
+     */
+    private static class FakeJwtUtil extends JwtUtil {
+        @Override
+        public JwtPrincipal verifyToken(String token) {
+            if ("not-a-token".equals(token)) {
+                throw new MalformedJwtException("令牌格式错误");
+            }
+            return new JwtPrincipal("student", 1L, "STUDENT", System.currentTimeMillis() + 60000,
+                    "jti-" + token, TOKEN_TYPE_REFRESH, 0);
+        }
+    }
+
+    /**
+     * revoked_tokens 表：只支持 TokenRevocationService 使用的三条语句
+     */
+    private static class FakeJdbcTemplate extends JdbcTemplate {
+
+        final Map<String, Long> rows = new ConcurrentHashMap<>();
+        boolean failWrites;
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT")) {
+                if (failWrites) {
+                    throw new DataAccessResourceFailureException("数据库不可用");
+                }
+                if (rows.putIfAbsent((String) args[0], (Long) args[1]) != null) {
+                    throw new DuplicateKeyException("重复的令牌ID: " + args[0]);
+                }
+                return 1;
+            }
+            if (sql.startsWith("DELETE")) {
+                long now = (Long) args[0];
+                int before = rows.size();
+                rows.values().removeIf(expiresAt -> expiresAt <= now);
+                return before - rows.size();
+            }
+            throw new UnsupportedOperationException(sql);
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            long now = (Long) args[0];
+            List<Map<String, Object>> result = new ArrayList<>();
+            rows.forEach((tokenId, expiresAt) -> {
+                if (expiresAt > now) {
+                    result.add(Map.of("token_id", tokenId, "expires_at", expiresAt));
+                }
+            });
+            return result;
+        }
+    }
+}
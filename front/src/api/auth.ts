@@ -22,14 +22,14 @@ export const getCurrentUser = () => {
   return request.get<User>('/api/users/profile')
 }
 
-// 刷新Token
-export const refreshToken = () => {
-  return request.post<UserLoginResponse>('/api/users/refresh-token')
+// 使用刷新令牌换取新的访问令牌
+export const refreshToken = (refreshToken: string) => {
+  return request.post<UserLoginResponse>('/api/users/refresh-token', { refreshToken })
 }
 
-// 用户登出
-export const logout = () => {
-  return request.post('/api/users/logout')
+// 用户登出（服务端同时作废访问令牌和刷新令牌）
+export const logout = (refreshToken?: string | null) => {
+  return request.post('/api/users/logout', { refreshToken })
 }
 
 // 修改密码
@@ -1,8 +1,11 @@
 import { request } from '@/utils/request'
 
-// 获取待评分列表
-export const getPendingGrading = (competitionId?: number) => {
-  const params = competitionId ? { competitionId } : undefined
+// 获取待评分列表（按考卷ID游标分页，afterId 传上一页返回的 nextAfterId）
+export const getPendingGrading = (competitionId?: number, afterId?: number, size?: number) => {
+  const params: Record<string, number> = {}
+  if (competitionId) params.competitionId = competitionId
+  if (afterId) params.afterId = afterId
+  if (size) params.size = size
   return request.get('/api/scores/pending-grading', params)
 }
 
@@ -41,3 +44,9 @@ export const recalculateRanking = (competitionId: number) => {
 export const recalculateAllRankings = () => {
   return request.post('/api/scores/recalculate-all-rankings')
 }
+
+// 获取竞赛试题分析（refresh 为 true 时强制重新计算）
+export const getItemAnalysis = (competitionId: number, refresh?: boolean) => {
+  const params = refresh ? { refresh } : undefined
+  return request.get(`/api/scores/competitions/${competitionId}/item-analysis`, params)
+}
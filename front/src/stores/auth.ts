@@ -8,6 +8,10 @@ import { UserRole } from '@/types/user'
 export const useAuthStore = defineStore('auth', () => {
   // 状态
   const token = ref<string | null>(localStorage.getItem('token'))
+  // 刷新令牌：访问令牌过期前用它换取新令牌，无需重新输入密码
+  const refreshTokenValue = ref<string | null>(localStorage.getItem('refreshToken'))
+  // 正在进行的刷新请求，并发请求共用一次刷新（刷新令牌只能使用一次）
+  let refreshing: Promise<boolean> | null = null
   const user = ref<User | null>(null)
   const loading = ref(false)
 
@@ -41,6 +45,10 @@ export const useAuthStore = defineStore('auth', () => {
         
         // 保存token到localStorage
         localStorage.setItem('token', responseData.token)
+        if (responseData.refreshToken) {
+          refreshTokenValue.value = responseData.refreshToken
+          localStorage.setItem('refreshToken', responseData.refreshToken)
+        }
         
         console.log('登录成功，用户信息:', user.value)
         ElMessage.success('登录成功')
@@ -92,16 +100,19 @@ export const useAuthStore = defineStore('auth', () => {
   // 登出
   const logout = async () => {
     try {
-      if (token.value) {
-        await authApi.logout()
+      syncRefreshTokenFromStorage()
+      if (token.value || refreshTokenValue.value) {
+        await authApi.logout(refreshTokenValue.value)
       }
     } catch (error) {
       console.error('登出请求失败:', error)
     } finally {
       // 清除本地状态
       token.value = null
+      refreshTokenValue.value = null
       user.value = null
       localStorage.removeItem('token')
+      localStorage.removeItem('refreshToken')
       ElMessage.success('已退出登录')
     }
   }
@@ -155,19 +166,44 @@ export const useAuthStore = defineStore('auth', () => {
   }
 
   // 刷新Token
-  const refreshToken = async (): Promise<boolean> => {
-    if (!token.value) {
-      console.warn('没有 token，无法刷新')
-      return false
+  const refreshToken = (): Promise<boolean> => {
+    // 刷新令牌只能使用一次，其他标签页可能已轮换，以 localStorage 中的最新值为准
+    syncRefreshTokenFromStorage()
+    if (!refreshTokenValue.value) {
+      console.warn('没有刷新令牌，无法刷新')
+      return Promise.resolve(false)
     }
-    
+    if (!refreshing) {
+      refreshing = doRefreshToken(refreshTokenValue.value).finally(() => {
+        refreshing = null
+      })
+    }
+    return refreshing
+  }
+
+  const syncRefreshTokenFromStorage = () => {
+    const storedRefreshToken = localStorage.getItem('refreshToken')
+    if (storedRefreshToken && storedRefreshToken !== refreshTokenValue.value) {
+      refreshTokenValue.value = storedRefreshToken
+      const storedToken = localStorage.getItem('token')
+      if (storedToken) {
+        token.value = storedToken
+      }
+    }
+  }
+
+  const doRefreshToken = async (currentRefreshToken: string, retried = false): Promise<boolean> => {
     try {
       console.log('开始刷新 token...')
-      const response = await authApi.refreshToken()
-      if (response.success && response.data) {
-        const refreshData = response.data
+      const response = await authApi.refreshToken(currentRefreshToken)
+      const refreshData = response as any
+      if (refreshData.success && refreshData.token) {
         token.value = refreshData.token
         localStorage.setItem('token', refreshData.token)
+        if (refreshData.refreshToken) {
+          refreshTokenValue.value = refreshData.refreshToken
+          localStorage.setItem('refreshToken', refreshData.refreshToken)
+        }
         console.log('Token 刷新成功')
         return true
       }
@@ -176,8 +212,22 @@ export const useAuthStore = defineStore('auth', () => {
     } catch (error: any) {
       console.error('刷新Token失败:', error)
       
-      // Token刷新失败，清除本地状态
       if (error.response?.status === 401) {
+        // 其他标签页已轮换刷新令牌：改用新令牌重试一次
+        if (!retried) {
+          syncRefreshTokenFromStorage()
+          if (refreshTokenValue.value === currentRefreshToken) {
+            // 其他标签页可能正在刷新，稍等后再读取
+            await new Promise((resolve) => setTimeout(resolve, 1000))
+            syncRefreshTokenFromStorage()
+          }
+          if (refreshTokenValue.value && refreshTokenValue.value !== currentRefreshToken) {
+            console.log('刷新令牌已被其他标签页轮换，使用新令牌重试')
+            return doRefreshToken(refreshTokenValue.value, true)
+          }
+        }
+
+        // Token刷新失败，清除本地状态
         console.log('Token 刷新失败: 401 未授权')
         ElMessage.warning('登录已过期，请重新登录')
         await logout()
@@ -298,8 +348,10 @@ export const useAuthStore = defineStore('auth', () => {
       if (error.message?.includes('认证令牌无效') || error.response?.status === 401) {
         console.log('Token已过期，清除本地状态')
         token.value = null
+        refreshTokenValue.value = null
         user.value = null
         localStorage.removeItem('token')
+        localStorage.removeItem('refreshToken')
       }
       
       return false
@@ -77,6 +77,8 @@ export interface UserLoginRequest {
 // 用户登录响应
 export interface UserLoginResponse {
   token: string
+  refreshToken?: string
+  expiresIn?: number
   user: User
 }
 
@@ -33,29 +33,26 @@ service.interceptors.request.use(
           const currentTime = Date.now()
           const timeUntilExpiry = expirationTime - currentTime
           
-          // 如果 token 在 5 分钟内过期，尝试刷新
-          if (timeUntilExpiry > 0 && timeUntilExpiry < 5 * 60 * 1000) {
+          // 如果 token 在 5 分钟内过期（或已过期），用刷新令牌换取新 token
+          if (timeUntilExpiry < 5 * 60 * 1000) {
             console.log('Token 即将过期，尝试刷新...', {
               剩余时间: Math.floor(timeUntilExpiry / 1000) + '秒'
             })
             
             // 避免在刷新 token 的请求中再次触发刷新
             if (!config.url?.includes('/refresh-token')) {
-              const refreshed = await authStore.refreshToken()
-              if (refreshed && authStore.token) {
-                config.headers.Authorization = `Bearer ${authStore.token}`
-                console.log('Token 刷新成功')
-              }
+              await authStore.refreshToken()
             }
-          } else if (timeUntilExpiry <= 0) {
-            console.warn('Token 已过期，需要重新登录')
           }
         }
       } catch (error) {
         console.error('检查 token 过期时间失败:', error)
       }
       
-      config.headers.Authorization = `Bearer ${token}`
+      // 刷新成功时使用新 token
+      if (authStore.token) {
+        config.headers.Authorization = `Bearer ${authStore.token}`
+      }
     }
 
     return config
@@ -141,6 +138,11 @@ service.interceptors.response.use(
       
       switch (status) {
         case 401:
+          // 刷新令牌失败由 authStore.refreshToken 处理（可能需要用其他标签页轮换后的令牌重试）
+          if (response.config?.url?.includes('/refresh-token')) {
+            break
+          }
+
           // 更详细的 401 错误处理
           const errorMessage = data?.message || '登录状态已过期'
           